@@ -7,6 +7,7 @@ package at.ac.ait.lablink.core.client.ci.mqtt;
 
 import at.ac.ait.lablink.core.service.ELlServiceProperties;
 import at.ac.ait.lablink.core.service.IImplementedService;
+import at.ac.ait.lablink.core.service.IServiceStateChangeBooleanNotifier;
 import at.ac.ait.lablink.core.service.IServiceStateChangeNotifier;
 import at.ac.ait.lablink.core.service.LlServiceBoolean;
 import at.ac.ait.lablink.core.service.datapoint.IDataPoint;
@@ -24,7 +25,7 @@ import java.util.Arrays;
  * Boolean data point for MQTT.
  */
 public class MqttDataPointBoolean implements IMqttDataPoint, IImplementedService<Boolean>,
-    IServiceStateChangeNotifier<LlServiceBoolean, Boolean> {
+    IServiceStateChangeNotifier<LlServiceBoolean, Boolean>, IServiceStateChangeBooleanNotifier {
 
   /** The Constant logger. */
   private static final Logger logger = LogManager.getLogger("MqttDataPointBoolean");
@@ -150,7 +151,16 @@ public class MqttDataPointBoolean implements IMqttDataPoint, IImplementedService
   public void stateChanged(LlServiceBoolean service, Boolean oldVal, Boolean newVal) {
     logger.debug(
         "Notifier -> State Changed for " + service.getName() + " from " + oldVal + " to " + newVal);
-    this.dataPoint.setValue(newVal);
+    this.dataPoint.setBoolean(newVal);
+  }
+
+  @Override
+  public void stateChanged(LlServiceBoolean service, boolean oldVal, boolean newVal) {
+    if (logger.isDebugEnabled()) {
+      logger.debug("Notifier -> State Changed for " + service.getName() + " from " + oldVal
+          + " to " + newVal);
+    }
+    this.dataPoint.setBoolean(newVal);
   }
 
 }
@@ -7,6 +7,7 @@ package at.ac.ait.lablink.core.client.ci.mqtt;
 
 import at.ac.ait.lablink.core.service.ELlServiceProperties;
 import at.ac.ait.lablink.core.service.IImplementedService;
+import at.ac.ait.lablink.core.service.IServiceStateChangeDoubleNotifier;
 import at.ac.ait.lablink.core.service.IServiceStateChangeNotifier;
 import at.ac.ait.lablink.core.service.LlServiceDouble;
 import at.ac.ait.lablink.core.service.datapoint.IDataPoint;
@@ -24,7 +25,7 @@ import java.util.Arrays;
  * Double data point for MQTT.
  */
 public class MqttDataPointDouble implements IMqttDataPoint, IImplementedService<Double>,
-    IServiceStateChangeNotifier<LlServiceDouble, Double> {
+    IServiceStateChangeNotifier<LlServiceDouble, Double>, IServiceStateChangeDoubleNotifier {
 
   /** The Constant logger. */
   private static final Logger logger = LogManager.getLogger("MqttDataPointDouble");
@@ -147,7 +148,16 @@ public class MqttDataPointDouble implements IMqttDataPoint, IImplementedService<
   public void stateChanged(LlServiceDouble service, Double oldVal, Double newVal) {
     logger.debug(
         "Notifier -> State Changed for " + service.getName() + " from " + oldVal + " to " + newVal);
-    this.dataPoint.setValue(newVal);
+    this.dataPoint.setDouble(newVal);
+  }
+
+  @Override
+  public void stateChanged(LlServiceDouble service, double oldVal, double newVal) {
+    if (logger.isDebugEnabled()) {
+      logger.debug("Notifier -> State Changed for " + service.getName() + " from " + oldVal
+          + " to " + newVal);
+    }
+    this.dataPoint.setDouble(newVal);
   }
 
 }
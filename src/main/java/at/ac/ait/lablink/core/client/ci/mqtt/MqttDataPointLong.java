@@ -7,6 +7,7 @@ package at.ac.ait.lablink.core.client.ci.mqtt;
 
 import at.ac.ait.lablink.core.service.ELlServiceProperties;
 import at.ac.ait.lablink.core.service.IImplementedService;
+import at.ac.ait.lablink.core.service.IServiceStateChangeLongNotifier;
 import at.ac.ait.lablink.core.service.IServiceStateChangeNotifier;
 import at.ac.ait.lablink.core.service.LlServiceLong;
 import at.ac.ait.lablink.core.service.datapoint.IDataPoint;
@@ -24,7 +25,7 @@ import java.util.Arrays;
  * Long data point for MQTT.
  */
 public class MqttDataPointLong implements IMqttDataPoint, IImplementedService<Long>,
-    IServiceStateChangeNotifier<LlServiceLong, Long> {
+    IServiceStateChangeNotifier<LlServiceLong, Long>, IServiceStateChangeLongNotifier {
 
   /** The Constant logger. */
   private static final Logger logger = LogManager.getLogger("MqttDataPointLong");
@@ -149,7 +150,16 @@ public class MqttDataPointLong implements IMqttDataPoint, IImplementedService<Lo
   public void stateChanged(LlServiceLong service, Long oldVal, Long newVal) {
     logger.debug(
         "Notifier -> State Changed for " + service.getName() + " from " + oldVal + " to " + newVal);
-    this.dataPoint.setValue(newVal);
+    this.dataPoint.setLong(newVal);
+  }
+
+  @Override
+  public void stateChanged(LlServiceLong service, long oldVal, long newVal) {
+    if (logger.isDebugEnabled()) {
+      logger.debug("Notifier -> State Changed for " + service.getName() + " from " + oldVal
+          + " to " + newVal);
+    }
+    this.dataPoint.setLong(newVal);
   }
 
 }
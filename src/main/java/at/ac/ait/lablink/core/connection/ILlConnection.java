@@ -63,4 +63,28 @@ public interface ILlConnection
    * @return The client identifier of the Lablink connection.
    */
   ClientIdentifier getClientIdentifier();
+
+  /**
+   * Get the sequence number of the callback execution that runs in the calling thread.
+   *
+   * <p>The callbacks of received messages and requests are executed in the order of their
+   * reception, but several of them may run in parallel. Every execution has a sequence number.
+   *
+   * @return the sequence number of the execution or 0 if the calling thread doesn't execute a
+   *     callback of the connection.
+   */
+  long getCurrentCallbackExecution();
+
+  /**
+   * Wait until the callbacks of all executions up to a sequence number have been executed.
+   *
+   * <p>The method must not be called by a callback, it would wait for itself.
+   *
+   * @param sequence sequence number of the last execution to wait for (see
+   *                 {@link #getCurrentCallbackExecution()})
+   * @param timeout  maximum time to wait in milliseconds
+   * @return true if the callbacks have been executed, false if the timeout elapsed
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  boolean awaitCallbackExecutions(long sequence, long timeout) throws InterruptedException;
 }
@@ -8,6 +8,7 @@ package at.ac.ait.lablink.core.connection.dispatching;
 import at.ac.ait.lablink.core.connection.encoding.IEncodable;
 import at.ac.ait.lablink.core.connection.encoding.encodables.Header;
 import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.connection.encoding.encodables.LazyPayloadList;
 import at.ac.ait.lablink.core.connection.encoding.encodables.Packet;
 import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
 import at.ac.ait.lablink.core.payloads.ErrorMessage;
@@ -23,7 +24,9 @@ import java.util.List;
  * Abstract base class for Callback Executor
  *
  * <p>This base class implements the common methods for handling incoming packets. It will
- * execute available callbacks and handles the errors.
+ * execute available callbacks and handles the errors. After the callbacks have been executed
+ * the decoded packet is released ({@link Packet#release()}). Afterwards the packet and its
+ * payloads may be recycled and must not be used anymore.
  */
 public abstract class CallbackExecutor {
 
@@ -103,6 +106,10 @@ public abstract class CallbackExecutor {
     }
 
     executeErrors(header, this.errors);
+
+    if (decodedPacket instanceof Packet) {
+      ((Packet) decodedPacket).release();
+    }
   }
 
   /**
@@ -134,6 +141,15 @@ public abstract class CallbackExecutor {
 
     List<ErrorMessage> extractedErrorMsg = new ArrayList<ErrorMessage>();
 
+    // Lazy payloads are checked by their type without decoding them
+    if (payloads instanceof LazyPayloadList) {
+      for (IPayload pl : ((LazyPayloadList) payloads)
+          .removeByType(ErrorMessage.getClassType())) {
+        extractedErrorMsg.add((ErrorMessage) pl);
+      }
+      return extractedErrorMsg;
+    }
+
     for (IPayload pl : payloads) {
       if (pl instanceof ErrorMessage) {
         extractedErrorMsg.add((ErrorMessage) pl);
@@ -11,12 +11,19 @@ import org.apache.commons.configuration.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Manager for handling the callback executions of incoming messages.
+ *
+ * <p>Every callback execution gets a sequence number in the order it is added. The executions run
+ * in parallel, therefore a caller can wait until all executions up to a sequence number have been
+ * completed ({@link #awaitExecutions(long, long)}), e.g., to be sure that the callbacks of all
+ * messages that were received before a certain message have been executed.
  */
 public class CallbackExecutorManager {
 
@@ -30,6 +37,14 @@ public class CallbackExecutorManager {
 
   private int numberOfExecutionThreads = -1;
 
+  /* Sequence number of the last added execution, guarded by pendingExecutions */
+  private long lastExecution = 0;
+  /* Sequence numbers of the executions that haven't been completed */
+  private final ConcurrentSkipListSet<Long> pendingExecutions = new ConcurrentSkipListSet<Long>();
+  /* Number of threads waiting for completed executions, completions only notify if non-zero */
+  private final AtomicInteger waitingThreads = new AtomicInteger();
+  private final ThreadLocal<Long> currentExecution = new ThreadLocal<Long>();
+
   /**
    * Constructor.
    *
@@ -88,7 +103,72 @@ public class CallbackExecutorManager {
    */
   public void addNewCallbackExecution(CallbackExecutor callback) {
     logger.trace("New Executor is added for execution: {}", callback);
-    executor.execute(new CallbackExecutorConsumer(callback));
+    long sequence;
+    synchronized (pendingExecutions) {
+      sequence = ++lastExecution;
+      pendingExecutions.add(sequence);
+    }
+    try {
+      executor.execute(new CallbackExecutorConsumer(callback, sequence));
+    } catch (RuntimeException ex) {
+      completeExecution(sequence);
+      throw ex;
+    }
+  }
+
+  /**
+   * Get the sequence number of the callback execution that runs in the calling thread.
+   *
+   * @return the sequence number of the execution or 0 if the calling thread doesn't execute a
+   *     callback.
+   */
+  public long getCurrentExecution() {
+    Long sequence = currentExecution.get();
+    return sequence != null ? sequence : 0;
+  }
+
+  /**
+   * Wait until all callback executions up to a sequence number have been completed.
+   *
+   * <p>The method must not be called by a callback execution with a smaller or equal sequence
+   * number, which would wait for itself.
+   *
+   * @param sequence sequence number of the last execution to wait for
+   * @param timeout  maximum time to wait in milliseconds
+   * @return true if the executions have been completed, false if the timeout elapsed
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  public boolean awaitExecutions(long sequence, long timeout) throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + timeout;
+    waitingThreads.incrementAndGet();
+    try {
+      synchronized (waitingThreads) {
+        while (isPending(sequence)) {
+          long remaining = deadline - System.currentTimeMillis();
+          if (remaining <= 0) {
+            return false;
+          }
+          waitingThreads.wait(remaining);
+        }
+      }
+      return true;
+    } finally {
+      waitingThreads.decrementAndGet();
+    }
+  }
+
+  private boolean isPending(long sequence) {
+    Long oldest = pendingExecutions.ceiling(Long.MIN_VALUE);
+    return oldest != null && oldest <= sequence;
+  }
+
+  private void completeExecution(long sequence) {
+    pendingExecutions.remove(sequence);
+    if (waitingThreads.get() > 0) {
+      synchronized (waitingThreads) {
+        waitingThreads.notifyAll();
+      }
+    }
   }
 
 
@@ -98,21 +178,30 @@ public class CallbackExecutorManager {
   private class CallbackExecutorConsumer implements Runnable {
 
     CallbackExecutor callback;
+    final long sequence;
 
     /**
      * Constructor.
      *
      * @param callback Callback for unique incoming message that should be executed by another
      *                 thread.
+     * @param sequence Sequence number of the execution.
      */
-    public CallbackExecutorConsumer(CallbackExecutor callback) {
+    public CallbackExecutorConsumer(CallbackExecutor callback, long sequence) {
       this.callback = callback;
+      this.sequence = sequence;
     }
 
     @Override
     public void run() {
       logger.trace("Execute callback: {}", callback);
-      callback.handleCallback();
+      currentExecution.set(sequence);
+      try {
+        callback.handleCallback();
+      } finally {
+        currentExecution.remove();
+        completeExecution(sequence);
+      }
     }
   }
 }
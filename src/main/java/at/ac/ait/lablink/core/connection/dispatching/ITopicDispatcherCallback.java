@@ -0,0 +1,26 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.dispatching;
+
+import java.util.List;
+
+/**
+ * Dispatcher callback that additionally receives the topic of an incoming message.
+ *
+ * <p>The dispatcher calls {@link #handleMessage(List, byte[])} instead of
+ * {@link #handleMessage(byte[])} for callbacks that implement this interface. The topic is used to
+ * restore the fields of messages that have been encoded in compact framing mode.
+ */
+public interface ITopicDispatcherCallback extends IDispatcherCallback {
+
+  /**
+   * Callback function for received message.
+   *
+   * @param topic   elements of the topic of the received message
+   * @param payload IPayload of the received message
+   */
+  void handleMessage(List<String> topic, byte[] payload);
+}
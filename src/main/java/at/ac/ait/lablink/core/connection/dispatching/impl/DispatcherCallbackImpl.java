@@ -8,9 +8,10 @@ package at.ac.ait.lablink.core.connection.dispatching.impl;
 import at.ac.ait.lablink.core.connection.dispatching.CallbackExecutor;
 import at.ac.ait.lablink.core.connection.dispatching.CallbackExecutorManager;
 import at.ac.ait.lablink.core.connection.dispatching.ICallbackExecutorFactory;
-import at.ac.ait.lablink.core.connection.dispatching.IDispatcherCallback;
+import at.ac.ait.lablink.core.connection.dispatching.ITopicDispatcherCallback;
 import at.ac.ait.lablink.core.connection.encoding.DecoderBase;
 import at.ac.ait.lablink.core.connection.encoding.IEncodable;
+import at.ac.ait.lablink.core.connection.encoding.encodables.Packet;
 import at.ac.ait.lablink.core.connection.ex.LlCoreDecoderRuntimeException;
 import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
 import at.ac.ait.lablink.core.payloads.ErrorMessage;
@@ -27,7 +28,7 @@ import java.util.List;
  * <p>It will be used for dispatching callbacks. An incoming message will be decoded and the
  * execution will be added to a CallbackExecutionManager that will be used to execute the callback.
  */
-public class DispatcherCallbackImpl implements IDispatcherCallback {
+public class DispatcherCallbackImpl implements ITopicDispatcherCallback {
 
   /**
    * Default logger of the class.
@@ -81,10 +82,15 @@ public class DispatcherCallbackImpl implements IDispatcherCallback {
 
   @Override
   public void handleMessage(byte[] payload) {
+    handleMessage(null, payload);
+  }
+
+  @Override
+  public void handleMessage(List<String> topic, byte[] payload) {
 
     clearElements();
 
-    IEncodable decoded = decodeIncomingPacket(payload);
+    IEncodable decoded = decodeIncomingPacket(topic, payload);
 
     try {
       CallbackExecutor
@@ -93,20 +99,34 @@ public class DispatcherCallbackImpl implements IDispatcherCallback {
       callbackExecutorManager.addNewCallbackExecution(callbackExecutor);
     } catch (Exception ex) {
       logger.warn("Exception occurs during incoming message dispatching and handling.", ex);
+      if (decoded instanceof Packet) {
+        ((Packet) decoded).release();
+      }
     }
   }
 
   /**
    * Decode an incoming payloads using the available decoder.
    *
+   * <p>A decoded packet is retained for the callback executor, which releases it after the
+   * callback has been executed. The packet is retained while holding the lock of the decoder.
+   * Otherwise another thread could decode a new message and recycle the packet before.
+   *
+   * @param topic   topic of the incoming message (null if unknown)
    * @param payload byte array with payloads stream to be decoded.
    * @return The encoded and validated packet
    */
-  private IEncodable decodeIncomingPacket(byte[] payload) {
+  private IEncodable decodeIncomingPacket(List<String> topic, byte[] payload) {
 
     IEncodable decoded = null;
     try {
-      decoded = decoder.processDecoding(payload);
+      synchronized (decoder) {
+        decoded = topic != null ? decoder.processDecoding(payload, topic)
+            : decoder.processDecoding(payload);
+        if (decoded instanceof Packet) {
+          ((Packet) decoded).retain();
+        }
+      }
       decoded.validate();
     } catch (LlCoreDecoderRuntimeException ex) {
       ErrorMessage
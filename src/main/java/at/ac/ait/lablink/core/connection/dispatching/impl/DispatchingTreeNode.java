@@ -7,6 +7,7 @@ package at.ac.ait.lablink.core.connection.dispatching.impl;
 
 import at.ac.ait.lablink.core.connection.dispatching.IDispatcherCallback;
 import at.ac.ait.lablink.core.connection.dispatching.IDispatcherInterface;
+import at.ac.ait.lablink.core.connection.dispatching.ITopicDispatcherCallback;
 import at.ac.ait.lablink.core.connection.mqtt.impl.MqttUtils;
 import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
 
@@ -217,7 +218,7 @@ public class DispatchingTreeNode implements IDispatcherInterface {
   public void execute(List<String> names, int listPosition, byte[] mqttPayload) {
 
     if (this.name.equals(MqttUtils.TOPIC_WILDCARD_ALL)) {
-      executeCallbacks(mqttPayload);
+      executeCallbacks(names, mqttPayload);
       return;
     }
 
@@ -245,20 +246,25 @@ public class DispatchingTreeNode implements IDispatcherInterface {
       }
 
     } else {  /* current node is a leaf */
-      executeCallbacks(mqttPayload);
+      executeCallbacks(names, mqttPayload);
     }
   }
 
   /**
    * Execute all registered callbacks of this node.
    *
+   * @param names       elements of the topic of the message
    * @param mqttPayload for handling callbacks
    */
-  private void executeCallbacks(byte[] mqttPayload) {
+  private void executeCallbacks(List<String> names, byte[] mqttPayload) {
 
     synchronized (callbackHandlers) {
       for (IDispatcherCallback callback : callbackHandlers) {
-        callback.handleMessage(mqttPayload);
+        if (callback instanceof ITopicDispatcherCallback) {
+          ((ITopicDispatcherCallback) callback).handleMessage(names, mqttPayload);
+        } else {
+          callback.handleMessage(mqttPayload);
+        }
       }
     }
   }
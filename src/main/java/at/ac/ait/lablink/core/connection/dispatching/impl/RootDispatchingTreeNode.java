@@ -11,6 +11,7 @@ import at.ac.ait.lablink.core.connection.ex.LowLevelCommRuntimeException;
 import at.ac.ait.lablink.core.connection.mqtt.IMqttSubscriber;
 import at.ac.ait.lablink.core.connection.mqtt.impl.MqttUtils;
 import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+import at.ac.ait.lablink.core.utility.StringInternCache;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +34,9 @@ public class RootDispatchingTreeNode extends DispatchingTreeNode implements IRoo
   /* Subscriber that provides methods to subscribe and unsubscribe topic to/from the broker. */
   private IMqttSubscriber mqttSubscriber;
 
+  /* Cache for canonical topic elements of received messages (null if disabled). */
+  private StringInternCache topicInternCache;
+
   /**
    * Default constructor for the class
    *
@@ -148,10 +152,19 @@ public class RootDispatchingTreeNode extends DispatchingTreeNode implements IRoo
 
   @Override
   public void handleRawMqttMessage(String topic, byte[] mqttPayload) {
-    List<String> topicList = MqttUtils.convertMqttTopicToStringList(topic);
+    List<String> topicList = MqttUtils.convertMqttTopicToStringList(topic, topicInternCache);
     this.execute(topicList, 0, mqttPayload);
   }
 
+  /**
+   * Set the cache that resolves the topic elements of received messages to canonical instances.
+   *
+   * @param topicInternCache cache for the topic elements
+   */
+  public void setStringInternCache(StringInternCache topicInternCache) {
+    this.topicInternCache = topicInternCache;
+  }
+
   @Override
   public void onEstablishedMqttConnection() {
     List<List<String>> subscriptions = this.getAllSubscriptions();
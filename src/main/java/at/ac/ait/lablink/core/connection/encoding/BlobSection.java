@@ -0,0 +1,99 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding;
+
+import at.ac.ait.lablink.core.connection.ex.LlCoreDecoderRuntimeException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Framing of large blobs that are transported as raw bytes behind the structured part.
+ *
+ * <p>A frame with a blob section starts with a flag byte followed by the size of the structured
+ * part (4 bytes, big endian), the structured part and the blob section. The structured part
+ * contains a reference string (<code>$blob:offset:length</code>) instead of the Base64 encoded
+ * blob. Reference strings can't be confused with Base64 strings, because the '$' and ':'
+ * characters aren't part of the Base64 alphabet.
+ */
+final class BlobSection {
+
+  /* First byte of a frame with a blob section */
+  static final byte FRAME_FLAG = 0x02;
+
+  /* Size of the frame header (flag and size of the structured part) */
+  static final int HEADER_SIZE = 5;
+
+  /* Prefix of a blob reference in the structured part */
+  static final String REFERENCE_PREFIX = "$blob:";
+
+  private BlobSection() {
+  }
+
+  /**
+   * Check if a received payload is a frame with a blob section.
+   *
+   * @param source received payload
+   * @return true, if the payload contains a blob section.
+   */
+  static boolean isFramed(byte[] source) {
+    return source != null && source.length > 0 && source[0] == FRAME_FLAG;
+  }
+
+  /**
+   * Create the reference string of a blob.
+   *
+   * @param offset offset of the blob within the blob section
+   * @param length length of the blob
+   * @return the reference string
+   */
+  static String createReference(int offset, int length) {
+    return REFERENCE_PREFIX + offset + ":" + length;
+  }
+
+  /**
+   * Check if a string value is a reference to a blob in the blob section.
+   *
+   * @param value string value of the structured part
+   * @return true, if the value is a blob reference
+   */
+  static boolean isReference(String value) {
+    return value.startsWith(REFERENCE_PREFIX);
+  }
+
+  /**
+   * Resolve a blob reference.
+   *
+   * @param section blob section of the received frame
+   * @param reference reference string of the blob
+   * @return a read-only view of the blob
+   * @throws LlCoreDecoderRuntimeException if the reference is invalid.
+   */
+  static ByteBuffer resolveReference(ByteBuffer section, String reference) {
+    if (section == null) {
+      throw new LlCoreDecoderRuntimeException(
+          "Blob reference '" + reference + "' without blob section.");
+    }
+
+    int separator = reference.indexOf(':', REFERENCE_PREFIX.length());
+    int offset;
+    int length;
+    try {
+      offset = Integer.parseInt(reference.substring(REFERENCE_PREFIX.length(), separator));
+      length = Integer.parseInt(reference.substring(separator + 1));
+    } catch (RuntimeException ex) {
+      throw new LlCoreDecoderRuntimeException("Invalid blob reference '" + reference + "'.", ex);
+    }
+    if (offset < 0 || length < 0 || offset > section.limit() - length) {
+      throw new LlCoreDecoderRuntimeException("Blob reference '" + reference
+          + "' exceeds the blob section (" + section.limit() + " bytes).");
+    }
+
+    ByteBuffer view = section.duplicate();
+    view.position(offset);
+    view.limit(offset + length);
+    return view.slice().asReadOnlyBuffer();
+  }
+}
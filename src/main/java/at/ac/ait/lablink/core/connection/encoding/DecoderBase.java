@@ -7,25 +7,59 @@ package at.ac.ait.lablink.core.connection.encoding;
 
 import at.ac.ait.lablink.core.connection.encoding.IDecoder;
 import at.ac.ait.lablink.core.connection.encoding.IEncodable;
+import at.ac.ait.lablink.core.connection.encoding.encodables.Packet;
+import at.ac.ait.lablink.core.connection.encoding.impl.PayloadCompressor;
+import at.ac.ait.lablink.core.connection.ex.LlCoreDecoderRuntimeException;
+import at.ac.ait.lablink.core.utility.StringInternCache;
 
+import org.apache.commons.codec.binary.Base64;
+
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * Abstract base class of a decoder that is used by Lablink communication.
  *
  * <p>It will be used by the incoming handlers to provide an abstract representation for holding
  * specific decoder.
+ *
+ * <p>The last decoded packet is cached by the decoder. The cache is registered as user of the
+ * packet ({@link Packet#retain()}) and releases it as soon as another packet is decoded. Callers
+ * that process the packet asynchronously must retain it while they hold the lock of the decoder.
+ *
+ * <p>Compressed frames ({@link PayloadCompressor}) are decompressed before decoding. The cache
+ * compares the received (compressed) data, so a frame is only decompressed once.
+ *
+ * <p>Frames with a blob section are split into the structured part, which is decoded by the
+ * subclass, and the blob section. Blobs of the section are resolved without copying them (see
+ * {@link #decodeBlobBuffer(String)}).
  */
 public abstract class DecoderBase implements IDecoder {
 
   /* temporary storage for last decoded payloads */
   private int lastSourceHash = 0;
 
+  /* topic of the current decoding */
+  private List<String> topic;
+
+  /* last decoded element that is held by the cache */
+  private IEncodable lastDecoded;
+
   /**
    * Factory Manager for IEncodable object creation.
    */
   protected IEncodableFactoryManager encodableFactoryManager;
 
+  /* decompression of compressed frames (created on demand if not set) */
+  private PayloadCompressor payloadCompressor;
+
+  /* blob section of the current decoding (null if the frame has no blob section) */
+  private ByteBuffer blobSection;
+
+  /* canonical instances of decoded identifiers (null if interning is disabled) */
+  private StringInternCache stringInternCache;
+
   /**
    * Set the factory manager for generating encodable during decoding.
    *
@@ -35,6 +69,51 @@ public abstract class DecoderBase implements IDecoder {
     this.encodableFactoryManager = encodableFactoryManager;
   }
 
+  /**
+   * Set the compressor that is used to decompress compressed frames.
+   *
+   * @param payloadCompressor compressor with pooled inflaters
+   */
+  public synchronized void setPayloadCompressor(PayloadCompressor payloadCompressor) {
+    this.payloadCompressor = payloadCompressor;
+  }
+
+  /**
+   * Set the cache for the canonical instances of decoded identifiers.
+   *
+   * @param stringInternCache cache that is used by {@link #getInternedString(String)} and
+   *                          {@link #getInternedStrings(String)}
+   */
+  public synchronized void setStringInternCache(StringInternCache stringInternCache) {
+    this.stringInternCache = stringInternCache;
+  }
+
+  /**
+   * Get the cache for the canonical instances of decoded identifiers.
+   *
+   * @return the cache or null if interning is disabled
+   */
+  protected StringInternCache getStringInternCache() {
+    return stringInternCache;
+  }
+
+  @Override
+  public String getInternedString(String key) {
+    String value = getString(key);
+    return stringInternCache != null ? stringInternCache.intern(value) : value;
+  }
+
+  @Override
+  public List<String> getInternedStrings(String key) {
+    List<String> values = getStrings(key);
+    if (stringInternCache != null) {
+      for (int i = 0; i < values.size(); i++) {
+        values.set(i, stringInternCache.intern(values.get(i)));
+      }
+    }
+    return values;
+  }
+
   /**
    * Returns the decoded representation of the element.
    *
@@ -56,13 +135,143 @@ public abstract class DecoderBase implements IDecoder {
    * @return decoded element.
    */
   public synchronized IEncodable processDecoding(byte[] source) {
+    return processDecoding(source, null);
+  }
 
-    /* Decode only if source array has been changed */
+  /**
+   * Process decoding of a received message.
+   *
+   * @param source element to be decoded.
+   * @param topic  topic of the received message (null if unknown). It is used to restore the
+   *               fields that have been omitted in compact framing mode.
+   * @return decoded element.
+   */
+  public synchronized IEncodable processDecoding(byte[] source, List<String> topic) {
+
+    /* Decode only if source array or topic has been changed */
     int sourceHash = Arrays.hashCode(source);
-    if (lastSourceHash != sourceHash) {
-      decodeElement(source);
+    if (lastSourceHash != sourceHash
+        || (this.topic == null ? topic != null : !this.topic.equals(topic))) {
+      this.topic = topic;
+      lastSourceHash = 0;
+      decodeElement(splitBlobSection(decompress(source)));
       lastSourceHash = sourceHash;
+      updateCachedElement(getDecodedElement());
     }
     return getDecodedElement();
   }
+
+  /**
+   * Decompress the source element if it is a compressed frame.
+   *
+   * @param source received element
+   * @return the uncompressed element
+   */
+  private byte[] decompress(byte[] source) {
+    if (!PayloadCompressor.isCompressed(source)) {
+      return source;
+    }
+    if (payloadCompressor == null) {
+      payloadCompressor = new PayloadCompressor();
+    }
+    return payloadCompressor.decompress(source);
+  }
+
+  /**
+   * Split a frame with a blob section into the structured part and the blob section.
+   *
+   * @param source uncompressed frame
+   * @return the structured part of the frame
+   */
+  private byte[] splitBlobSection(byte[] source) {
+    if (!BlobSection.isFramed(source)) {
+      blobSection = null;
+      return source;
+    }
+    if (source.length < BlobSection.HEADER_SIZE) {
+      throw new LlCoreDecoderRuntimeException("Frame with blob section is truncated.");
+    }
+
+    int size = ((source[1] & 0xff) << 24) | ((source[2] & 0xff) << 16)
+        | ((source[3] & 0xff) << 8) | (source[4] & 0xff);
+    int sectionStart = BlobSection.HEADER_SIZE + size;
+    if (size < 0 || sectionStart > source.length) {
+      throw new LlCoreDecoderRuntimeException("Frame with blob section is truncated.");
+    }
+
+    blobSection = ByteBuffer.wrap(source, sectionStart, source.length - sectionStart).slice();
+    return Arrays.copyOfRange(source, BlobSection.HEADER_SIZE, sectionStart);
+  }
+
+  /**
+   * Get the blob section of the current decoding.
+   *
+   * @return the blob section or null if the decoded frame has no blob section.
+   */
+  protected ByteBuffer getBlobSection() {
+    return blobSection;
+  }
+
+  /**
+   * Set the blob section. It is used by decoders that decode parts of a frame on demand.
+   *
+   * @param blobSection blob section of the frame
+   */
+  protected void setBlobSection(ByteBuffer blobSection) {
+    this.blobSection = blobSection;
+  }
+
+  /**
+   * Decode a blob from its string value in the structured part.
+   *
+   * @param value Base64 string or reference to the blob section
+   * @return a copy of the blob
+   */
+  protected byte[] decodeBlob(String value) {
+    if (!BlobSection.isReference(value)) {
+      return Base64.decodeBase64(value);
+    }
+    ByteBuffer view = BlobSection.resolveReference(blobSection, value);
+    byte[] blob = new byte[view.remaining()];
+    view.get(blob);
+    return blob;
+  }
+
+  /**
+   * Decode a blob from its string value in the structured part as buffer.
+   *
+   * @param value Base64 string or reference to the blob section
+   * @return a read-only buffer of the blob. Blobs of the blob section are returned as view of
+   *     the received frame without copying them.
+   */
+  protected ByteBuffer decodeBlobBuffer(String value) {
+    if (!BlobSection.isReference(value)) {
+      return ByteBuffer.wrap(Base64.decodeBase64(value)).asReadOnlyBuffer();
+    }
+    return BlobSection.resolveReference(blobSection, value);
+  }
+
+  /**
+   * Replace the cached element and release the previous one.
+   *
+   * @param decoded newly decoded element
+   */
+  private void updateCachedElement(IEncodable decoded) {
+    if (decoded == lastDecoded) {
+      return;
+    }
+    if (decoded instanceof Packet) {
+      ((Packet) decoded).setRecycler(encodableFactoryManager);
+      ((Packet) decoded).retain();
+    }
+    if (lastDecoded instanceof Packet) {
+      ((Packet) lastDecoded).release();
+    }
+    lastDecoded = decoded;
+  }
+
+  @Override
+  public List<String> getTopic() {
+    return topic;
+  }
 }
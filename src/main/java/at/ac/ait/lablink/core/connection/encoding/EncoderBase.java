@@ -10,11 +10,87 @@ import at.ac.ait.lablink.core.connection.encoding.IEncoder;
 
 import at.ac.ait.lablink.core.connection.ex.LlCoreEncoderRuntimeException;
 
+import org.apache.commons.codec.binary.Base64;
+
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Base class of the IEncoder object.
+ *
+ * <p>Blobs that reach the blob section threshold aren't Base64 encoded. They are appended as raw
+ * bytes in a blob section behind the structured part of the encoded packet (see
+ * {@link #processEncoding(IEncodable)}).
  */
 public abstract class EncoderBase implements IEncoder {
 
+  /**
+   * Factory Manager that provides the numeric type identifiers.
+   */
+  protected IEncodableFactoryManager encodableFactoryManager;
+
+  /**
+   * Compact framing mode of the encoder.
+   */
+  protected boolean compactFraming = false;
+
+  /**
+   * Minimum size of blobs that are transported in the blob section (0 disables the section).
+   */
+  protected int blobSectionThreshold = 0;
+
+  /* Blobs of the blob section of the current encoding */
+  private final List<byte[]> sectionBlobs = new ArrayList<byte[]>();
+
+  /* Size of the blob section of the current encoding */
+  private int sectionSize = 0;
+
+  /**
+   * Set the factory manager that provides the numeric type identifiers for compact framing.
+   *
+   * @param encodableFactoryManager to be used by the encoder
+   */
+  public void setEncodableFactoryManager(IEncodableFactoryManager encodableFactoryManager) {
+    this.encodableFactoryManager = encodableFactoryManager;
+  }
+
+  @Override
+  public boolean isCompactFraming() {
+    return compactFraming;
+  }
+
+  /**
+   * Get the numeric identifier that is written instead of the type string of an encodable.
+   *
+   * @param type type string of the encodable
+   * @return the numeric identifier or {@link IEncodableFactoryManager#NO_TYPE_ID} if the type
+   *     string has to be written.
+   */
+  protected int getCompactTypeId(String type) {
+    if (!compactFraming || encodableFactoryManager == null) {
+      return IEncodableFactoryManager.NO_TYPE_ID;
+    }
+    return encodableFactoryManager.getTypeId(type);
+  }
+
+  /**
+   * Encode a blob as string value for the structured part.
+   *
+   * @param value blob to be encoded
+   * @return the Base64 string of the blob or the reference to the blob section if the blob
+   *     reaches the blob section threshold.
+   */
+  protected String encodeBlob(byte[] value) {
+    if (blobSectionThreshold <= 0 || value.length < blobSectionThreshold) {
+      return Base64.encodeBase64String(value);
+    }
+
+    String reference = BlobSection.createReference(sectionSize, value.length);
+    sectionBlobs.add(value);
+    sectionSize += value.length;
+    return reference;
+  }
+
   /**
    * Get the encoded object
    *
@@ -37,12 +113,38 @@ public abstract class EncoderBase implements IEncoder {
   /**
    * Process the encoding of an {@link IEncodable} object.
    *
+   * <p>If blobs have been moved to the blob section, the structured part and the blob section
+   * are combined into a single frame.
+   *
    * @param source object to be encoded.
-   * @return the encoded object as blob for further usage. The encoded object can be read more often
-   *         using the {@link #getEncoded()} method until a new encoding has been started.
+   * @return the encoded object as blob for further usage. The structured part of the encoded
+   *         object can be read more often using the {@link #getEncoded()} method until a new
+   *         encoding has been started.
    */
   public synchronized byte[] processEncoding(IEncodable source) {
+    sectionBlobs.clear();
+    sectionSize = 0;
+
     encodeElement(source);
-    return getEncoded();
+    byte[] encoded = getEncoded();
+    if (sectionBlobs.isEmpty()) {
+      return encoded;
+    }
+
+    byte[] frame = new byte[BlobSection.HEADER_SIZE + encoded.length + sectionSize];
+    frame[0] = BlobSection.FRAME_FLAG;
+    frame[1] = (byte) (encoded.length >>> 24);
+    frame[2] = (byte) (encoded.length >>> 16);
+    frame[3] = (byte) (encoded.length >>> 8);
+    frame[4] = (byte) encoded.length;
+    System.arraycopy(encoded, 0, frame, BlobSection.HEADER_SIZE, encoded.length);
+
+    int position = BlobSection.HEADER_SIZE + encoded.length;
+    for (byte[] blob : sectionBlobs) {
+      System.arraycopy(blob, 0, frame, position, blob.length);
+      position += blob.length;
+    }
+    sectionBlobs.clear();
+    return frame;
   }
 }
\ No newline at end of file
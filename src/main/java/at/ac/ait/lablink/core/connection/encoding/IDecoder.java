@@ -7,6 +7,7 @@ package at.ac.ait.lablink.core.connection.encoding;
 
 import at.ac.ait.lablink.core.service.types.Complex;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
@@ -36,6 +37,28 @@ public interface IDecoder {
    */
   List<String> getStrings(String key);
 
+  /**
+   * Read an identifier string from the decoder.
+   *
+   * <p>Identifiers have a small number of distinct values. Repeated values are resolved to a
+   * canonical instance if the decoder has a {@link
+   * at.ac.ait.lablink.core.utility.StringInternCache}. Otherwise the method behaves like
+   * {@link #getString(String)}.
+   *
+   * @param key for the value to be read
+   * @return value from the decoder
+   */
+  String getInternedString(String key);
+
+  /**
+   * Read a List of identifier strings from the decoder.
+   *
+   * @param key for the value to be read
+   * @return value from the decoder
+   * @see #getInternedString(String)
+   */
+  List<String> getInternedStrings(String key);
+
   /**
    * Read a double value from the decoder.
    *
@@ -84,6 +107,18 @@ public interface IDecoder {
    */
   byte[] getBlob(String key);
 
+  /**
+   * Read a byte array from the decoder as buffer.
+   *
+   * <p>Blobs that have been transported in the blob section of the frame are returned as
+   * read-only view of the received data without copying them. The view must not be used after
+   * the decoded element has been processed.
+   *
+   * @param key for the value to be read
+   * @return read-only buffer with the value from the decoder
+   */
+  ByteBuffer getBlobBuffer(String key);
+
   /**
    * Read a complex number from the decoder.
    *
@@ -92,6 +127,30 @@ public interface IDecoder {
    */
   Complex getComplex(String key);
 
+  /**
+   * Read an array of double values from the decoder.
+   *
+   * @param key for the values to be read
+   * @return values from the decoder
+   */
+  double[] getDoubleArray(String key);
+
+  /**
+   * Read an array of long values from the decoder.
+   *
+   * @param key for the values to be read
+   * @return values from the decoder
+   */
+  long[] getLongArray(String key);
+
+  /**
+   * Read an array of complex numbers from the decoder.
+   *
+   * @param key for the values to be read
+   * @return values from the decoder
+   */
+  Complex[] getComplexArray(String key);
+
   /**
    * Read a {@link IEncodable} from the decoder.
    *
@@ -107,4 +166,22 @@ public interface IDecoder {
    * @return value from the decoder
    */
   List<? extends IEncodable> getEncodables(String key);
+
+  /**
+   * Check if a value is available in the decoder.
+   *
+   * @param key for the value to be checked
+   * @return true if the value is available.
+   */
+  boolean hasKey(String key);
+
+  /**
+   * Get the topic of the decoded message.
+   *
+   * <p>Encodables that have been written in compact framing mode use the topic to restore
+   * the omitted fields.
+   *
+   * @return the topic elements or null if the topic isn't known.
+   */
+  List<String> getTopic();
 }
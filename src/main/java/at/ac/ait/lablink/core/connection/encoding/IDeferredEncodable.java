@@ -0,0 +1,32 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding;
+
+/**
+ * Encoded element whose decoding is deferred until it is accessed.
+ *
+ * <p>The type of the element is known without decoding it. The element itself will be decoded
+ * by calling {@link #decode()}. Implementations don't depend on the state of the decoder that
+ * created them, so they can be decoded by any thread after the decoding of the surrounding
+ * element has finished.
+ */
+public interface IDeferredEncodable {
+
+  /**
+   * Get the type string of the encoded element.
+   *
+   * @return the type string of the element.
+   */
+  String getType();
+
+  /**
+   * Decode the element.
+   *
+   * @return a new decoded element. The method {@link IEncodable#decodingCompleted()} has
+   *     already been called.
+   */
+  IEncodable decode();
+}
@@ -13,6 +13,11 @@ package at.ac.ait.lablink.core.connection.encoding;
  */
 public interface IEncodableFactoryManager {
 
+  /**
+   * Value returned by {@link #getTypeId(String)} if no numeric identifier is assigned to a type.
+   */
+  int NO_TYPE_ID = -1;
+
   /**
    * Register a factory for encodable objects to the manager.
    *
@@ -72,4 +77,43 @@ public interface IEncodableFactoryManager {
    * @return a created and empty encodable object.
    */
   IEncodable createEncodable(String type);
+
+  /**
+   * Assign a stable numeric identifier to a type string.
+   *
+   * <p>Encoders in compact framing mode write the numeric identifier instead of the type string.
+   * All peers of an application have to use the same identifiers. Encodable classes can provide
+   * their identifier with a static <code>getClassTypeId</code> method, which is read during the
+   * registration of the class.
+   *
+   * @param type   Type string of the encodable object
+   * @param typeId numeric identifier (non-negative) of the type
+   */
+  void registerTypeId(String type, int typeId);
+
+  /**
+   * Get the numeric identifier of a type string.
+   *
+   * @param type Type string of the encodable object
+   * @return the numeric identifier or {@link #NO_TYPE_ID} if no identifier is assigned.
+   */
+  int getTypeId(String type);
+
+  /**
+   * Get the type string of a numeric identifier.
+   *
+   * @param typeId numeric identifier of the type
+   * @return the type string of the identifier.
+   */
+  String getTypeForId(int typeId);
+
+  /**
+   * Return a processed encodable object to the factory of its type.
+   *
+   * <p>The object is only reused if the registered factory is pooled and the object is
+   * recyclable ({@link IRecyclable}). Otherwise the call has no effect.
+   *
+   * @param encodable object that isn't used anymore
+   */
+  void recycleEncodable(IEncodable encodable);
 }
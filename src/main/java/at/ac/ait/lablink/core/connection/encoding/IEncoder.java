@@ -94,6 +94,36 @@ public interface IEncoder {
    */
   void putComplex(String key, Complex value);
 
+  /**
+   * Put an array of double values to the encoder.
+   *
+   * <p>The values are written as packed array of numbers.
+   *
+   * @param key    for the given values
+   * @param values to be added
+   */
+  void putDoubleArray(String key, double[] values);
+
+  /**
+   * Put an array of long values to the encoder.
+   *
+   * <p>The values are written as packed array of numbers.
+   *
+   * @param key    for the given values
+   * @param values to be added
+   */
+  void putLongArray(String key, long[] values);
+
+  /**
+   * Put an array of complex numbers to the encoder.
+   *
+   * <p>The real and imaginary parts are written as two packed arrays of numbers.
+   *
+   * @param key    for the given values
+   * @param values to be added
+   */
+  void putComplexArray(String key, Complex[] values);
+
   /**
    * Put an {@link IEncodable} object to the encoder.
    *
@@ -109,4 +139,14 @@ public interface IEncoder {
    * @param values to be added
    */
   void putEncodableList(String key, List<? extends IEncodable> values);
+
+  /**
+   * Check if the encoder uses the compact framing mode.
+   *
+   * <p>In compact framing mode, encodables may omit fields that the receiver can derive from
+   * the topic of the message (e.g., the source identifiers of a message header).
+   *
+   * @return true if the compact framing mode is used.
+   */
+  boolean isCompactFraming();
 }
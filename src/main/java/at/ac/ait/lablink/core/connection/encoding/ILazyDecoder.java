@@ -0,0 +1,30 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding;
+
+import java.util.List;
+
+/**
+ * Extension of the {@link IDecoder} for decoders that are able to defer the decoding of nested
+ * encodables.
+ */
+public interface ILazyDecoder extends IDecoder {
+
+  /**
+   * Check if lazy decoding is enabled for the decoder.
+   *
+   * @return true, if encodables (e.g., payloads of a packet) should be decoded on demand.
+   */
+  boolean isLazyDecodingEnabled();
+
+  /**
+   * Read a list of encodables from the decoder without decoding them.
+   *
+   * @param key for the value to be read
+   * @return list of encodables that will be decoded on demand.
+   */
+  List<IDeferredEncodable> getDeferredEncodables(String key);
+}
@@ -0,0 +1,25 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding;
+
+/**
+ * Optional extension of the {@link IEncodable} for objects that can be reused after they have
+ * been processed.
+ *
+ * <p>Decoded objects of a recyclable type are returned to a pooled factory (see
+ * {@link IEncodableFactoryManager#recycleEncodable(IEncodable)}) as soon as the callback that
+ * received them is completed. Afterwards they are reset and used for the decoding of another
+ * message. Therefore a recycled object must not be referenced after its callback returns.
+ */
+public interface IRecyclable extends IEncodable {
+
+  /**
+   * Reset the object to the state of a freshly created object.
+   *
+   * <p>The method is called before the object is returned to the pool of its factory.
+   */
+  void reset();
+}
@@ -9,8 +9,10 @@ import at.ac.ait.lablink.core.connection.encoding.IDecoder;
 import at.ac.ait.lablink.core.connection.encoding.IEncodable;
 import at.ac.ait.lablink.core.connection.encoding.IEncodableFactory;
 import at.ac.ait.lablink.core.connection.encoding.IEncoder;
+import at.ac.ait.lablink.core.connection.ex.LlCoreDecoderRuntimeException;
 import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -83,24 +85,91 @@ public abstract class Header implements IEncodable {
     this.timestamp = timestamp;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>In compact framing mode, a header that is derivable from the topic (see
+   * {@link #isDerivableFromTopic()}) only writes the number of subject elements instead of the
+   * identifiers and the subject.
+   */
   @Override
   public void encode(IEncoder encoder) {
-    encoder.putString("appId", applicationId);
-    encoder.putString("srcGrId", sourceGroupId);
-    encoder.putString("srcClId", sourceClientId);
-    encoder.putStringList("subject", subject);
+    if (encoder.isCompactFraming() && isDerivableFromTopic()) {
+      encoder.putInt("subjLen", subject.size());
+    } else {
+      encoder.putString("appId", applicationId);
+      encoder.putString("srcGrId", sourceGroupId);
+      encoder.putString("srcClId", sourceClientId);
+      encoder.putStringList("subject", subject);
+    }
     encoder.putLong("time", timestamp);
   }
 
   @Override
   public void decode(IDecoder decoder) {
-    applicationId = decoder.getString("appId");
-    sourceGroupId = decoder.getString("srcGrId");
-    sourceClientId = decoder.getString("srcClId");
-    subject = decoder.getStrings("subject");
+    if (decoder.hasKey("subjLen")) {
+      decodeFromTopic(decoder.getTopic(), decoder.getInt("subjLen"));
+    } else {
+      applicationId = decoder.getInternedString("appId");
+      sourceGroupId = decoder.getInternedString("srcGrId");
+      sourceClientId = decoder.getInternedString("srcClId");
+      subject = decoder.getInternedStrings("subject");
+    }
     timestamp = decoder.getLong("time");
   }
 
+  /**
+   * Restore the identifiers and the subject from the topic of the message.
+   *
+   * <p>The topic is built as <code>prefix/appId/transmissionType/groupId/clientId/subject</code>
+   * (see {@link at.ac.ait.lablink.core.connection.topic.Topic}). The prefix may contain several
+   * elements, therefore the fields are read from the end of the topic.
+   *
+   * @param topic         topic of the received message
+   * @param subjectLength number of subject elements
+   */
+  private void decodeFromTopic(List<String> topic, int subjectLength) {
+    if (topic == null) {
+      throw new LlCoreDecoderRuntimeException(
+          "Header fields can't be restored. The topic of the message isn't available.");
+    }
+
+    int subjectStart = topic.size() - subjectLength;
+    if (subjectLength < 1 || subjectStart < 5) {
+      throw new LlCoreDecoderRuntimeException("Header fields can't be restored from topic "
+          + topic + " with " + subjectLength + " subject elements.");
+    }
+
+    applicationId = topic.get(subjectStart - 4);
+    sourceGroupId = topic.get(subjectStart - 2);
+    sourceClientId = topic.get(subjectStart - 1);
+    subject = new ArrayList<String>(topic.subList(subjectStart, topic.size()));
+  }
+
+  /**
+   * Check if the identifiers and the subject of the header are part of the message topic.
+   *
+   * <p>Only in this case they are omitted in compact framing mode. The default implementation
+   * returns false.
+   *
+   * @return true if the header fields can be restored from the topic.
+   */
+  protected boolean isDerivableFromTopic() {
+    return false;
+  }
+
+  /**
+   * Clear all fields of the header. The method is used by recyclable subclasses to reset the
+   * header before it is reused for decoding.
+   */
+  protected void clearHeader() {
+    applicationId = null;
+    sourceGroupId = null;
+    sourceClientId = null;
+    subject = null;
+    timestamp = 0;
+  }
+
   @Override
   public void decodingCompleted() {
     // Expected empty
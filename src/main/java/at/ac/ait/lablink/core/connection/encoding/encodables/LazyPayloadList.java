@@ -0,0 +1,131 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding.encodables;
+
+import at.ac.ait.lablink.core.connection.encoding.IDeferredEncodable;
+import at.ac.ait.lablink.core.connection.encoding.IEncodable;
+import at.ac.ait.lablink.core.connection.ex.LlCoreDecoderRuntimeException;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * List of payloads that are decoded on first access.
+ *
+ * <p>The list is used by a {@link Packet} in lazy decoding mode. Every payload is decoded and
+ * validated the first time it is read. Payloads that are never read (e.g., because a callback
+ * drops the message after checking the header) will never be decoded.
+ */
+public class LazyPayloadList extends AbstractList<IPayload> {
+
+  private final List<IDeferredEncodable> deferred;
+  private final List<IPayload> decoded;
+
+  /**
+   * Constructor.
+   *
+   * @param deferred encoded payloads
+   */
+  public LazyPayloadList(List<IDeferredEncodable> deferred) {
+    this.deferred = new ArrayList<IDeferredEncodable>(deferred);
+    this.decoded = new ArrayList<IPayload>(deferred.size());
+    for (int i = 0; i < deferred.size(); i++) {
+      this.decoded.add(null);
+    }
+  }
+
+  @Override
+  public synchronized IPayload get(int index) {
+    IPayload payload = decoded.get(index);
+
+    if (payload == null) {
+      IEncodable encodable = deferred.get(index).decode();
+      if (!(encodable instanceof IPayload)) {
+        throw new LlCoreDecoderRuntimeException(
+            "Decoded element (" + encodable.getClass() + ") isn't a encodables element.");
+      }
+      payload = (IPayload) encodable;
+      payload.validate();
+      decoded.set(index, payload);
+    }
+    return payload;
+  }
+
+  @Override
+  public synchronized int size() {
+    return deferred.size();
+  }
+
+  @Override
+  public synchronized IPayload remove(int index) {
+    final IPayload payload = get(index);
+    deferred.remove(index);
+    decoded.remove(index);
+    modCount++;
+    return payload;
+  }
+
+  /**
+   * Get the type string of a payload without decoding it.
+   *
+   * @param index index of the payload
+   * @return the type string of the payload
+   */
+  public synchronized String getPayloadType(int index) {
+    return deferred.get(index).getType();
+  }
+
+  /**
+   * Remove all payloads of a given type from the list. Only the removed payloads will be decoded.
+   *
+   * @param type type string of the payloads to be removed
+   * @return the decoded payloads that have been removed.
+   */
+  public synchronized List<IPayload> removeByType(String type) {
+    List<IPayload> removed = new ArrayList<IPayload>();
+
+    for (int i = 0; i < deferred.size(); ) {
+      if (type.equals(deferred.get(i).getType())) {
+        removed.add(remove(i));
+      } else {
+        i++;
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Get the payloads that have already been decoded. Payloads that haven't been read are
+   * skipped without decoding them.
+   *
+   * @return the decoded payloads.
+   */
+  public synchronized List<IPayload> getDecodedPayloads() {
+    List<IPayload> result = new ArrayList<IPayload>();
+    for (IPayload payload : decoded) {
+      if (payload != null) {
+        result.add(payload);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the number of already decoded payloads.
+   *
+   * @return the number of decoded payloads.
+   */
+  public synchronized int getDecodedCount() {
+    int count = 0;
+    for (IPayload payload : decoded) {
+      if (payload != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
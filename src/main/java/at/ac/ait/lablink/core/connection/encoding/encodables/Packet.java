@@ -6,9 +6,13 @@
 package at.ac.ait.lablink.core.connection.encoding.encodables;
 
 import at.ac.ait.lablink.core.connection.encoding.IDecoder;
+import at.ac.ait.lablink.core.connection.encoding.IDeferredEncodable;
 import at.ac.ait.lablink.core.connection.encoding.IEncodable;
 import at.ac.ait.lablink.core.connection.encoding.IEncodableFactory;
+import at.ac.ait.lablink.core.connection.encoding.IEncodableFactoryManager;
 import at.ac.ait.lablink.core.connection.encoding.IEncoder;
+import at.ac.ait.lablink.core.connection.encoding.ILazyDecoder;
+import at.ac.ait.lablink.core.connection.encoding.IRecyclable;
 import at.ac.ait.lablink.core.connection.ex.LlCoreDecoderRuntimeException;
 import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
 
@@ -18,14 +22,24 @@ import org.apache.logging.log4j.Logger;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class that represents a packet for the Lablink communication.
  *
  * <p>The packet is the top-level container for the communication. It contains a header field
  * that contains information for the transmission and one or more encodables containers
+ *
+ * <p>If the decoder supports lazy decoding ({@link ILazyDecoder}) and it is enabled, only the
+ * header is decoded immediately. The payloads are decoded and validated on first access (see
+ * {@link LazyPayloadList}).
+ *
+ * <p>A decoded packet may be shared by several callbacks. Therefore its users are counted
+ * ({@link #retain()}, {@link #release()}). If the last user releases the packet, the packet, its
+ * header and its decoded payloads are returned to the recycler (see
+ * {@link IEncodableFactoryManager#recycleEncodable(IEncodable)}).
  */
-public class Packet implements IEncodable {
+public class Packet implements IRecyclable {
 
   /**
    * Get a type string of the class.
@@ -42,6 +56,18 @@ public class Packet implements IEncodable {
     return "packet";
   }
 
+  /**
+   * Get the stable numeric type identifier of the class.
+   *
+   * <p>The identifier is used instead of the type string in compact framing mode. Identifiers
+   * below 256 are reserved for the encodable classes of the Lablink core.
+   *
+   * @return the numeric type identifier of the class
+   */
+  public static int getClassTypeId() {
+    return 1;
+  }
+
   /**
    * Get the factory to create objects of the class.
    *
@@ -74,6 +100,16 @@ public class Packet implements IEncodable {
    */
   private List<IPayload> payloads;
 
+  /**
+   * Number of users of the decoded packet.
+   */
+  private final AtomicInteger references = new AtomicInteger();
+
+  /**
+   * Manager that recycles the packet and its elements after the last user released it.
+   */
+  private volatile IEncodableFactoryManager recycler;
+
   /**
    * Default constructor.
    */
@@ -115,6 +151,13 @@ public class Packet implements IEncodable {
           "Decoded element (" + header.getClass() + ") isn't a header element.");
     }
 
+    if (decoder instanceof ILazyDecoder && ((ILazyDecoder) decoder).isLazyDecodingEnabled()) {
+      List<IDeferredEncodable> deferred =
+          ((ILazyDecoder) decoder).getDeferredEncodables("payload");
+      payloads = new LazyPayloadList(deferred);
+      return;
+    }
+
     List<? extends IEncodable> encodables = decoder.getEncodables("payload");
 
     List<IPayload> listBuilder = new ArrayList<IPayload>();
@@ -136,7 +179,7 @@ public class Packet implements IEncodable {
 
   @Override
   public void decodingCompleted() {
-    logger.trace("Decoding of packet completed (" + this + ").");
+    logger.trace("Decoding of packet completed ({}).", this);
   }
 
   @Override
@@ -150,11 +193,75 @@ public class Packet implements IEncodable {
     if (payloads == null || payloads.isEmpty()) {
       throw new LlCoreRuntimeException("Payloads in Packet is null or empty.");
     }
+    // Lazy payloads are validated during their decoding
+    if (payloads instanceof LazyPayloadList) {
+      return;
+    }
     for (IPayload payload : payloads) {
       payload.validate();
     }
   }
 
+  @Override
+  public void reset() {
+    header = null;
+    payloads = null;
+    references.set(0);
+    recycler = null;
+  }
+
+  /**
+   * Set the manager that recycles the packet after its last user released it.
+   *
+   * @param recycler manager for recycling the packet and its elements (null disables the
+   *                 recycling)
+   */
+  public void setRecycler(IEncodableFactoryManager recycler) {
+    this.recycler = recycler;
+  }
+
+  /**
+   * Register a new user of the packet.
+   */
+  public void retain() {
+    references.incrementAndGet();
+  }
+
+  /**
+   * Release the packet by one of its users.
+   *
+   * <p>If the last user released the packet, it will be recycled together with its header and
+   * its decoded payloads. Packets without users aren't affected.
+   */
+  public void release() {
+    int count;
+    do {
+      count = references.get();
+      if (count <= 0) {
+        return;
+      }
+    } while (!references.compareAndSet(count, count - 1));
+
+    IEncodableFactoryManager recycler = this.recycler;
+    if (count > 1 || recycler == null) {
+      return;
+    }
+
+    if (header != null) {
+      recycler.recycleEncodable(header);
+    }
+    if (payloads instanceof LazyPayloadList) {
+      for (IPayload payload : ((LazyPayloadList) payloads).getDecodedPayloads()) {
+        recycler.recycleEncodable(payload);
+      }
+    } else if (payloads != null) {
+      for (int i = 0; i < payloads.size(); i++) {
+        recycler.recycleEncodable(payloads.get(i));
+      }
+    }
+    recycler.recycleEncodable(this);
+  }
+
   @Override
   public String toString() {
     return "Packet{" + "header=" + header + ", payloads=" + payloads + '}';
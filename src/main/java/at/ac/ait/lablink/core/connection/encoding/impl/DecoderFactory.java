@@ -6,6 +6,7 @@
 package at.ac.ait.lablink.core.connection.encoding.impl;
 
 import at.ac.ait.lablink.core.connection.encoding.DecoderBase;
+import at.ac.ait.lablink.core.utility.StringInternCache;
 
 import org.apache.commons.configuration.Configuration;
 
@@ -20,6 +21,8 @@ public class DecoderFactory {
   private final EDecoderType defaultDecoder;
   private final Configuration config;
   private EncodableFactoryManagerImpl encodableFactoryManager;
+  private PayloadCompressor payloadCompressor;
+  private StringInternCache stringInternCache;
 
   private Map<EDecoderType, DecoderBase> decoders = new HashMap<EDecoderType, DecoderBase>();
 
@@ -57,11 +60,20 @@ public class DecoderFactory {
     DecoderBase decoder;
 
     switch (key) {
+      case JSON_STREAM:
+        decoder = new JsonStreamDecoder(config);
+        break;
       default:
         decoder = new JsonDecoder(config);
     }
 
     decoder.setEncodableFactoryManager(this.encodableFactoryManager);
+    if (this.payloadCompressor != null) {
+      decoder.setPayloadCompressor(this.payloadCompressor);
+    }
+    if (this.stringInternCache != null) {
+      decoder.setStringInternCache(this.stringInternCache);
+    }
 
     this.decoders.put(key, decoder);
     return decoder;
@@ -96,12 +108,30 @@ public class DecoderFactory {
     this.encodableFactoryManager = encodableFactoryManager;
   }
 
+  /**
+   * Set the compressor that will be redirected to the generated decoder objects for the
+   * decompression of compressed frames.
+   *
+   * @param payloadCompressor compressor that should be used by the decoders
+   */
+  public void setPayloadCompressor(PayloadCompressor payloadCompressor) {
+    this.payloadCompressor = payloadCompressor;
+  }
+
+  /**
+   * Set the cache for canonical identifier strings that is shared by the created decoders.
+   *
+   * @param stringInternCache cache that should be used by the decoders
+   */
+  public void setStringInternCache(StringInternCache stringInternCache) {
+    this.stringInternCache = stringInternCache;
+  }
 
   /**
    * Enumeration of different decoder that are used within the system.
    */
   public enum EDecoderType {
-    JSON
+    JSON, JSON_STREAM
   }
 
 }
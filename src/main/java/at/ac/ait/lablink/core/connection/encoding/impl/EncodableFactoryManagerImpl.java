@@ -8,16 +8,19 @@ package at.ac.ait.lablink.core.connection.encoding.impl;
 import at.ac.ait.lablink.core.connection.encoding.IEncodable;
 import at.ac.ait.lablink.core.connection.encoding.IEncodableFactory;
 import at.ac.ait.lablink.core.connection.encoding.IEncodableFactoryManager;
+import at.ac.ait.lablink.core.connection.encoding.IRecyclable;
 import at.ac.ait.lablink.core.connection.ex.LlCoreDecoderRuntimeException;
 import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
 
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementation of a factory manager for encodable objects.
@@ -27,6 +30,17 @@ import java.util.Map;
  * These introspection is only used during the registration process. During the creation of new
  * encodable objects the introspection isn't used to improve the performance of the time critical
  * section.
+ *
+ * <p>Besides the factories, the manager keeps a table of numeric type identifiers. They are
+ * used by encoders in compact framing mode instead of the type strings.
+ *
+ * <p>The manager is used concurrently by the receiving threads and by services that register
+ * their encodables. Lookups are lock-free, registrations are serialized.
+ *
+ * <p>If the configuration <code>encoding.recyclingPoolSize</code> is greater than zero, the
+ * factories of recyclable encodables ({@link IRecyclable}) are wrapped by a {@link
+ * PooledEncodableFactory}. Decoded objects of these types are reused after they have been
+ * returned by {@link #recycleEncodable(IEncodable)}.
  */
 public class EncodableFactoryManagerImpl implements IEncodableFactoryManager {
 
@@ -35,7 +49,38 @@ public class EncodableFactoryManagerImpl implements IEncodableFactoryManager {
   /* Map that stores the registered factories of the encodable objects */
   private final Map<String, IEncodableFactory>
       encodableStore =
-      new HashMap<String, IEncodableFactory>();
+      new ConcurrentHashMap<String, IEncodableFactory>();
+
+  /* Numeric identifiers of the type strings */
+  private final Map<String, Integer> typeIds = new ConcurrentHashMap<String, Integer>();
+
+  /* Type strings of the numeric identifiers */
+  private final Map<Integer, String> typesById = new ConcurrentHashMap<Integer, String>();
+
+  /* Size of the pools for recyclable encodables (0 disables the recycling) */
+  private final int recyclingPoolSize;
+
+  /**
+   * Default constructor.
+   */
+  public EncodableFactoryManagerImpl() {
+    this(null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param config configuration of the manager (may be null)
+   */
+  public EncodableFactoryManagerImpl(Configuration config) {
+    if (config == null) {
+      logger.info("No configuration is set for EncodableFactoryManager. Use default "
+          + "configuration.");
+      config = new BaseConfiguration();
+    }
+
+    recyclingPoolSize = Math.max(0, config.getInt("encoding.recyclingPoolSize", 0));
+  }
 
   /**
    * Factory method to create an encodable object.
@@ -55,12 +100,14 @@ public class EncodableFactoryManagerImpl implements IEncodableFactoryManager {
   }
 
   @Override
-  public void registerEncodableFactory(String type, IEncodableFactory encodableFactory) {
+  public synchronized void registerEncodableFactory(String type,
+                                                    IEncodableFactory encodableFactory) {
 
     if (encodableStore.containsKey(type)) {
 
-      IEncodable alreadyRegisteredClass = encodableStore.get(type).createEncodableObject();
-      IEncodable newRegisteredClass = encodableFactory.createEncodableObject();
+      IEncodable alreadyRegisteredClass =
+          unwrapFactory(encodableStore.get(type)).createEncodableObject();
+      IEncodable newRegisteredClass = unwrapFactory(encodableFactory).createEncodableObject();
 
       if (!alreadyRegisteredClass.getClass().equals(newRegisteredClass.getClass())) {
         throw new LlCoreRuntimeException("Key " + type + " already exists in FactoryManager.");
@@ -69,9 +116,15 @@ public class EncodableFactoryManagerImpl implements IEncodableFactoryManager {
       // A factory for the given encodable class is already registered.
       // Overwrite it with the new factory method.
     }
+    IEncodable sample = unwrapFactory(encodableFactory).createEncodableObject();
+    if (recyclingPoolSize > 0 && sample instanceof IRecyclable
+        && !(encodableFactory instanceof PooledEncodableFactory)) {
+      encodableFactory = new PooledEncodableFactory(encodableFactory, recyclingPoolSize);
+    }
+
     encodableStore.put(type, encodableFactory);
     logger.debug("IEncodableFactory for class '{}' registered at '{}'.",
-        encodableFactory.createEncodableObject().getClass().getSimpleName(), type);
+        sample.getClass().getSimpleName(), type);
   }
 
   @Override
@@ -81,14 +134,19 @@ public class EncodableFactoryManagerImpl implements IEncodableFactoryManager {
   }
 
   @Override
-  public void registerEncodableFactory(Class<? extends IEncodable> encodableClass) {
+  public synchronized void registerEncodableFactory(Class<? extends IEncodable> encodableClass) {
     String key = extractKey(encodableClass);
     IEncodableFactory factory = extractFactory(encodableClass);
     registerEncodableFactory(key, factory);
+
+    Integer typeId = extractTypeId(encodableClass);
+    if (typeId != null) {
+      registerTypeId(key, typeId);
+    }
   }
 
   @Override
-  public void unregisterEncodableFactory(String type) {
+  public synchronized void unregisterEncodableFactory(String type) {
     encodableStore.remove(type);
   }
 
@@ -98,6 +156,73 @@ public class EncodableFactoryManagerImpl implements IEncodableFactoryManager {
     unregisterEncodableFactory(key);
   }
 
+  @Override
+  public synchronized void registerTypeId(String type, int typeId) {
+    if (typeId < 0) {
+      throw new LlCoreRuntimeException("Type id " + typeId + " of '" + type + "' is negative.");
+    }
+
+    Integer existingId = typeIds.get(type);
+    String existingType = typesById.get(typeId);
+    if (existingId != null && existingId == typeId) {
+      return;
+    }
+    if (existingId != null) {
+      throw new LlCoreRuntimeException(
+          "Type '" + type + "' already has the type id " + existingId + ".");
+    }
+    if (existingType != null) {
+      throw new LlCoreRuntimeException(
+          "Type id " + typeId + " is already used by type '" + existingType + "'.");
+    }
+
+    typeIds.put(type, typeId);
+    typesById.put(typeId, type);
+    logger.debug("Type id {} registered for '{}'.", typeId, type);
+  }
+
+  @Override
+  public int getTypeId(String type) {
+    Integer typeId = typeIds.get(type);
+    return typeId != null ? typeId : NO_TYPE_ID;
+  }
+
+  @Override
+  public String getTypeForId(int typeId) {
+    String type = typesById.get(typeId);
+    if (type == null) {
+      logger.warn("Can't find IEncodable type for type id {}", typeId);
+      throw new LlCoreDecoderRuntimeException(
+          "Can't find IEncodable type for type id " + typeId);
+    }
+    return type;
+  }
+
+  @Override
+  public void recycleEncodable(IEncodable encodable) {
+    if (!(encodable instanceof IRecyclable)) {
+      return;
+    }
+    IEncodableFactory encodableFactory = encodableStore.get(encodable.getType());
+    if (encodableFactory instanceof PooledEncodableFactory) {
+      ((PooledEncodableFactory) encodableFactory).recycle(encodable);
+    }
+  }
+
+  /**
+   * Private helper method to get the original factory of a pooled factory. Objects created by the
+   * original factory don't remove objects from the pool.
+   *
+   * @param encodableFactory registered factory
+   * @return the original factory
+   */
+  private IEncodableFactory unwrapFactory(IEncodableFactory encodableFactory) {
+    if (encodableFactory instanceof PooledEncodableFactory) {
+      return ((PooledEncodableFactory) encodableFactory).getFactory();
+    }
+    return encodableFactory;
+  }
+
   /**
    * Private helper method to extract the type string of an encodable class using introspection.
    *
@@ -150,6 +275,40 @@ public class EncodableFactoryManagerImpl implements IEncodableFactoryManager {
     }
   }
 
+  /**
+   * Private helper method to extract the optional numeric type identifier of an encodable class
+   * using introspection.
+   *
+   * <p>Encodable classes may provide a static <code>getClassTypeId</code> method that returns the
+   * stable numeric identifier of the class. Inherited methods are ignored.
+   *
+   * @param encodableClass where the identifier should be read.
+   * @return The read identifier or null if the class doesn't provide an identifier.
+   */
+  private Integer extractTypeId(Class<? extends IEncodable> encodableClass) {
+    Method method;
+    try {
+      method = encodableClass.getMethod("getClassTypeId");
+    } catch (NoSuchMethodException ex) {
+      return null;
+    }
+
+    if (method.getDeclaringClass() != encodableClass) {
+      // An inherited identifier belongs to another type string
+      return null;
+    }
+
+    try {
+      return (Integer) method.invoke(null);
+    } catch (IllegalAccessException ex) {
+      throw new LlCoreRuntimeException("The type id of an encodable class can't be "
+          + "extracted. Maybe the 'getClassTypeId'-method isn't public.", ex);
+    } catch (InvocationTargetException ex) {
+      throw new LlCoreRuntimeException("The type id of an encodable class can't be "
+          + "extracted. Maybe the 'getClassTypeId'-method isn't public.", ex);
+    }
+  }
+
   Map<String, IEncodableFactory> getEncodableStore() {
     return encodableStore;
   }
@@ -6,9 +6,13 @@
 package at.ac.ait.lablink.core.connection.encoding.impl;
 
 import at.ac.ait.lablink.core.connection.encoding.EncoderBase;
+import at.ac.ait.lablink.core.connection.encoding.IEncodableFactoryManager;
 
 import org.apache.commons.configuration.Configuration;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 /**
  * Factory class for creating the encoder that should be used for encoding packets.
  */
@@ -17,7 +21,10 @@ public class EncoderFactory {
   private final EEncoderType defaultEncoder;
   private final Configuration config;
 
-  private EncoderBase encoder;
+  private IEncodableFactoryManager encodableFactoryManager;
+
+  private Map<EEncoderType, EncoderBase> encoders =
+      new EnumMap<EEncoderType, EncoderBase>(EEncoderType.class);
   //TODO create encoder pool for thread
 
   /**
@@ -40,13 +47,12 @@ public class EncoderFactory {
   public synchronized EncoderBase getEncoderObject(EEncoderType key) {
 
     //TODO borrow encoder from pool
-    EncoderBase encoder = this.encoder;
+    EncoderBase encoder = encoders.get(key);
 
     if (encoder == null) {
       encoder = createEncoderObject(key);
     }
 
-
     return encoder;
   }
 
@@ -60,11 +66,15 @@ public class EncoderFactory {
     EncoderBase encoder;
 
     switch (key) {
+      case JSON_STREAM:
+        encoder = new JsonStreamEncoder(config);
+        break;
       default:
         encoder = new JsonEncoder(config);
     }
 
-    this.encoder = encoder;
+    encoder.setEncodableFactoryManager(this.encodableFactoryManager);
+    this.encoders.put(key, encoder);
     return encoder;
   }
 
@@ -86,10 +96,20 @@ public class EncoderFactory {
     //TODO implementation
   }
 
+  /**
+   * Set the factory manager that provides the numeric type identifiers for the compact framing
+   * mode of the encoders.
+   *
+   * @param encodableFactoryManager that should be redirected to the generated encoder.
+   */
+  public void setEncodableFactoryManager(IEncodableFactoryManager encodableFactoryManager) {
+    this.encodableFactoryManager = encodableFactoryManager;
+  }
+
   /**
    * Enumeration of different encoder that are used within the system.
    */
   public enum EEncoderType {
-    JSON
+    JSON, JSON_STREAM
   }
 }
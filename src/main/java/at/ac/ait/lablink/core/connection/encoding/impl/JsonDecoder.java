@@ -6,7 +6,10 @@
 package at.ac.ait.lablink.core.connection.encoding.impl;
 
 import at.ac.ait.lablink.core.connection.encoding.DecoderBase;
+import at.ac.ait.lablink.core.connection.encoding.IDeferredEncodable;
 import at.ac.ait.lablink.core.connection.encoding.IEncodable;
+import at.ac.ait.lablink.core.connection.encoding.IEncodableFactoryManager;
+import at.ac.ait.lablink.core.connection.encoding.ILazyDecoder;
 import at.ac.ait.lablink.core.connection.ex.LlCoreDecoderRuntimeException;
 import at.ac.ait.lablink.core.connection.ex.LlCoreEncoderRuntimeException;
 import at.ac.ait.lablink.core.service.types.Complex;
@@ -17,13 +20,13 @@ import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 import com.eclipsesource.json.ParseException;
 
-import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -35,7 +38,7 @@ import java.util.List;
  *
  * <p>The Json decoder will decode a JSON string into an IEncodable Java representation.
  */
-public class JsonDecoder extends DecoderBase {
+public class JsonDecoder extends DecoderBase implements ILazyDecoder {
 
   private static final Logger logger = LoggerFactory.getLogger(JsonDecoder.class);
 
@@ -50,6 +53,9 @@ public class JsonDecoder extends DecoderBase {
   /** Maximum allowed stack size. **/
   private int maxStackSize = defaultMaxStackSize;
 
+  /** Decode payloads of packets on demand. **/
+  private boolean lazyDecoding = false;
+
   /**
    * Default Constructor.
    */
@@ -70,6 +76,9 @@ public class JsonDecoder extends DecoderBase {
    * <li><b>encoding.maxStackSize</b> (200, int): Maximum allowed size of decoder stack. The
    * stack will be used for the creation of nested {@link IEncodable} objects or for lists of
    * {@link IEncodable} objects.</li>
+   *
+   * <li><b>encoding.lazyPayloadDecoding</b> (false, boolean): Decode the payloads of a packet
+   * on first access instead of decoding them together with the header.</li>
    * </ul>
    *
    * @param config Configuration object that is used to parametrize the JsonDecoder.
@@ -84,9 +93,21 @@ public class JsonDecoder extends DecoderBase {
     }
 
     maxStackSize = config.getInt("encoding.maxStackSize", defaultMaxStackSize);
+    lazyDecoding = config.getBoolean("encoding.lazyPayloadDecoding", lazyDecoding);
     logger.info("IEncoder: MaxStackSize: {}", maxStackSize);
   }
 
+  /**
+   * Constructor for decoding deferred elements.
+   *
+   * @param maxStackSize            maximum allowed stack size
+   * @param encodableFactoryManager factory manager for creating the decoded elements
+   */
+  private JsonDecoder(int maxStackSize, IEncodableFactoryManager encodableFactoryManager) {
+    this.maxStackSize = maxStackSize;
+    this.encodableFactoryManager = encodableFactoryManager;
+  }
+
   @Override
   protected IEncodable getDecodedElement() {
 
@@ -110,7 +131,7 @@ public class JsonDecoder extends DecoderBase {
           "Top-level element can't be decoded. The element" + "isn't a JSON object.");
     }
 
-    String objectType = ((JsonObject) value).get("$type").asString();
+    String objectType = getObjectType((JsonObject) value);
     firstElement = encodableFactoryManager.createEncodable(objectType);
 
     firstElement.decode(this);
@@ -145,6 +166,26 @@ public class JsonDecoder extends DecoderBase {
     return ((JsonObject) value).get(key);
   }
 
+  /**
+   * Read the type of an encoded object. The type is either stored as type string or as numeric
+   * type identifier (compact framing).
+   *
+   * @param object encoded object
+   * @return the type string of the object.
+   */
+  private String getObjectType(JsonObject object) {
+    JsonValue type = object.get("$type");
+    if (type.isNumber()) {
+      return encodableFactoryManager.getTypeForId(type.asInt());
+    }
+    return type.asString();
+  }
+
+  @Override
+  public boolean hasKey(String key) {
+    return getLastJsonValue(key) != null;
+  }
+
   @Override
   public String getString(String key) {
     JsonValue value = getLastJsonValue(key);
@@ -240,9 +281,18 @@ public class JsonDecoder extends DecoderBase {
       logger.warn("IEncodable Element '{}' is null ({})", key, value);
       return new byte[0];
     } else {
-      String str = getLastJsonValue(key).asString();
-      return Base64.decodeBase64(str);
+      return decodeBlob(value.asString());
+    }
+  }
+
+  @Override
+  public ByteBuffer getBlobBuffer(String key) {
+    JsonValue value = getLastJsonValue(key);
+    if (value.isNull()) {
+      logger.warn("IEncodable Element '{}' is null ({})", key, value);
+      return ByteBuffer.allocate(0).asReadOnlyBuffer();
     }
+    return decodeBlobBuffer(value.asString());
   }
 
   @Override
@@ -262,11 +312,74 @@ public class JsonDecoder extends DecoderBase {
     return new Complex(reValue.asDouble(), imValue.asDouble());
   }
 
+  @Override
+  public double[] getDoubleArray(String key) {
+    JsonValue value = getLastJsonValue(key);
+    if (value.isNull()) {
+      logger.warn("IEncodable Element '{}' is null ({})", key, value);
+      return new double[0];
+    }
+    return toDoubleArray(value.asArray());
+  }
+
+  @Override
+  public long[] getLongArray(String key) {
+    JsonValue value = getLastJsonValue(key);
+    if (value.isNull()) {
+      logger.warn("IEncodable Element '{}' is null ({})", key, value);
+      return new long[0];
+    }
+
+    JsonArray array = value.asArray();
+    long[] values = new long[array.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = array.get(i).asLong();
+    }
+    return values;
+  }
+
+  @Override
+  public Complex[] getComplexArray(String key) {
+    JsonValue reValue = getLastJsonValue(key + "_re");
+    if (reValue.isNull()) {
+      logger.warn("IEncodable Element '{}' is null ({})", key + "_re", reValue);
+      return new Complex[0];
+    }
+
+    JsonValue imValue = getLastJsonValue(key + "_im");
+    if (imValue.isNull()) {
+      logger.warn("IEncodable Element '{}' is null ({})", key + "_im", imValue);
+      return new Complex[0];
+    }
+
+    double[] realParts = toDoubleArray(reValue.asArray());
+    double[] imaginaryParts = toDoubleArray(imValue.asArray());
+    if (realParts.length != imaginaryParts.length) {
+      throw new LlCoreDecoderRuntimeException("Complex array '" + key + "' has different "
+          + "numbers of real (" + realParts.length + ") and imaginary (" + imaginaryParts.length
+          + ") parts.");
+    }
+
+    Complex[] values = new Complex[realParts.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = new Complex(realParts[i], imaginaryParts[i]);
+    }
+    return values;
+  }
+
+  private double[] toDoubleArray(JsonArray array) {
+    double[] values = new double[array.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = array.get(i).asDouble();
+    }
+    return values;
+  }
+
   @Override
   public IEncodable getEncodable(String key) {
     JsonObject object = getLastJsonValue(key).asObject();
 
-    String objectType = object.get("$type").asString();
+    String objectType = getObjectType(object);
     IEncodable element = encodableFactoryManager.createEncodable(objectType);
 
     checkStackSize();
@@ -299,7 +412,7 @@ public class JsonDecoder extends DecoderBase {
       } else {
         JsonObject object = (JsonObject) val;
 
-        String objectType = object.get("$type").asString();
+        String objectType = getObjectType(object);
         IEncodable element = encodableFactoryManager.createEncodable(objectType);
 
         checkStackSize();
@@ -313,6 +426,66 @@ public class JsonDecoder extends DecoderBase {
     return retList;
   }
 
+  @Override
+  public boolean isLazyDecodingEnabled() {
+    return lazyDecoding;
+  }
+
+  @Override
+  public List<IDeferredEncodable> getDeferredEncodables(String key) {
+    JsonValue value = getLastJsonValue(key);
+    if (value.isNull()) {
+      logger.warn("IEncodable Element '{}' is null ({})", key, value);
+      return Collections.emptyList();
+    }
+
+    List<IDeferredEncodable> retList = new ArrayList<IDeferredEncodable>();
+
+    for (JsonValue val : value.asArray()) {
+      if (!val.isObject()) {
+        throw new LlCoreDecoderRuntimeException(
+            "IEncodable can't be decoded. " + "The element isn't a JSON object.");
+      }
+      JsonObject object = (JsonObject) val;
+      retList.add(new DeferredJsonObject(getObjectType(object), object));
+    }
+    return retList;
+  }
+
+  /**
+   * Element of a parsed JSON document that will be decoded on demand.
+   */
+  private class DeferredJsonObject implements IDeferredEncodable {
+
+    private final String type;
+    private final JsonObject object;
+    private final ByteBuffer blobSection;
+
+    DeferredJsonObject(String type, JsonObject object) {
+      this.type = type;
+      this.object = object;
+      this.blobSection = getBlobSection();
+    }
+
+    @Override
+    public String getType() {
+      return type;
+    }
+
+    @Override
+    public IEncodable decode() {
+      JsonDecoder decoder = new JsonDecoder(maxStackSize, encodableFactoryManager);
+      decoder.setBlobSection(blobSection);
+      IEncodable element = encodableFactoryManager.createEncodable(type);
+
+      decoder.decoderStack.addFirst(object);
+      element.decode(decoder);
+      element.decodingCompleted();
+      decoder.decoderStack.removeFirst();
+      return element;
+    }
+  }
+
   /**
    * Check if the maximum stack size is exceeded.
    *
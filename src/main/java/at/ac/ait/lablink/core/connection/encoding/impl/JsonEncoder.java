@@ -7,6 +7,7 @@ package at.ac.ait.lablink.core.connection.encoding.impl;
 
 import at.ac.ait.lablink.core.connection.encoding.EncoderBase;
 import at.ac.ait.lablink.core.connection.encoding.IEncodable;
+import at.ac.ait.lablink.core.connection.encoding.IEncodableFactoryManager;
 import at.ac.ait.lablink.core.connection.ex.LlCoreEncoderRuntimeException;
 import at.ac.ait.lablink.core.service.types.Complex;
 
@@ -16,7 +17,6 @@ import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 import com.eclipsesource.json.WriterConfig;
 
-import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
 
@@ -65,6 +65,13 @@ public class JsonEncoder extends EncoderBase {
    * <li><b>encoding.maxStackSize</b> (200, int): Maximum allowed size of encoder stack. The
    * stack will be used for the creation of nested {@link IEncodable} objects or for lists of
    * {@link IEncodable} objects.</li>
+   *
+   * <li><b>encoding.compactFraming</b> (false, boolean): Write numeric type identifiers instead
+   * of type strings and omit header fields that are part of the message topic.</li>
+   *
+   * <li><b>encoding.blobSectionThreshold</b> (0, int): Minimum size in bytes of blobs that are
+   * transported as raw bytes in the blob section instead of Base64 strings (0 disables the blob
+   * section).</li>
    * </ul>
    *
    * @param config Configuration object that is used to parametrize the JsonEncoder.
@@ -79,7 +86,9 @@ public class JsonEncoder extends EncoderBase {
     }
 
     maxStackSize = config.getInt("encoding.maxStackSize", defaultMaxStackSize);
-    logger.info("IEncoder: MaxStackSize: {}", maxStackSize);
+    compactFraming = config.getBoolean("encoding.compactFraming", compactFraming);
+    blobSectionThreshold = config.getInt("encoding.blobSectionThreshold", blobSectionThreshold);
+    logger.info("IEncoder: MaxStackSize: {}, CompactFraming: {}", maxStackSize, compactFraming);
   }
 
   @Override
@@ -90,7 +99,7 @@ public class JsonEncoder extends EncoderBase {
 
     JsonObject baseObject = (JsonObject) encoderStack.getFirst();
     checkValueIsNull(value.getType());
-    baseObject.add("$type", value.getType());
+    addTypeMember(baseObject, value.getType());
     value.encode(this);
   }
 
@@ -150,7 +159,7 @@ public class JsonEncoder extends EncoderBase {
   public void putFloat(String key, float value) {
     logger.trace("Add float to JSON encoder: {} ({})",key, value);
     checkJsonObjectKey(key);
-    checkValueIsNull(value);
+    checkFiniteValue(value);
     JsonObject actEncoderObject = (JsonObject) encoderStack.getFirst();
     actEncoderObject.add(key, value);
   }
@@ -160,7 +169,7 @@ public class JsonEncoder extends EncoderBase {
 
     logger.trace("Add double to JSON encoder: {} ({})",key, value);
     checkJsonObjectKey(key);
-    checkValueIsNull(value);
+    checkFiniteValue(value);
     JsonObject actEncoderObject = (JsonObject) encoderStack.getFirst();
     actEncoderObject.add(key, value);
   }
@@ -200,22 +209,62 @@ public class JsonEncoder extends EncoderBase {
     checkValueIsNull(value);
     JsonObject actEncoderObject = (JsonObject) encoderStack.getFirst();
 
-    String blob = Base64.encodeBase64String(value);
-    actEncoderObject.add(key, blob);
+    actEncoderObject.add(key, encodeBlob(value));
   }
 
   @Override
   public void putComplex(String key, Complex value) {
     logger.trace("Add complex number to JSON encoder: {}",key);
     checkJsonObjectKey(key);
-    checkValueIsNull(value.re());
-    checkValueIsNull(value.im());
+    checkFiniteValue(value.re());
+    checkFiniteValue(value.im());
     JsonObject actEncoderObject = (JsonObject) encoderStack.getFirst();
 
     actEncoderObject.add(key + "_re", value.re());
     actEncoderObject.add(key + "_im", value.im());
   }
 
+  @Override
+  public void putDoubleArray(String key, double[] values) {
+    logger.trace("Add double array to JSON encoder: {}",key);
+    checkJsonObjectKey(key);
+    checkValueIsNull(values);
+    for (double value : values) {
+      checkFiniteValue(value);
+    }
+    JsonObject actEncoderObject = (JsonObject) encoderStack.getFirst();
+    actEncoderObject.add(key, Json.array(values));
+  }
+
+  @Override
+  public void putLongArray(String key, long[] values) {
+    logger.trace("Add long array to JSON encoder: {}",key);
+    checkJsonObjectKey(key);
+    checkValueIsNull(values);
+    JsonObject actEncoderObject = (JsonObject) encoderStack.getFirst();
+    actEncoderObject.add(key, Json.array(values));
+  }
+
+  @Override
+  public void putComplexArray(String key, Complex[] values) {
+    logger.trace("Add complex array to JSON encoder: {}",key);
+    checkJsonObjectKey(key);
+    checkValueIsNull(values);
+    JsonArray realParts = new JsonArray();
+    JsonArray imaginaryParts = new JsonArray();
+    for (Complex value : values) {
+      checkValueIsNull(value);
+      checkFiniteValue(value.re());
+      checkFiniteValue(value.im());
+      realParts.add(value.re());
+      imaginaryParts.add(value.im());
+    }
+    JsonObject actEncoderObject = (JsonObject) encoderStack.getFirst();
+
+    actEncoderObject.add(key + "_re", realParts);
+    actEncoderObject.add(key + "_im", imaginaryParts);
+  }
+
   @Override
   public void putEncodable(String key, IEncodable value) {
 
@@ -225,7 +274,7 @@ public class JsonEncoder extends EncoderBase {
     checkStackSize();
 
     JsonObject actEncoderObject = Json.object();
-    actEncoderObject.add("$type", value.getType());
+    addTypeMember(actEncoderObject, value.getType());
     encoderStack.addFirst(actEncoderObject);
     value.encode(this);
     encoderStack.removeFirst();
@@ -249,6 +298,22 @@ public class JsonEncoder extends EncoderBase {
     parentEncoderObject.add(key, actEncoderObject);
   }
 
+  /**
+   * Add the type member of an encoded object. In compact framing mode the numeric type
+   * identifier is used if it is available.
+   *
+   * @param object encoded object
+   * @param type   type string of the object
+   */
+  private void addTypeMember(JsonObject object, String type) {
+    int typeId = getCompactTypeId(type);
+    if (typeId != IEncodableFactoryManager.NO_TYPE_ID) {
+      object.add("$type", typeId);
+    } else {
+      object.add("$type", type);
+    }
+  }
+
   /**
    * Add an array to the last Json object in the stack.
    *
@@ -263,7 +328,7 @@ public class JsonEncoder extends EncoderBase {
       checkStackSize();
       checkValueIsNull(value);
       JsonObject actEncoderObject = Json.object();
-      actEncoderObject.add("$type", value.getType());
+      addTypeMember(actEncoderObject, value.getType());
       encoderStack.addFirst(actEncoderObject);
       value.encode(this);
       encoderStack.removeFirst();
@@ -319,6 +384,13 @@ public class JsonEncoder extends EncoderBase {
     }
   }
 
+  private void checkFiniteValue(double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      throw new LlCoreEncoderRuntimeException(
+          "Infinite and NaN values not permitted in JSON. Abort encoding.");
+    }
+  }
+
   /**
    * Check if the maximum stack size is exceeded.
    *
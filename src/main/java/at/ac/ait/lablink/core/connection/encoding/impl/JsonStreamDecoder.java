@@ -0,0 +1,946 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding.impl;
+
+import at.ac.ait.lablink.core.connection.encoding.DecoderBase;
+import at.ac.ait.lablink.core.connection.encoding.IDeferredEncodable;
+import at.ac.ait.lablink.core.connection.encoding.IEncodable;
+import at.ac.ait.lablink.core.connection.encoding.IEncodableFactoryManager;
+import at.ac.ait.lablink.core.connection.encoding.ILazyDecoder;
+import at.ac.ait.lablink.core.connection.ex.LlCoreDecoderRuntimeException;
+import at.ac.ait.lablink.core.service.types.Complex;
+import at.ac.ait.lablink.core.utility.StringInternCache;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming JSON decoder.
+ *
+ * <p>IDecoder that reads the JSON representation of Lablink encodables directly from the byte
+ * array with a streaming Jackson {@link JsonParser}. No JSON object tree is built. The fields of
+ * every object level are indexed lazily: a requested field is searched by reading forward in the
+ * parser, and the fields passed on the way are kept in the index of the level. Encodables usually
+ * read their fields in the same order they were written, so most fields are read from the parser
+ * directly.
+ *
+ * <p>Missing and null fields are handled in the same way as by the {@link JsonDecoder}.
+ *
+ * <p>In lazy decoding mode, deferred encodables only keep their type and their byte range within
+ * the source array. They are decoded with their own parser on demand.
+ */
+public class JsonStreamDecoder extends DecoderBase implements ILazyDecoder {
+
+  private static final Logger logger = LoggerFactory.getLogger(JsonStreamDecoder.class);
+
+  private static final String TYPE_KEY = "$type";
+
+  /** Factory for the parsers (thread-safe, shared to reuse its symbol tables). **/
+  private static final JsonFactory jsonFactory = new JsonFactory();
+
+  /** Source of the current decoding. **/
+  private byte[] source;
+
+  /** Parser that reads the source of the current decoding. **/
+  private JsonParser sourceParser;
+
+  /** Start of the current decoding within the source. **/
+  private int sourceOffset;
+
+  /** Top level element of the the decoded packet. **/
+  private IEncodable firstElement;
+
+  /** Object levels of the decoding (reused between decodings). **/
+  private final List<Level> levels = new ArrayList<Level>();
+
+  /** Number of currently decoded object levels. **/
+  private int depth = 0;
+
+  /** Stored field of the last lookup, null if the value is the current token of the parser. **/
+  private FieldValue storedValue;
+
+  private final int defaultMaxStackSize = 200;
+
+  /** Maximum allowed stack size. **/
+  private int maxStackSize = defaultMaxStackSize;
+
+  /** Decode payloads of packets on demand. **/
+  private boolean lazyDecoding = false;
+
+  /**
+   * Default Constructor.
+   */
+  public JsonStreamDecoder() {
+    this(null);
+  }
+
+  /**
+   * Constructor with optional configuration object.
+   *
+   * <p>The following list shows the current implemented configuration properties withs their
+   * default values (between brackets):
+   * <ul>
+   *
+   * <li><b>encoding.maxStackSize</b> (200, int): Maximum allowed size of decoder stack. The
+   * stack will be used for the creation of nested {@link IEncodable} objects or for lists of
+   * {@link IEncodable} objects.</li>
+   *
+   * <li><b>encoding.lazyPayloadDecoding</b> (false, boolean): Decode the payloads of a packet
+   * on first access instead of decoding them together with the header.</li>
+   * </ul>
+   *
+   * @param config Configuration object that is used to parametrize the JsonStreamDecoder.
+   *               Different parameters can be set. If no parameter is set, the decoder
+   *               will use the default settings.
+   */
+  public JsonStreamDecoder(Configuration config) {
+
+    if (config == null) {
+      logger.info("No configuration is set for JsonStreamDecoder. Use default configuration.");
+      config = new BaseConfiguration();
+    }
+
+    maxStackSize = config.getInt("encoding.maxStackSize", defaultMaxStackSize);
+    lazyDecoding = config.getBoolean("encoding.lazyPayloadDecoding", lazyDecoding);
+    logger.info("IDecoder: MaxStackSize: {}", maxStackSize);
+  }
+
+  /**
+   * Constructor for decoding deferred elements.
+   *
+   * @param maxStackSize            maximum allowed stack size
+   * @param encodableFactoryManager factory manager for creating the decoded elements
+   */
+  private JsonStreamDecoder(int maxStackSize, IEncodableFactoryManager encodableFactoryManager) {
+    this.maxStackSize = maxStackSize;
+    this.encodableFactoryManager = encodableFactoryManager;
+  }
+
+  @Override
+  protected IEncodable getDecodedElement() {
+
+    if (depth > 0) {
+      throw new LlCoreDecoderRuntimeException("Stack size (" + depth + ") > 0. "
+          + "Decoding hasn't finished and is stuck in a nested object or you read a decoded "
+          + "object until a new decoding has been started.");
+    }
+    return firstElement;
+  }
+
+  @Override
+  protected void decodeElement(byte[] source) {
+
+    initDecoder(source);
+
+    firstElement = decodeCurrentObject();
+
+    try {
+      if (levels.get(0).parser.nextToken() != null) {
+        throw new LlCoreDecoderRuntimeException(
+            "Error during reading the JSON string. Unexpected content after the top-level "
+                + "element.");
+      }
+      levels.get(0).parser.close();
+    } catch (IOException ex) {
+      throw new LlCoreDecoderRuntimeException("Error during reading the JSON string.", ex);
+    }
+  }
+
+  /**
+   * Initialize the decoder and open the top-level object.
+   *
+   * @param source JSON document to be parsed
+   */
+  void initDecoder(byte[] source) {
+    initDecoder(source, 0, source.length);
+  }
+
+  private void initDecoder(byte[] source, int offset, int length) {
+    firstElement = null;
+    depth = 0;
+    storedValue = null;
+    this.source = source;
+    this.sourceOffset = offset;
+
+    try {
+      JsonParser parser = jsonFactory.createParser(source, offset, length);
+      sourceParser = parser;
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new LlCoreDecoderRuntimeException(
+            "Top-level element can't be decoded. The element isn't a JSON object.");
+      }
+      pushLevel(parser);
+    } catch (IOException ex) {
+      throw new LlCoreDecoderRuntimeException("Error during reading the JSON string.", ex);
+    }
+  }
+
+  @Override
+  public String getString(String key) {
+    return readStringField(key, null);
+  }
+
+  @Override
+  public String getInternedString(String key) {
+    return readStringField(key, getStringInternCache());
+  }
+
+  @Override
+  public List<String> getStrings(String key) {
+    return readStringList(key, null);
+  }
+
+  @Override
+  public List<String> getInternedStrings(String key) {
+    return readStringList(key, getStringInternCache());
+  }
+
+  private String readStringField(String key, StringInternCache cache) {
+    JsonToken token = locateField(key);
+    if (token == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key);
+      return "";
+    }
+    return readString(key, token, cache);
+  }
+
+  private List<String> readStringList(String key, StringInternCache cache) {
+    JsonToken token = locateField(key);
+    if (token == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key);
+      return Collections.emptyList();
+    }
+    checkToken(key, token, JsonToken.START_ARRAY);
+
+    JsonParser parser = openStructure(key);
+    List<String> retList = new ArrayList<String>();
+
+    try {
+      JsonToken element;
+      while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+        if (element == JsonToken.VALUE_NULL) {
+          logger.warn("IEncodable Element  in list '{}' is null", key);
+          retList.add("");
+        } else {
+          checkToken(key, element, JsonToken.VALUE_STRING);
+          retList.add(cache != null ? internText(parser, cache) : parser.getText());
+        }
+      }
+    } catch (IOException ex) {
+      throw new LlCoreDecoderRuntimeException("Error during reading the JSON string.", ex);
+    }
+    return retList;
+  }
+
+  /**
+   * Resolve the text of the current token with the intern cache. The characters are read from
+   * the buffer of the parser, so no string is created for cached values.
+   */
+  private String internText(JsonParser parser, StringInternCache cache) throws IOException {
+    return cache.intern(parser.getTextCharacters(), parser.getTextOffset(),
+        parser.getTextLength());
+  }
+
+  @Override
+  public float getFloat(String key) {
+    JsonToken token = locateField(key);
+    if (token == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key);
+      return 0.0f;
+    }
+    checkNumber(key, token);
+
+    if (storedValue != null) {
+      return storedValue.text != null ? Float.parseFloat(storedValue.text)
+          : (float) storedValue.doubleValue;
+    }
+    try {
+      float value = parserOfLevel().getFloatValue();
+      cacheNumber(key, value, (long) value);
+      return value;
+    } catch (IOException ex) {
+      throw new LlCoreDecoderRuntimeException("Can't decode float element '" + key + "'.", ex);
+    }
+  }
+
+  @Override
+  public double getDouble(String key) {
+    JsonToken token = locateField(key);
+    if (token == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key);
+      return 0.0;
+    }
+    return readDouble(key, token);
+  }
+
+  @Override
+  public boolean getBoolean(String key) {
+    JsonToken token = locateField(key);
+    if (token == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key);
+      return false;
+    }
+    if (token != JsonToken.VALUE_TRUE && token != JsonToken.VALUE_FALSE) {
+      throw new LlCoreDecoderRuntimeException(
+          "IEncodable Element '" + key + "' isn't a boolean (" + token + ").");
+    }
+    return token == JsonToken.VALUE_TRUE;
+  }
+
+  @Override
+  public int getInt(String key) {
+    JsonToken token = locateField(key);
+    if (token == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key);
+      return 0;
+    }
+    checkToken(key, token, JsonToken.VALUE_NUMBER_INT);
+
+    try {
+      if (storedValue != null) {
+        return storedValue.text != null ? Integer.parseInt(storedValue.text, 10)
+            : (int) storedValue.longValue;
+      }
+      int value = parserOfLevel().getIntValue();
+      cacheNumber(key, value, value);
+      return value;
+    } catch (IOException | NumberFormatException ex) {
+      throw new LlCoreDecoderRuntimeException("Can't decode int element '" + key + "'.", ex);
+    }
+  }
+
+  @Override
+  public long getLong(String key) {
+    JsonToken token = locateField(key);
+    if (token == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key);
+      return 0;
+    }
+    checkToken(key, token, JsonToken.VALUE_NUMBER_INT);
+
+    try {
+      if (storedValue != null) {
+        return storedValue.text != null ? Long.parseLong(storedValue.text, 10)
+            : storedValue.longValue;
+      }
+      long value = parserOfLevel().getLongValue();
+      cacheNumber(key, value, value);
+      return value;
+    } catch (IOException | NumberFormatException ex) {
+      throw new LlCoreDecoderRuntimeException("Can't decode long element '" + key + "'.", ex);
+    }
+  }
+
+  @Override
+  public byte[] getBlob(String key) {
+    JsonToken token = locateField(key);
+    if (token == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key);
+      return new byte[0];
+    }
+    return decodeBlob(readString(key, token));
+  }
+
+  @Override
+  public ByteBuffer getBlobBuffer(String key) {
+    JsonToken token = locateField(key);
+    if (token == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key);
+      return ByteBuffer.allocate(0).asReadOnlyBuffer();
+    }
+    return decodeBlobBuffer(readString(key, token));
+  }
+
+  @Override
+  public Complex getComplex(String key) {
+    JsonToken reToken = locateField(key + "_re");
+    if (reToken == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key + "_re");
+      return new Complex(0., 0.);
+    }
+    double re = readDouble(key + "_re", reToken);
+
+    JsonToken imToken = locateField(key + "_im");
+    if (imToken == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key + "_im");
+      return new Complex(0., 0.);
+    }
+
+    return new Complex(re, readDouble(key + "_im", imToken));
+  }
+
+  @Override
+  public double[] getDoubleArray(String key) {
+    JsonToken token = locateField(key);
+    if (token == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key);
+      return new double[0];
+    }
+    return readDoubleArray(key, token);
+  }
+
+  @Override
+  public long[] getLongArray(String key) {
+    JsonToken token = locateField(key);
+    if (token == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key);
+      return new long[0];
+    }
+    checkToken(key, token, JsonToken.START_ARRAY);
+
+    JsonParser parser = openStructure(key);
+    long[] values = new long[16];
+    int size = 0;
+
+    try {
+      JsonToken element;
+      while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+        checkToken(key, element, JsonToken.VALUE_NUMBER_INT);
+        if (size == values.length) {
+          values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = parser.getLongValue();
+      }
+    } catch (IOException ex) {
+      throw new LlCoreDecoderRuntimeException("Can't decode long array '" + key + "'.", ex);
+    }
+    return Arrays.copyOf(values, size);
+  }
+
+  @Override
+  public Complex[] getComplexArray(String key) {
+    JsonToken reToken = locateField(key + "_re");
+    if (reToken == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key + "_re");
+      return new Complex[0];
+    }
+    double[] realParts = readDoubleArray(key + "_re", reToken);
+
+    JsonToken imToken = locateField(key + "_im");
+    if (imToken == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key + "_im");
+      return new Complex[0];
+    }
+    double[] imaginaryParts = readDoubleArray(key + "_im", imToken);
+
+    if (realParts.length != imaginaryParts.length) {
+      throw new LlCoreDecoderRuntimeException("Complex array '" + key + "' has different "
+          + "numbers of real (" + realParts.length + ") and imaginary (" + imaginaryParts.length
+          + ") parts.");
+    }
+
+    Complex[] values = new Complex[realParts.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = new Complex(realParts[i], imaginaryParts[i]);
+    }
+    return values;
+  }
+
+  @Override
+  public IEncodable getEncodable(String key) {
+    JsonToken token = locateField(key);
+    checkToken(key, token, JsonToken.START_OBJECT);
+
+    openStructure(key);
+    return decodeCurrentObject();
+  }
+
+  @Override
+  public List<? extends IEncodable> getEncodables(String key) {
+    JsonToken token = locateField(key);
+    if (token == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key);
+      return Collections.emptyList();
+    }
+    checkToken(key, token, JsonToken.START_ARRAY);
+
+    JsonParser parser = openStructure(key);
+    List<IEncodable> retList = new ArrayList<IEncodable>();
+
+    try {
+      JsonToken element;
+      while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+        if (element != JsonToken.START_OBJECT) {
+          throw new LlCoreDecoderRuntimeException(
+              "IEncodable can't be decoded. " + "The element isn't a JSON object.");
+        }
+        checkStackSize();
+        pushLevel(parser);
+        retList.add(decodeCurrentObject());
+      }
+    } catch (IOException ex) {
+      throw new LlCoreDecoderRuntimeException("Error during reading the JSON string.", ex);
+    }
+    return retList;
+  }
+
+  @Override
+  public boolean hasKey(String key) {
+    Level level = levels.get(depth - 1);
+    if (level.index.containsKey(key)) {
+      return true;
+    }
+
+    try {
+      while (!level.finished) {
+        if (level.parser.nextToken() == JsonToken.END_OBJECT) {
+          level.finished = true;
+          break;
+        }
+        String name = level.parser.currentName();
+        level.index.put(name, level.captureValue(level.parser.nextToken()));
+        if (name.equals(key)) {
+          return true;
+        }
+      }
+    } catch (IOException ex) {
+      throw new LlCoreDecoderRuntimeException("Error during reading the JSON string.", ex);
+    }
+    return false;
+  }
+
+  @Override
+  public boolean isLazyDecodingEnabled() {
+    return lazyDecoding;
+  }
+
+  @Override
+  public List<IDeferredEncodable> getDeferredEncodables(String key) {
+    JsonToken token = locateField(key);
+    if (token == JsonToken.VALUE_NULL) {
+      logger.warn("IEncodable Element '{}' is null", key);
+      return Collections.emptyList();
+    }
+    checkToken(key, token, JsonToken.START_ARRAY);
+
+    List<IDeferredEncodable> retList = new ArrayList<IDeferredEncodable>();
+
+    if (storedValue != null || parserOfLevel() != sourceParser || sourceOffset != 0) {
+      // The array isn't read from the source, so the elements are decoded immediately.
+      for (IEncodable element : getEncodables(key)) {
+        retList.add(new DecodedElement(element));
+      }
+      return retList;
+    }
+
+    JsonParser parser = sourceParser;
+    try {
+      JsonToken element;
+      while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+        if (element != JsonToken.START_OBJECT) {
+          throw new LlCoreDecoderRuntimeException(
+              "IEncodable can't be decoded. " + "The element isn't a JSON object.");
+        }
+        int start = (int) parser.getTokenLocation().getByteOffset();
+
+        String type = null;
+        while (parser.nextToken() != JsonToken.END_OBJECT) {
+          String name = parser.currentName();
+          JsonToken valueToken = parser.nextToken();
+          if (!TYPE_KEY.equals(name)) {
+            parser.skipChildren();
+          } else if (valueToken == JsonToken.VALUE_NUMBER_INT) {
+            type = encodableFactoryManager.getTypeForId(parser.getIntValue());
+          } else if (valueToken == JsonToken.VALUE_STRING) {
+            type = parser.getText();
+          }
+        }
+        if (type == null) {
+          throw new NullPointerException("IEncodable Element '" + TYPE_KEY + "' isn't available.");
+        }
+
+        int end = (int) parser.getCurrentLocation().getByteOffset();
+        retList.add(new DeferredJsonBytes(type, source, start, end - start));
+      }
+    } catch (IOException ex) {
+      throw new LlCoreDecoderRuntimeException("Error during reading the JSON string.", ex);
+    }
+    return retList;
+  }
+
+  /**
+   * Decode the object of the current level. The level will be closed afterwards.
+   *
+   * @return the decoded element.
+   */
+  private IEncodable decodeCurrentObject() {
+    IEncodable element = encodableFactoryManager.createEncodable(readObjectType());
+
+    element.decode(this);
+    element.decodingCompleted();
+    popLevel();
+    return element;
+  }
+
+  /**
+   * Read the type of the object of the current level. The type is either stored as type string or
+   * as numeric type identifier (compact framing).
+   *
+   * @return the type string of the object.
+   */
+  private String readObjectType() {
+    JsonToken typeToken = locateField(TYPE_KEY);
+    if (typeToken != JsonToken.VALUE_NUMBER_INT) {
+      return readString(TYPE_KEY, typeToken, getStringInternCache());
+    }
+
+    try {
+      int typeId;
+      if (storedValue == null) {
+        typeId = parserOfLevel().getIntValue();
+      } else if (storedValue.text != null) {
+        typeId = Integer.parseInt(storedValue.text, 10);
+      } else {
+        typeId = (int) storedValue.longValue;
+      }
+      return encodableFactoryManager.getTypeForId(typeId);
+    } catch (IOException | NumberFormatException ex) {
+      throw new LlCoreDecoderRuntimeException("Can't decode the type id of an element.", ex);
+    }
+  }
+
+  /**
+   * Search a field in the current object level.
+   *
+   * <p>If the field has already been passed, it is taken from the index of the level and
+   * {@link #storedValue} is set. Otherwise the parser reads forward until the field is found. In
+   * this case the parser is positioned on the value of the field and {@link #storedValue} is
+   * null.
+   *
+   * @param key name of the field
+   * @return the token of the field value.
+   * @throws NullPointerException if the field isn't available (same as for the JsonDecoder).
+   */
+  private JsonToken locateField(String key) {
+    Level level = levels.get(depth - 1);
+
+    FieldValue stored = level.index.get(key);
+    if (stored != null) {
+      storedValue = stored;
+      return stored.token;
+    }
+
+    try {
+      while (!level.finished) {
+        JsonToken token = level.parser.nextToken();
+        if (token == JsonToken.END_OBJECT) {
+          level.finished = true;
+          break;
+        }
+        String name = level.parser.currentName();
+        JsonToken valueToken = level.parser.nextToken();
+
+        if (name.equals(key)) {
+          storedValue = null;
+          // keep the field for repeated lookups (nested structures are consumed from the parser)
+          level.index.put(name, level.nextFieldValue(valueToken, null, null));
+          return valueToken;
+        }
+        level.index.put(name, level.captureValue(valueToken));
+      }
+    } catch (IOException ex) {
+      throw new LlCoreDecoderRuntimeException("Error during reading the JSON string.", ex);
+    }
+
+    throw new NullPointerException("IEncodable Element '" + key + "' isn't available.");
+  }
+
+  private JsonParser parserOfLevel() {
+    return levels.get(depth - 1).parser;
+  }
+
+  private String readString(String key, JsonToken token) {
+    return readString(key, token, null);
+  }
+
+  private String readString(String key, JsonToken token, StringInternCache cache) {
+    checkToken(key, token, JsonToken.VALUE_STRING);
+    if (storedValue != null) {
+      return cache != null ? cache.intern(storedValue.text) : storedValue.text;
+    }
+    try {
+      JsonParser parser = parserOfLevel();
+      String value = cache != null ? internText(parser, cache) : parser.getText();
+      levels.get(depth - 1).index.get(key).text = value;
+      return value;
+    } catch (IOException ex) {
+      throw new LlCoreDecoderRuntimeException("Can't decode string element '" + key + "'.", ex);
+    }
+  }
+
+  private double readDouble(String key, JsonToken token) {
+    checkNumber(key, token);
+    if (storedValue != null) {
+      return storedValue.text != null ? Double.parseDouble(storedValue.text)
+          : storedValue.doubleValue;
+    }
+    try {
+      double value = parserOfLevel().getDoubleValue();
+      cacheNumber(key, value, (long) value);
+      return value;
+    } catch (IOException ex) {
+      throw new LlCoreDecoderRuntimeException("Can't decode double element '" + key + "'.", ex);
+    }
+  }
+
+  private double[] readDoubleArray(String key, JsonToken token) {
+    checkToken(key, token, JsonToken.START_ARRAY);
+
+    JsonParser parser = openStructure(key);
+    double[] values = new double[16];
+    int size = 0;
+
+    try {
+      JsonToken element;
+      while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+        checkNumber(key, element);
+        if (size == values.length) {
+          values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = parser.getDoubleValue();
+      }
+    } catch (IOException ex) {
+      throw new LlCoreDecoderRuntimeException("Can't decode double array '" + key + "'.", ex);
+    }
+    return Arrays.copyOf(values, size);
+  }
+
+  /**
+   * Keep a number that was read from the parser for repeated lookups of the field.
+   */
+  private void cacheNumber(String key, double doubleValue, long longValue) {
+    FieldValue value = levels.get(depth - 1).index.get(key);
+    value.doubleValue = doubleValue;
+    value.longValue = longValue;
+  }
+
+  /**
+   * Get a parser that is positioned on the start token of the located object or array.
+   *
+   * <p>Structures that are read the first time are consumed directly from the parser of the
+   * current level. Structures that have been passed while searching for another field are read
+   * from their buffered tokens.
+   *
+   * @param key name of the field
+   * @return the parser positioned on the start token.
+   */
+  private JsonParser openStructure(String key) {
+    checkStackSize();
+
+    try {
+      JsonParser parser;
+      if (storedValue == null) {
+        parser = parserOfLevel();
+      } else if (storedValue.structure != null) {
+        parser = storedValue.structure.asParser();
+        parser.nextToken();
+      } else {
+        throw new LlCoreDecoderRuntimeException(
+            "IEncodable Element '" + key + "' has already been decoded.");
+      }
+
+      if (parser.currentToken() == JsonToken.START_OBJECT) {
+        pushLevel(parser);
+      }
+      return parser;
+    } catch (IOException ex) {
+      throw new LlCoreDecoderRuntimeException("Error during reading the JSON string.", ex);
+    }
+  }
+
+  private void pushLevel(JsonParser parser) {
+    if (depth == levels.size()) {
+      levels.add(new Level());
+    }
+    levels.get(depth).reset(parser);
+    depth++;
+  }
+
+  /**
+   * Close the current object level. The remaining fields of the object are skipped.
+   */
+  private void popLevel() {
+    Level level = levels.get(--depth);
+    try {
+      while (!level.finished) {
+        if (level.parser.nextToken() == JsonToken.END_OBJECT) {
+          level.finished = true;
+        } else {
+          level.parser.nextToken();
+          level.parser.skipChildren();
+        }
+      }
+    } catch (IOException ex) {
+      throw new LlCoreDecoderRuntimeException("Error during reading the JSON string.", ex);
+    }
+    level.index.clear();
+    storedValue = null;
+  }
+
+  private void checkToken(String key, JsonToken token, JsonToken expected) {
+    if (token != expected) {
+      throw new LlCoreDecoderRuntimeException(
+          "IEncodable Element '" + key + "' has the wrong type (" + token + " instead of "
+              + expected + ").");
+    }
+  }
+
+  private void checkNumber(String key, JsonToken token) {
+    if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT) {
+      throw new LlCoreDecoderRuntimeException(
+          "IEncodable Element '" + key + "' isn't a number (" + token + ").");
+    }
+  }
+
+  /**
+   * Check if the maximum stack size is exceeded.
+   *
+   * @throws LlCoreDecoderRuntimeException if the maximum stack size is reached.
+   * @see JsonDecoder
+   */
+  private void checkStackSize() {
+    if (depth > this.maxStackSize) {
+      throw new LlCoreDecoderRuntimeException("Maximum decoder stack size exceeded. "
+          + "Maybe there is a recursion in the object to be decoded.");
+    }
+  }
+
+  int getMaxStackSize() {
+    return maxStackSize;
+  }
+
+  /**
+   * Encoded element that is decoded on demand from its byte range in the source.
+   */
+  private class DeferredJsonBytes implements IDeferredEncodable {
+
+    private final String type;
+    private final byte[] source;
+    private final int offset;
+    private final int length;
+    private final ByteBuffer blobSection;
+
+    DeferredJsonBytes(String type, byte[] source, int offset, int length) {
+      this.type = type;
+      this.source = source;
+      this.offset = offset;
+      this.length = length;
+      this.blobSection = getBlobSection();
+    }
+
+    @Override
+    public String getType() {
+      return type;
+    }
+
+    @Override
+    public IEncodable decode() {
+      JsonStreamDecoder decoder = new JsonStreamDecoder(maxStackSize, encodableFactoryManager);
+      decoder.setBlobSection(blobSection);
+      decoder.initDecoder(source, offset, length);
+      return decoder.decodeCurrentObject();
+    }
+  }
+
+  /**
+   * Element that has already been decoded.
+   */
+  private static class DecodedElement implements IDeferredEncodable {
+
+    private final IEncodable element;
+
+    DecodedElement(IEncodable element) {
+      this.element = element;
+    }
+
+    @Override
+    public String getType() {
+      return element.getType();
+    }
+
+    @Override
+    public IEncodable decode() {
+      return element;
+    }
+  }
+
+  /**
+   * Value of a field that has been passed by the parser.
+   */
+  private static class FieldValue {
+    private JsonToken token;
+    private String text;
+    private TokenBuffer structure;
+    private double doubleValue;
+    private long longValue;
+  }
+
+  /**
+   * State and lazy field index of an object level.
+   */
+  private static class Level {
+
+    private JsonParser parser;
+    private boolean finished;
+
+    private final Map<String, FieldValue> index = new HashMap<String, FieldValue>();
+
+    /* field values are reused between decodings */
+    private final List<FieldValue> valuePool = new ArrayList<FieldValue>();
+    private int usedValues;
+
+    void reset(JsonParser parser) {
+      this.parser = parser;
+      this.finished = false;
+      this.index.clear();
+      this.usedValues = 0;
+    }
+
+    FieldValue captureValue(JsonToken token) throws IOException {
+      switch (token) {
+        case VALUE_STRING:
+        case VALUE_NUMBER_INT:
+        case VALUE_NUMBER_FLOAT:
+          return nextFieldValue(token, parser.getText(), null);
+        case START_OBJECT:
+        case START_ARRAY:
+          TokenBuffer buffer = new TokenBuffer(parser);
+          buffer.copyCurrentStructure(parser);
+          return nextFieldValue(token, null, buffer);
+        default:
+          return nextFieldValue(token, null, null);
+      }
+    }
+
+    FieldValue nextFieldValue(JsonToken token, String text, TokenBuffer structure) {
+      if (usedValues == valuePool.size()) {
+        valuePool.add(new FieldValue());
+      }
+      FieldValue value = valuePool.get(usedValues++);
+      value.token = token;
+      value.text = text;
+      value.structure = structure;
+      return value;
+    }
+  }
+}
@@ -0,0 +1,866 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding.impl;
+
+import at.ac.ait.lablink.core.connection.encoding.EncoderBase;
+import at.ac.ait.lablink.core.connection.encoding.IEncodable;
+import at.ac.ait.lablink.core.connection.encoding.IEncodableFactoryManager;
+import at.ac.ait.lablink.core.connection.ex.LlCoreEncoderRuntimeException;
+import at.ac.ait.lablink.core.service.types.Complex;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming JSON encoder.
+ *
+ * <p>IEncoder that writes the internal Lablink encodables objects as UTF-8 encoded JSON tokens
+ * directly into a reusable byte buffer. The produced output is identical to the output of the
+ * {@link JsonEncoder}, but no intermediate JSON object tree and no intermediate string has to
+ * be created. The buffer grows on demand and is reused for the following encodings.
+ *
+ * <p>The encoder compiles a codec plan for every encoded class. The plan is recorded during the
+ * first encoding of the class and contains the validated keys in the order they were written
+ * together with their pre-encoded member names. Following encodings of the class that write the
+ * same keys in the same order skip the key validation and copy the member names directly into
+ * the buffer. If an encoding deviates from the plan, the encoder falls back to the validated
+ * path and the plan of the class is disabled.
+ */
+public class JsonStreamEncoder extends EncoderBase {
+
+  private static final Logger logger = LoggerFactory.getLogger(JsonStreamEncoder.class);
+
+  private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes();
+  private static final byte[] TRUE_BYTES = "true".getBytes();
+  private static final byte[] FALSE_BYTES = "false".getBytes();
+  private static final byte[] TYPE_KEY_BYTES = "\"$type\":".getBytes();
+
+  private final int defaultMaxStackSize = 200;
+  private final int defaultInitialBufferSize = 1024;
+
+  /* maximum allowed stack size*/
+  private int maxStackSize = defaultMaxStackSize;
+
+  /* output buffer that is reused for every encoding */
+  private ByteBuffer buffer;
+
+  /* nesting levels of the currently written objects and arrays (reused between encodings) */
+  private final List<Level> levels = new ArrayList<Level>();
+
+  /* number of currently open objects and arrays */
+  private int depth = 0;
+
+  /* use compiled codec plans for the encoded classes */
+  private boolean useCodecPlans = true;
+
+  /* compiled codec plans of the already encoded classes */
+  private final Map<Class<?>, CodecPlan> codecPlans = new HashMap<Class<?>, CodecPlan>();
+
+  /**
+   * Default Constructor.
+   */
+  public JsonStreamEncoder() {
+    this(null);
+  }
+
+  /**
+   * Constructor with optional configuration object.
+   *
+   * <p>The following list shows the current implemented configuration properties withs their
+   * default values (between brackets):
+   * <ul>
+   *
+   * <li><b>encoding.maxStackSize</b> (200, int): Maximum allowed size of encoder stack. The
+   * stack will be used for the creation of nested {@link IEncodable} objects or for lists of
+   * {@link IEncodable} objects.</li>
+   *
+   * <li><b>encoding.initialBufferSize</b> (1024, int): Initial size of the output buffer in
+   * bytes. The buffer grows automatically if an encoded element doesn't fit into it.</li>
+   *
+   * <li><b>encoding.codecPlans</b> (true, boolean): Compile the key layout of every encoded
+   * class and skip the key validation for following encodings with the same layout.</li>
+   *
+   * <li><b>encoding.compactFraming</b> (false, boolean): Write numeric type identifiers instead
+   * of type strings and omit header fields that are part of the message topic.</li>
+   *
+   * <li><b>encoding.blobSectionThreshold</b> (0, int): Minimum size in bytes of blobs that are
+   * transported as raw bytes in the blob section instead of Base64 strings (0 disables the blob
+   * section).</li>
+   * </ul>
+   *
+   * @param config Configuration object that is used to parametrize the JsonStreamEncoder.
+   *               Different parameters can be set. If no parameter is set, the encoder
+   *               will use the default settings.
+   */
+  public JsonStreamEncoder(Configuration config) {
+
+    if (config == null) {
+      logger.info("No configuration is set for JsonStreamEncoder. Use default configuration.");
+      config = new BaseConfiguration();
+    }
+
+    maxStackSize = config.getInt("encoding.maxStackSize", defaultMaxStackSize);
+    int initialBufferSize =
+        config.getInt("encoding.initialBufferSize", defaultInitialBufferSize);
+    buffer = ByteBuffer.allocate(Math.max(16, initialBufferSize));
+    useCodecPlans = config.getBoolean("encoding.codecPlans", useCodecPlans);
+    compactFraming = config.getBoolean("encoding.compactFraming", compactFraming);
+    blobSectionThreshold = config.getInt("encoding.blobSectionThreshold", blobSectionThreshold);
+    logger.info("IEncoder: MaxStackSize: {}, InitialBufferSize: {}, CodecPlans: {}, "
+        + "CompactFraming: {}", maxStackSize, buffer.capacity(), useCodecPlans, compactFraming);
+  }
+
+  @Override
+  protected void encodeElement(IEncodable value) {
+    logger.trace("Start encoding a object with {}", value);
+
+    initEncoder();
+
+    checkValueIsNull(value.getType());
+    startCodecPlan(value);
+    writeTypeMember(value.getType());
+    value.encode(this);
+    finishCodecPlan(value);
+  }
+
+  /**
+   * Initialise the encoder.
+   */
+  void initEncoder() {
+
+    logger.trace("Init encoder.");
+    buffer.clear();
+    depth = 0;
+    openLevel(false);
+  }
+
+  @Override
+  public byte[] getEncoded() {
+    ByteBuffer encoded = getEncodedBuffer();
+    byte[] result = new byte[encoded.remaining()];
+    encoded.get(result);
+    return result;
+  }
+
+  /**
+   * Get the encoded element as view of the internal buffer.
+   *
+   * <p>The returned buffer is only valid until a new encoding has been started.
+   *
+   * @return a read-only buffer that contains the encoded element.
+   * @throws LlCoreEncoderRuntimeException if the encoding hasn't finished
+   */
+  public ByteBuffer getEncodedBuffer() {
+
+    if (depth > 1) {
+      throw new LlCoreEncoderRuntimeException("Stack size (" + depth + ") > 1. "
+          + "Encoding hasn't finished and is stuck in a nested object or you read an encoded "
+          + "object until a new encoding has been started.");
+    }
+
+    // The closing bracket of the base object is only set behind the written content. It will be
+    // overwritten if further elements are added to the base object.
+    ensureCapacity(1);
+    buffer.put(buffer.position(), (byte) '}');
+
+    ByteBuffer encoded = buffer.asReadOnlyBuffer();
+    encoded.limit(buffer.position() + 1);
+    encoded.position(0);
+    return encoded;
+  }
+
+  /**
+   * Return the encoded element as string.
+   *
+   * @return string representation of an encoded element
+   */
+  String getEncodedString() {
+    return new String(getEncoded());
+  }
+
+  @Override
+  public void putString(String key, String value) {
+    logger.trace("Add string to JSON encoder: {} ({})", key, value);
+    checkValueIsNull(value);
+    writeKey(key);
+    writeString(value);
+  }
+
+  @Override
+  public void putStringList(String key, List<String> values) {
+    logger.trace("Add string list to JSON encoder: {} ({})", key, values);
+    checkValueIsNull(values);
+    writeKey(key);
+    writeByte('[');
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) {
+        writeByte(',');
+      }
+      String value = values.get(i);
+      if (value == null) {
+        writeAscii("null");
+      } else {
+        writeString(value);
+      }
+    }
+    writeByte(']');
+  }
+
+  @Override
+  public void putFloat(String key, float value) {
+    logger.trace("Add float to JSON encoder: {} ({})", key, value);
+    checkFiniteValue(value);
+    writeKey(key);
+    writeAscii(cutOffPointZero(Float.toString(value)));
+  }
+
+  @Override
+  public void putDouble(String key, double value) {
+    logger.trace("Add double to JSON encoder: {} ({})", key, value);
+    checkFiniteValue(value);
+    writeKey(key);
+    writeAscii(cutOffPointZero(Double.toString(value)));
+  }
+
+  @Override
+  public void putBoolean(String key, boolean value) {
+    logger.trace("Add boolean to JSON encoder: {} ({})", key, value);
+    writeKey(key);
+    writeBytes(value ? TRUE_BYTES : FALSE_BYTES);
+  }
+
+  @Override
+  public void putInt(String key, int value) {
+    logger.trace("Add int to JSON encoder: {} ({})", key, value);
+    writeKey(key);
+    writeLong(value);
+  }
+
+  @Override
+  public void putLong(String key, long value) {
+    logger.trace("Add long to JSON encoder: {} ({})", key, value);
+    writeKey(key);
+    writeLong(value);
+  }
+
+  @Override
+  public void putBlob(String key, byte[] value) {
+    logger.trace("Add blob to JSON encoder: {}", key);
+    checkValueIsNull(value);
+    writeKey(key);
+    writeString(encodeBlob(value));
+  }
+
+  @Override
+  public void putComplex(String key, Complex value) {
+    logger.trace("Add complex number to JSON encoder: {}", key);
+    checkFiniteValue(value.re());
+    checkFiniteValue(value.im());
+    writeComplexMembers(key, value, null);
+  }
+
+  @Override
+  public void putDoubleArray(String key, double[] values) {
+    logger.trace("Add double array to JSON encoder: {}", key);
+    checkValueIsNull(values);
+    for (double value : values) {
+      checkFiniteValue(value);
+    }
+    writeKey(key);
+    writeByte('[');
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        writeByte(',');
+      }
+      writeAscii(cutOffPointZero(Double.toString(values[i])));
+    }
+    writeByte(']');
+  }
+
+  @Override
+  public void putLongArray(String key, long[] values) {
+    logger.trace("Add long array to JSON encoder: {}", key);
+    checkValueIsNull(values);
+    writeKey(key);
+    writeByte('[');
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        writeByte(',');
+      }
+      writeLong(values[i]);
+    }
+    writeByte(']');
+  }
+
+  @Override
+  public void putComplexArray(String key, Complex[] values) {
+    logger.trace("Add complex array to JSON encoder: {}", key);
+    checkValueIsNull(values);
+    for (Complex value : values) {
+      checkValueIsNull(value);
+      checkFiniteValue(value.re());
+      checkFiniteValue(value.im());
+    }
+    writeComplexMembers(key, null, values);
+  }
+
+  @Override
+  public void putEncodable(String key, IEncodable value) {
+
+    logger.trace("Add object to JSON encoder: {} ({})", key, value);
+    checkValueIsNull(value);
+    checkStackSize();
+
+    writeKey(key);
+    writeEncodableObject(value);
+  }
+
+  @Override
+  public void putEncodableList(String key, List<? extends IEncodable> values) {
+
+    logger.trace("Add list to JSON encoder: {} ({})", key, values);
+    checkValueIsNull(values);
+    checkStackSize();
+
+    writeKey(key);
+    openLevel(true);
+    for (IEncodable value : values) {
+      checkStackSize();
+      checkValueIsNull(value);
+      if (currentLevel().first) {
+        currentLevel().first = false;
+      } else {
+        writeByte(',');
+      }
+      writeEncodableObject(value);
+    }
+    closeLevel();
+  }
+
+  /**
+   * Write a nested encodable object including its type member.
+   *
+   * @param value object to be written
+   */
+  private void writeEncodableObject(IEncodable value) {
+    openLevel(false);
+    startCodecPlan(value);
+    writeTypeMember(value.getType());
+    value.encode(this);
+    finishCodecPlan(value);
+    closeLevel();
+  }
+
+  /**
+   * Start the encoding of an object with the codec plan of its class. If no plan exists for the
+   * class, the keys of the object are recorded to compile a new plan.
+   *
+   * @param value object that is encoded on the current level
+   */
+  private void startCodecPlan(IEncodable value) {
+    if (!useCodecPlans) {
+      return;
+    }
+
+    CodecPlan plan = codecPlans.get(value.getClass());
+    if (plan == null) {
+      currentLevel().recording = new ArrayList<PlanEntry>();
+    } else if (plan.enabled) {
+      currentLevel().plan = plan;
+    }
+  }
+
+  /**
+   * Finish the encoding of an object. A recorded plan is compiled and stored for its class.
+   *
+   * @param value object that has been encoded on the current level
+   */
+  private void finishCodecPlan(IEncodable value) {
+    Level level = currentLevel();
+    if (level.recording != null) {
+      codecPlans.put(value.getClass(), new CodecPlan(level.recording));
+      logger.debug("Codec plan with {} keys compiled for {}", level.recording.size(),
+          value.getClass());
+    }
+    level.recording = null;
+    level.plan = null;
+  }
+
+  /**
+   * Get the next entry of the codec plan of the current level if it matches the given key.
+   *
+   * <p>If the key deviates from the plan, the keys written so far are registered in the level
+   * for the validated path and the plan is disabled.
+   *
+   * @param level   current level
+   * @param key     key to be written
+   * @param complex the key is used for a complex number
+   * @return the matching entry or null if the validated path has to be used.
+   */
+  private PlanEntry nextPlanEntry(Level level, String key, boolean complex) {
+    CodecPlan plan = level.plan;
+    if (plan == null) {
+      return null;
+    }
+
+    if (level.planPosition < plan.entries.length) {
+      PlanEntry entry = plan.entries[level.planPosition];
+      if ((entry.key == key || entry.key.equals(key)) && entry.complex == complex) {
+        level.planPosition++;
+        return entry;
+      }
+    }
+
+    for (int i = 0; i < level.planPosition; i++) {
+      PlanEntry entry = plan.entries[i];
+      if (entry.complex) {
+        level.keys.add(entry.key + "_re");
+        level.keys.add(entry.key + "_im");
+      } else {
+        level.keys.add(entry.key);
+      }
+    }
+    plan.enabled = false;
+    level.plan = null;
+    logger.debug("Codec plan disabled. The object deviates from the compiled key layout at "
+        + "key '{}'.", key);
+    return null;
+  }
+
+  /**
+   * Check a key and write it as member name of the current object.
+   *
+   * @param key key to be written
+   */
+  private void writeKey(String key) {
+    Level level = currentLevel();
+    PlanEntry entry = nextPlanEntry(level, key, false);
+    if (entry != null) {
+      writeMemberName(level, entry.name);
+      return;
+    }
+
+    checkJsonObjectKey(key);
+    byte[] name = writeMemberName(key);
+    if (level.recording != null) {
+      level.recording.add(new PlanEntry(key, false, name, null));
+    }
+  }
+
+  /**
+   * Write the real and imaginary part members of a complex number or a complex array.
+   *
+   * @param key    of the complex value
+   * @param value  single complex number, or null if an array is written
+   * @param values complex array, or null if a single number is written
+   */
+  private void writeComplexMembers(String key, Complex value, Complex[] values) {
+    Level level = currentLevel();
+    PlanEntry entry = nextPlanEntry(level, key, true);
+    if (entry != null) {
+      writeMemberName(level, entry.name);
+      writeComplexPart(value, values, true);
+      writeMemberName(level, entry.secondName);
+      writeComplexPart(value, values, false);
+      return;
+    }
+
+    // Only the plain key is checked like in the JsonEncoder, the members are stored with suffixes
+    validateKeyString(key);
+    checkExistingKey(key);
+
+    String reKey = key + "_re";
+    String imKey = key + "_im";
+    level.keys.add(reKey);
+    level.keys.add(imKey);
+    byte[] reName = writeMemberName(reKey);
+    writeComplexPart(value, values, true);
+    byte[] imName = writeMemberName(imKey);
+    writeComplexPart(value, values, false);
+
+    if (level.recording != null) {
+      level.recording.add(new PlanEntry(key, true, reName, imName));
+    }
+  }
+
+  private void writeComplexPart(Complex value, Complex[] values, boolean real) {
+    if (values == null) {
+      writeAscii(cutOffPointZero(Double.toString(real ? value.re() : value.im())));
+      return;
+    }
+    writeByte('[');
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        writeByte(',');
+      }
+      writeAscii(cutOffPointZero(Double.toString(real ? values[i].re() : values[i].im())));
+    }
+    writeByte(']');
+  }
+
+  private void writeTypeMember(String type) {
+    currentLevel().first = false;
+    writeBytes(TYPE_KEY_BYTES);
+    int typeId = getCompactTypeId(type);
+    if (typeId != IEncodableFactoryManager.NO_TYPE_ID) {
+      writeLong(typeId);
+    } else {
+      writeString(type);
+    }
+  }
+
+  private void openLevel(boolean array) {
+    if (depth == levels.size()) {
+      levels.add(new Level());
+    }
+    Level level = levels.get(depth);
+    level.reset(array);
+    depth++;
+    writeByte(array ? '[' : '{');
+  }
+
+  private void closeLevel() {
+    Level level = currentLevel();
+    depth--;
+    writeByte(level.array ? ']' : '}');
+  }
+
+  private Level currentLevel() {
+    return levels.get(depth - 1);
+  }
+
+  /**
+   * Write a member name into the current object.
+   *
+   * @param key name of the member
+   * @return the encoded member name if a plan is recorded on the current level, otherwise null.
+   */
+  private byte[] writeMemberName(String key) {
+    Level level = currentLevel();
+    if (level.first) {
+      level.first = false;
+    } else {
+      writeByte(',');
+    }
+    final int start = buffer.position();
+    writeString(key);
+    writeByte(':');
+
+    if (level.recording == null) {
+      return null;
+    }
+    return Arrays.copyOfRange(buffer.array(), start, buffer.position());
+  }
+
+  private void writeMemberName(Level level, byte[] name) {
+    if (level.first) {
+      level.first = false;
+    } else {
+      writeByte(',');
+    }
+    writeBytes(name);
+  }
+
+  /**
+   * Write a quoted and escaped JSON string. The escaping is the same as used by the
+   * minimal-json writer of the {@link JsonEncoder}.
+   *
+   * @param value string to be written
+   */
+  private void writeString(String value) {
+    int length = value.length();
+    ensureCapacity(length + 2);
+    buffer.put((byte) '"');
+
+    for (int i = 0; i < length; i++) {
+      char ch = value.charAt(i);
+
+      if (ch < 0x80) {
+        if (ch == '"' || ch == '\\') {
+          writeByte('\\');
+          writeByte(ch);
+        } else if (ch == '\n') {
+          writeByte('\\');
+          writeByte('n');
+        } else if (ch == '\r') {
+          writeByte('\\');
+          writeByte('r');
+        } else if (ch == '\t') {
+          writeByte('\\');
+          writeByte('t');
+        } else if (ch < 0x20) {
+          writeUnicodeEscape(ch);
+        } else {
+          writeByte(ch);
+        }
+      } else if (ch == 0x2028 || ch == 0x2029) {
+        writeUnicodeEscape(ch);
+      } else if (ch < 0x800) {
+        ensureCapacity(2);
+        buffer.put((byte) (0xc0 | (ch >> 6)));
+        buffer.put((byte) (0x80 | (ch & 0x3f)));
+      } else if (Character.isHighSurrogate(ch) && i + 1 < length
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(ch, value.charAt(++i));
+        ensureCapacity(4);
+        buffer.put((byte) (0xf0 | (codePoint >> 18)));
+        buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+        buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+        buffer.put((byte) (0x80 | (codePoint & 0x3f)));
+      } else if (Character.isSurrogate(ch)) {
+        // Unpaired surrogates can't be represented in UTF-8 (same replacement as String.getBytes)
+        writeByte('?');
+      } else {
+        ensureCapacity(3);
+        buffer.put((byte) (0xe0 | (ch >> 12)));
+        buffer.put((byte) (0x80 | ((ch >> 6) & 0x3f)));
+        buffer.put((byte) (0x80 | (ch & 0x3f)));
+      }
+    }
+    writeByte('"');
+  }
+
+  private void writeUnicodeEscape(char ch) {
+    ensureCapacity(6);
+    buffer.put((byte) '\\');
+    buffer.put((byte) 'u');
+    buffer.put(HEX_DIGITS[(ch >> 12) & 0xf]);
+    buffer.put(HEX_DIGITS[(ch >> 8) & 0xf]);
+    buffer.put(HEX_DIGITS[(ch >> 4) & 0xf]);
+    buffer.put(HEX_DIGITS[ch & 0xf]);
+  }
+
+  /**
+   * Write a decimal number without creating an intermediate string.
+   *
+   * @param value number to be written
+   */
+  private void writeLong(long value) {
+    if (value == Long.MIN_VALUE) {
+      writeAscii(Long.toString(value));
+      return;
+    }
+
+    ensureCapacity(20);
+    if (value < 0) {
+      buffer.put((byte) '-');
+      value = -value;
+    }
+
+    int start = buffer.position();
+    do {
+      buffer.put((byte) ('0' + (value % 10)));
+      value /= 10;
+    } while (value != 0);
+
+    // digits are written in reverse order
+    int end = buffer.position() - 1;
+    while (start < end) {
+      byte tmp = buffer.get(start);
+      buffer.put(start++, buffer.get(end));
+      buffer.put(end--, tmp);
+    }
+  }
+
+  private void writeAscii(String value) {
+    int length = value.length();
+    ensureCapacity(length);
+    for (int i = 0; i < length; i++) {
+      buffer.put((byte) value.charAt(i));
+    }
+  }
+
+  private void writeBytes(byte[] value) {
+    ensureCapacity(value.length);
+    buffer.put(value);
+  }
+
+  private void writeByte(int value) {
+    ensureCapacity(1);
+    buffer.put((byte) value);
+  }
+
+  /**
+   * Ensure that the buffer has enough remaining space. Otherwise the buffer will be replaced by
+   * a larger one.
+   *
+   * @param required number of bytes that should be written
+   */
+  private void ensureCapacity(int required) {
+    if (buffer.remaining() >= required) {
+      return;
+    }
+
+    int newCapacity = Math.max(buffer.capacity() * 2, buffer.position() + required);
+    ByteBuffer newBuffer = ByteBuffer.allocate(newCapacity);
+    buffer.flip();
+    newBuffer.put(buffer);
+    buffer = newBuffer;
+  }
+
+  private static String cutOffPointZero(String string) {
+    if (string.endsWith(".0")) {
+      return string.substring(0, string.length() - 2);
+    }
+    return string;
+  }
+
+  /**
+   * Checks if a key is valid or if a key already exists in the current JSON object.
+   *
+   * @param key to be checked
+   * @throws LlCoreEncoderRuntimeException if the key already exists or if the key
+   *     contains disallowed characters
+   */
+  private void checkJsonObjectKey(String key) {
+    validateKeyString(key);
+    checkExistingKey(key);
+    currentLevel().keys.add(key);
+  }
+
+  /**
+   * Validate key string for allowed values.
+   *
+   * @param key to be validated
+   * @throws LlCoreEncoderRuntimeException if the key contains disallowed characters
+   */
+  private void validateKeyString(String key) {
+    if (key.startsWith("$")) {
+      throw new LlCoreEncoderRuntimeException("Key " + key + " starts with a $. "
+          + "Keys with starting $ are reserved for internal management.");
+    }
+  }
+
+  /**
+   * Checks if a key already exists in the current JSON object.
+   *
+   * @param key to be checked
+   * @throws LlCoreEncoderRuntimeException if the key already exists.
+   */
+  private void checkExistingKey(String key) {
+    if (currentLevel().keys.contains(key)) {
+      throw new LlCoreEncoderRuntimeException(
+          "Key " + key + " already available in IEncoder object");
+    }
+  }
+
+  private void checkValueIsNull(Object value) {
+    if (value == null) {
+      throw new LlCoreEncoderRuntimeException(
+          "Given value in JsonStreamEncoder is null. Abort encoding.");
+    }
+  }
+
+  private void checkFiniteValue(double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      throw new LlCoreEncoderRuntimeException(
+          "Infinite and NaN values not permitted in JSON. Abort encoding.");
+    }
+  }
+
+  /**
+   * Check if the maximum stack size is exceeded.
+   *
+   * @throws LlCoreEncoderRuntimeException if the maximum stack size is reached.
+   * @see JsonEncoder
+   */
+  private void checkStackSize() {
+    if (depth > this.maxStackSize) {
+      throw new LlCoreEncoderRuntimeException("Maximum encoder stack size exceeded. "
+          + "Maybe there is a recursion in the object to be encoded.");
+    }
+  }
+
+  int getMaxStackSize() {
+    return maxStackSize;
+  }
+
+  boolean isCodecPlanEnabled(Class<?> encodedClass) {
+    CodecPlan plan = codecPlans.get(encodedClass);
+    return plan != null && plan.enabled;
+  }
+
+  /**
+   * State of an open JSON object or array.
+   */
+  private static class Level {
+
+    /* keys that are already written in the object */
+    private final Set<String> keys = new HashSet<String>();
+
+    /* no member has been written yet */
+    private boolean first;
+
+    private boolean array;
+
+    /* codec plan that is used for the object (null if the validated path is used) */
+    private CodecPlan plan;
+
+    /* index of the next expected plan entry */
+    private int planPosition;
+
+    /* entries of a codec plan that is recorded for the object */
+    private List<PlanEntry> recording;
+
+    void reset(boolean array) {
+      this.array = array;
+      this.first = true;
+      this.keys.clear();
+      this.plan = null;
+      this.planPosition = 0;
+      this.recording = null;
+    }
+  }
+
+  /**
+   * Compiled key layout of an encoded class.
+   */
+  private static class CodecPlan {
+
+    private final PlanEntry[] entries;
+
+    /* the plan is disabled if an object of the class deviated from it */
+    private boolean enabled = true;
+
+    CodecPlan(List<PlanEntry> entries) {
+      this.entries = entries.toArray(new PlanEntry[entries.size()]);
+    }
+  }
+
+  /**
+   * Validated key of a codec plan with its pre-encoded member names.
+   */
+  private static class PlanEntry {
+
+    private final String key;
+    private final boolean complex;
+
+    /* encoded member name including the quotes and the colon */
+    private final byte[] name;
+
+    /* encoded name of the imaginary part of a complex number */
+    private final byte[] secondName;
+
+    PlanEntry(String key, boolean complex, byte[] name, byte[] secondName) {
+      this.key = key;
+      this.complex = complex;
+      this.name = name;
+      this.secondName = secondName;
+    }
+  }
+}
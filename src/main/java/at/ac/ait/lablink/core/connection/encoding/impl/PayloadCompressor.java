@@ -0,0 +1,214 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding.impl;
+
+import at.ac.ait.lablink.core.connection.ex.LlCoreDecoderRuntimeException;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compression of encoded packets.
+ *
+ * <p>Encoded packets that exceed a configurable size are compressed with Deflate before they
+ * are published. A compressed frame starts with a flag byte followed by the size of the
+ * uncompressed packet (4 bytes, big endian) and the compressed data. Encoded packets are JSON
+ * documents that never start with the flag byte, so uncompressed packets remain unchanged and
+ * can be read by peers without compression support.
+ *
+ * <p>Decompression is always supported. Compression is only enabled if the configuration
+ * <code>encoding.compressionThreshold</code> is greater than zero. It should only be enabled
+ * if all peers are able to decompress the frames. Further configurations are
+ * <code>encoding.compressionLevel</code> (default {@link Deflater#BEST_SPEED}),
+ * <code>encoding.compressionPoolSize</code> (number of pooled deflaters and inflaters) and
+ * <code>encoding.maxDecompressedSize</code> (upper limit of a decompressed packet in bytes).
+ *
+ * <p>The class is thread-safe. Deflaters and inflaters are kept in bounded pools and reused.
+ */
+public class PayloadCompressor {
+
+  private static final Logger logger = LoggerFactory.getLogger(PayloadCompressor.class);
+
+  /**
+   * First byte of a compressed frame.
+   */
+  public static final byte COMPRESSED_FRAME_FLAG = 0x01;
+
+  /* Size of the frame header (flag and uncompressed size) */
+  private static final int HEADER_SIZE = 5;
+
+  private final int threshold;
+  private final int level;
+  private final int maxDecompressedSize;
+
+  private final BlockingQueue<Deflater> deflaters;
+  private final BlockingQueue<Inflater> inflaters;
+
+  /**
+   * Default constructor. Compression is disabled.
+   */
+  public PayloadCompressor() {
+    this(null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param config configuration of the compression (may be null)
+   */
+  public PayloadCompressor(Configuration config) {
+    if (config == null) {
+      logger.info("No configuration is set for PayloadCompressor. Use default configuration.");
+      config = new BaseConfiguration();
+    }
+
+    threshold = config.getInt("encoding.compressionThreshold", 0);
+    level = config.getInt("encoding.compressionLevel", Deflater.BEST_SPEED);
+    maxDecompressedSize = config.getInt("encoding.maxDecompressedSize", 64 * 1024 * 1024);
+
+    int poolSize = Math.max(1, config.getInt("encoding.compressionPoolSize", 4));
+    deflaters = new ArrayBlockingQueue<Deflater>(poolSize);
+    inflaters = new ArrayBlockingQueue<Inflater>(poolSize);
+  }
+
+  /**
+   * Check if a received payload is a compressed frame.
+   *
+   * @param payload received payload
+   * @return true, if the payload is compressed.
+   */
+  public static boolean isCompressed(byte[] payload) {
+    return payload != null && payload.length > 0 && payload[0] == COMPRESSED_FRAME_FLAG;
+  }
+
+  /**
+   * Check if the compression of outgoing packets is enabled.
+   *
+   * @return true, if packets exceeding the threshold are compressed.
+   */
+  public boolean isCompressionEnabled() {
+    return threshold > 0;
+  }
+
+  /**
+   * Compress an encoded packet if it exceeds the threshold.
+   *
+   * @param payload encoded packet
+   * @return the compressed frame or the unchanged payload if the payload is smaller than the
+   *     threshold or the compression doesn't reduce its size.
+   */
+  public byte[] compress(byte[] payload) {
+    if (threshold <= 0 || payload.length < threshold || payload.length <= HEADER_SIZE) {
+      return payload;
+    }
+
+    byte[] frame = new byte[payload.length];
+    frame[0] = COMPRESSED_FRAME_FLAG;
+    frame[1] = (byte) (payload.length >>> 24);
+    frame[2] = (byte) (payload.length >>> 16);
+    frame[3] = (byte) (payload.length >>> 8);
+    frame[4] = (byte) payload.length;
+
+    Deflater deflater = acquireDeflater();
+    int position = HEADER_SIZE;
+    try {
+      deflater.setInput(payload);
+      deflater.finish();
+      while (!deflater.finished() && position < frame.length) {
+        position += deflater.deflate(frame, position, frame.length - position);
+      }
+      if (!deflater.finished()) {
+        // The compressed frame isn't smaller than the payload
+        return payload;
+      }
+    } finally {
+      releaseDeflater(deflater);
+    }
+
+    logger.trace("Payload compressed from {} to {} bytes.", payload.length, position);
+    return Arrays.copyOf(frame, position);
+  }
+
+  /**
+   * Decompress a received payload if it is a compressed frame.
+   *
+   * @param payload received payload
+   * @return the decompressed packet or the unchanged payload if it isn't compressed.
+   * @throws LlCoreDecoderRuntimeException if the compressed frame is invalid.
+   */
+  public byte[] decompress(byte[] payload) {
+    if (!isCompressed(payload)) {
+      return payload;
+    }
+    if (payload.length < HEADER_SIZE) {
+      throw new LlCoreDecoderRuntimeException("Compressed frame is truncated.");
+    }
+
+    int size = ((payload[1] & 0xff) << 24) | ((payload[2] & 0xff) << 16)
+        | ((payload[3] & 0xff) << 8) | (payload[4] & 0xff);
+    if (size < 0 || size > maxDecompressedSize) {
+      throw new LlCoreDecoderRuntimeException("Size of the compressed frame (" + size
+          + " bytes) exceeds the limit of " + maxDecompressedSize + " bytes.");
+    }
+
+    byte[] result = new byte[size];
+    Inflater inflater = acquireInflater();
+    try {
+      inflater.setInput(payload, HEADER_SIZE, payload.length - HEADER_SIZE);
+      int position = 0;
+      while (position < size) {
+        int read = inflater.inflate(result, position, size - position);
+        if (read == 0 && (inflater.finished() || inflater.needsInput()
+            || inflater.needsDictionary())) {
+          break;
+        }
+        position += read;
+      }
+      if (position != size) {
+        throw new LlCoreDecoderRuntimeException("Compressed frame is truncated (" + position
+            + " of " + size + " bytes).");
+      }
+    } catch (DataFormatException ex) {
+      throw new LlCoreDecoderRuntimeException("Compressed frame can't be decompressed.", ex);
+    } finally {
+      releaseInflater(inflater);
+    }
+    return result;
+  }
+
+  private Deflater acquireDeflater() {
+    Deflater deflater = deflaters.poll();
+    return deflater != null ? deflater : new Deflater(level);
+  }
+
+  private void releaseDeflater(Deflater deflater) {
+    deflater.reset();
+    if (!deflaters.offer(deflater)) {
+      deflater.end();
+    }
+  }
+
+  private Inflater acquireInflater() {
+    Inflater inflater = inflaters.poll();
+    return inflater != null ? inflater : new Inflater();
+  }
+
+  private void releaseInflater(Inflater inflater) {
+    inflater.reset();
+    if (!inflaters.offer(inflater)) {
+      inflater.end();
+    }
+  }
+}
@@ -0,0 +1,84 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding.impl;
+
+import at.ac.ait.lablink.core.connection.encoding.IEncodable;
+import at.ac.ait.lablink.core.connection.encoding.IEncodableFactory;
+import at.ac.ait.lablink.core.connection.encoding.IRecyclable;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Factory for encodable objects that reuses recycled objects.
+ *
+ * <p>The factory wraps the original factory of a recyclable encodable class ({@link
+ * IRecyclable}). Recycled objects are reset and kept in a bounded pool. New objects are only
+ * created by the original factory if the pool is empty. If the pool is full, recycled objects
+ * are dropped and left to the garbage collector.
+ */
+public class PooledEncodableFactory implements IEncodableFactory {
+
+  /* Original factory of the encodable class */
+  private final IEncodableFactory factory;
+
+  /* Pool of reset objects. The array based queue doesn't allocate memory during its usage. */
+  private final BlockingQueue<IEncodable> pool;
+
+  /**
+   * Constructor.
+   *
+   * @param factory  original factory of a recyclable encodable class
+   * @param poolSize maximum number of pooled objects
+   */
+  public PooledEncodableFactory(IEncodableFactory factory, int poolSize) {
+    if (factory == null) {
+      throw new NullPointerException("No IEncodableFactory is set.");
+    }
+    if (poolSize <= 0) {
+      throw new IllegalArgumentException("Pool size must be positive (" + poolSize + ").");
+    }
+    this.factory = factory;
+    this.pool = new ArrayBlockingQueue<IEncodable>(poolSize);
+  }
+
+  @Override
+  public IEncodable createEncodableObject() {
+    IEncodable encodable = pool.poll();
+    return encodable != null ? encodable : factory.createEncodableObject();
+  }
+
+  /**
+   * Reset an object and return it to the pool.
+   *
+   * @param encodable object to be recycled. Objects that aren't recyclable are ignored.
+   */
+  public void recycle(IEncodable encodable) {
+    if (!(encodable instanceof IRecyclable)) {
+      return;
+    }
+    ((IRecyclable) encodable).reset();
+    pool.offer(encodable);
+  }
+
+  /**
+   * Get the original factory of the encodable class.
+   *
+   * @return the wrapped factory
+   */
+  public IEncodableFactory getFactory() {
+    return factory;
+  }
+
+  /**
+   * Get the number of pooled objects.
+   *
+   * @return the number of objects that are ready for reuse
+   */
+  public int getPooledCount() {
+    return pool.size();
+  }
+}
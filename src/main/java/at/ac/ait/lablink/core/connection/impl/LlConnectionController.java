@@ -18,6 +18,7 @@ import at.ac.ait.lablink.core.connection.encoding.encodables.Packet;
 import at.ac.ait.lablink.core.connection.encoding.impl.DecoderFactory;
 import at.ac.ait.lablink.core.connection.encoding.impl.EncodableFactoryManagerImpl;
 import at.ac.ait.lablink.core.connection.encoding.impl.EncoderFactory;
+import at.ac.ait.lablink.core.connection.encoding.impl.PayloadCompressor;
 import at.ac.ait.lablink.core.connection.messaging.IMessageCallback;
 import at.ac.ait.lablink.core.connection.messaging.IMessagePublishHandler;
 import at.ac.ait.lablink.core.connection.messaging.IMessageReceiveHandler;
@@ -45,6 +46,7 @@ import at.ac.ait.lablink.core.payloads.ErrorMessage;
 import at.ac.ait.lablink.core.payloads.LogMessage;
 import at.ac.ait.lablink.core.payloads.StatusMessage;
 import at.ac.ait.lablink.core.payloads.StringMessage;
+import at.ac.ait.lablink.core.utility.StringInternCache;
 
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationException;
@@ -141,6 +143,45 @@ public class LlConnectionController implements ILlConnection {
     return config;
   }
 
+  /**
+   * Register the numeric type identifiers of the configuration property
+   * <code>encoding.typeIds</code>. Every element of the list has the form <code>type:id</code>.
+   *
+   * @param config configuration of the connection (may be null)
+   */
+  private void registerConfiguredTypeIds(Configuration config) {
+    if (config == null) {
+      return;
+    }
+
+    for (String element : config.getStringArray("encoding.typeIds")) {
+      int separator = element.lastIndexOf(':');
+      try {
+        encodableFactoryManager.registerTypeId(element.substring(0, separator).trim(),
+            Integer.parseInt(element.substring(separator + 1).trim()));
+      } catch (IndexOutOfBoundsException | NumberFormatException ex) {
+        throw new LlCoreRuntimeException(
+            "Invalid element '" + element + "' in configuration 'encoding.typeIds'.", ex);
+      }
+    }
+  }
+
+  /**
+   * Create the cache for canonical identifiers of received messages. The identifiers of the own
+   * client are added first, so that decoded identifiers resolve to the same instances that are
+   * used by the dispatchers and the services of the client.
+   */
+  private StringInternCache createStringInternCache(Configuration config) {
+    StringInternCache stringInternCache = new StringInternCache(config);
+    for (String element : clientId.getPrefix()) {
+      stringInternCache.intern(element);
+    }
+    stringInternCache.intern(clientId.getAppId());
+    stringInternCache.intern(clientId.getGroupId());
+    stringInternCache.intern(clientId.getClientId());
+    return stringInternCache;
+  }
+
   private void initMemberClassesAndConnectModules(Configuration config) {
     mqttClient =
         new MqttClientSync(
@@ -148,11 +189,19 @@ public class LlConnectionController implements ILlConnection {
             config);
     connectionHandler = mqttClient;
 
-    encoderFactory = new EncoderFactory(EncoderFactory.EEncoderType.JSON, config);
-    decoderFactory = new DecoderFactory(DecoderFactory.EDecoderType.JSON, config);
+    EncoderFactory.EEncoderType encoderType = EncoderFactory.EEncoderType.JSON;
+    if (config != null && config.getBoolean("encoding.streamingEncoder", false)) {
+      encoderType = EncoderFactory.EEncoderType.JSON_STREAM;
+    }
+    encoderFactory = new EncoderFactory(encoderType, config);
+    DecoderFactory.EDecoderType decoderType = DecoderFactory.EDecoderType.JSON;
+    if (config != null && config.getBoolean("encoding.streamingDecoder", false)) {
+      decoderType = DecoderFactory.EDecoderType.JSON_STREAM;
+    }
+    decoderFactory = new DecoderFactory(decoderType, config);
     //TODO decoder encoder factory register instead of implicit create objects
 
-    encodableFactoryManager = new EncodableFactoryManagerImpl();
+    encodableFactoryManager = new EncodableFactoryManagerImpl(config);
     encodableFactoryManager.registerEncodableFactory(Packet.class);
     encodableFactoryManager.registerEncodableFactory(RpcHeader.class);
     encodableFactoryManager.registerEncodableFactory(MsgHeader.class);
@@ -161,10 +210,20 @@ public class LlConnectionController implements ILlConnection {
     encodableFactoryManager.registerEncodableFactory(StatusMessage.class);
     encodableFactoryManager.registerEncodableFactory(LogMessage.class);
     encodableFactoryManager.registerEncodableFactory(StringMessage.class);
+    registerConfiguredTypeIds(config);
 
     decoderFactory.setEncodableFactoryManager(encodableFactoryManager);
+    encoderFactory.setEncodableFactoryManager(encodableFactoryManager);
+
+    PayloadCompressor payloadCompressor = new PayloadCompressor(config);
+    decoderFactory.setPayloadCompressor(payloadCompressor);
+
+    StringInternCache stringInternCache = createStringInternCache(config);
+    decoderFactory.setStringInternCache(stringInternCache);
 
-    rootDispatchingTreeNode = new RootDispatchingTreeNode(clientId.getPrefix().get(0));
+    RootDispatchingTreeNode rootNode = new RootDispatchingTreeNode(clientId.getPrefix().get(0));
+    rootNode.setStringInternCache(stringInternCache);
+    rootDispatchingTreeNode = rootNode;
     rootDispatchingTreeNode.setMqttSubscriber(mqttClient);
     mqttClient.addMqttConnectionListener(rootDispatchingTreeNode);
     mqttClient.setReceiveCallback(rootDispatchingTreeNode);
@@ -172,6 +231,7 @@ public class LlConnectionController implements ILlConnection {
     publishingManager = new PublishingManager();
     publishingManager.setEncoderFactory(encoderFactory);
     publishingManager.setMqttPublisher(mqttClient);
+    publishingManager.setPayloadCompressor(payloadCompressor);
 
     callbackExecutorManager = new CallbackExecutorManager(config);
 
@@ -223,6 +283,17 @@ public class LlConnectionController implements ILlConnection {
     return this.clientId;
   }
 
+  @Override
+  public long getCurrentCallbackExecution() {
+    return callbackExecutorManager.getCurrentExecution();
+  }
+
+  @Override
+  public boolean awaitCallbackExecutions(long sequence, long timeout)
+      throws InterruptedException {
+    return callbackExecutorManager.awaitExecutions(sequence, timeout);
+  }
+
   @Override
   public void connect() {
     connectionHandler.connect();
@@ -252,6 +323,11 @@ public class LlConnectionController implements ILlConnection {
     messagePublishHandler.publishMessage(subject, payloads);
   }
 
+  @Override
+  public long getPublishedMessageCount() {
+    return messagePublishHandler.getPublishedMessageCount();
+  }
+
   @Override
   public void registerMessageHandler(MsgSubscription msgFilter, IMessageCallback callback) {
     messageReceiveHandler.registerMessageHandler(msgFilter, callback);
@@ -306,4 +382,24 @@ public class LlConnectionController implements ILlConnection {
   public IEncodable createEncodable(String type) {
     return encodableFactoryManager.createEncodable(type);
   }
+
+  @Override
+  public void registerTypeId(String type, int typeId) {
+    encodableFactoryManager.registerTypeId(type, typeId);
+  }
+
+  @Override
+  public int getTypeId(String type) {
+    return encodableFactoryManager.getTypeId(type);
+  }
+
+  @Override
+  public String getTypeForId(int typeId) {
+    return encodableFactoryManager.getTypeForId(typeId);
+  }
+
+  @Override
+  public void recycleEncodable(IEncodable encodable) {
+    encodableFactoryManager.recycleEncodable(encodable);
+  }
 }
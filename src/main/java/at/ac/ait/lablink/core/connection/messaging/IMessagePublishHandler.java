@@ -36,4 +36,15 @@ public interface IMessagePublishHandler {
    *                                     publishing itself.
    */
   void publishMessage(MsgSubject subject, List<IPayload> payloads);
+
+  /**
+   * Get the number of messages that have been published by this handler.
+   *
+   * <p>The number is the sequence number of the last published message. Messages of a client are
+   * delivered in the order of publishing. A receiver of a message with a known sequence number
+   * therefore also received all messages with smaller sequence numbers of the same client.
+   *
+   * @return the number of published messages
+   */
+  long getPublishedMessageCount();
 }
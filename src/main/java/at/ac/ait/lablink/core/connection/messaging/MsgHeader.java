@@ -7,6 +7,7 @@ package at.ac.ait.lablink.core.connection.messaging;
 
 import at.ac.ait.lablink.core.connection.encoding.IEncodable;
 import at.ac.ait.lablink.core.connection.encoding.IEncodableFactory;
+import at.ac.ait.lablink.core.connection.encoding.IRecyclable;
 import at.ac.ait.lablink.core.connection.encoding.encodables.Header;
 
 import java.util.List;
@@ -15,7 +16,7 @@ import java.util.List;
  * Special header for the messaging transmission. This header class is a implementation of the
  * common and abstract {@link Header} element.
  */
-public class MsgHeader extends Header {
+public class MsgHeader extends Header implements IRecyclable {
 
   /**
    * Get a type string of the class.
@@ -32,6 +33,18 @@ public class MsgHeader extends Header {
     return "msg-header";
   }
 
+  /**
+   * Get the stable numeric type identifier of the class.
+   *
+   * <p>The identifier is used instead of the type string in compact framing mode. Identifiers
+   * below 256 are reserved for the encodable classes of the Lablink core.
+   *
+   * @return the numeric type identifier of the class
+   */
+  public static int getClassTypeId() {
+    return 2;
+  }
+
   /**
    * Get the factory to create objects of the class.
    *
@@ -78,6 +91,22 @@ public class MsgHeader extends Header {
     return MsgHeader.getClassType();
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Messages are published to the topic of their source client and their subject, so the
+   * header fields are derivable from the topic.
+   */
+  @Override
+  protected boolean isDerivableFromTopic() {
+    return true;
+  }
+
+  @Override
+  public void reset() {
+    clearHeader();
+  }
+
   @Override
   public String toString() {
     return "MsgHeader{" + super.toString() + '}';
@@ -16,6 +16,7 @@ import at.ac.ait.lablink.core.connection.topic.Topic;
 import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Manager and helping class for publishing messages.
@@ -28,6 +29,7 @@ public class MessagePublishHandlerImpl implements IMessagePublishHandler {
 
   private final String transmissionIdentifier;
   private final ClientIdentifier clientId;
+  private final AtomicLong publishedMessageCount = new AtomicLong();
 
   /**
    * Constructor.
@@ -78,5 +80,11 @@ public class MessagePublishHandlerImpl implements IMessagePublishHandler {
     List<String> mqttTopic = topic.getTopic();
 
     publishingManager.publishPacket(mqttTopic, packet);
+    publishedMessageCount.incrementAndGet();
+  }
+
+  @Override
+  public long getPublishedMessageCount() {
+    return publishedMessageCount.get();
   }
 }
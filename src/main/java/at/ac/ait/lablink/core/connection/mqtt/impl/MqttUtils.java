@@ -6,6 +6,7 @@
 package at.ac.ait.lablink.core.connection.mqtt.impl;
 
 import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+import at.ac.ait.lablink.core.utility.StringInternCache;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -109,6 +110,47 @@ public class MqttUtils {
     return Arrays.asList(splitTopic);
   }
 
+  /**
+   * Convert a Mqtt topic into a list of canonical topic elements.
+   *
+   * <p>The elements are resolved with the given cache, so repeated topic elements don't create
+   * new strings. Like {@link #convertMqttTopicToStringList(String)}, trailing empty elements
+   * are removed.
+   *
+   * @param mqttTopic string to be converted.
+   * @param cache     cache for the canonical topic elements (may be null)
+   * @return List of strings with the split elements of the MQTT topic.
+   */
+  public static List<String> convertMqttTopicToStringList(String mqttTopic,
+                                                          StringInternCache cache) {
+    if (cache == null || !cache.isEnabled()) {
+      return convertMqttTopicToStringList(mqttTopic);
+    }
+
+    List<String> elements = new ArrayList<String>(12);
+    if (mqttTopic.isEmpty()) {
+      elements.add("");
+      return elements;
+    }
+
+    int end = mqttTopic.length();
+    while (end > 0 && mqttTopic.charAt(end - 1) == '/') {
+      end--;
+    }
+    if (end == 0) {
+      return elements;
+    }
+
+    int start = 0;
+    for (int i = 0; i <= end; i++) {
+      if (i == end || mqttTopic.charAt(i) == '/') {
+        elements.add(cache.intern(mqttTopic, start, i));
+        start = i + 1;
+      }
+    }
+    return elements;
+  }
+
   /**
    * Validate a full MQTT subscription for disallowed characters or elements.
    *
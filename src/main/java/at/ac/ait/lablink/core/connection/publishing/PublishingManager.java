@@ -8,6 +8,7 @@ package at.ac.ait.lablink.core.connection.publishing;
 import at.ac.ait.lablink.core.connection.encoding.EncoderBase;
 import at.ac.ait.lablink.core.connection.encoding.encodables.Packet;
 import at.ac.ait.lablink.core.connection.encoding.impl.EncoderFactory;
+import at.ac.ait.lablink.core.connection.encoding.impl.PayloadCompressor;
 import at.ac.ait.lablink.core.connection.ex.LowLevelCommRuntimeException;
 import at.ac.ait.lablink.core.connection.mqtt.IMqttPublisher;
 import at.ac.ait.lablink.core.connection.mqtt.impl.MqttUtils;
@@ -24,6 +25,9 @@ import java.util.List;
  * <p>For correct operations the PublishingManager needs a default encoder and a low-level
  * IMqttPublisher that should be set after the construction at the beginning
  * ({@link #setEncoderFactory(EncoderFactory)} and {@link #setMqttPublisher(IMqttPublisher)}).
+ *
+ * <p>If a {@link PayloadCompressor} is set, large encoded packets are compressed before they
+ * are published.
  */
 public class PublishingManager {
 
@@ -33,6 +37,9 @@ public class PublishingManager {
   /* Mqtt client used for publishing messages */
   private IMqttPublisher mqttPublisher;
 
+  /* Optional compression of large packets */
+  private PayloadCompressor payloadCompressor;
+
 
   /**
    * Set the factory class for generating the encoder that is used.
@@ -52,6 +59,16 @@ public class PublishingManager {
     this.mqttPublisher = mqttPublisher;
   }
 
+  /**
+   * Set the compressor for large packets.
+   *
+   * @param payloadCompressor compressor that is used for outgoing packets (null disables the
+   *                          compression)
+   */
+  public void setPayloadCompressor(PayloadCompressor payloadCompressor) {
+    this.payloadCompressor = payloadCompressor;
+  }
+
   /**
    * Publish a message over MQTT using the default encoder for the packet payloads.
    *
@@ -114,6 +131,10 @@ public class PublishingManager {
     byte[] payload = encoder.processEncoding(packet);
     encoderFactory.returnEncoderToPool(encoder);
 
+    if (payloadCompressor != null) {
+      payload = payloadCompressor.compress(payload);
+    }
+
     mqttPublisher.publish(mqttTopic, payload);
   }
 }
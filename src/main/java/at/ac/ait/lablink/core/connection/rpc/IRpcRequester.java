@@ -10,6 +10,7 @@ import at.ac.ait.lablink.core.connection.topic.RpcDestination;
 import at.ac.ait.lablink.core.connection.topic.RpcSubject;
 import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -93,6 +94,35 @@ public interface IRpcRequester {
   String sendRequest(RpcDestination destination, List<IPayload> payloads, int noOfReturns,
                      long timeoutInMs);
 
+  /**
+   * Send individual requests to several destinations at once.
+   *
+   * <p>The requests are sent together and share a common timeout. Every request is handled like
+   * a request of {@link #sendRequest(RpcDestination, List, int, long)}, i.e., the replies and
+   * errors are passed to the callbacks of the requester and a request that doesn't receive the
+   * expected number of replies reports a timeout error. An implementation may monitor the
+   * requests together instead of one by one.
+   *
+   * @param destinations Destinations of the requests.
+   * @param payloads     Payloads of the requests, in the order of the destinations.
+   * @param noOfReturns  Expected number of returns per request.
+   * @param timeoutInMs  Timeout of the response handler to receive replies (in Milliseconds).
+   * @return The unique identifiers of the sent requests, in the order of the destinations.
+   * @throws LlCoreRuntimeException if an error occurs during sending the requests
+   */
+  default List<String> sendRequests(List<RpcDestination> destinations,
+                                    List<List<IPayload>> payloads, int noOfReturns,
+                                    long timeoutInMs) {
+    if (destinations.size() != payloads.size()) {
+      throw new LlCoreRuntimeException("Number of destinations and payloads don't match.");
+    }
+    List<String> identifiers = new ArrayList<String>(destinations.size());
+    for (int i = 0; i < destinations.size(); i++) {
+      identifiers.add(sendRequest(destinations.get(i), payloads.get(i), noOfReturns, timeoutInMs));
+    }
+    return identifiers;
+  }
+
   /**
    * Get the Subject of the requester.
    *
@@ -34,6 +34,18 @@ public class RpcHeader extends Header {
     return "rpc-header";
   }
 
+  /**
+   * Get the stable numeric type identifier of the class.
+   *
+   * <p>The identifier is used instead of the type string in compact framing mode. Identifiers
+   * below 256 are reserved for the encodable classes of the Lablink core.
+   *
+   * @return the numeric type identifier of the class
+   */
+  public static int getClassTypeId() {
+    return 3;
+  }
+
   /**
    * Get the factory to create objects of the class.
    *
@@ -100,8 +112,8 @@ public class RpcHeader extends Header {
   @Override
   public void decode(IDecoder decoder) {
     super.decode(decoder);
-    destinationGroupId = decoder.getString("dstGrId");
-    destinationClientId = decoder.getString("dstClId");
+    destinationGroupId = decoder.getInternedString("dstGrId");
+    destinationClientId = decoder.getInternedString("dstClId");
     packetId = decoder.getString("packetId");
   }
 
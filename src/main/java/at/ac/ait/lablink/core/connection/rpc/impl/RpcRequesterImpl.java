@@ -155,6 +155,32 @@ public class RpcRequesterImpl implements IRpcRequester {
     return request.getActPacketIdentifier();
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The requests are published and monitored by a single thread of the requester instead of
+   * a thread per request.
+   */
+  @Override
+  public List<String> sendRequests(List<RpcDestination> destinations,
+                                   List<List<IPayload>> payloads, int noOfReturns,
+                                   long timeoutInMs) {
+    if (destinations.size() != payloads.size()) {
+      throw new LlCoreRuntimeException("Number of destinations and payloads don't match.");
+    }
+
+    List<Request> requests = new ArrayList<Request>(destinations.size());
+    List<String> identifiers = new ArrayList<String>(destinations.size());
+    for (int i = 0; i < destinations.size(); i++) {
+      Request request = new Request(destinations.get(i), payloads.get(i), noOfReturns, timeoutInMs);
+      requests.add(request);
+      identifiers.add(request.getActPacketIdentifier());
+    }
+
+    requestExecutorService.submit(new BatchRequest(requests, timeoutInMs));
+    return identifiers;
+  }
+
 
   @Override
   public RpcSubject getSubject() {
@@ -190,6 +216,8 @@ public class RpcRequesterImpl implements IRpcRequester {
     private long timeoutSetValueMs;
 
     private String actPacketIdentifier;
+    private List<String> replyToTopic;
+    private Packet packet;
 
     public Request(RpcDestination destination, List<IPayload> payloads, int numberOfReturns,
                    long timeoutMs) {
@@ -222,8 +250,19 @@ public class RpcRequesterImpl implements IRpcRequester {
 
     @Override
     public void run() {
+      if (publish()) {
+        awaitReplies(System.currentTimeMillis() + timeoutSetValueMs);
+      }
+    }
+
+    /**
+     * Register the reply dispatcher of the request and publish it.
+     *
+     * @return true if the request is published, false if an error occurred.
+     */
+    boolean publish() {
 
-      List<String> replyToTopic = new ArrayList<String>();
+      replyToTopic = new ArrayList<String>();
       replyToTopic.addAll(rpcSubject.getSubject());
       replyToTopic.add(actPacketIdentifier);
 
@@ -240,7 +279,7 @@ public class RpcRequesterImpl implements IRpcRequester {
               topic.getSubject(), System.currentTimeMillis(), topic.getGroupId(),
               topic.getClientId(), actPacketIdentifier);
 
-      Packet packet = new Packet(header, payloads);
+      packet = new Packet(header, payloads);
 
       try {
 
@@ -249,10 +288,32 @@ public class RpcRequesterImpl implements IRpcRequester {
         replyToDispatcher.addCallback(this);
         rootReplyDispatcher.addDispatcher(replyToTopic.iterator(), replyToDispatcher);
         publishingManager.publishPacket(topic.getTopic(), packet);
+        return true;
+
+      } catch (LlCoreRuntimeException ex) {
+        try {
+          errorCallback.handleError(packet.getHeader(), Collections.singletonList(
+              new ErrorMessage(ErrorMessage.EErrorCode.PROCESSING_ERROR,
+                  "Error during sending request: " + ex.getMessage())));
+        } catch (Exception ignore) {
+          // Expected
+        }
+        return false;
+      }
+    }
+
+    /**
+     * Wait for the replies of the published request and remove its reply dispatcher.
+     *
+     * @param deadline absolute time (in Milliseconds) until the replies are awaited.
+     */
+    void awaitReplies(long deadline) {
+      try {
 
         boolean
             correctCountDown =
-            countDownLatch.await(this.timeoutSetValueMs, TimeUnit.MILLISECONDS);
+            countDownLatch.await(Math.max(deadline - System.currentTimeMillis(), 0),
+                TimeUnit.MILLISECONDS);
 
         if (!unlimitedReceiving && !correctCountDown) {
           if (logger.isDebugEnabled()) {
@@ -273,18 +334,40 @@ public class RpcRequesterImpl implements IRpcRequester {
 
         rootReplyDispatcher.removeDispatcher(replyToTopic.iterator());
 
-      } catch (LlCoreRuntimeException ex) {
-        try {
-          errorCallback.handleError(packet.getHeader(), Collections.singletonList(
-              new ErrorMessage(ErrorMessage.EErrorCode.PROCESSING_ERROR,
-                  "Error during sending request: " + ex.getMessage())));
-        } catch (Exception ignore) {
-          // Expected
-        }
       } catch (InterruptedException ex) {
         ex.printStackTrace();
       }
 
     }
   }
+
+  /**
+   * Requests to several destinations that are published and monitored by a single thread. The
+   * timeout of the requests starts after all of them are published.
+   */
+  private class BatchRequest implements Runnable {
+
+    private final List<Request> requests;
+    private final long timeoutMs;
+
+    BatchRequest(List<Request> requests, long timeoutMs) {
+      this.requests = requests;
+      this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public void run() {
+      List<Request> published = new ArrayList<Request>(requests.size());
+      for (Request request : requests) {
+        if (request.publish()) {
+          published.add(request);
+        }
+      }
+
+      long deadline = System.currentTimeMillis() + timeoutMs;
+      for (Request request : published) {
+        request.awaitReplies(deadline);
+      }
+    }
+  }
 }
@@ -0,0 +1,50 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.rpc.request;
+
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.connection.rpc.RpcHeader;
+import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+
+import java.util.List;
+
+/**
+ * Interface for handling requests whose reply is sent later.
+ *
+ * <p>The callback is registered like an {@link IRpcRequestCallback}. It returns from the callback
+ * thread without a reply and sends the reply with the given {@link IRpcReplySender} when the
+ * request has been processed, e.g., by an own thread. Therefore long-running requests don't block
+ * the threads that execute the callbacks of the connection. If the handling of the request
+ * throws an exception, the error is replied immediately.
+ */
+public interface IRpcAsyncRequestCallback extends IRpcRequestCallback {
+
+  /**
+   * Callback function for received request messages.
+   *
+   * <p>The header and the payloads are only valid during the call. The data that is needed for
+   * the deferred processing must be kept by the implementation. The method can be called from
+   * different threads at the same time.
+   *
+   * @param header      received header of the request
+   * @param payloads    that were received
+   * @param replySender sender of the reply to the request
+   */
+  void handleRequest(RpcHeader header, List<IPayload> payloads, IRpcReplySender replySender);
+
+  /**
+   * Requests of an asynchronous callback are handled with a reply sender.
+   *
+   * @param header   received header of the request
+   * @param payloads that were received
+   * @return never
+   * @throws LlCoreRuntimeException always
+   */
+  @Override
+  default List<IPayload> handleRequest(RpcHeader header, List<IPayload> payloads) {
+    throw new LlCoreRuntimeException("Asynchronous request callback requires a reply sender.");
+  }
+}
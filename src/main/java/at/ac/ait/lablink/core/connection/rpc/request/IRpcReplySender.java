@@ -0,0 +1,30 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.rpc.request;
+
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+
+import java.util.List;
+
+/**
+ * Sender of the deferred reply of an RPC request.
+ *
+ * <p>A sender is handed to an {@link IRpcAsyncRequestCallback} for every received request. It
+ * keeps the information of the request that is needed for the reply. Only the first reply is
+ * sent, further calls are ignored.
+ */
+public interface IRpcReplySender {
+
+  /**
+   * Send the reply of the request back to the requester.
+   *
+   * <p>The method can be called from any thread.
+   *
+   * @param payloads payloads that will be returned to the sender of the request
+   * @return false if the request has already been replied
+   */
+  boolean sendReply(List<IPayload> payloads);
+}
@@ -9,15 +9,21 @@ import at.ac.ait.lablink.core.connection.dispatching.CallbackExecutor;
 import at.ac.ait.lablink.core.connection.encoding.IEncodable;
 import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
 import at.ac.ait.lablink.core.connection.rpc.RpcHeader;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcAsyncRequestCallback;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcReplySender;
 import at.ac.ait.lablink.core.connection.rpc.request.IRpcRequestCallback;
 import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
 import at.ac.ait.lablink.core.payloads.ErrorMessage;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Special implementation of Callback Executor for handling RPC requests.
+ *
+ * <p>The reply of an {@link IRpcAsyncRequestCallback} is deferred to the callback. It is sent
+ * immediately if the handling of the request fails.
  */
 public class RpcRequestCallbackExecutor extends CallbackExecutor {
 
@@ -27,6 +33,10 @@ public class RpcRequestCallbackExecutor extends CallbackExecutor {
 
   private List<IPayload> responsePayloads;
 
+  /* Sender of a deferred reply, null if the request is replied by the callback thread */
+  private ReplySender replySender;
+  private boolean replyDeferred = false;
+
 
   /**
    * Constructor.
@@ -55,7 +65,13 @@ public class RpcRequestCallbackExecutor extends CallbackExecutor {
   @Override
   public void handleCallback() {
     super.handleCallback();
-    sendResponse();
+
+    if (replySender == null) {
+      sendResponse();
+    } else if (!replyDeferred) {
+      // the callback failed, its errors are replied instead
+      replySender.sendReply(new ArrayList<IPayload>(this.errors));
+    }
   }
 
   protected void sendResponse() {
@@ -75,6 +91,64 @@ public class RpcRequestCallbackExecutor extends CallbackExecutor {
 
   @Override
   protected void executeHandleCallback(List<IPayload> payloads) throws Exception {
+    if (rpcRequestCallback instanceof IRpcAsyncRequestCallback) {
+      replySender = new ReplySender(copyHeader((RpcHeader) header), this.errors);
+      ((IRpcAsyncRequestCallback) rpcRequestCallback)
+          .handleRequest((RpcHeader) header, payloads, replySender);
+      replyDeferred = true;
+      return;
+    }
     this.responsePayloads = rpcRequestCallback.handleRequest((RpcHeader) header, payloads);
   }
+
+  /* The header is recycled with the packet after the callback, a deferred reply needs a copy */
+  private static RpcHeader copyHeader(RpcHeader header) {
+    if (header == null) {
+      return null;
+    }
+    return new RpcHeader(header.getApplicationId(), header.getSourceGroupId(),
+        header.getSourceClientId(), new ArrayList<String>(header.getSubject()),
+        header.getTimestamp(), header.getDestinationGroupId(), header.getDestinationClientId(),
+        header.getPacketId());
+  }
+
+  /**
+   * Sender of the deferred reply of a request. The errors that occurred before the request was
+   * handled are added to the reply.
+   */
+  private class ReplySender implements IRpcReplySender {
+
+    private final RpcHeader requestHeader;
+    private final List<ErrorMessage> dispatchingErrors;
+    private final AtomicBoolean replied = new AtomicBoolean();
+
+    ReplySender(RpcHeader requestHeader, List<ErrorMessage> dispatchingErrors) {
+      this.requestHeader = requestHeader;
+      this.dispatchingErrors = new ArrayList<ErrorMessage>(dispatchingErrors);
+    }
+
+    @Override
+    public boolean sendReply(List<IPayload> payloads) {
+      if (!replied.compareAndSet(false, true)) {
+        logger.debug("Request {} has already been replied.", requestHeader);
+        return false;
+      }
+
+      List<IPayload> reply = new ArrayList<IPayload>();
+      if (payloads != null) {
+        reply.addAll(payloads);
+      }
+      for (ErrorMessage error : dispatchingErrors) {
+        if (!reply.contains(error)) {
+          reply.add(error);
+        }
+      }
+      try {
+        rpcReplyPublisher.publishResponse(requestHeader, reply);
+      } catch (LlCoreRuntimeException ex) {
+        logger.info("Error during sending RPC response", ex);
+      }
+      return true;
+    }
+  }
 }
@@ -77,6 +77,18 @@ public class RpcSubject {
       return this;
     }
 
+    /**
+     * Add an "receive all" element to the subject. It is only allowed to call this method once
+     * at the end of the subject creation. Such a subject can only be used for registering a
+     * request handler.
+     *
+     * @return The builder.
+     */
+    public Builder addSubjectAllChildren() {
+      subject.add(MqttUtils.TOPIC_WILDCARD_ALL);
+      return this;
+    }
+
     /**
      * Generates and returns a new RpcSubject element with the included subject elements.
      *
@@ -32,6 +32,18 @@ public class StringMessage extends PayloadBase {
     return "stringMsg";
   }
 
+  /**
+   * Get the stable numeric type identifier of the class.
+   *
+   * <p>The identifier is used instead of the type string in compact framing mode. Identifiers
+   * below 256 are reserved for the encodable classes of the Lablink core.
+   *
+   * @return the numeric type identifier of the class
+   */
+  public static int getClassTypeId() {
+    return 7;
+  }
+
   /**
    * Get the factory to create objects of the class.
    *
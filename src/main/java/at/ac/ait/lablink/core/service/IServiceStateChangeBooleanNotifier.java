@@ -0,0 +1,13 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service;
+
+/**
+ * State change notifier for {@link LlServiceBoolean} that receives the values without boxing.
+ */
+public interface IServiceStateChangeBooleanNotifier {
+  public void stateChanged(LlServiceBoolean service, boolean oldVal, boolean newVal);
+}
@@ -96,7 +96,7 @@ public abstract class LlService<T> extends LlServiceBase {
     return curState;
   }
 
-  private void notifyStateChange(T oldVal, T newVal) {
+  protected void notifyStateChange(T oldVal, T newVal) {
     if (this.notifiers.size() > 0) {
 
       logger.debug("Service [{}]: state changed from [{}] to [{}]!", this.getName(), oldVal,
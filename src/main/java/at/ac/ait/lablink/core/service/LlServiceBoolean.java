@@ -5,26 +5,102 @@
 
 package at.ac.ait.lablink.core.service;
 
+import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 public abstract class LlServiceBoolean extends LlService<Boolean> {
 
+  /** The current state value of the service without boxing. */
+  private volatile boolean curBooleanState;
+
+  /* Guards the replacement of the current state */
+  private final Object stateLock = new Object();
+
+  /** Notifiers that are informed about state changes without boxing the values. */
+  private final List<IServiceStateChangeBooleanNotifier> booleanNotifiers =
+      new CopyOnWriteArrayList<IServiceStateChangeBooleanNotifier>();
+
   public LlServiceBoolean() {
     super();
-    setCurState(false);
+    setBooleanState(false);
   }
 
   public LlServiceBoolean(String name) {
     super(name);
-    setCurState(false);
+    setBooleanState(false);
   }
 
   public LlServiceBoolean(String name, boolean readonly) {
     super(name, readonly);
-    setCurState(false);
+    setBooleanState(false);
   }
 
   public LlServiceBoolean(boolean readonly) {
     super(readonly);
-    setCurState(false);
+    setBooleanState(false);
+  }
+
+  @Override
+  public Class<Boolean> getServiceDataTypeClass() {
+    return Boolean.class;
+  }
+
+  @Override
+  public Boolean getCurState() {
+    return curBooleanState;
   }
 
+  /**
+   * Sets the current state.
+   *
+   * @param curVal the new current state
+   * @throws LlCoreRuntimeException if the new state is null.
+   */
+  @Override
+  public void setCurState(Boolean curVal) {
+    if (curVal == null) {
+      throw new LlCoreRuntimeException(
+          "Service [" + this.getName() + "] doesn't accept a null state.");
+    }
+    setBooleanState(curVal);
+  }
+
+  /**
+   * Gets the current state without boxing it.
+   *
+   * @return the current state
+   */
+  public boolean getBooleanState() {
+    return curBooleanState;
+  }
+
+  /**
+   * Sets the current state without boxing it.
+   *
+   * <p>The values are only boxed if generic state change notifiers are registered. The notifiers
+   * are called by the setting thread after the state has been replaced.
+   *
+   * @param curVal the new current state
+   */
+  public void setBooleanState(boolean curVal) {
+    boolean oldVal;
+    synchronized (stateLock) {
+      oldVal = this.curBooleanState;
+      this.curBooleanState = curVal;
+    }
+
+    for (IServiceStateChangeBooleanNotifier notifier : booleanNotifiers) {
+      notifier.stateChanged(this, oldVal, curVal);
+    }
+    if (this.notifiers.size() > 0) {
+      notifyStateChange(oldVal, curVal);
+    }
+  }
+
+  public void addStateChangeBooleanNotifier(IServiceStateChangeBooleanNotifier notifier) {
+    this.booleanNotifiers.add(notifier);
+    logger.debug("Another boolean notifier added for service [{}].", this.getName());
+  }
 }
@@ -5,25 +5,102 @@
 
 package at.ac.ait.lablink.core.service;
 
+import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 public abstract class LlServiceDouble extends LlService<Double> {
 
+  /** The current state value of the service without boxing. */
+  private volatile double curDoubleState;
+
+  /* Guards the replacement of the current state */
+  private final Object stateLock = new Object();
+
+  /** Notifiers that are informed about state changes without boxing the values. */
+  private final List<IServiceStateChangeDoubleNotifier> doubleNotifiers =
+      new CopyOnWriteArrayList<IServiceStateChangeDoubleNotifier>();
+
   public LlServiceDouble(String name) {
     super(name);
-    setCurState(0.0);
+    setDoubleState(0.0);
   }
 
   public LlServiceDouble() {
     super();
-    setCurState(0.0);
+    setDoubleState(0.0);
   }
 
   public LlServiceDouble(String name, boolean readonly) {
     super(name, readonly);
-    setCurState(0.0);
+    setDoubleState(0.0);
   }
 
   public LlServiceDouble(boolean readonly) {
     super(readonly);
-    setCurState(0.0);
+    setDoubleState(0.0);
+  }
+
+  @Override
+  public Class<Double> getServiceDataTypeClass() {
+    return Double.class;
+  }
+
+  @Override
+  public Double getCurState() {
+    return curDoubleState;
+  }
+
+  /**
+   * Sets the current state.
+   *
+   * @param curVal the new current state
+   * @throws LlCoreRuntimeException if the new state is null.
+   */
+  @Override
+  public void setCurState(Double curVal) {
+    if (curVal == null) {
+      throw new LlCoreRuntimeException(
+          "Service [" + this.getName() + "] doesn't accept a null state.");
+    }
+    setDoubleState(curVal);
+  }
+
+  /**
+   * Gets the current state without boxing it.
+   *
+   * @return the current state
+   */
+  public double getDoubleState() {
+    return curDoubleState;
+  }
+
+  /**
+   * Sets the current state without boxing it.
+   *
+   * <p>The values are only boxed if generic state change notifiers are registered. The notifiers
+   * are called by the setting thread after the state has been replaced.
+   *
+   * @param curVal the new current state
+   */
+  public void setDoubleState(double curVal) {
+    double oldVal;
+    synchronized (stateLock) {
+      oldVal = this.curDoubleState;
+      this.curDoubleState = curVal;
+    }
+
+    for (IServiceStateChangeDoubleNotifier notifier : doubleNotifiers) {
+      notifier.stateChanged(this, oldVal, curVal);
+    }
+    if (this.notifiers.size() > 0) {
+      notifyStateChange(oldVal, curVal);
+    }
+  }
+
+  public void addStateChangeDoubleNotifier(IServiceStateChangeDoubleNotifier notifier) {
+    this.doubleNotifiers.add(notifier);
+    logger.debug("Another double notifier added for service [{}].", this.getName());
   }
 }
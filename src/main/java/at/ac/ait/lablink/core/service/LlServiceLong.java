@@ -5,25 +5,102 @@
 
 package at.ac.ait.lablink.core.service;
 
+import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 public abstract class LlServiceLong extends LlService<Long> {
 
+  /** The current state value of the service without boxing. */
+  private volatile long curLongState;
+
+  /* Guards the replacement of the current state */
+  private final Object stateLock = new Object();
+
+  /** Notifiers that are informed about state changes without boxing the values. */
+  private final List<IServiceStateChangeLongNotifier> longNotifiers =
+      new CopyOnWriteArrayList<IServiceStateChangeLongNotifier>();
+
   public LlServiceLong() {
     super();
-    setCurState(0L);
+    setLongState(0L);
   }
 
   public LlServiceLong(String name) {
     super(name);
-    setCurState(0L);
+    setLongState(0L);
   }
 
   public LlServiceLong(String name, boolean readonly) {
     super(name, readonly);
-    setCurState(0L);
+    setLongState(0L);
   }
 
   public LlServiceLong(boolean readonly) {
     super(readonly);
-    setCurState(0L);
+    setLongState(0L);
+  }
+
+  @Override
+  public Class<Long> getServiceDataTypeClass() {
+    return Long.class;
+  }
+
+  @Override
+  public Long getCurState() {
+    return curLongState;
+  }
+
+  /**
+   * Sets the current state.
+   *
+   * @param curVal the new current state
+   * @throws LlCoreRuntimeException if the new state is null.
+   */
+  @Override
+  public void setCurState(Long curVal) {
+    if (curVal == null) {
+      throw new LlCoreRuntimeException(
+          "Service [" + this.getName() + "] doesn't accept a null state.");
+    }
+    setLongState(curVal);
+  }
+
+  /**
+   * Gets the current state without boxing it.
+   *
+   * @return the current state
+   */
+  public long getLongState() {
+    return curLongState;
+  }
+
+  /**
+   * Sets the current state without boxing it.
+   *
+   * <p>The values are only boxed if generic state change notifiers are registered. The notifiers
+   * are called by the setting thread after the state has been replaced.
+   *
+   * @param curVal the new current state
+   */
+  public void setLongState(long curVal) {
+    long oldVal;
+    synchronized (stateLock) {
+      oldVal = this.curLongState;
+      this.curLongState = curVal;
+    }
+
+    for (IServiceStateChangeLongNotifier notifier : longNotifiers) {
+      notifier.stateChanged(this, oldVal, curVal);
+    }
+    if (this.notifiers.size() > 0) {
+      notifyStateChange(oldVal, curVal);
+    }
+  }
+
+  public void addStateChangeLongNotifier(IServiceStateChangeLongNotifier notifier) {
+    this.longNotifiers.add(notifier);
+    logger.debug("Another long notifier added for service [{}].", this.getName());
   }
 }
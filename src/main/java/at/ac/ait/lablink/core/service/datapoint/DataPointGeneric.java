@@ -111,6 +111,23 @@ public class DataPointGeneric<T> implements IDataPoint<T> {
   @Override
   public void setValue(T value, long timestamp) {
     this.lastValue.setValue(value);
+    lastValueUpdated(timestamp);
+  }
+
+  @Override
+  public void setValue(T value) {
+    this.setValue(value, System.currentTimeMillis());
+  }
+
+  /**
+   * Update the timestamps of the last value and publish it.
+   *
+   * <p>Subclasses that write a new value directly into the last value object (e.g., the primitive
+   * setters of the typed datapoints) have to call this method afterwards.
+   *
+   * @param timestamp timestamp of the new value in milliseconds since 1.1.1970
+   */
+  protected void lastValueUpdated(long timestamp) {
     this.lastValue.setTime(timestamp);
     //TODO implement emulation Timestamp
     this.lastValue.setEmulationTime(timestamp);
@@ -119,11 +136,6 @@ public class DataPointGeneric<T> implements IDataPoint<T> {
     }
   }
 
-  @Override
-  public void setValue(T value) {
-    this.setValue(value, System.currentTimeMillis());
-  }
-
   /**
    * Publish the current value of the datapoint.
    */
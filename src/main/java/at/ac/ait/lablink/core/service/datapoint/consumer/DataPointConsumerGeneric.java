@@ -5,6 +5,7 @@
 
 package at.ac.ait.lablink.core.service.datapoint.consumer;
 
+import at.ac.ait.lablink.core.connection.encoding.IRecyclable;
 import at.ac.ait.lablink.core.connection.encoding.encodables.Header;
 import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
 import at.ac.ait.lablink.core.connection.messaging.IMessageCallback;
@@ -23,6 +24,7 @@ import at.ac.ait.lablink.core.service.datapoint.payloads.ISimpleValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Constructor;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -41,8 +43,12 @@ public class DataPointConsumerGeneric<T> implements IDataPointConsumer<T> {
   private List<String> identifier;
 
 
-  private ISimpleValue<T> lastValue;
+  /* Published value, never modified after publishing. Readers may run on other threads */
+  private volatile ISimpleValue<T> lastValue;
   private ISimpleValue<T> setValue;
+
+  /* Constructor of the copies of recyclable received values */
+  private Constructor<?> receivedValueConstructor;
   private DataPointProperties props = new DataPointProperties();
   private IDataPointConsumerNotifier<T> notifier;
 
@@ -72,6 +78,8 @@ public class DataPointConsumerGeneric<T> implements IDataPointConsumer<T> {
 
   private long lastReceivedTimestamp = -1;
 
+  private DataPointHistory history;
+
   /**
    * Constructor.
    *
@@ -155,10 +163,21 @@ public class DataPointConsumerGeneric<T> implements IDataPointConsumer<T> {
 
   @Override
   public T getValue() {
+    return getLastValue().getValue();
+  }
+
+  /**
+   * Get the last received value object of the datapoint consumer.
+   *
+   * <p>The typed consumers use this method to read the value without boxing it.
+   *
+   * @return the last received value.
+   */
+  protected ISimpleValue<T> getLastValue() {
     checkErrorState();
     checkConnectedState();
 
-    return lastValue.getValue();
+    return lastValue;
   }
 
   void sendPropertiesRequest() {
@@ -248,7 +267,10 @@ public class DataPointConsumerGeneric<T> implements IDataPointConsumer<T> {
 
 
   private void externalValueUpdate(ISimpleValue<T> value) {
-    this.lastValue = value;
+    this.lastValue = takeOverValue(value);
+    if (this.history != null) {
+      this.history.add(value.getTime(), value.getEmulationTime(), toHistoryValue(value));
+    }
     if (this.notifier != null && datapointState == EDataPointConsumerState.CONNECTED) {
       synchronized (notifier) {
         notifier.valueUpdate(this);
@@ -256,6 +278,94 @@ public class DataPointConsumerGeneric<T> implements IDataPointConsumer<T> {
     }
   }
 
+  /**
+   * Take over a received value. Recyclable values may be reused after the callback has been
+   * completed. Therefore their content is copied into a new value object of the consumer. The
+   * copy is completed before it is published, so concurrent readers never see a partial update.
+   *
+   * @param value received value
+   * @return the value that can be stored by the consumer
+   */
+  @SuppressWarnings("unchecked")
+  private ISimpleValue<T> takeOverValue(ISimpleValue<T> value) {
+    if (!(value instanceof IRecyclable)) {
+      return value;
+    }
+
+    ISimpleValue<T> receivedValue;
+    try {
+      if (receivedValueConstructor == null
+          || receivedValueConstructor.getDeclaringClass() != value.getClass()) {
+        receivedValueConstructor = value.getClass().getDeclaredConstructor();
+      }
+      receivedValue = (ISimpleValue<T>) receivedValueConstructor.newInstance();
+    } catch (ReflectiveOperationException ex) {
+      throw new DatapointServiceRuntimeException(
+          "Can't create a copy of the received value " + value.getClass().getSimpleName(), ex);
+    }
+    receivedValue.setValue(value.getValue());
+    receivedValue.setTime(value.getTime());
+    receivedValue.setEmulationTime(value.getEmulationTime());
+    return receivedValue;
+  }
+
+  /**
+   * Enable the value history of the datapoint consumer.
+   *
+   * <p>Every received value update will be stored in a bounded history. The history is only
+   * available for numeric and boolean datapoints.
+   *
+   * @param capacity Maximum number of entries stored in the history.
+   * @return the created history.
+   */
+  public DataPointHistory enableHistory(int capacity) {
+    if (!isHistorySupported()) {
+      throw new DatapointServiceRuntimeException(
+          "DatapointConsumer (" + remoteGroup + " " + remoteClient + ":" + identifier
+              + ") doesn't support a value history.");
+    }
+    this.history = new DataPointHistory(capacity);
+    return this.history;
+  }
+
+  /**
+   * Disable the value history of the datapoint consumer.
+   */
+  public void disableHistory() {
+    this.history = null;
+  }
+
+  /**
+   * Get the value history of the datapoint consumer.
+   *
+   * @return the history or null if the history isn't enabled.
+   */
+  public DataPointHistory getHistory() {
+    return history;
+  }
+
+  /**
+   * Check if the datapoint consumer supports a value history.
+   *
+   * <p>Subclasses that support a history have to override this method and
+   * {@link #toHistoryValue(ISimpleValue)}.
+   *
+   * @return true if a history is supported.
+   */
+  protected boolean isHistorySupported() {
+    return false;
+  }
+
+  /**
+   * Convert a received value into a history entry.
+   *
+   * @param value received value
+   * @return the value that will be stored in the history.
+   */
+  protected double toHistoryValue(ISimpleValue<T> value) {
+    throw new DatapointServiceRuntimeException("Value history isn't supported.");
+  }
+
   public void setPropertiesRequester(IRpcRequester propertiesRequester) {
     this.propsRequester = propertiesRequester;
   }
@@ -0,0 +1,211 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.consumer;
+
+import at.ac.ait.lablink.core.service.datapoint.ex.DatapointServiceRuntimeException;
+
+/**
+ * Bounded value history of a datapoint consumer.
+ *
+ * <p>The history is a fixed-capacity ring buffer that stores the timestamp, the emulation time and
+ * the value of every received update in parallel primitive arrays. If the buffer is full the
+ * oldest entry will be overwritten.
+ *
+ * <p>Only one writer at a time appends values (the method is synchronized). Readers don't block
+ * the writer. They copy the requested entries into a {@link DataPointHistorySnapshot} and drop
+ * all entries that may have been overwritten during the copy. Therefore the internal arrays
+ * contain one additional guard slot.
+ */
+public class DataPointHistory {
+
+  private final int capacity;
+
+  private final long[] timestamps;
+  private final long[] emulationTimes;
+  private final double[] values;
+
+  /**
+   * Number of values that were added since the creation of the history.
+   */
+  private volatile long count = 0;
+
+  /**
+   * Number of added values at the last call of {@link #clear()}.
+   */
+  private volatile long clearedCount = 0;
+
+  /**
+   * Constructor.
+   *
+   * @param capacity Maximum number of entries stored in the history.
+   */
+  public DataPointHistory(int capacity) {
+    if (capacity < 1) {
+      throw new DatapointServiceRuntimeException(
+          "Capacity of the datapoint history must be greater than zero (" + capacity + ").");
+    }
+
+    this.capacity = capacity;
+    this.timestamps = new long[capacity + 1];
+    this.emulationTimes = new long[capacity + 1];
+    this.values = new double[capacity + 1];
+  }
+
+  /**
+   * Append a new entry to the history.
+   *
+   * @param timestamp     timestamp of the value in milliseconds since 1.1.1970
+   * @param emulationTime emulation time of the value in milliseconds since 1.1.1970
+   * @param value         value to be stored
+   */
+  public synchronized void add(long timestamp, long emulationTime, double value) {
+    long seq = count;
+    int slot = (int) (seq % timestamps.length);
+
+    timestamps[slot] = timestamp;
+    emulationTimes[slot] = emulationTime;
+    values[slot] = value;
+
+    count = seq + 1;
+  }
+
+  /**
+   * Get the maximum number of stored entries.
+   *
+   * @return the capacity of the history.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Get the number of currently stored entries.
+   *
+   * @return the number of stored entries.
+   */
+  public int size() {
+    return (int) Math.min(count - clearedCount, capacity);
+  }
+
+  /**
+   * Get the total number of entries that were added to the history.
+   *
+   * @return the number of added entries, including the overwritten ones.
+   */
+  public long getTotalCount() {
+    return count;
+  }
+
+  /**
+   * Get a snapshot of all stored entries.
+   *
+   * @return a snapshot with the entries ordered from the oldest to the newest.
+   */
+  public DataPointHistorySnapshot getSnapshot() {
+    return getRange(Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * Get a snapshot of all stored entries within a time range.
+   *
+   * @param fromTime start of the range (inclusive) in milliseconds since 1.1.1970
+   * @param toTime   end of the range (inclusive) in milliseconds since 1.1.1970
+   * @return a snapshot with the entries ordered from the oldest to the newest.
+   */
+  public DataPointHistorySnapshot getRange(long fromTime, long toTime) {
+    long end = count;
+    long start = Math.max(clearedCount, end - capacity);
+    int maxSize = (int) (end - start);
+
+    long[] seqs = new long[maxSize];
+    long[] ts = new long[maxSize];
+    long[] emu = new long[maxSize];
+    double[] vals = new double[maxSize];
+    int size = 0;
+
+    for (long seq = start; seq < end; seq++) {
+      int slot = (int) (seq % timestamps.length);
+      long timestamp = timestamps[slot];
+      if (timestamp >= fromTime && timestamp <= toTime) {
+        seqs[size] = seq;
+        ts[size] = timestamp;
+        emu[size] = emulationTimes[slot];
+        vals[size] = values[slot];
+        size++;
+      }
+    }
+
+    // Entries that were overwritten by a concurrent writer during copying are invalid.
+    long firstValid = count - capacity;
+    int offset = 0;
+    while (offset < size && seqs[offset] < firstValid) {
+      offset++;
+    }
+
+    return new DataPointHistorySnapshot(ts, emu, vals, offset, size - offset);
+  }
+
+  /**
+   * Get a downsampled view of the stored entries within a time range.
+   *
+   * <p>The time range is split into equally sized buckets. Every bucket that contains entries
+   * results in one entry of the snapshot with the mean value of the bucket and the timestamps
+   * of its last entry.
+   *
+   * @param fromTime  start of the range (inclusive) in milliseconds since 1.1.1970
+   * @param toTime    end of the range (inclusive) in milliseconds since 1.1.1970
+   * @param maxPoints maximum number of entries of the resulting snapshot.
+   * @return a snapshot with the downsampled entries ordered by time.
+   */
+  public DataPointHistorySnapshot getDownsampled(long fromTime, long toTime, int maxPoints) {
+    if (maxPoints < 1) {
+      throw new DatapointServiceRuntimeException(
+          "Number of downsampled points must be greater than zero (" + maxPoints + ").");
+    }
+
+    DataPointHistorySnapshot range = getRange(fromTime, toTime);
+    if (range.size() <= maxPoints) {
+      return range;
+    }
+
+    double bucketWidth = ((double) toTime - (double) fromTime + 1.0) / maxPoints;
+
+    long[] ts = new long[maxPoints];
+    long[] emu = new long[maxPoints];
+    double[] sums = new double[maxPoints];
+    int[] samples = new int[maxPoints];
+
+    for (int i = 0; i < range.size(); i++) {
+      int bucket = (int) Math.min(maxPoints - 1,
+          ((double) range.getTimestamp(i) - (double) fromTime) / bucketWidth);
+
+      ts[bucket] = range.getTimestamp(i);
+      emu[bucket] = range.getEmulationTime(i);
+      sums[bucket] += range.getValue(i);
+      samples[bucket]++;
+    }
+
+    // Remove empty buckets
+    int size = 0;
+    for (int bucket = 0; bucket < maxPoints; bucket++) {
+      if (samples[bucket] > 0) {
+        ts[size] = ts[bucket];
+        emu[size] = emu[bucket];
+        sums[size] = sums[bucket] / samples[bucket];
+        size++;
+      }
+    }
+
+    return new DataPointHistorySnapshot(ts, emu, sums, 0, size);
+  }
+
+  /**
+   * Remove all entries from the history.
+   */
+  public synchronized void clear() {
+    clearedCount = count;
+  }
+}
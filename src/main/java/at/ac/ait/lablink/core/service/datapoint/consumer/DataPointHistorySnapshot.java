@@ -0,0 +1,118 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.consumer;
+
+import java.util.Arrays;
+
+/**
+ * Immutable copy of entries of a {@link DataPointHistory}.
+ */
+public class DataPointHistorySnapshot {
+
+  private final long[] timestamps;
+  private final long[] emulationTimes;
+  private final double[] values;
+  private final int offset;
+  private final int size;
+
+  /**
+   * Constructor.
+   *
+   * @param timestamps     array with the timestamps of the entries
+   * @param emulationTimes array with the emulation times of the entries
+   * @param values         array with the values of the entries
+   * @param offset         index of the first valid entry in the arrays
+   * @param size           number of valid entries
+   */
+  DataPointHistorySnapshot(long[] timestamps, long[] emulationTimes, double[] values, int offset,
+                           int size) {
+    this.timestamps = timestamps;
+    this.emulationTimes = emulationTimes;
+    this.values = values;
+    this.offset = offset;
+    this.size = size;
+  }
+
+  /**
+   * Get the number of entries.
+   *
+   * @return the number of entries.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get the timestamp of an entry.
+   *
+   * @param index index of the entry (0 is the oldest entry)
+   * @return the timestamp in milliseconds since 1.1.1970
+   */
+  public long getTimestamp(int index) {
+    checkIndex(index);
+    return timestamps[offset + index];
+  }
+
+  /**
+   * Get the emulation time of an entry.
+   *
+   * @param index index of the entry (0 is the oldest entry)
+   * @return the emulation time in milliseconds since 1.1.1970
+   */
+  public long getEmulationTime(int index) {
+    checkIndex(index);
+    return emulationTimes[offset + index];
+  }
+
+  /**
+   * Get the value of an entry.
+   *
+   * @param index index of the entry (0 is the oldest entry)
+   * @return the value of the entry
+   */
+  public double getValue(int index) {
+    checkIndex(index);
+    return values[offset + index];
+  }
+
+  /**
+   * Get a copy of all timestamps.
+   *
+   * @return array with the timestamps ordered from the oldest to the newest entry.
+   */
+  public long[] getTimestamps() {
+    return Arrays.copyOfRange(timestamps, offset, offset + size);
+  }
+
+  /**
+   * Get a copy of all emulation times.
+   *
+   * @return array with the emulation times ordered from the oldest to the newest entry.
+   */
+  public long[] getEmulationTimes() {
+    return Arrays.copyOfRange(emulationTimes, offset, offset + size);
+  }
+
+  /**
+   * Get a copy of all values.
+   *
+   * @return array with the values ordered from the oldest to the newest entry.
+   */
+  public double[] getValues() {
+    return Arrays.copyOfRange(values, offset, offset + size);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "DataPointHistorySnapshot{" + "size=" + size + '}';
+  }
+}
@@ -8,6 +8,7 @@ package at.ac.ait.lablink.core.service.datapoint.consumer.impl;
 import at.ac.ait.lablink.core.service.datapoint.consumer.DataPointConsumerGeneric;
 import at.ac.ait.lablink.core.service.datapoint.consumer.IDataPointConsumer;
 import at.ac.ait.lablink.core.service.datapoint.payloads.BooleanValue;
+import at.ac.ait.lablink.core.service.datapoint.payloads.ISimpleValue;
 
 import java.util.List;
 
@@ -28,4 +29,23 @@ public class BooleanDataPointConsumer extends DataPointConsumerGeneric<Boolean>
                                   List<String> identifier) {
     super(remoteGroup, remoteClient, identifier, new BooleanValue());
   }
+
+  /**
+   * Get the last value of the datapoint consumer without boxing it.
+   *
+   * @return the value of the datapoint.
+   */
+  public boolean getBoolean() {
+    return ((BooleanValue) getLastValue()).getBoolean();
+  }
+
+  @Override
+  protected boolean isHistorySupported() {
+    return true;
+  }
+
+  @Override
+  protected double toHistoryValue(ISimpleValue<Boolean> value) {
+    return ((BooleanValue) value).getBoolean() ? 1.0 : 0.0;
+  }
 }
@@ -6,10 +6,15 @@
 package at.ac.ait.lablink.core.service.datapoint.consumer.impl;
 
 import at.ac.ait.lablink.core.connection.ILlConnection;
+import at.ac.ait.lablink.core.connection.encoding.encodables.Header;
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.connection.messaging.IMessageCallback;
+import at.ac.ait.lablink.core.connection.messaging.MsgHeader;
 import at.ac.ait.lablink.core.connection.rpc.IRpcRequester;
 import at.ac.ait.lablink.core.connection.topic.MsgSubscription;
 import at.ac.ait.lablink.core.connection.topic.RpcSubject;
 import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+import at.ac.ait.lablink.core.payloads.ErrorMessage;
 import at.ac.ait.lablink.core.service.datapoint.consumer.DataPointAvailableRequester;
 import at.ac.ait.lablink.core.service.datapoint.consumer.DataPointConsumerGeneric;
 import at.ac.ait.lablink.core.service.datapoint.consumer.DataPointInfo;
@@ -17,9 +22,13 @@ import at.ac.ait.lablink.core.service.datapoint.consumer.EDataPointConsumerState
 import at.ac.ait.lablink.core.service.datapoint.consumer.IDataPointConsumerService;
 import at.ac.ait.lablink.core.service.datapoint.ex.DatapointServiceRuntimeException;
 import at.ac.ait.lablink.core.service.datapoint.payloads.BooleanValue;
+import at.ac.ait.lablink.core.service.datapoint.payloads.ComplexArrayValue;
 import at.ac.ait.lablink.core.service.datapoint.payloads.ComplexValue;
+import at.ac.ait.lablink.core.service.datapoint.payloads.DataPointBatchMessage;
 import at.ac.ait.lablink.core.service.datapoint.payloads.DataPointProperties;
+import at.ac.ait.lablink.core.service.datapoint.payloads.DoubleArrayValue;
 import at.ac.ait.lablink.core.service.datapoint.payloads.DoubleValue;
+import at.ac.ait.lablink.core.service.datapoint.payloads.LongArrayValue;
 import at.ac.ait.lablink.core.service.datapoint.payloads.LongValue;
 import at.ac.ait.lablink.core.service.datapoint.payloads.StringValue;
 
@@ -30,6 +39,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -57,6 +67,32 @@ public class DataPointConsumerServiceImpl implements IDataPointConsumerService {
       consumers =
       new ConcurrentHashMap<String, DataPointConsumerGeneric>();
 
+  /**
+   * Use a single wildcard subscription per remote client for the value update and status
+   * messages instead of individual subscriptions per datapoint consumer.
+   */
+  private boolean wildcardSubscription = false;
+
+  /**
+   * Routers of the wildcard subscriptions, one for every remote client.
+   */
+  private final Map<String, RemoteClientRouter>
+      remoteClientRouters =
+      new ConcurrentHashMap<String, RemoteClientRouter>();
+
+  /**
+   * Receive the batch messages of datapoint services that collect the value updates of a sync
+   * step.
+   */
+  private boolean syncBatching = false;
+
+  /**
+   * Number of registered datapoint consumers per remote client with a batch subscription.
+   */
+  private final Map<String, Integer> batchSubscriptions = new HashMap<String, Integer>();
+
+  private final IMessageCallback batchCallback = new BatchMsgCallback();
+
   /**
    * Constructor
    *
@@ -84,6 +120,9 @@ public class DataPointConsumerServiceImpl implements IDataPointConsumerService {
 
     availableDatapointRequestTimeout =
         config.getLong("datapoint.consumer.availableDatapointRequestTimeout", 10000);
+    wildcardSubscription =
+        config.getBoolean("datapoint.consumer.wildcardSubscription", wildcardSubscription);
+    syncBatching = config.getBoolean("datapoint.consumer.syncBatching", syncBatching);
 
     this.lablinkConnection = lablinkConnection;
 
@@ -93,6 +132,10 @@ public class DataPointConsumerServiceImpl implements IDataPointConsumerService {
     lablinkConnection.registerEncodableFactory(DoubleValue.class);
     lablinkConnection.registerEncodableFactory(BooleanValue.class);
     lablinkConnection.registerEncodableFactory(ComplexValue.class);
+    lablinkConnection.registerEncodableFactory(DoubleArrayValue.class);
+    lablinkConnection.registerEncodableFactory(LongArrayValue.class);
+    lablinkConnection.registerEncodableFactory(ComplexArrayValue.class);
+    lablinkConnection.registerEncodableFactory(DataPointBatchMessage.class);
 
     this.prefix = prefix;
   }
@@ -139,20 +182,26 @@ public class DataPointConsumerServiceImpl implements IDataPointConsumerService {
               .registerReplyHandler(subject, dataPoint.getStatusCheckerPingPongReplyCallback());
       dataPoint.setStatusCheckerRequester(requester);
 
-      MsgSubscription
-          subscription =
-          MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_CLIENT)
-              .setSrcGroupId(remoteGroup).setSrcClientId(remoteClient).addSubjectElements(prefix)
-              .addSubjectElement("update").addSubjectElements(identifier).build();
-      lablinkConnection.registerMessageHandler(subscription, dataPoint.getValueUpdateMsgCallback());
-
-      subscription =
-          MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_CLIENT)
-              .setSrcGroupId(remoteGroup).setSrcClientId(remoteClient).addSubjectElements(prefix)
-              .addSubjectElement("statusOk").addSubjectElements(identifier).build();
-      lablinkConnection
-          .registerMessageHandler(subscription, dataPoint.getStatusOkUpdateMsgCallback());
-
+      if (wildcardSubscription) {
+        registerAtRemoteClientRouter(dataPoint);
+      } else {
+        MsgSubscription
+            subscription =
+            MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_CLIENT)
+                .setSrcGroupId(remoteGroup).setSrcClientId(remoteClient)
+                .addSubjectElements(prefix).addSubjectElement("update")
+                .addSubjectElements(identifier).build();
+        lablinkConnection
+            .registerMessageHandler(subscription, dataPoint.getValueUpdateMsgCallback());
+
+        subscription =
+            MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_CLIENT)
+                .setSrcGroupId(remoteGroup).setSrcClientId(remoteClient)
+                .addSubjectElements(prefix).addSubjectElement("statusOk")
+                .addSubjectElements(identifier).build();
+        lablinkConnection
+            .registerMessageHandler(subscription, dataPoint.getStatusOkUpdateMsgCallback());
+      }
 
     } catch (LlCoreRuntimeException ex) {
       throw new LlCoreRuntimeException("Can't register Datapoint (" + identifier
@@ -165,6 +214,10 @@ public class DataPointConsumerServiceImpl implements IDataPointConsumerService {
 
     consumers
         .put(createDatapointConsumerIdentifier(remoteGroup, remoteClient, identifier), dataPoint);
+
+    if (syncBatching) {
+      subscribeBatches(remoteGroup, remoteClient);
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -181,27 +234,99 @@ public class DataPointConsumerServiceImpl implements IDataPointConsumerService {
       dataPoint.setSetValueRequester(null);
       dataPoint.setDataPointService(null);
       dataPoint.setStatusCheckerRequester(null);
-      MsgSubscription
-          subscription =
-          MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_CLIENT)
-              .setSrcGroupId(remoteGroup).setSrcClientId(remoteClient).addSubjectElements(prefix)
-              .addSubjectElement("update").addSubjectElements(identifier).build();
-      lablinkConnection
-          .unregisterMessageHandler(subscription, dataPoint.getValueUpdateMsgCallback());
-
-      subscription =
-          MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_CLIENT)
-              .setSrcGroupId(remoteGroup).setSrcClientId(remoteClient).addSubjectElements(prefix)
-              .addSubjectElement("statusOk").addSubjectElements(identifier).build();
-      lablinkConnection
-          .unregisterMessageHandler(subscription, dataPoint.getStatusOkUpdateMsgCallback());
+      if (wildcardSubscription) {
+        unregisterFromRemoteClientRouter(dataPoint);
+      } else {
+        MsgSubscription
+            subscription =
+            MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_CLIENT)
+                .setSrcGroupId(remoteGroup).setSrcClientId(remoteClient)
+                .addSubjectElements(prefix).addSubjectElement("update")
+                .addSubjectElements(identifier).build();
+        lablinkConnection
+            .unregisterMessageHandler(subscription, dataPoint.getValueUpdateMsgCallback());
+
+        subscription =
+            MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_CLIENT)
+                .setSrcGroupId(remoteGroup).setSrcClientId(remoteClient)
+                .addSubjectElements(prefix).addSubjectElement("statusOk")
+                .addSubjectElements(identifier).build();
+        lablinkConnection
+            .unregisterMessageHandler(subscription, dataPoint.getStatusOkUpdateMsgCallback());
+      }
 
     } catch (LlCoreRuntimeException ex) {
       throw new LlCoreRuntimeException("Can't register Datapoint (" + identifier
           + "). It isn't allowed to register the same identifier twice.", ex);
     }
 
-    consumers.remove(createDatapointConsumerIdentifier(remoteGroup, remoteClient, identifier));
+    if (consumers.remove(createDatapointConsumerIdentifier(remoteGroup, remoteClient, identifier))
+        != null && syncBatching) {
+      unsubscribeBatches(remoteGroup, remoteClient);
+    }
+  }
+
+  private synchronized void subscribeBatches(String remoteGroup, String remoteClient) {
+    String key = remoteGroup + "/" + remoteClient;
+    Integer count = batchSubscriptions.get(key);
+
+    if (count == null) {
+      lablinkConnection
+          .registerMessageHandler(createBatchSubscription(remoteGroup, remoteClient),
+              batchCallback);
+      count = 0;
+    }
+    batchSubscriptions.put(key, count + 1);
+  }
+
+  private synchronized void unsubscribeBatches(String remoteGroup, String remoteClient) {
+    String key = remoteGroup + "/" + remoteClient;
+    Integer count = batchSubscriptions.get(key);
+
+    if (count == null) {
+      return;
+    }
+    if (count > 1) {
+      batchSubscriptions.put(key, count - 1);
+    } else {
+      batchSubscriptions.remove(key);
+      lablinkConnection
+          .unregisterMessageHandler(createBatchSubscription(remoteGroup, remoteClient),
+              batchCallback);
+    }
+  }
+
+  private MsgSubscription createBatchSubscription(String remoteGroup, String remoteClient) {
+    return MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_CLIENT)
+        .setSrcGroupId(remoteGroup).setSrcClientId(remoteClient).addSubjectElements(prefix)
+        .addSubjectElement("batch").build();
+  }
+
+  private synchronized void registerAtRemoteClientRouter(DataPointConsumerGeneric<?> dataPoint) {
+    String routerKey = dataPoint.getRemoteGroup() + "/" + dataPoint.getRemoteClient();
+    RemoteClientRouter router = remoteClientRouters.get(routerKey);
+
+    if (router == null) {
+      router = new RemoteClientRouter(dataPoint.getRemoteGroup(), dataPoint.getRemoteClient());
+      router.subscribe();
+      remoteClientRouters.put(routerKey, router);
+    }
+    router.addConsumer(dataPoint);
+  }
+
+  private synchronized void unregisterFromRemoteClientRouter(
+      DataPointConsumerGeneric<?> dataPoint) {
+    String routerKey = dataPoint.getRemoteGroup() + "/" + dataPoint.getRemoteClient();
+    RemoteClientRouter router = remoteClientRouters.get(routerKey);
+
+    if (router == null) {
+      return;
+    }
+    router.removeConsumer(dataPoint);
+    if (router.isEmpty()) {
+      router.unsubscribe();
+      remoteClientRouters.remove(routerKey);
+    }
   }
 
   private String createDatapointConsumerIdentifier(String group, String client,
@@ -269,4 +394,148 @@ public class DataPointConsumerServiceImpl implements IDataPointConsumerService {
   public boolean isConnected() {
     return lablinkConnection.isConnected();
   }
+
+  /**
+   * Router for the wildcard subscriptions of a remote client.
+   *
+   * <p>The router subscribes to all value update and status messages of a remote client and
+   * forwards them to the registered datapoint consumers by their identifier.
+   */
+  private class RemoteClientRouter {
+
+    private final String remoteGroup;
+    private final String remoteClient;
+
+    private final Map<List<String>, DataPointConsumerGeneric<?>>
+        routedConsumers =
+        new ConcurrentHashMap<List<String>, DataPointConsumerGeneric<?>>();
+
+    private final MsgSubscription updateSubscription;
+    private final MsgSubscription statusOkSubscription;
+
+    private final IMessageCallback updateCallback = new RoutingMsgCallback(true);
+    private final IMessageCallback statusOkCallback = new RoutingMsgCallback(false);
+
+    RemoteClientRouter(String remoteGroup, String remoteClient) {
+      this.remoteGroup = remoteGroup;
+      this.remoteClient = remoteClient;
+
+      updateSubscription =
+          MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_CLIENT)
+              .setSrcGroupId(remoteGroup).setSrcClientId(remoteClient).addSubjectElements(prefix)
+              .addSubjectElement("update").addSubjectAllChildren().build();
+      statusOkSubscription =
+          MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_CLIENT)
+              .setSrcGroupId(remoteGroup).setSrcClientId(remoteClient).addSubjectElements(prefix)
+              .addSubjectElement("statusOk").addSubjectAllChildren().build();
+    }
+
+    void subscribe() {
+      lablinkConnection.registerMessageHandler(updateSubscription, updateCallback);
+      lablinkConnection.registerMessageHandler(statusOkSubscription, statusOkCallback);
+    }
+
+    void unsubscribe() {
+      lablinkConnection.unregisterMessageHandler(updateSubscription, updateCallback);
+      lablinkConnection.unregisterMessageHandler(statusOkSubscription, statusOkCallback);
+    }
+
+    void addConsumer(DataPointConsumerGeneric<?> dataPoint) {
+      if (routedConsumers.containsKey(dataPoint.getIdentifier())) {
+        throw new DatapointServiceRuntimeException(
+            "DatapointConsumer (" + remoteGroup + " " + remoteClient + ":"
+                + dataPoint.getIdentifier() + ") is already registered.");
+      }
+      routedConsumers.put(dataPoint.getIdentifier(), dataPoint);
+    }
+
+    void removeConsumer(DataPointConsumerGeneric<?> dataPoint) {
+      routedConsumers.remove(dataPoint.getIdentifier());
+    }
+
+    boolean isEmpty() {
+      return routedConsumers.isEmpty();
+    }
+
+    private class RoutingMsgCallback implements IMessageCallback {
+
+      private final boolean valueUpdate;
+
+      RoutingMsgCallback(boolean valueUpdate) {
+        this.valueUpdate = valueUpdate;
+      }
+
+      @Override
+      public void handleMessage(MsgHeader header, List<IPayload> payloads) throws Exception {
+        List<String> subject = header.getSubject();
+        DataPointConsumerGeneric<?> consumer =
+            routedConsumers.get(subject.subList(prefix.size() + 1, subject.size()));
+
+        if (consumer == null) {
+          logger.trace("No datapoint consumer registered for {}", subject);
+          return;
+        }
+
+        if (valueUpdate) {
+          consumer.getValueUpdateMsgCallback().handleMessage(header, payloads);
+        } else {
+          consumer.getStatusOkUpdateMsgCallback().handleMessage(header, payloads);
+        }
+      }
+
+      @Override
+      public void handleError(Header header, List<ErrorMessage> errors) throws Exception {
+        List<String> subject = header.getSubject();
+        DataPointConsumerGeneric<?> consumer =
+            routedConsumers.get(subject.subList(prefix.size() + 1, subject.size()));
+
+        if (consumer == null) {
+          logger.error("Routed message for {} receives error: {}", subject, errors);
+          return;
+        }
+
+        if (valueUpdate) {
+          consumer.getValueUpdateMsgCallback().handleError(header, errors);
+        } else {
+          consumer.getStatusOkUpdateMsgCallback().handleError(header, errors);
+        }
+      }
+    }
+  }
+
+  /**
+   * Callback for the batch messages of the remote clients. The values of a batch are forwarded
+   * to the registered datapoint consumers as if they were received individually.
+   */
+  private class BatchMsgCallback implements IMessageCallback {
+
+    @Override
+    public void handleMessage(MsgHeader header, List<IPayload> payloads) throws Exception {
+      for (IPayload payload : payloads) {
+        if (!(payload instanceof DataPointBatchMessage)) {
+          logger.warn("Unexpected payload type {} in datapoint batch message.", payload.getType());
+          continue;
+        }
+
+        DataPointBatchMessage batch = (DataPointBatchMessage) payload;
+        for (int i = 0; i < batch.size(); i++) {
+          DataPointConsumerGeneric<?> consumer = consumers.get(
+              createDatapointConsumerIdentifier(header.getSourceGroupId(),
+                  header.getSourceClientId(), batch.getIdentifier(i)));
+
+          if (consumer == null) {
+            logger.trace("No datapoint consumer registered for {}", batch.getIdentifier(i));
+            continue;
+          }
+          consumer.getValueUpdateMsgCallback()
+              .handleMessage(header, Collections.singletonList((IPayload) batch.getValue(i)));
+        }
+      }
+    }
+
+    @Override
+    public void handleError(Header header, List<ErrorMessage> errors) throws Exception {
+      logger.error("Datapoint batch message receives error: {} {}", header, errors);
+    }
+  }
 }
@@ -8,6 +8,7 @@ package at.ac.ait.lablink.core.service.datapoint.consumer.impl;
 import at.ac.ait.lablink.core.service.datapoint.consumer.DataPointConsumerGeneric;
 import at.ac.ait.lablink.core.service.datapoint.consumer.IDataPointConsumer;
 import at.ac.ait.lablink.core.service.datapoint.payloads.DoubleValue;
+import at.ac.ait.lablink.core.service.datapoint.payloads.ISimpleValue;
 
 import java.util.List;
 
@@ -27,4 +28,23 @@ public class DoubleDataPointConsumer extends DataPointConsumerGeneric<Double>
   public DoubleDataPointConsumer(String remoteGroup, String remoteClient, List<String> identifier) {
     super(remoteGroup, remoteClient, identifier, new DoubleValue());
   }
+
+  /**
+   * Get the last value of the datapoint consumer without boxing it.
+   *
+   * @return the value of the datapoint.
+   */
+  public double getDouble() {
+    return ((DoubleValue) getLastValue()).getDouble();
+  }
+
+  @Override
+  protected boolean isHistorySupported() {
+    return true;
+  }
+
+  @Override
+  protected double toHistoryValue(ISimpleValue<Double> value) {
+    return ((DoubleValue) value).getDouble();
+  }
 }
@@ -7,6 +7,7 @@ package at.ac.ait.lablink.core.service.datapoint.consumer.impl;
 
 import at.ac.ait.lablink.core.service.datapoint.consumer.DataPointConsumerGeneric;
 import at.ac.ait.lablink.core.service.datapoint.consumer.IDataPointConsumer;
+import at.ac.ait.lablink.core.service.datapoint.payloads.ISimpleValue;
 import at.ac.ait.lablink.core.service.datapoint.payloads.LongValue;
 
 import java.util.List;
@@ -27,4 +28,23 @@ public class LongDataPointConsumer extends DataPointConsumerGeneric<Long>
   public LongDataPointConsumer(String remoteGroup, String remoteClient, List<String> identifier) {
     super(remoteGroup, remoteClient, identifier, new LongValue());
   }
+
+  /**
+   * Get the last value of the datapoint consumer without boxing it.
+   *
+   * @return the value of the datapoint.
+   */
+  public long getLong() {
+    return ((LongValue) getLastValue()).getLong();
+  }
+
+  @Override
+  protected boolean isHistorySupported() {
+    return true;
+  }
+
+  @Override
+  protected double toHistoryValue(ISimpleValue<Long> value) {
+    return ((LongValue) value).getLong();
+  }
 }
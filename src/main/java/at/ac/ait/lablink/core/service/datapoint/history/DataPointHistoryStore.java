@@ -0,0 +1,640 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.history;
+
+import at.ac.ait.lablink.core.connection.ILlConnection;
+import at.ac.ait.lablink.core.connection.encoding.encodables.Header;
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.connection.messaging.IMessageCallback;
+import at.ac.ait.lablink.core.connection.messaging.MsgHeader;
+import at.ac.ait.lablink.core.connection.topic.MsgSubscription;
+import at.ac.ait.lablink.core.payloads.ErrorMessage;
+import at.ac.ait.lablink.core.service.datapoint.ex.DatapointServiceRuntimeException;
+import at.ac.ait.lablink.core.service.datapoint.payloads.BooleanValue;
+import at.ac.ait.lablink.core.service.datapoint.payloads.DoubleValue;
+import at.ac.ait.lablink.core.service.datapoint.payloads.LongValue;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Persistent history store for datapoint values.
+ *
+ * <p>The store subscribes to all datapoint value updates (<code>DP/update/#</code>) of the
+ * application and appends every received double, long and boolean value to memory-mapped
+ * columnar segment files (see {@link HistorySegment}). Double values are stored in the
+ * <code>double</code> segments, long and boolean values in the <code>long</code> segments. The
+ * store can also be filled directly by using the append methods.
+ *
+ * <p>Every stored value belongs to a series that is identified by a name
+ * (<code>group/client/identifier...</code> for received updates). The names of the series are
+ * stored in a separate series file of the store directory.
+ *
+ * <p>If the active segment is full, a new segment is created. The number of segments per type can
+ * be limited. In this case the oldest segments will be deleted. The {@link #compact()} method
+ * merges small closed segments (e.g., after restarts of the client) into exactly sized segments.
+ * A compaction that was interrupted, e.g., by a crash, is completed or rolled back when the store
+ * is opened again.
+ */
+public class DataPointHistoryStore {
+
+  private static final Logger logger = LoggerFactory.getLogger(DataPointHistoryStore.class);
+
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".lls";
+  private static final String SERIES_FILE = "series.txt";
+  private static final String TMP_SUFFIX = ".tmp";
+
+  /** Journal of a running compaction in the directory of a value type. */
+  static final String COMPACTION_JOURNAL = "compaction.txt";
+
+  private final ILlConnection lablinkConnection;
+  private final List<String> prefix = Collections.singletonList("DP");
+
+  private final File directory;
+  private final int segmentRows;
+  private final int indexBlockRows;
+  private final int maxSegments;
+
+  private final Map<String, Integer> seriesIds = new ConcurrentHashMap<String, Integer>();
+  private final List<String> seriesNames = new CopyOnWriteArrayList<String>();
+  private Writer seriesWriter;
+
+  private final Map<EHistoryValueType, SegmentList>
+      segmentLists =
+      new EnumMap<EHistoryValueType, SegmentList>(EHistoryValueType.class);
+
+  private final IMessageCallback updateMsgCallback = new UpdateMsgCallback();
+  private MsgSubscription updateSubscription;
+
+  /**
+   * Constructor.
+   *
+   * @param lablinkConnection ILlConnection that should be used for receiving value updates. It
+   *                          can be null if the store is only filled by the append methods.
+   * @param config            Configuration for the history store.
+   */
+  public DataPointHistoryStore(ILlConnection lablinkConnection, Configuration config) {
+
+    if (config == null) {
+      logger.info("No configuration set. Use default values");
+      config = new BaseConfiguration();
+    }
+
+    directory = new File(config.getString("datapoint.history.directory", "lablink-history"));
+    segmentRows = config.getInt("datapoint.history.segmentRows", 1000000);
+    indexBlockRows = config.getInt("datapoint.history.indexBlockRows", 1024);
+    maxSegments = config.getInt("datapoint.history.maxSegments", 0);
+
+    if (segmentRows < 1 || HistorySegment.getFileSize(segmentRows) > Integer.MAX_VALUE) {
+      throw new DatapointServiceRuntimeException(
+          "Unsupported number of rows per history segment (" + segmentRows + ").");
+    }
+    if (indexBlockRows < 1) {
+      throw new DatapointServiceRuntimeException(
+          "Unsupported number of rows per index block (" + indexBlockRows + ").");
+    }
+
+    this.lablinkConnection = lablinkConnection;
+
+    if (lablinkConnection != null) {
+      lablinkConnection.registerEncodableFactory(LongValue.class);
+      lablinkConnection.registerEncodableFactory(DoubleValue.class);
+      lablinkConnection.registerEncodableFactory(BooleanValue.class);
+    }
+
+    openStore();
+  }
+
+  private void openStore() {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new DatapointServiceRuntimeException(
+          "Can't create history directory '" + directory + "'.");
+    }
+
+    File seriesFile = new File(directory, SERIES_FILE);
+    try {
+      if (seriesFile.exists()) {
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(new FileInputStream(seriesFile), StandardCharsets.UTF_8))) {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            seriesIds.put(line, seriesNames.size());
+            seriesNames.add(line);
+          }
+        }
+      }
+      seriesWriter = new BufferedWriter(
+          new OutputStreamWriter(new FileOutputStream(seriesFile, true), StandardCharsets.UTF_8));
+    } catch (IOException ex) {
+      throw new DatapointServiceRuntimeException(
+          "Can't open series file of history store '" + seriesFile + "'.", ex);
+    }
+
+    for (EHistoryValueType type : EHistoryValueType.values()) {
+      segmentLists.put(type, new SegmentList(type));
+    }
+    logger.info("History store opened at '{}' with {} series.", directory, seriesNames.size());
+  }
+
+  /**
+   * Start receiving datapoint value updates.
+   */
+  public void start() {
+    if (lablinkConnection == null || updateSubscription != null) {
+      return;
+    }
+
+    updateSubscription =
+        MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_ALL)
+            .addSubjectElements(prefix).addSubjectElement("update").addSubjectAllChildren()
+            .build();
+    lablinkConnection.registerMessageHandler(updateSubscription, updateMsgCallback);
+  }
+
+  /**
+   * Stop receiving datapoint value updates and close all segment files.
+   */
+  public void shutdown() {
+    if (updateSubscription != null) {
+      lablinkConnection.unregisterMessageHandler(updateSubscription, updateMsgCallback);
+      updateSubscription = null;
+    }
+
+    for (SegmentList segments : segmentLists.values()) {
+      segments.close();
+    }
+
+    synchronized (seriesNames) {
+      try {
+        seriesWriter.close();
+      } catch (IOException ex) {
+        logger.warn("Can't close series file of history store: {}", ex.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Create the series name of a remote datapoint.
+   *
+   * @param group      group identifier of the remote client
+   * @param client     client identifier of the remote client
+   * @param identifier identifier of the datapoint
+   * @return the series name
+   */
+  public static String createSeriesName(String group, String client, List<String> identifier) {
+    StringBuilder name = new StringBuilder(group).append('/').append(client);
+    for (String idPart : identifier) {
+      name.append('/').append(idPart);
+    }
+    return name.toString();
+  }
+
+  /**
+   * Append a double value to the store.
+   *
+   * @param series        name of the series
+   * @param timestamp     timestamp of the value in milliseconds since 1.1.1970
+   * @param emulationTime emulation time of the value in milliseconds since 1.1.1970
+   * @param value         value to be stored
+   */
+  public void append(String series, long timestamp, long emulationTime, double value) {
+    segmentLists.get(EHistoryValueType.DOUBLE)
+        .append(getSeriesId(series), timestamp, emulationTime, Double.doubleToRawLongBits(value));
+  }
+
+  /**
+   * Append a long value to the store.
+   *
+   * @param series        name of the series
+   * @param timestamp     timestamp of the value in milliseconds since 1.1.1970
+   * @param emulationTime emulation time of the value in milliseconds since 1.1.1970
+   * @param value         value to be stored
+   */
+  public void append(String series, long timestamp, long emulationTime, long value) {
+    segmentLists.get(EHistoryValueType.LONG)
+        .append(getSeriesId(series), timestamp, emulationTime, value);
+  }
+
+  /**
+   * Scan all stored double values of a series within a time range.
+   *
+   * <p>The rows are read directly from the mapped segment files and are reported ordered by
+   * segment and row.
+   *
+   * @param series   name of the series
+   * @param fromTime start of the range (inclusive) in milliseconds since 1.1.1970
+   * @param toTime   end of the range (inclusive) in milliseconds since 1.1.1970
+   * @param callback callback that is called for every found row
+   */
+  public void scanDouble(String series, long fromTime, long toTime,
+                         final IDoubleHistoryCallback callback) {
+    Integer seriesId = seriesIds.get(series);
+    if (seriesId == null) {
+      return;
+    }
+
+    segmentLists.get(EHistoryValueType.DOUBLE)
+        .scan(seriesId, fromTime, toTime, new HistorySegment.RowVisitor() {
+          @Override
+          public void row(long timestamp, long emulationTime, long rawValue) {
+            callback.row(timestamp, emulationTime, Double.longBitsToDouble(rawValue));
+          }
+        });
+  }
+
+  /**
+   * Scan all stored long (and boolean) values of a series within a time range.
+   *
+   * <p>The rows are read directly from the mapped segment files and are reported ordered by
+   * segment and row.
+   *
+   * @param series   name of the series
+   * @param fromTime start of the range (inclusive) in milliseconds since 1.1.1970
+   * @param toTime   end of the range (inclusive) in milliseconds since 1.1.1970
+   * @param callback callback that is called for every found row
+   */
+  public void scanLong(String series, long fromTime, long toTime,
+                       final ILongHistoryCallback callback) {
+    Integer seriesId = seriesIds.get(series);
+    if (seriesId == null) {
+      return;
+    }
+
+    segmentLists.get(EHistoryValueType.LONG)
+        .scan(seriesId, fromTime, toTime, new HistorySegment.RowVisitor() {
+          @Override
+          public void row(long timestamp, long emulationTime, long rawValue) {
+            callback.row(timestamp, emulationTime, rawValue);
+          }
+        });
+  }
+
+  /**
+   * Merge the closed segments of all types into as few exactly sized segments as possible.
+   */
+  public void compact() {
+    for (SegmentList segments : segmentLists.values()) {
+      segments.compact();
+    }
+  }
+
+  /**
+   * Get the names of all series of the store.
+   *
+   * @return a list of series names.
+   */
+  public List<String> getSeriesNames() {
+    return Collections.unmodifiableList(seriesNames);
+  }
+
+  /**
+   * Get the number of segment files of a value type.
+   *
+   * @param type value type
+   * @return the number of segments.
+   */
+  public int getSegmentCount(EHistoryValueType type) {
+    return segmentLists.get(type).segments.size();
+  }
+
+  private int getSeriesId(String series) {
+    Integer seriesId = seriesIds.get(series);
+    if (seriesId != null) {
+      return seriesId;
+    }
+
+    synchronized (seriesNames) {
+      seriesId = seriesIds.get(series);
+      if (seriesId == null) {
+        try {
+          seriesWriter.write(series);
+          seriesWriter.write('\n');
+          seriesWriter.flush();
+        } catch (IOException ex) {
+          throw new DatapointServiceRuntimeException(
+              "Can't write series '" + series + "' to history store.", ex);
+        }
+        seriesId = seriesNames.size();
+        seriesNames.add(series);
+        seriesIds.put(series, seriesId);
+      }
+      return seriesId;
+    }
+  }
+
+  /**
+   * Ordered list of the segments of one value type.
+   */
+  private class SegmentList {
+
+    private final EHistoryValueType type;
+    private final File typeDirectory;
+    private final List<HistorySegment> segments = new CopyOnWriteArrayList<HistorySegment>();
+    private HistorySegment activeSegment;
+    private long nextSequence = 1;
+
+    SegmentList(EHistoryValueType type) {
+      this.type = type;
+      this.typeDirectory = new File(directory, type.toString().toLowerCase());
+
+      if (!typeDirectory.isDirectory() && !typeDirectory.mkdirs()) {
+        throw new DatapointServiceRuntimeException(
+            "Can't create history directory '" + typeDirectory + "'.");
+      }
+
+      recoverCompaction();
+
+      File[] files = typeDirectory.listFiles();
+      if (files == null) {
+        files = new File[0];
+      }
+      Arrays.sort(files);
+
+      for (File file : files) {
+        String name = file.getName();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+          continue;
+        }
+        HistorySegment segment = HistorySegment.open(file, indexBlockRows);
+        if (segment.getType() != type) {
+          segment.close();
+          throw new DatapointServiceRuntimeException(
+              "History segment '" + file + "' has the wrong type " + segment.getType() + ".");
+        }
+        segments.add(segment);
+        nextSequence = Math.max(nextSequence, parseSequence(name) + 1);
+      }
+
+      if (!segments.isEmpty() && !segments.get(segments.size() - 1).isFull()) {
+        activeSegment = segments.get(segments.size() - 1);
+      }
+    }
+
+    synchronized void append(int seriesId, long timestamp, long emulationTime, long rawValue) {
+      if (activeSegment == null || activeSegment.isFull()) {
+        rotate();
+      }
+      activeSegment.append(seriesId, timestamp, emulationTime, rawValue);
+    }
+
+    void scan(int seriesId, long fromTime, long toTime, HistorySegment.RowVisitor visitor) {
+      for (HistorySegment segment : segments) {
+        segment.scan(seriesId, fromTime, toTime, visitor);
+      }
+    }
+
+    private void rotate() {
+      if (activeSegment != null) {
+        logger.debug("History segment {} is full.", activeSegment.getFile());
+      }
+
+      activeSegment =
+          HistorySegment.create(createSegmentFile(nextSequence++), type, segmentRows,
+              indexBlockRows);
+      segments.add(activeSegment);
+
+      while (maxSegments > 0 && segments.size() > maxSegments) {
+        HistorySegment oldest = segments.remove(0);
+        oldest.close();
+        deleteFile(oldest.getFile());
+        logger.debug("Deleted oldest history segment {}.", oldest.getFile());
+      }
+    }
+
+    synchronized void compact() {
+      List<HistorySegment> closed = new ArrayList<HistorySegment>(segments);
+      closed.remove(activeSegment);
+
+      List<HistorySegment> group = new ArrayList<HistorySegment>();
+      long groupRows = 0;
+
+      for (HistorySegment segment : closed) {
+        if (groupRows + segment.getRowCount() > segmentRows) {
+          compactGroup(group, groupRows);
+          group.clear();
+          groupRows = 0;
+        }
+        group.add(segment);
+        groupRows += segment.getRowCount();
+      }
+      compactGroup(group, groupRows);
+    }
+
+    private void compactGroup(List<HistorySegment> group, long groupRows) {
+      if (group.isEmpty()) {
+        return;
+      }
+      HistorySegment first = group.get(0);
+      if (group.size() == 1 && first.getRowCount() == first.getCapacity()) {
+        return; // Already compact
+      }
+
+      if (groupRows == 0) {
+        segments.removeAll(group);
+        closeAndDelete(group);
+        return;
+      }
+
+      File target = first.getFile();
+      File tmpFile = new File(typeDirectory, target.getName() + TMP_SUFFIX);
+      HistorySegment merged =
+          HistorySegment.create(tmpFile, type, (int) groupRows, indexBlockRows);
+      for (HistorySegment segment : group) {
+        segment.copyTo(merged);
+      }
+      merged.close();
+
+      // The sources are deleted only after the merged segment replaced the first of them. The
+      // journal allows to complete these deletions after a crash.
+      File journal = writeCompactionJournal(group);
+
+      final int index = segments.indexOf(first);
+      first.close();
+      try {
+        Files.move(tmpFile.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException ex) {
+        segments.set(index, HistorySegment.open(target, indexBlockRows));
+        deleteFile(tmpFile);
+        deleteFile(journal);
+        throw new DatapointServiceRuntimeException(
+            "Can't replace history segment '" + target + "' with the compacted segment.", ex);
+      }
+
+      segments.removeAll(group);
+      closeAndDelete(group.subList(1, group.size()));
+      segments.add(index, HistorySegment.open(target, indexBlockRows));
+      deleteFile(journal);
+
+      logger.debug("Compacted {} history segments into {} ({} rows).", group.size(), target,
+          groupRows);
+    }
+
+    /**
+     * Write the journal of a compaction. It lists the target segment first, followed by the other
+     * source segments. The journal is written to a temporary file and renamed afterwards, so it
+     * is either complete or missing.
+     */
+    private File writeCompactionJournal(List<HistorySegment> group) {
+      File journal = new File(typeDirectory, COMPACTION_JOURNAL);
+      File tmpJournal = new File(typeDirectory, COMPACTION_JOURNAL + TMP_SUFFIX);
+      try {
+        try (FileOutputStream out = new FileOutputStream(tmpJournal)) {
+          Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+          for (HistorySegment segment : group) {
+            writer.write(segment.getFile().getName());
+            writer.write('\n');
+          }
+          writer.flush();
+          out.getFD().sync();
+        }
+        Files.move(tmpJournal.toPath(), journal.toPath(), StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException ex) {
+        throw new DatapointServiceRuntimeException(
+            "Can't write compaction journal '" + journal + "'.", ex);
+      }
+      return journal;
+    }
+
+    /**
+     * Complete or roll back an interrupted compaction.
+     *
+     * <p>If the merged segment already replaced the target segment, the remaining source
+     * segments of the journal are deleted. Otherwise the sources are still complete and the
+     * temporary files of the compaction are dropped.
+     */
+    private void recoverCompaction() {
+      File journal = new File(typeDirectory, COMPACTION_JOURNAL);
+      if (journal.isFile()) {
+        List<String> sources = new ArrayList<String>();
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(new FileInputStream(journal), StandardCharsets.UTF_8))) {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            sources.add(line);
+          }
+        } catch (IOException ex) {
+          throw new DatapointServiceRuntimeException(
+              "Can't read compaction journal '" + journal + "'.", ex);
+        }
+
+        if (!sources.isEmpty()
+            && !new File(typeDirectory, sources.get(0) + TMP_SUFFIX).exists()) {
+          for (String source : sources.subList(1, sources.size())) {
+            File file = new File(typeDirectory, source);
+            if (file.exists()) {
+              deleteFile(file);
+            }
+          }
+          logger.info("Completed interrupted compaction of history segment {}.", sources.get(0));
+        }
+        deleteFile(journal);
+      }
+
+      File[] tmpFiles = typeDirectory.listFiles();
+      if (tmpFiles == null) {
+        return;
+      }
+      for (File file : tmpFiles) {
+        if (file.getName().endsWith(TMP_SUFFIX)) {
+          logger.info("Deleting incomplete history file {}.", file);
+          deleteFile(file);
+        }
+      }
+    }
+
+    private void closeAndDelete(List<HistorySegment> group) {
+      for (HistorySegment segment : group) {
+        segment.close();
+        deleteFile(segment.getFile());
+      }
+    }
+
+    synchronized void close() {
+      for (HistorySegment segment : segments) {
+        segment.close();
+      }
+      segments.clear();
+      activeSegment = null;
+    }
+
+    private File createSegmentFile(long sequence) {
+      return new File(typeDirectory,
+          SEGMENT_PREFIX + String.format("%010d", sequence) + SEGMENT_SUFFIX);
+    }
+
+    private long parseSequence(String name) {
+      try {
+        return Long.parseLong(
+            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+      } catch (NumberFormatException ex) {
+        return 0;
+      }
+    }
+
+    private void deleteFile(File file) {
+      if (!file.delete()) {
+        logger.warn("Can't delete history file {}.", file);
+      }
+    }
+  }
+
+  private class UpdateMsgCallback implements IMessageCallback {
+
+    @Override
+    public void handleMessage(MsgHeader header, List<IPayload> payloads) throws Exception {
+      if (payloads.isEmpty()) {
+        return;
+      }
+
+      List<String> subject = header.getSubject();
+      String series =
+          createSeriesName(header.getSourceGroupId(), header.getSourceClientId(),
+              subject.subList(prefix.size() + 1, subject.size()));
+
+      IPayload payload = payloads.get(0);
+      if (payload instanceof DoubleValue) {
+        DoubleValue value = (DoubleValue) payload;
+        append(series, value.getTime(), value.getEmulationTime(), value.getDouble());
+      } else if (payload instanceof LongValue) {
+        LongValue value = (LongValue) payload;
+        append(series, value.getTime(), value.getEmulationTime(), value.getLong());
+      } else if (payload instanceof BooleanValue) {
+        BooleanValue value = (BooleanValue) payload;
+        append(series, value.getTime(), value.getEmulationTime(), value.getBoolean() ? 1L : 0L);
+      }
+    }
+
+    @Override
+    public void handleError(Header header, List<ErrorMessage> errors) throws Exception {
+      logger.error("History store received errors for update message: {} {}", header,
+          errors);
+    }
+  }
+}
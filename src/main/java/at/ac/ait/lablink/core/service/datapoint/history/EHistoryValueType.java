@@ -0,0 +1,13 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.history;
+
+/**
+ * Value types of the datapoint history store. Every type is stored in its own segment files.
+ */
+public enum EHistoryValueType {
+  DOUBLE, LONG
+}
@@ -0,0 +1,284 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.history;
+
+import at.ac.ait.lablink.core.service.datapoint.ex.DatapointServiceRuntimeException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Memory-mapped columnar segment file of the datapoint history store.
+ *
+ * <p>A segment stores a fixed number of rows. Every column is stored as a contiguous block
+ * within the file:
+ * <pre>
+ * [header (64 bytes)][series ids (int)][timestamps (long)][emulation times (long)][values]
+ * </pre>
+ * The values are stored as raw 8 byte values (long or the bits of a double). The header contains
+ * the number of written rows, which is updated after every appended row.
+ *
+ * <p>The segment keeps a sparse index in memory. It stores the minimum and the maximum timestamp
+ * of every block of rows, so range scans can skip blocks outside the requested range. The index
+ * is rebuilt from the time column if an existing segment is opened.
+ */
+class HistorySegment {
+
+  private static final int MAGIC = 0x4c4c4853;
+  private static final int VERSION = 1;
+  static final int HEADER_SIZE = 64;
+  static final int ROW_SIZE = 4 + 8 + 8 + 8;
+
+  private static final int MAGIC_POS = 0;
+  private static final int VERSION_POS = 4;
+  private static final int TYPE_POS = 8;
+  private static final int CAPACITY_POS = 12;
+  private static final int ROW_COUNT_POS = 16;
+
+  private final File file;
+  private final EHistoryValueType type;
+  private final int capacity;
+  private final int indexBlockRows;
+
+  private final RandomAccessFile raf;
+  private final MappedByteBuffer buffer;
+
+  private final int idsOffset;
+  private final int timesOffset;
+  private final int emulationTimesOffset;
+  private final int valuesOffset;
+
+  private volatile int rowCount;
+
+  private final long[] blockMinTimes;
+  private final long[] blockMaxTimes;
+
+  private HistorySegment(File file, EHistoryValueType type, int capacity, int indexBlockRows,
+                         boolean create) {
+    this.file = file;
+    this.type = type;
+    this.capacity = capacity;
+    this.indexBlockRows = indexBlockRows;
+
+    idsOffset = HEADER_SIZE;
+    timesOffset = idsOffset + 4 * capacity;
+    emulationTimesOffset = timesOffset + 8 * capacity;
+    valuesOffset = emulationTimesOffset + 8 * capacity;
+
+    int blocks = (capacity + indexBlockRows - 1) / indexBlockRows;
+    blockMinTimes = new long[blocks];
+    blockMaxTimes = new long[blocks];
+    Arrays.fill(blockMinTimes, Long.MAX_VALUE);
+    Arrays.fill(blockMaxTimes, Long.MIN_VALUE);
+
+    try {
+      raf = new RandomAccessFile(file, "rw");
+      buffer =
+          raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, getFileSize(capacity));
+    } catch (IOException ex) {
+      throw new DatapointServiceRuntimeException(
+          "Can't map history segment file '" + file + "'.", ex);
+    }
+
+    if (create) {
+      buffer.putInt(MAGIC_POS, MAGIC);
+      buffer.putInt(VERSION_POS, VERSION);
+      buffer.putInt(TYPE_POS, type.ordinal());
+      buffer.putInt(CAPACITY_POS, capacity);
+      buffer.putInt(ROW_COUNT_POS, 0);
+      rowCount = 0;
+    } else {
+      rowCount = buffer.getInt(ROW_COUNT_POS);
+      for (int row = 0; row < rowCount; row++) {
+        updateIndex(row, buffer.getLong(timesOffset + 8 * row));
+      }
+    }
+  }
+
+  /**
+   * Create a new segment file.
+   *
+   * @param file           file of the segment
+   * @param type           value type of the segment
+   * @param capacity       maximum number of rows
+   * @param indexBlockRows number of rows per block of the sparse time index
+   * @return the created segment.
+   */
+  static HistorySegment create(File file, EHistoryValueType type, int capacity,
+                               int indexBlockRows) {
+    if (file.exists()) {
+      throw new DatapointServiceRuntimeException(
+          "History segment file '" + file + "' already exists.");
+    }
+    return new HistorySegment(file, type, capacity, indexBlockRows, true);
+  }
+
+  /**
+   * Open an existing segment file.
+   *
+   * @param file           file of the segment
+   * @param indexBlockRows number of rows per block of the sparse time index
+   * @return the opened segment.
+   */
+  static HistorySegment open(File file, int indexBlockRows) {
+
+    EHistoryValueType type;
+    int capacity;
+
+    try (RandomAccessFile headerFile = new RandomAccessFile(file, "r")) {
+      if (headerFile.length() < HEADER_SIZE || headerFile.readInt() != MAGIC
+          || headerFile.readInt() != VERSION) {
+        throw new DatapointServiceRuntimeException(
+            "File '" + file + "' isn't a valid history segment.");
+      }
+      type = EHistoryValueType.values()[headerFile.readInt()];
+      capacity = headerFile.readInt();
+      if (headerFile.length() < getFileSize(capacity)) {
+        throw new DatapointServiceRuntimeException(
+            "History segment file '" + file + "' is truncated.");
+      }
+    } catch (IOException ex) {
+      throw new DatapointServiceRuntimeException(
+          "Can't read history segment file '" + file + "'.", ex);
+    }
+
+    return new HistorySegment(file, type, capacity, indexBlockRows, false);
+  }
+
+  /**
+   * Calculate the size of a segment file.
+   *
+   * @param capacity maximum number of rows of the segment
+   * @return the size of the file in bytes.
+   */
+  static long getFileSize(int capacity) {
+    return HEADER_SIZE + (long) ROW_SIZE * capacity;
+  }
+
+  /**
+   * Append a new row to the segment.
+   *
+   * <p>The caller has to ensure that only one thread appends rows at the same time.
+   *
+   * @param seriesId      identifier of the series
+   * @param timestamp     timestamp of the value
+   * @param emulationTime emulation time of the value
+   * @param rawValue      raw value (long or the bits of a double)
+   */
+  void append(int seriesId, long timestamp, long emulationTime, long rawValue) {
+    int row = rowCount;
+    if (row >= capacity) {
+      throw new DatapointServiceRuntimeException(
+          "History segment '" + file + "' is full.");
+    }
+
+    buffer.putInt(idsOffset + 4 * row, seriesId);
+    buffer.putLong(timesOffset + 8 * row, timestamp);
+    buffer.putLong(emulationTimesOffset + 8 * row, emulationTime);
+    buffer.putLong(valuesOffset + 8 * row, rawValue);
+    updateIndex(row, timestamp);
+
+    buffer.putInt(ROW_COUNT_POS, row + 1);
+    rowCount = row + 1;
+  }
+
+  private void updateIndex(int row, long timestamp) {
+    int block = row / indexBlockRows;
+    if (timestamp < blockMinTimes[block]) {
+      blockMinTimes[block] = timestamp;
+    }
+    if (timestamp > blockMaxTimes[block]) {
+      blockMaxTimes[block] = timestamp;
+    }
+  }
+
+  /**
+   * Scan all rows of a series within a time range.
+   *
+   * @param seriesId identifier of the series
+   * @param fromTime start of the range (inclusive)
+   * @param toTime   end of the range (inclusive)
+   * @param visitor  visitor that is called for every found row.
+   */
+  void scan(int seriesId, long fromTime, long toTime, RowVisitor visitor) {
+    int rows = rowCount;
+
+    for (int block = 0; block * indexBlockRows < rows; block++) {
+      if (blockMaxTimes[block] < fromTime || blockMinTimes[block] > toTime) {
+        continue;
+      }
+
+      int end = Math.min(rows, (block + 1) * indexBlockRows);
+      for (int row = block * indexBlockRows; row < end; row++) {
+        if (buffer.getInt(idsOffset + 4 * row) != seriesId) {
+          continue;
+        }
+        long timestamp = buffer.getLong(timesOffset + 8 * row);
+        if (timestamp >= fromTime && timestamp <= toTime) {
+          visitor.row(timestamp, buffer.getLong(emulationTimesOffset + 8 * row),
+              buffer.getLong(valuesOffset + 8 * row));
+        }
+      }
+    }
+  }
+
+  /**
+   * Copy all rows of the segment into another segment.
+   *
+   * @param target segment that receives the rows.
+   */
+  void copyTo(HistorySegment target) {
+    int rows = rowCount;
+    for (int row = 0; row < rows; row++) {
+      target.append(buffer.getInt(idsOffset + 4 * row), buffer.getLong(timesOffset + 8 * row),
+          buffer.getLong(emulationTimesOffset + 8 * row), buffer.getLong(valuesOffset + 8 * row));
+    }
+  }
+
+  /**
+   * Flush the mapped buffer and close the file.
+   */
+  void close() {
+    buffer.force();
+    try {
+      raf.close();
+    } catch (IOException ex) {
+      throw new DatapointServiceRuntimeException(
+          "Can't close history segment file '" + file + "'.", ex);
+    }
+  }
+
+  boolean isFull() {
+    return rowCount >= capacity;
+  }
+
+  int getRowCount() {
+    return rowCount;
+  }
+
+  int getCapacity() {
+    return capacity;
+  }
+
+  EHistoryValueType getType() {
+    return type;
+  }
+
+  File getFile() {
+    return file;
+  }
+
+  /**
+   * Visitor for scanned rows with raw values.
+   */
+  interface RowVisitor {
+    void row(long timestamp, long emulationTime, long rawValue);
+  }
+}
@@ -0,0 +1,21 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.history;
+
+/**
+ * Callback interface for scanning double values of the datapoint history store.
+ */
+public interface IDoubleHistoryCallback {
+
+  /**
+   * A stored row within the requested time range is found.
+   *
+   * @param timestamp     timestamp of the value in milliseconds since 1.1.1970
+   * @param emulationTime emulation time of the value in milliseconds since 1.1.1970
+   * @param value         stored value
+   */
+  void row(long timestamp, long emulationTime, double value);
+}
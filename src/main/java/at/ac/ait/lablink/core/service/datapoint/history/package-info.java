@@ -0,0 +1,9 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+/**
+ * Persistent history store for received datapoint values.
+ */
+
+package at.ac.ait.lablink.core.service.datapoint.history;
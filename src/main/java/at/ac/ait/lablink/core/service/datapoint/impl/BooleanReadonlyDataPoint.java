@@ -32,4 +32,33 @@ public class BooleanReadonlyDataPoint extends DataPointGeneric<Boolean>
     super(identifier, name, unit, false, new BooleanValue());
   }
 
+  /**
+   * Set the value and the timestamp of the datapoint without boxing the value.
+   *
+   * @param value     new value of the datapoint
+   * @param timestamp timestamp of the value in milliseconds since 1.1.1970
+   */
+  public void setBoolean(boolean value, long timestamp) {
+    ((BooleanValue) getLastValue()).setBoolean(value);
+    lastValueUpdated(timestamp);
+  }
+
+  /**
+   * Set the value of the datapoint with the current time without boxing the value.
+   *
+   * @param value new value of the datapoint
+   */
+  public void setBoolean(boolean value) {
+    setBoolean(value, System.currentTimeMillis());
+  }
+
+  /**
+   * Get the value of the datapoint without boxing it.
+   *
+   * @return the current value of the datapoint
+   */
+  public boolean getBoolean() {
+    return ((BooleanValue) getLastValue()).getBoolean();
+  }
+
 }
@@ -18,15 +18,20 @@ import at.ac.ait.lablink.core.service.datapoint.DataPointGeneric;
 import at.ac.ait.lablink.core.service.datapoint.IDataPoint;
 import at.ac.ait.lablink.core.service.datapoint.IDataPointService;
 import at.ac.ait.lablink.core.service.datapoint.payloads.BooleanValue;
+import at.ac.ait.lablink.core.service.datapoint.payloads.ComplexArrayValue;
 import at.ac.ait.lablink.core.service.datapoint.payloads.ComplexValue;
+import at.ac.ait.lablink.core.service.datapoint.payloads.DataPointBatchMessage;
 import at.ac.ait.lablink.core.service.datapoint.payloads.DataPointProperties;
+import at.ac.ait.lablink.core.service.datapoint.payloads.DoubleArrayValue;
 import at.ac.ait.lablink.core.service.datapoint.payloads.DoubleValue;
 import at.ac.ait.lablink.core.service.datapoint.payloads.ISimpleValue;
+import at.ac.ait.lablink.core.service.datapoint.payloads.LongArrayValue;
 import at.ac.ait.lablink.core.service.datapoint.payloads.LongValue;
 import at.ac.ait.lablink.core.service.datapoint.payloads.StringValue;
 import at.ac.ait.lablink.core.service.sync.ISyncParameter;
 import at.ac.ait.lablink.core.service.sync.consumer.ISyncConsumer;
 
+import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
 
 import java.util.ArrayList;
@@ -37,6 +42,20 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementation of a DatapointService.
+ *
+ * <p>The service uses the following configuration properties:
+ * <ul>
+ * <li><b>datapoint.service.compactMode</b> (false, boolean): Use a single wildcard request handler
+ * per command instead of individual request handlers for every registered datapoint. A request
+ * for an identifier without a registered datapoint is answered with an {@link ErrorMessage} of
+ * type {@code PROCESSING_ERROR}. Without compact mode such a request isn't answered at all and
+ * the requester runs into its timeout.</li>
+ * <li><b>datapoint.service.syncBatching</b> (false, boolean): Collect the value updates of a sync
+ * step and publish them with a single batch message at the end of the step. The sync consumer of
+ * the service ({@link #getSyncConsumer()}) must be registered at the sync client. Outside of a
+ * simulation run the values are published individually. The consumers must enable the batch
+ * reception, too.</li>
+ * </ul>
  */
 public class DataPointServiceImpl implements IDataPointService {
 
@@ -53,6 +72,31 @@ public class DataPointServiceImpl implements IDataPointService {
       dataPoints =
       new ConcurrentHashMap<String, DataPointGeneric>();
 
+  /**
+   * Prebuilt update subjects of the registered datapoints. They are reused for every published
+   * value.
+   */
+  private Map<List<String>, MsgSubject>
+      updateSubjects =
+      new ConcurrentHashMap<List<String>, MsgSubject>();
+
+  /**
+   * Use a single wildcard request handler per command instead of individual request handlers
+   * for every registered datapoint.
+   */
+  private boolean compactMode = false;
+
+  /**
+   * Collect the value updates of a sync step and publish them with a single batch message.
+   */
+  private boolean syncBatching = false;
+
+  private final MsgSubject batchSubject;
+
+  /* Value updates of the current sync step, null if no value has been published yet */
+  private DataPointBatchMessage pendingBatch = null;
+  private final Object batchLock = new Object();
+
   /**
    * Constructor.
    *
@@ -73,9 +117,29 @@ public class DataPointServiceImpl implements IDataPointService {
     lablinkConnection.registerEncodableFactory(DoubleValue.class);
     lablinkConnection.registerEncodableFactory(BooleanValue.class);
     lablinkConnection.registerEncodableFactory(ComplexValue.class);
+    lablinkConnection.registerEncodableFactory(DoubleArrayValue.class);
+    lablinkConnection.registerEncodableFactory(LongArrayValue.class);
+    lablinkConnection.registerEncodableFactory(ComplexArrayValue.class);
 
     this.prefix = prefix;
 
+    if (config == null) {
+      config = new BaseConfiguration();
+    }
+    compactMode = config.getBoolean("datapoint.service.compactMode", compactMode);
+    syncBatching = config.getBoolean("datapoint.service.syncBatching", syncBatching);
+
+    lablinkConnection.registerEncodableFactory(DataPointBatchMessage.class);
+    batchSubject =
+        MsgSubject.getBuilder().addSubjectElements(prefix).addSubjectElement("batch").build();
+
+    if (compactMode) {
+      registerRoutingRequestHandler("requestProperties");
+      registerRoutingRequestHandler("requestUpdate");
+      registerRoutingRequestHandler("setValue");
+      registerRoutingRequestHandler("statusCheckPingPong");
+    }
+
     RpcSubject
         subject =
         RpcSubject.getBuilder().addSubjectElement("services").addSubjectElement("datapoints")
@@ -89,6 +153,16 @@ public class DataPointServiceImpl implements IDataPointService {
     dataPoint.setDataPointService(this);
     DataPointProperties props = dataPoint.getProps();
 
+    if (compactMode) {
+      if (dataPoints.putIfAbsent(createDatapointIdentifier(props.getIdentifier()), dataPoint)
+          != null) {
+        throw new LlCoreRuntimeException("Can't register Datapoint (" + props.getIdentifier()
+            + "). It isn't allowed to register the same identifier twice.");
+      }
+      updateSubjects.put(props.getIdentifier(), createUpdateSubject(props.getIdentifier()));
+      return;
+    }
+
     try {
       RpcSubject
           subject =
@@ -119,6 +193,7 @@ public class DataPointServiceImpl implements IDataPointService {
     }
 
     dataPoints.put(createDatapointIdentifier(props.getIdentifier()), dataPoint);
+    updateSubjects.put(props.getIdentifier(), createUpdateSubject(props.getIdentifier()));
 
   }
 
@@ -127,6 +202,12 @@ public class DataPointServiceImpl implements IDataPointService {
     dataPoint.setDataPointService(null);
     DataPointProperties props = dataPoint.getProps();
 
+    if (compactMode) {
+      dataPoints.remove(createDatapointIdentifier(props.getIdentifier()));
+      updateSubjects.remove(props.getIdentifier());
+      return;
+    }
+
     RpcSubject
         subject =
         RpcSubject.getBuilder().addSubjectElements(prefix).addSubjectElement("requestProperties")
@@ -150,6 +231,7 @@ public class DataPointServiceImpl implements IDataPointService {
         .unregisterRequestHandler(subject, dataPoint.getStatusCheckerPingPongCallback());
 
     dataPoints.remove(createDatapointIdentifier(props.getIdentifier()));
+    updateSubjects.remove(props.getIdentifier());
   }
 
   @Override
@@ -173,6 +255,19 @@ public class DataPointServiceImpl implements IDataPointService {
     return id.toString();
   }
 
+  private void registerRoutingRequestHandler(String command) {
+    RpcSubject
+        subject =
+        RpcSubject.getBuilder().addSubjectElements(prefix).addSubjectElement(command)
+            .addSubjectAllChildren().build();
+    lablinkConnection.registerRequestHandler(subject, new RoutingRequestHandler(command));
+  }
+
+  private MsgSubject createUpdateSubject(List<String> identifier) {
+    return MsgSubject.getBuilder().addSubjectElements(prefix).addSubjectElement("update")
+        .addSubjectElements(identifier).build();
+  }
+
   public ISyncConsumer getSyncConsumer() {
     return syncConsumer;
   }
@@ -184,15 +279,41 @@ public class DataPointServiceImpl implements IDataPointService {
    * @param payload             Value that should be published.
    */
   public void publishValue(List<String> dataPointIdentifier, ISimpleValue payload) {
-    MsgSubject
-        subject =
-        MsgSubject.getBuilder().addSubjectElements(prefix).addSubjectElement("update")
-            .addSubjectElements(dataPointIdentifier).build();
-
     payload.setEmulationTime(syncConsumer.getCurrentSimTime());
+
+    if (syncBatching) {
+      synchronized (batchLock) {
+        if (syncConsumer.isBatching()) {
+          if (pendingBatch == null) {
+            pendingBatch = new DataPointBatchMessage(syncConsumer.getCurrentSimTime());
+          }
+          pendingBatch.addValue(dataPointIdentifier, payload);
+          return;
+        }
+      }
+    }
+
+    MsgSubject subject = updateSubjects.get(dataPointIdentifier);
+    if (subject == null) {
+      subject = createUpdateSubject(dataPointIdentifier);
+    }
     lablinkConnection.publishMessage(subject, (IPayload) payload);
   }
 
+  /**
+   * Publish the value updates that are collected in the current sync step.
+   */
+  private void publishPendingBatch() {
+    DataPointBatchMessage batch;
+    synchronized (batchLock) {
+      batch = pendingBatch;
+      pendingBatch = null;
+    }
+    if (batch != null) {
+      lablinkConnection.publishMessage(batchSubject, batch);
+    }
+  }
+
   /**
    * Publish a message over Lablink.
    *
@@ -213,11 +334,16 @@ public class DataPointServiceImpl implements IDataPointService {
 
   private class DataPointServiceSyncConsumer implements ISyncConsumer {
 
-    private long currentSimTime = -1;
+    private volatile long currentSimTime = -1;
+    /* Guarded by batchLock for writing */
+    private volatile boolean batching = false;
 
     @Override
     public boolean init(ISyncParameter scs) {
       this.currentSimTime = scs.getSimBeginTime();
+      synchronized (batchLock) {
+        this.batching = syncBatching;
+      }
       return true;
     }
 
@@ -229,13 +355,26 @@ public class DataPointServiceImpl implements IDataPointService {
 
     @Override
     public boolean stop(ISyncParameter scs) {
+      synchronized (batchLock) {
+        this.batching = false;
+      }
+      publishPendingBatch();
       this.currentSimTime = -1;
       return true;
     }
 
+    @Override
+    public void stepFinished() {
+      publishPendingBatch();
+    }
+
     public long getCurrentSimTime() {
       return currentSimTime;
     }
+
+    boolean isBatching() {
+      return batching;
+    }
   }
 
 
@@ -258,4 +397,60 @@ public class DataPointServiceImpl implements IDataPointService {
 
     }
   }
+
+
+  /**
+   * Request handler of the compact mode. It receives the requests of a command for all
+   * datapoints and forwards them to the handler of the addressed datapoint. A request for an
+   * unknown datapoint is answered with a {@code PROCESSING_ERROR}, errors for it are ignored.
+   */
+  private class RoutingRequestHandler implements IRpcRequestCallback {
+
+    private final String command;
+
+    RoutingRequestHandler(String command) {
+      this.command = command;
+    }
+
+    private IRpcRequestCallback getTargetCallback(List<String> subject) {
+      DataPointGeneric dataPoint = dataPoints.get(
+          createDatapointIdentifier(subject.subList(prefix.size() + 1, subject.size())));
+
+      if (dataPoint == null) {
+        return null;
+      }
+
+      switch (command) {
+        case "requestProperties":
+          return dataPoint.getRequestPropertiesCallback();
+        case "requestUpdate":
+          return dataPoint.getRequestUpdateCallback();
+        case "setValue":
+          return dataPoint.getSetValueCallback();
+        default:
+          return dataPoint.getStatusCheckerPingPongCallback();
+      }
+    }
+
+    @Override
+    public List<IPayload> handleRequest(RpcHeader header, List<IPayload> payloads) {
+      IRpcRequestCallback callback = getTargetCallback(header.getSubject());
+
+      if (callback == null) {
+        return Collections.<IPayload>singletonList(
+            new ErrorMessage(ErrorMessage.EErrorCode.PROCESSING_ERROR,
+                "No datapoint registered for " + header.getSubject()));
+      }
+      return callback.handleRequest(header, payloads);
+    }
+
+    @Override
+    public void handleError(Header header, List<ErrorMessage> errors) throws Exception {
+      IRpcRequestCallback callback = getTargetCallback(header.getSubject());
+
+      if (callback != null) {
+        callback.handleError(header, errors);
+      }
+    }
+  }
 }
@@ -9,6 +9,7 @@ import at.ac.ait.lablink.core.connection.ILlConnection;
 import at.ac.ait.lablink.core.service.datapoint.IDataPointService;
 import at.ac.ait.lablink.core.service.datapoint.consumer.IDataPointConsumerService;
 import at.ac.ait.lablink.core.service.datapoint.consumer.impl.DataPointConsumerServiceImpl;
+import at.ac.ait.lablink.core.service.datapoint.history.DataPointHistoryStore;
 
 import org.apache.commons.configuration.Configuration;
 
@@ -26,4 +27,9 @@ public class DataPointServiceManager {
                                                                      Configuration config) {
     return new DataPointConsumerServiceImpl(connection, config);
   }
+
+  public static DataPointHistoryStore getDataPointHistoryStore(ILlConnection connection,
+                                                               Configuration config) {
+    return new DataPointHistoryStore(connection, config);
+  }
 }
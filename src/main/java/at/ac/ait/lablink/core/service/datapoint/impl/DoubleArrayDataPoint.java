@@ -0,0 +1,34 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.impl;
+
+import at.ac.ait.lablink.core.service.datapoint.DataPointGeneric;
+import at.ac.ait.lablink.core.service.datapoint.IDataPoint;
+import at.ac.ait.lablink.core.service.datapoint.payloads.DoubleArrayValue;
+
+import java.util.List;
+
+/**
+ * A writeable double array datapoint.
+ *
+ * <p>This datapoint can be set from the Lablink. All elements of the array share a single
+ * timestamp and are transmitted together as packed array.
+ */
+public class DoubleArrayDataPoint extends DataPointGeneric<double[]>
+    implements IDataPoint<double[]> {
+
+  /**
+   * Constructor.
+   *
+   * @param identifier Identifier of the datapoint.
+   * @param name       Friendly name of the datapoint for additional information.
+   * @param unit       Unit of the datapoint.
+   */
+  public DoubleArrayDataPoint(List<String> identifier, String name, String unit) {
+    super(identifier, name, unit, true, new DoubleArrayValue());
+  }
+
+}
@@ -0,0 +1,35 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.impl;
+
+import at.ac.ait.lablink.core.service.datapoint.DataPointGeneric;
+import at.ac.ait.lablink.core.service.datapoint.IDataPoint;
+import at.ac.ait.lablink.core.service.datapoint.payloads.DoubleArrayValue;
+
+import java.util.List;
+
+/**
+ * A read-only double array datapoint.
+ *
+ * <p>This datapoint can not be set from the Lablink. It can only be set from the hosting client.
+ * All elements of the array share a single timestamp and are transmitted together as packed
+ * array. This class should be used for e.g. vectors of measurement values.
+ */
+public class DoubleArrayReadonlyDataPoint extends DataPointGeneric<double[]>
+    implements IDataPoint<double[]> {
+
+  /**
+   * Constructor.
+   *
+   * @param identifier Identifier of the datapoint.
+   * @param name       Friendly name of the datapoint for additional information.
+   * @param unit       Unit of the datapoint.
+   */
+  public DoubleArrayReadonlyDataPoint(List<String> identifier, String name, String unit) {
+    super(identifier, name, unit, false, new DoubleArrayValue());
+  }
+
+}
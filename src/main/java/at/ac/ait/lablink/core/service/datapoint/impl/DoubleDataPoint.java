@@ -28,4 +28,33 @@ public class DoubleDataPoint extends DataPointGeneric<Double> implements IDataPo
   public DoubleDataPoint(List<String> identifier, String name, String unit) {
     super(identifier, name, unit, true, new DoubleValue());
   }
+
+  /**
+   * Set the value and the timestamp of the datapoint without boxing the value.
+   *
+   * @param value     new value of the datapoint
+   * @param timestamp timestamp of the value in milliseconds since 1.1.1970
+   */
+  public void setDouble(double value, long timestamp) {
+    ((DoubleValue) getLastValue()).setDouble(value);
+    lastValueUpdated(timestamp);
+  }
+
+  /**
+   * Set the value of the datapoint with the current time without boxing the value.
+   *
+   * @param value new value of the datapoint
+   */
+  public void setDouble(double value) {
+    setDouble(value, System.currentTimeMillis());
+  }
+
+  /**
+   * Get the value of the datapoint without boxing it.
+   *
+   * @return the current value of the datapoint
+   */
+  public double getDouble() {
+    return ((DoubleValue) getLastValue()).getDouble();
+  }
 }
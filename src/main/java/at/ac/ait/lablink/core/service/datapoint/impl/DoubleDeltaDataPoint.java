@@ -7,6 +7,7 @@ package at.ac.ait.lablink.core.service.datapoint.impl;
 
 import at.ac.ait.lablink.core.service.datapoint.DataPointGeneric;
 import at.ac.ait.lablink.core.service.datapoint.IDataPoint;
+import at.ac.ait.lablink.core.service.datapoint.payloads.DoubleValue;
 
 /**
  * A datapoint wrapper for a Double Datapoint that only publishs values with delta.
@@ -43,4 +44,41 @@ public class DoubleDeltaDataPoint extends DataPointGeneric<Double> implements ID
     super.setValue(value, timestamp);
   }
 
+  /**
+   * Set the value and the timestamp of the datapoint without boxing the value.
+   *
+   * <p>The value will only be set if its change is greater than the given delta.
+   *
+   * @param value     new value of the datapoint
+   * @param timestamp timestamp of the value in milliseconds since 1.1.1970
+   */
+  public void setDouble(double value, long timestamp) {
+    DoubleValue doubleValue = (DoubleValue) getLastValue();
+    double lastValue = doubleValue.getDouble();
+
+    if (lastValue - deltaValue < value && value < lastValue + deltaValue) {
+      return;
+    }
+    doubleValue.setDouble(value);
+    lastValueUpdated(timestamp);
+  }
+
+  /**
+   * Set the value of the datapoint with the current time without boxing the value.
+   *
+   * @param value new value of the datapoint
+   */
+  public void setDouble(double value) {
+    setDouble(value, System.currentTimeMillis());
+  }
+
+  /**
+   * Get the value of the datapoint without boxing it.
+   *
+   * @return the current value of the datapoint
+   */
+  public double getDouble() {
+    return ((DoubleValue) getLastValue()).getDouble();
+  }
+
 }
@@ -31,4 +31,33 @@ public class LongReadonlyDataPoint extends DataPointGeneric<Long> implements IDa
     super(identifier, name, unit, false, new LongValue());
   }
 
+  /**
+   * Set the value and the timestamp of the datapoint without boxing the value.
+   *
+   * @param value     new value of the datapoint
+   * @param timestamp timestamp of the value in milliseconds since 1.1.1970
+   */
+  public void setLong(long value, long timestamp) {
+    ((LongValue) getLastValue()).setLong(value);
+    lastValueUpdated(timestamp);
+  }
+
+  /**
+   * Set the value of the datapoint with the current time without boxing the value.
+   *
+   * @param value new value of the datapoint
+   */
+  public void setLong(long value) {
+    setLong(value, System.currentTimeMillis());
+  }
+
+  /**
+   * Get the value of the datapoint without boxing it.
+   *
+   * @return the current value of the datapoint
+   */
+  public long getLong() {
+    return ((LongValue) getLastValue()).getLong();
+  }
+
 }
@@ -7,12 +7,16 @@ package at.ac.ait.lablink.core.service.datapoint.payloads;
 
 import at.ac.ait.lablink.core.connection.encoding.IDecoder;
 import at.ac.ait.lablink.core.connection.encoding.IEncoder;
+import at.ac.ait.lablink.core.connection.encoding.IRecyclable;
 import at.ac.ait.lablink.core.connection.encoding.encodables.PayloadBase;
 
 /**
  * A simple value format containing a boolean.
+ *
+ * <p>Values are recyclable. Subclasses that hold additional fields must reset them in an
+ * overridden {@link #reset()} method.
  */
-public abstract class BaseValue extends PayloadBase {
+public abstract class BaseValue extends PayloadBase implements IRecyclable {
 
 
   private long time;
@@ -58,6 +62,12 @@ public abstract class BaseValue extends PayloadBase {
 
   }
 
+  @Override
+  public void reset() {
+    time = 0;
+    emulationTime = -1;
+  }
+
 
   public void setTime(long time) {
     this.time = time;
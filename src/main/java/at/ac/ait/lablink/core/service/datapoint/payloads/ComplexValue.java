@@ -31,6 +31,18 @@ public class ComplexValue extends BaseValue implements ISimpleValue<Complex> {
     return "complexValue";
   }
 
+  /**
+   * Get the stable numeric type identifier of the class.
+   *
+   * <p>The identifier is used instead of the type string in compact framing mode. Identifiers
+   * below 256 are reserved for the encodable classes of the Lablink core.
+   *
+   * @return the numeric type identifier of the class
+   */
+  public static int getClassTypeId() {
+    return 21;
+  }
+
   /**
    * Get the factory to create objects of the class.
    *
@@ -114,6 +126,13 @@ public class ComplexValue extends BaseValue implements ISimpleValue<Complex> {
     super.decodingCompleted();
   }
 
+  @Override
+  public void reset() {
+    super.reset();
+    re = 0.0;
+    im = 0.0;
+  }
+
   @Override
   public String toString() {
     return "ComplexValue{" + "re=" + this.re + ", im=" + this.im + ", " + super.toString() + '}';
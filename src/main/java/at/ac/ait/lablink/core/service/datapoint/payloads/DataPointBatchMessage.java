@@ -0,0 +1,203 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.payloads;
+
+import at.ac.ait.lablink.core.connection.encoding.IDecoder;
+import at.ac.ait.lablink.core.connection.encoding.IEncodable;
+import at.ac.ait.lablink.core.connection.encoding.IEncodableFactory;
+import at.ac.ait.lablink.core.connection.encoding.IEncoder;
+import at.ac.ait.lablink.core.connection.encoding.encodables.PayloadBase;
+import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Batch of datapoint value updates of a sync step.
+ *
+ * <p>A datapoint service in sync batching mode collects the value updates of its datapoints
+ * during a sync step and publishes them with a single message at the end of the step. The
+ * message contains the simulation time of the step and the identifiers and values of the updates
+ * in the order they were published.
+ */
+public class DataPointBatchMessage extends PayloadBase {
+
+  /**
+   * Get a type string of the class.
+   *
+   * <p><b>This static method must be implemented by every subclass.</b>
+   *
+   * <p>Every class that is encodable and is used by a decoder must have a unique string that
+   * identifies this class. This type string will be transmitted during the communication and will
+   * be used by a decoder for creating an empty object of the encodable class.
+   *
+   * @return an unique type string of the class
+   */
+  public static String getClassType() {
+    return "datapointBatch";
+  }
+
+  /**
+   * Get the stable numeric type identifier of the class.
+   *
+   * <p>The identifier is used instead of the type string in compact framing mode. Identifiers
+   * below 256 are reserved for the encodable classes of the Lablink core.
+   *
+   * @return the numeric type identifier of the class
+   */
+  public static int getClassTypeId() {
+    return 25;
+  }
+
+  /**
+   * Get the factory to create objects of the class.
+   *
+   * <p><b>This static method must be implemented by every subclass.</b>
+   *
+   * <p>Every class that is encodable and is used by a decoder must have a unique factory object to
+   * create empty objects of the class. This factory method will be used by the decoder to create a
+   * fresh object that can be filled in with the decoded values.
+   *
+   * @return A factory object for creating encodable classes
+   */
+  public static IEncodableFactory getEncodableFactory() {
+    return new IEncodableFactory() {
+      @Override
+      public IEncodable createEncodableObject() {
+        return new DataPointBatchMessage();
+      }
+    };
+  }
+
+  /* Separator of the identifier elements, which can't be part of a subject element */
+  private static final String IDENTIFIER_SEPARATOR = "/";
+
+  private long stepTime = -1;
+  private List<String> identifiers = new ArrayList<String>();
+  private List<IEncodable> values = new ArrayList<IEncodable>();
+
+  public DataPointBatchMessage() {
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param stepTime simulation time of the sync step
+   */
+  public DataPointBatchMessage(long stepTime) {
+    this.stepTime = stepTime;
+  }
+
+  /**
+   * Add a value update to the batch.
+   *
+   * <p>The datapoints reuse their value object for every update. Therefore, the batch stores a
+   * copy of the value, its timestamp and its emulation time. Several updates of a datapoint within
+   * a step are all kept in the order they were added.
+   *
+   * @param identifier identifier of the datapoint
+   * @param value      updated value
+   */
+  public void addValue(List<String> identifier, ISimpleValue<?> value) {
+    identifiers.add(String.join(IDENTIFIER_SEPARATOR, identifier));
+    values.add((IEncodable) copyValue(value));
+  }
+
+  /* The copy has the class of the value, therefore it has the same value type */
+  @SuppressWarnings("unchecked")
+  private static <T> ISimpleValue<T> copyValue(ISimpleValue<T> value) {
+    ISimpleValue<T> copy;
+    try {
+      copy = value.getClass().getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException ex) {
+      throw new LlCoreRuntimeException(
+          "Can't copy value of type " + value.getClass().getName() + " for the batch.", ex);
+    }
+
+    T content = value.getValue();
+    if (content != null && content.getClass().isArray()) {
+      // array values are written in place, the elements themselves are immutable
+      int length = Array.getLength(content);
+      Object contentCopy = Array.newInstance(content.getClass().getComponentType(), length);
+      System.arraycopy(content, 0, contentCopy, 0, length);
+      content = (T) contentCopy;
+    }
+    copy.setValue(content);
+    copy.setTime(value.getTime());
+    copy.setEmulationTime(value.getEmulationTime());
+    return copy;
+  }
+
+  public long getStepTime() {
+    return stepTime;
+  }
+
+  public int size() {
+    return values.size();
+  }
+
+  public boolean isEmpty() {
+    return values.isEmpty();
+  }
+
+  public List<String> getIdentifier(int index) {
+    return Arrays.asList(identifiers.get(index).split(IDENTIFIER_SEPARATOR));
+  }
+
+  public ISimpleValue<?> getValue(int index) {
+    return (ISimpleValue<?>) values.get(index);
+  }
+
+  @Override
+  public void encode(IEncoder encoder) {
+    encoder.putLong("stepTime", stepTime);
+    encoder.putStringList("identifiers", identifiers);
+    encoder.putEncodableList("values", values);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void decode(IDecoder decoder) {
+    stepTime = decoder.getLong("stepTime");
+    identifiers = decoder.getInternedStrings("identifiers");
+    values = (List<IEncodable>) decoder.getEncodables("values");
+  }
+
+  @Override
+  public String getType() {
+    return DataPointBatchMessage.getClassType();
+  }
+
+  @Override
+  public void decodingCompleted() {
+    // expected
+  }
+
+  @Override
+  public void validate() {
+    if (identifiers == null || values == null) {
+      throw new LlCoreRuntimeException("Datapoint batch isn't complete.");
+    }
+    if (identifiers.size() != values.size()) {
+      throw new LlCoreRuntimeException(
+          "Number of identifiers and values of the datapoint batch don't match.");
+    }
+    for (IEncodable value : values) {
+      if (!(value instanceof ISimpleValue)) {
+        throw new LlCoreRuntimeException(
+            "Datapoint batch contains an unexpected value type " + value.getType() + ".");
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "DataPointBatchMessage{" + "stepTime=" + stepTime + ", identifiers=" + identifiers
+        + ", values=" + values + '}';
+  }
+}
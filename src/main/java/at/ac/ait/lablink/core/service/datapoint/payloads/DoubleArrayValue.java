@@ -0,0 +1,156 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.payloads;
+
+import at.ac.ait.lablink.core.connection.encoding.IDecoder;
+import at.ac.ait.lablink.core.connection.encoding.IEncodable;
+import at.ac.ait.lablink.core.connection.encoding.IEncodableFactory;
+import at.ac.ait.lablink.core.connection.encoding.IEncoder;
+import at.ac.ait.lablink.core.service.datapoint.ex.DatapointServiceRuntimeException;
+
+import java.util.Arrays;
+
+/**
+ * A simple value format containing an array of double values with a single timestamp.
+ *
+ * <p>The array is encoded as packed array by the encoder. The given arrays aren't copied by the
+ * value, they must not be modified after they have been set.
+ */
+public class DoubleArrayValue extends BaseValue implements ISimpleValue<double[]> {
+
+  private static final double[] EMPTY = new double[0];
+
+  /**
+   * Get a type string of the class.
+   *
+   * <p><b>This static method must be implemented by every subclass.</b>
+   *
+   * <p>Every class that is encodable and is used by a decoder must have a unique string that
+   * identifies this class. This type string will be transmitted during the communication and will
+   * be used by a decoder for creating an empty object of the encodable class.
+   *
+   * @return an unique type string of the class
+   */
+  public static String getClassType() {
+    return "doubleArrayValue";
+  }
+
+  /**
+   * Get the stable numeric type identifier of the class.
+   *
+   * <p>The identifier is used instead of the type string in compact framing mode. Identifiers
+   * below 256 are reserved for the encodable classes of the Lablink core.
+   *
+   * @return the numeric type identifier of the class
+   */
+  public static int getClassTypeId() {
+    return 22;
+  }
+
+  /**
+   * Get the factory to create objects of the class.
+   *
+   * <p><b>This static method must be implemented by every subclass.</b>
+   *
+   * <p>Every class that is encodable and is used by a decoder must have a unique factory object
+   * to create empty objects of the class. This factory method will be used by the decoder to
+   * create a fresh object that can be filled in with the decoded values.
+   *
+   * @return A factory object for creating encodable classes
+   */
+  public static IEncodableFactory getEncodableFactory() {
+    return new IEncodableFactory() {
+      @Override
+      public IEncodable createEncodableObject() {
+        return new DoubleArrayValue();
+      }
+    };
+  }
+
+  private double[] values = EMPTY;
+
+  /**
+   * Default constructor.
+   */
+  public DoubleArrayValue() {
+    super();
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param values Set the values of the payloads.
+   * @param time   Set a time in milliseconds for the payloads.
+   */
+  public DoubleArrayValue(double[] values, long time) {
+    super(time);
+    setValue(values);
+  }
+
+  /**
+   * Constructor with current time automatically set.
+   *
+   * @param values Set the values of the payloads.
+   */
+  public DoubleArrayValue(double[] values) {
+    super();
+    setValue(values);
+  }
+
+
+  @Override
+  public void validate() {
+    super.validate();
+  }
+
+  @Override
+  public void encode(final IEncoder encoder) {
+    super.encode(encoder);
+    encoder.putDoubleArray("values", values);
+  }
+
+  @Override
+  public void decode(final IDecoder decoder) {
+    super.decode(decoder);
+    values = decoder.getDoubleArray("values");
+  }
+
+  @Override
+  public String getType() {
+    return DoubleArrayValue.getClassType();
+  }
+
+  @Override
+  public void decodingCompleted() {
+    super.decodingCompleted();
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    values = EMPTY;
+  }
+
+  @Override
+  public String toString() {
+    return "DoubleArrayValue{" + "values=" + Arrays.toString(values) + ", " + super.toString()
+        + '}';
+  }
+
+  @Override
+  public void setValue(double[] values) {
+    if (values == null) {
+      throw new DatapointServiceRuntimeException(
+          "Values of DoubleArrayValue must not be null.");
+    }
+    this.values = values;
+  }
+
+  public double[] getValue() {
+    return values;
+  }
+
+}
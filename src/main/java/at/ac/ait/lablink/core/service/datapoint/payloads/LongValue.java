@@ -30,6 +30,18 @@ public class LongValue extends BaseValue implements ISimpleValue<Long> {
     return "longValue";
   }
 
+  /**
+   * Get the stable numeric type identifier of the class.
+   *
+   * <p>The identifier is used instead of the type string in compact framing mode. Identifiers
+   * below 256 are reserved for the encodable classes of the Lablink core.
+   *
+   * @return the numeric type identifier of the class
+   */
+  public static int getClassTypeId() {
+    return 18;
+  }
+
   /**
    * Get the factory to create objects of the class.
    *
@@ -109,6 +121,12 @@ public class LongValue extends BaseValue implements ISimpleValue<Long> {
     super.decodingCompleted();
   }
 
+  @Override
+  public void reset() {
+    super.reset();
+    value = 0;
+  }
+
   @Override
   public String toString() {
     return "LongValue{" + "value=" + value + ", " + super.toString() + '}';
@@ -123,4 +141,22 @@ public class LongValue extends BaseValue implements ISimpleValue<Long> {
     return value;
   }
 
+  /**
+   * Set the value without boxing it.
+   *
+   * @param value value to be set
+   */
+  public void setLong(long value) {
+    this.value = value;
+  }
+
+  /**
+   * Get the value without boxing it.
+   *
+   * @return value
+   */
+  public long getLong() {
+    return value;
+  }
+
 }
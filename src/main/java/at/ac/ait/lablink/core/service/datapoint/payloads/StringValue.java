@@ -31,6 +31,18 @@ public class StringValue extends BaseValue implements ISimpleValue<String> {
     return "stringValue";
   }
 
+  /**
+   * Get the stable numeric type identifier of the class.
+   *
+   * <p>The identifier is used instead of the type string in compact framing mode. Identifiers
+   * below 256 are reserved for the encodable classes of the Lablink core.
+   *
+   * @return the numeric type identifier of the class
+   */
+  public static int getClassTypeId() {
+    return 17;
+  }
+
   /**
    * Get the factory to create objects of the class.
    *
@@ -113,6 +125,12 @@ public class StringValue extends BaseValue implements ISimpleValue<String> {
 
   }
 
+  @Override
+  public void reset() {
+    super.reset();
+    value = "";
+  }
+
   @Override
   public String toString() {
     return "StringValue{" + "value='" + value + '\'' + ", " + super.toString() + '}';
@@ -0,0 +1,22 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync;
+
+import java.util.Collection;
+
+/**
+ * Sync relay between a parent sync host and the participants of a sync domain.
+ *
+ * <p>The relay registers as a single participant at the parent sync host. It forwards the sync
+ * requests of the host to the participants of its domain and answers with one combined reply.
+ */
+public interface ISyncRelayService {
+  void start();
+
+  void shutdown();
+
+  Collection<SyncParticipant> getRegisteredClients();
+}
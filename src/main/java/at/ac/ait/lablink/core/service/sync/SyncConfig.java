@@ -37,6 +37,17 @@ public class SyncConfig {
   private ELlSimulationMode simMode;
   private long simScaleFactor;
   private long simStepSize;
+  private boolean nextEventMode;
+  private long simMaxStepSize;
+  private long simMinStepSize;
+
+  /* Step schedule, sorted by the begin time of the entries. Unset values are 0 or null. */
+  private long[] scheduleBeginTimes = new long[0];
+  private ELlSimulationMode[] scheduleModes = new ELlSimulationMode[0];
+  private long[] scheduleScaleFactors = new long[0];
+  private long[] scheduleStepSizes = new long[0];
+  private int nextScheduleIndex = 0;
+  private long scheduledStepSize;
 
   private HashMap<SyncParticipant, String>
       requiredClientConfigsJson =
@@ -44,6 +55,7 @@ public class SyncConfig {
   private HashMap<SyncParticipant, String>
       additionalClientConfigsJson =
       new HashMap<SyncParticipant, String>();
+  private HashMap<SyncParticipant, Long> clientStepSizes = new HashMap<SyncParticipant, Long>();
 
   public long getSimBeginTime() {
     return simBeginTime;
@@ -65,6 +77,92 @@ public class SyncConfig {
     return simStepSize;
   }
 
+  public boolean isNextEventMode() {
+    return nextEventMode;
+  }
+
+  public long getSimMaxStepSize() {
+    return simMaxStepSize;
+  }
+
+  /**
+   * Calculate the simulation time until which the next simulation step is processed.
+   *
+   * <p>By default the simulation advances by the step size (multiplied with the scale factor in
+   * emulation mode). In next-event mode (simulation mode only), the simulation jumps directly to
+   * the earliest next simulation time that has been requested by the participants with their
+   * replies of the previous step. Idle steps in between are skipped. The jump is limited by the
+   * maximum step size (if set) and the end time of the simulation. If no participant requested a
+   * time after the current simulation time, the simulation advances by the step size.
+   *
+   * @param simActualTime        current simulation time in milliseconds since epoch.
+   * @param requestedNextSimTime earliest next simulation time requested by the participants, or
+   *                             {@link Long#MAX_VALUE} if no request is available.
+   * @return the simulation time until which the next step is processed.
+   */
+  public long getNextStepUntil(long simActualTime, long requestedNextSimTime) {
+    if (simMode != ELlSimulationMode.SIMULATION) {
+      return simActualTime + simStepSize * simScaleFactor;
+    }
+
+    if (!nextEventMode || requestedNextSimTime <= simActualTime
+        || requestedNextSimTime == Long.MAX_VALUE) {
+      return simActualTime + simStepSize;
+    }
+
+    long nextUntil = requestedNextSimTime;
+    if (simMaxStepSize > 0) {
+      nextUntil = Math.min(nextUntil, simActualTime + simMaxStepSize);
+    }
+    return Math.max(Math.min(nextUntil, simEndTime), simActualTime + 1);
+  }
+
+  /**
+   * Get the step size of a simulation client.
+   *
+   * <p>Clients with an own step size (element <code>stepSize_ms</code> of the client
+   * configuration) are only processed when they are due and skip the steps in between. Other
+   * clients are processed in every step of the simulation.
+   *
+   * @param client Identifier of the client
+   * @return the client's step size in milliseconds or 0 if the client is processed in every step.
+   */
+  public long getClientStepSize(SyncParticipant client) {
+    Long stepSize = clientStepSizes.get(client);
+    return stepSize != null ? stepSize : 0;
+  }
+
+  /**
+   * Check if at least one client has an own step size.
+   *
+   * @return true, if clients are processed with different rates.
+   */
+  public boolean isMultiRate() {
+    return !clientStepSizes.isEmpty();
+  }
+
+  /**
+   * Calculate the simulation time until which a client processes a step.
+   *
+   * <p>A client with an own step size simulates until the current simulation time plus its step
+   * size (multiplied with the scale factor in emulation mode), at least until the end of the
+   * current step of the simulation. Other clients simulate until the end of the current step.
+   *
+   * @param stepSize      step size of the client (see {@link #getClientStepSize})
+   * @param simActualTime current simulation time in milliseconds since epoch.
+   * @param stepUntil     simulation time until which the current step is processed.
+   * @return the simulation time until which the client processes the step.
+   */
+  public long getClientStepUntil(long stepSize, long simActualTime, long stepUntil) {
+    if (stepSize <= 0) {
+      return stepUntil;
+    }
+
+    long until = simActualTime
+        + (simMode == ELlSimulationMode.SIMULATION ? stepSize : stepSize * simScaleFactor);
+    return Math.max(Math.min(until, simEndTime), stepUntil);
+  }
+
   /**
    * Get the specific configuration of a simulation client.
    *
@@ -85,6 +183,19 @@ public class SyncConfig {
     return foundClientConfig;
   }
 
+  /**
+   * Get the client specific configurations of all required and additional clients.
+   *
+   * @return map of the clients and their configuration as Json string. Participants that aren't
+   *     contained use an empty configuration.
+   */
+  public Map<SyncParticipant, String> getClientCfgsJson() {
+    Map<SyncParticipant, String> configs =
+        new HashMap<SyncParticipant, String>(additionalClientConfigsJson);
+    configs.putAll(requiredClientConfigsJson);
+    return configs;
+  }
+
   public Set<SyncParticipant> getNeededClients() {
     return requiredClientConfigsJson.keySet();
   }
@@ -98,24 +209,73 @@ public class SyncConfig {
     return additionalClientConfigsJson;
   }
 
+  public long getSimMinStepSize() {
+    return simMinStepSize;
+  }
+
   /**
    * Update the sync parameter.
    *
-   * <p>The sync host will call this method after every simulation step. This method can be used
-   * to change parameter of the configuration during runtime.
-   *
    * @param currentTime Current simulation time in milliseconds since epoch.
+   * @return true, if a parameter has been changed.
+   * @see #updateSyncParameter(long, long)
+   */
+  public boolean updateSyncParameter(long currentTime) {
+    return updateSyncParameter(currentTime, 0);
+  }
+
+  /**
+   * Update the sync parameter.
+   *
+   * <p>The sync host calls this method before every simulation step. The parameters are changed
+   * by two inputs:
+   * <ul>
+   * <li>The step schedule of the configuration (element <code>stepSchedule</code>). Every entry
+   * sets the simulation mode, the scale factor and/or the step size from its begin time on. E.g.,
+   * the simulation runs in simulation mode until a specific simulation time is reached, then it
+   * switches to emulation mode to test real components within the lab.</li>
+   * <li>The step size requested by the participants with their replies of the previous step. A
+   * smaller step size than the scheduled one refines the next step, e.g., to analyze a short time
+   * interval around an event with a higher accuracy. The refinement is limited by the minimum
+   * step size and ends if it isn't requested again.</li>
+   * </ul>
+   *
+   * @param currentTime       Current simulation time in milliseconds since epoch.
+   * @param requestedStepSize smallest step size requested by the participants, or 0 if no
+   *                          refinement is requested.
+   * @return true, if a parameter has been changed.
    */
-  public void updateSyncParameter(long currentTime) {
-    //TODO implement changing of sync params during simulation
+  public boolean updateSyncParameter(long currentTime, long requestedStepSize) {
+    final ELlSimulationMode previousMode = simMode;
+    final long previousScaleFactor = simScaleFactor;
+    final long previousStepSize = simStepSize;
+
+    while (nextScheduleIndex < scheduleBeginTimes.length
+        && scheduleBeginTimes[nextScheduleIndex] <= currentTime) {
+      if (scheduleModes[nextScheduleIndex] != null) {
+        simMode = scheduleModes[nextScheduleIndex];
+      }
+      if (scheduleScaleFactors[nextScheduleIndex] > 0) {
+        simScaleFactor = scheduleScaleFactors[nextScheduleIndex];
+      }
+      if (scheduleStepSizes[nextScheduleIndex] > 0) {
+        scheduledStepSize = scheduleStepSizes[nextScheduleIndex];
+      }
+      nextScheduleIndex++;
+    }
 
-    // There is the idea to change the simulation parameters during runtime. E.g., The simulation
-    // starts in simulation mode until a specific simulation time was reached. Then the sync host
-    // switches to emulation mode (to test real components within the lab). After the successful
-    // execution the sync host can switch back to simulation mode to finish the simulation fast.
+    simStepSize = scheduledStepSize;
+    if (requestedStepSize > 0 && requestedStepSize < scheduledStepSize) {
+      simStepSize = Math.max(requestedStepSize, simMinStepSize);
+    }
 
-    // Another example is the dynamically changing of the simulation step size to analyze a short
-    // time interval with a higher accuracy.
+    boolean changed = simMode != previousMode || simScaleFactor != previousScaleFactor
+        || simStepSize != previousStepSize;
+    if (changed && logger.isInfoEnabled()) {
+      logger.info("Change sync parameter at {}: {}, Step: {} ms; Scale: {}",
+          Utility.unixToDateStr(currentTime), simMode, simStepSize, simScaleFactor);
+    }
+    return changed;
   }
 
   /**
@@ -163,6 +323,17 @@ public class SyncConfig {
         Utility.dateStrToUnix(syncParamsJson.getString("simBeginTime", "01.01.2017 12:00:00"));
     config.simEndTime =
         Utility.dateStrToUnix(syncParamsJson.getString("simEndTime", "01.01.2017 12:10:00"));
+    config.nextEventMode = syncParamsJson.getBoolean("nextEventMode", false);
+    config.simMaxStepSize = syncParamsJson.getLong("simMaxStepSize_ms", 0);
+    config.simMinStepSize = syncParamsJson.getLong("simMinStepSize_ms", 1);
+    config.scheduledStepSize = config.simStepSize;
+    if (syncParamsJson.get("stepSchedule") != null) {
+      readStepSchedule(config, syncParamsJson.get("stepSchedule"));
+    }
+
+    if (config.nextEventMode && config.simMode != ELlSimulationMode.SIMULATION) {
+      logger.warn("Next-event mode is only supported in simulation mode. Use fixed steps.");
+    }
 
     if (logger.isDebugEnabled()) {
       logger.debug("Read ISyncParameter: {} {} - {}, {}ms, Scale {}", config.simMode,
@@ -171,17 +342,71 @@ public class SyncConfig {
     }
 
     readClientConfigs("requiredClients", config.getRequiredClientConfigsJson(),
-        syncConfigJson.asObject());
+        config.clientStepSizes, syncConfigJson.asObject());
     if (syncConfigJson.asObject().get("additionalClients") != null) {
       readClientConfigs("additionalClients", config.getAdditionalClientConfigsJson(),
-          syncConfigJson.asObject());
+          config.clientStepSizes, syncConfigJson.asObject());
     }
 
     return config;
   }
 
 
+  private static void readStepSchedule(SyncConfig config, JsonValue scheduleJson) {
+    if (!scheduleJson.isArray()) {
+      throw new SyncServiceRuntimeException("Step schedule in JSON config isn't an array.");
+    }
+
+    JsonArray entries = scheduleJson.asArray();
+    config.scheduleBeginTimes = new long[entries.size()];
+    config.scheduleModes = new ELlSimulationMode[entries.size()];
+    config.scheduleScaleFactors = new long[entries.size()];
+    config.scheduleStepSizes = new long[entries.size()];
+
+    for (int i = 0; i < entries.size(); i++) {
+      JsonObject entry = entries.get(i).asObject();
+      String from = entry.getString("from", null);
+      if (from == null) {
+        throw new SyncServiceRuntimeException("Entry " + i + " of the step schedule has no begin.");
+      }
+      config.scheduleBeginTimes[i] = Utility.dateStrToUnix(from);
+      if (i > 0 && config.scheduleBeginTimes[i] < config.scheduleBeginTimes[i - 1]) {
+        throw new SyncServiceRuntimeException("Entries of the step schedule aren't sorted.");
+      }
+
+      String mode = entry.getString("simMode", null);
+      config.scheduleModes[i] = mode != null ? ELlSimulationMode.fromValue(mode) : null;
+      config.scheduleScaleFactors[i] = entry.getLong("simScaleFactor", 0);
+      config.scheduleStepSizes[i] = entry.getLong("simStepSize_ms", 0);
+      if (config.scheduleScaleFactors[i] < 0 || config.scheduleStepSizes[i] < 0) {
+        throw new SyncServiceRuntimeException(
+            "Entry " + i + " of the step schedule contains a negative value.");
+      }
+    }
+  }
+
+  /**
+   * Read the configurations of the required clients from a JSON object.
+   *
+   * <p>The object contains an element <code>requiredClients</code> with the same format as the
+   * sync configuration file. It is used by sync relays for the clients of their domain. Step sizes
+   * of the clients are ignored.
+   *
+   * @param configJson JSON object with the client configurations
+   * @return map of the required clients and their specific configuration. The map is empty if the
+   *     object doesn't contain required clients.
+   */
+  public static Map<SyncParticipant, String> readRequiredClientConfigs(JsonObject configJson) {
+    Map<SyncParticipant, String> clientConfigs = new HashMap<SyncParticipant, String>();
+    if (configJson.get("requiredClients") != null) {
+      readClientConfigs("requiredClients", clientConfigs, new HashMap<SyncParticipant, Long>(),
+          configJson);
+    }
+    return clientConfigs;
+  }
+
   private static void readClientConfigs(String clientKey, Map<SyncParticipant, String> participants,
+                                        Map<SyncParticipant, Long> stepSizes,
                                         JsonObject syncConfigJson) {
     JsonArray clientCfgsArr = syncConfigJson.get(clientKey).asArray();
     for (JsonValue clv : clientCfgsArr.values()) {
@@ -211,6 +436,15 @@ public class SyncConfig {
 
       SyncParticipant newClient = new SyncParticipant(clientGroup, clientId);
       participants.put(newClient, parameterJson.asObject().toString(WriterConfig.MINIMAL));
+
+      long stepSize = clo.getLong("stepSize_ms", 0);
+      if (stepSize < 0) {
+        throw new SyncServiceRuntimeException(
+            "Step size of client " + newClient + " in JSON config is negative.");
+      }
+      if (stepSize > 0) {
+        stepSizes.put(newClient, stepSize);
+      }
     }
   }
 }
@@ -0,0 +1,40 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Subjects of the sync services.
+ *
+ * <p>The sync messages and requests use subjects of the form <code>sync/&lt;name&gt;</code>. A
+ * sync domain separates the participants of a sync relay from the participants of the root sync
+ * host. Within a domain the subjects have the form <code>sync/&lt;domain&gt;/&lt;name&gt;</code>.
+ * The delivery markers of the participants are exchanged without a domain.
+ */
+public final class SyncSubjects {
+
+  private SyncSubjects() {
+  }
+
+  /**
+   * Get the elements of a sync subject.
+   *
+   * @param domain sync domain of the subject, null or empty for the root sync host
+   * @param name   name of the subject, e.g., go
+   * @return the subject elements
+   */
+  public static List<String> getSubjectElements(String domain, String name) {
+    List<String> elements = new ArrayList<String>(3);
+    elements.add("sync");
+    if (domain != null && !domain.isEmpty()) {
+      elements.add(domain);
+    }
+    elements.add(name);
+    return elements;
+  }
+}
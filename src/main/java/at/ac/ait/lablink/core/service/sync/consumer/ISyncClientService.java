@@ -20,4 +20,26 @@ public interface ISyncClientService {
   ISyncParameter getSyncParameter();
 
   long getCurrentSimTime();
+
+  /**
+   * Request a smaller step size for the next simulation step.
+   *
+   * <p>The request is valid for the current step only. It can be called by a registered
+   * {@link ISyncConsumer} within its go method, e.g., to refine the steps around an event. The
+   * sync host uses the smallest requested step size of all participants.
+   *
+   * @param stepSize requested step size in milliseconds
+   */
+  void requestStepSize(long stepSize);
+
+  /**
+   * Add a participant whose messages are consumed by the client.
+   *
+   * <p>Before a step is processed the client waits for the delivery of the messages of its
+   * sources only. Without sources it waits for the messages of all participants.
+   *
+   * @param groupId  group identifier of the participant
+   * @param clientId client identifier of the participant
+   */
+  void addDeliverySource(String groupId, String clientId);
 }
@@ -54,4 +54,14 @@ public interface ISyncConsumer {
    */
   boolean stop(ISyncParameter scs);
 
+
+  /**
+   * Notification that the init or go request of the current step has been processed by all
+   * consumers of the sync client. It is called before the client replies to the sync host and
+   * marks the messages it published during the step as delivered. Consumers can use it to publish
+   * data that was collected during the step.
+   */
+  default void stepFinished() {
+  }
+
 }
@@ -13,7 +13,9 @@ import at.ac.ait.lablink.core.connection.messaging.MsgHeader;
 import at.ac.ait.lablink.core.connection.rpc.IRpcRequester;
 import at.ac.ait.lablink.core.connection.rpc.RpcHeader;
 import at.ac.ait.lablink.core.connection.rpc.reply.IRpcReplyCallback;
-import at.ac.ait.lablink.core.connection.rpc.request.IRpcRequestCallback;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcAsyncRequestCallback;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcReplySender;
+import at.ac.ait.lablink.core.connection.topic.MsgSubject;
 import at.ac.ait.lablink.core.connection.topic.MsgSubscription;
 import at.ac.ait.lablink.core.connection.topic.RpcDestination;
 import at.ac.ait.lablink.core.connection.topic.RpcSubject;
@@ -24,11 +26,13 @@ import at.ac.ait.lablink.core.service.sync.ELlSimulationMode;
 import at.ac.ait.lablink.core.service.sync.ELlSyncClientState;
 import at.ac.ait.lablink.core.service.sync.ISyncParameter;
 import at.ac.ait.lablink.core.service.sync.SyncParticipant;
+import at.ac.ait.lablink.core.service.sync.SyncSubjects;
 import at.ac.ait.lablink.core.service.sync.consumer.ISyncClientService;
 import at.ac.ait.lablink.core.service.sync.consumer.ISyncConsumer;
 import at.ac.ait.lablink.core.service.sync.ex.SyncServiceRuntimeException;
 import at.ac.ait.lablink.core.service.sync.impl.SyncHostServiceImpl;
 import at.ac.ait.lablink.core.service.sync.payloads.SyncClientConfigMessage;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncDeliveryMessage;
 import at.ac.ait.lablink.core.service.sync.payloads.SyncGoReply;
 import at.ac.ait.lablink.core.service.sync.payloads.SyncGoRequest;
 import at.ac.ait.lablink.core.service.sync.payloads.SyncParamMessage;
@@ -39,8 +43,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implementation of the SyncClient service interface.
@@ -55,6 +68,36 @@ import java.util.List;
  * registered {@link ISyncConsumer} implementation.
  * After instantiation of the SyncCa ISyncConsumer must be registered and the
  * {@link #start()} method must be called.
+ *
+ * <p>Messages published during a sync step are delivered before the next step is processed.
+ * After processing a step the service publishes a {@link SyncDeliveryMessage} marker with the
+ * sequence number of its last published message and reports it with the reply to the sync host.
+ * The next request of the sync host contains the reported sequences of all participants. The
+ * service waits until it received the markers of its delivery sources, which are the participants
+ * it consumes messages from, and until the callbacks of all messages the connection received
+ * before these markers have been executed. Then the registered consumers are called. The markers
+ * are only subscribed from the delivery sources. Without delivery sources the markers of all
+ * participants are subscribed and awaited.
+ *
+ * <p>The sync requests are processed by an own thread of the service and replied asynchronously
+ * ({@link IRpcAsyncRequestCallback}). Therefore a waiting step doesn't block the callback threads
+ * of the connection, which execute the callbacks of the awaited messages and markers. The
+ * following configuration properties are read:
+ * <ul>
+ * <li><b>syncClient.registeringTimeout</b> (180, long): Time in seconds to wait for the start of
+ * the simulation after registering to a sync host.</li>
+ * <li><b>syncClient.deliveryTimeout</b> (5000, long): Maximum time in milliseconds to wait for
+ * the delivery markers of the other participants and the callbacks of their messages before a
+ * step is processed.</li>
+ * <li><b>syncClient.deliverySources</b> (empty, String list): Delivery sources of the client,
+ * given as group/client, e.g., grid/meter1. Further sources can be added with
+ * {@link #addDeliverySource(String, String)}.</li>
+ * <li><b>syncClient.consumerThreads</b> (0, int): Number of threads for calling the registered
+ * consumers in parallel. The consumers must be independent of each other. With 0 they are called
+ * one after another by the thread of the sync request.</li>
+ * <li><b>syncClient.syncDomain</b> (empty, String): Sync domain of a sync relay the client is
+ * synchronized by. Without a domain the client is synchronized by the root sync host.</li>
+ * </ul>
  */
 public class SyncClientServiceImpl implements ISyncClientService, Runnable {
 
@@ -62,7 +105,8 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
 
   private ILlConnection lablinkConnection;
 
-  private List<ISyncConsumer> syncConsumers = new ArrayList<ISyncConsumer>();
+  private List<ISyncConsumer> syncConsumers = new CopyOnWriteArrayList<ISyncConsumer>();
+  private final SyncConsumerExecutor consumerExecutor;
 
   private ELlSyncClientState currentSyncState = ELlSyncClientState.NOT_REGISTERED;
   private final long registeringTimeout;
@@ -70,11 +114,38 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
   private SyncParticipant registeredSyncHost;
   private SyncClientConfig syncParams;
   private long startedStamp = 0;
+  /* Simulation time at the start of the emulation, changes with the simulation mode */
+  private long emulationBeginTime = 0;
+  /* Smallest step size requested by the consumers in the current step, 0 if none */
+  private final AtomicLong requestedStepSize = new AtomicLong();
 
   private long currentSimTime = -1;
 
   private Thread runnerThread;
 
+  private static final MsgSubject DELIVERY_SUBJECT =
+      MsgSubject.getBuilder().addSubjectElement("sync").addSubjectElement("delivery").build();
+
+  private final long deliveryTimeout;
+  private final String syncDomain;
+  private final SyncParticipant localParticipant;
+  /* Participants whose messages are consumed, the markers of all participants if empty */
+  private final Set<SyncParticipant> deliverySources = new CopyOnWriteArraySet<SyncParticipant>();
+  private final DeliveryMsgHandler deliveryMsgHandler = new DeliveryMsgHandler();
+  /* Sequence numbers of the received delivery markers, guarded by itself */
+  private final Map<SyncParticipant, Long> receivedSequences = new HashMap<SyncParticipant, Long>();
+  /* Callback executions that received the delivery markers, guarded by receivedSequences */
+  private final Map<SyncParticipant, Long> markerExecutions = new HashMap<SyncParticipant, Long>();
+  /* Number of published messages at the time of the last delivery marker */
+  private long markedMessageCount = 0;
+
+  /* Thread that processes the sync requests and the close message one after another */
+  private final ExecutorService stepExecutor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "SyncClientStep");
+    thread.setDaemon(true);
+    return thread;
+  });
+
   /**
    * Constructor.
    *
@@ -94,8 +165,22 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
     lablinkConnection.registerEncodableFactory(SyncGoReply.class);
     lablinkConnection.registerEncodableFactory(SyncParamMessage.class);
     lablinkConnection.registerEncodableFactory(SyncClientConfigMessage.class);
+    lablinkConnection.registerEncodableFactory(SyncDeliveryMessage.class);
 
     registeringTimeout = config.getLong("syncClient.registeringTimeout", 180) * 1000;
+    deliveryTimeout = config.getLong("syncClient.deliveryTimeout", 5000);
+    syncDomain = config.getString("syncClient.syncDomain", "");
+    consumerExecutor = new SyncConsumerExecutor(config.getInt("syncClient.consumerThreads", 0));
+    localParticipant = new SyncParticipant(lablinkConnection.getClientIdentifier().getGroupId(),
+        lablinkConnection.getClientIdentifier().getClientId());
+    for (String source : config.getStringArray("syncClient.deliverySources")) {
+      String[] elements = source.trim().split("/");
+      if (elements.length != 2 || elements[0].isEmpty() || elements[1].isEmpty()) {
+        throw new SyncServiceRuntimeException(
+            "Delivery source '" + source + "' isn't given as group/client.");
+      }
+      deliverySources.add(new SyncParticipant(elements[0], elements[1]));
+    }
     registerHandlers();
 
   }
@@ -107,31 +192,54 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
     MsgSubscription
         helloMsgSub =
         MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_ALL)
-            .addSubjectElement("sync").addSubjectElement("hello").build();
+            .addSubjectElements(SyncSubjects.getSubjectElements(syncDomain, "hello")).build();
     lablinkConnection.registerMessageHandler(helloMsgSub, new HelloMsgHandler());
 
     MsgSubscription
         closeMsgSub =
         MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_ALL)
-            .addSubjectElement("sync").addSubjectElement("close").build();
+            .addSubjectElements(SyncSubjects.getSubjectElements(syncDomain, "close")).build();
     lablinkConnection.registerMessageHandler(closeMsgSub, new CloseMsgHandler());
 
+    if (deliverySources.isEmpty()) {
+      lablinkConnection.registerMessageHandler(createDeliverySubscription(null),
+          deliveryMsgHandler);
+    }
+    for (SyncParticipant source : deliverySources) {
+      lablinkConnection.registerMessageHandler(createDeliverySubscription(source),
+          deliveryMsgHandler);
+    }
+
     RpcSubject
         initSub =
-        RpcSubject.getBuilder().addSubjectElement("sync").addSubjectElement("init").build();
+        RpcSubject.getBuilder()
+            .addSubjectElements(SyncSubjects.getSubjectElements(syncDomain, "init")).build();
     lablinkConnection.registerRequestHandler(initSub, new SyncInitRpcRequestCallback());
 
     RpcSubject
         goSub =
-        RpcSubject.getBuilder().addSubjectElement("sync").addSubjectElement("go").build();
+        RpcSubject.getBuilder()
+            .addSubjectElements(SyncSubjects.getSubjectElements(syncDomain, "go")).build();
     lablinkConnection.registerRequestHandler(goSub, new SyncGoRpcRequestCallback());
 
     RpcSubject
         stopSub =
-        RpcSubject.getBuilder().addSubjectElement("sync").addSubjectElement("stop").build();
+        RpcSubject.getBuilder()
+            .addSubjectElements(SyncSubjects.getSubjectElements(syncDomain, "stop")).build();
     lablinkConnection.registerRequestHandler(stopSub, new SyncStopRpcRequestCallback());
   }
 
+  /* Subscription of the delivery markers of a source, of all participants if the source is null */
+  private static MsgSubscription createDeliverySubscription(SyncParticipant source) {
+    if (source == null) {
+      return MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_ALL)
+          .addSubjectElements(DELIVERY_SUBJECT.getSubject()).build();
+    }
+    return MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_CLIENT)
+        .setSrcGroupId(source.getGroupName()).setSrcClientId(source.getClientName())
+        .addSubjectElements(DELIVERY_SUBJECT.getSubject()).build();
+  }
+
 
   @Override
   public void registerSyncConsumer(ISyncConsumer syncConsumer) {
@@ -141,9 +249,25 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
   @Override
   public void unregisterSyncConsumer(ISyncConsumer syncConsumer) {
     this.syncConsumers.remove(syncConsumer);
+    this.consumerExecutor.removeConsumer(syncConsumer);
   }
 
 
+  @Override
+  public synchronized void addDeliverySource(String groupId, String clientId) {
+    SyncParticipant source = new SyncParticipant(groupId, clientId);
+    if (!deliverySources.add(source)) {
+      return;
+    }
+    lablinkConnection.registerMessageHandler(createDeliverySubscription(source),
+        deliveryMsgHandler);
+    if (deliverySources.size() == 1) {
+      // the markers of the other participants aren't needed anymore
+      lablinkConnection.unregisterMessageHandler(createDeliverySubscription(null),
+          deliveryMsgHandler);
+    }
+  }
+
   @Override
   public void start() {
   }
@@ -178,6 +302,8 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
     if (this.runnerThread != null) {
       this.runnerThread.interrupt();
     }
+    stepExecutor.shutdownNow();
+    consumerExecutor.shutdown();
   }
 
   @Override
@@ -185,6 +311,25 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
     return this.syncParams; //Only available during simulation, otherwise null.
   }
 
+  /**
+   * Get the processing times of the registered consumers.
+   *
+   * @return map of the consumers and the processing time of their last init, go or stop call in
+   *     nanoseconds.
+   */
+  public Map<ISyncConsumer, Long> getConsumerDurations() {
+    return consumerExecutor.getDurations();
+  }
+
+  @Override
+  public void requestStepSize(long stepSize) {
+    if (stepSize <= 0) {
+      throw new SyncServiceRuntimeException("Requested step size must be positive.");
+    }
+    requestedStepSize.accumulateAndGet(stepSize,
+        (current, requested) -> current > 0 ? Math.min(current, requested) : requested);
+  }
+
   @Override
   public long getCurrentSimTime() {
     if (currentSyncState != ELlSyncClientState.SIMULATING) {
@@ -206,9 +351,11 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
       startedStamp = 0;
       currentSimTime = -1;
       syncParams = null;
+      clearDeliveries();
     }
 
     if (this.currentSyncState == ELlSyncClientState.WAITING_FOR_SIMULATION) {
+      clearDeliveries();
       if (runnerThread != null && !runnerThread.isAlive()) {
         runnerThread.interrupt();
       }
@@ -225,6 +372,19 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
   }
 
 
+  /**
+   * Drop the received delivery markers of an earlier simulation run.
+   *
+   * <p>A restarted participant counts its published messages from the beginning. Its markers of
+   * the new run have smaller sequences than the markers of the earlier run.
+   */
+  private void clearDeliveries() {
+    synchronized (receivedSequences) {
+      receivedSequences.clear();
+      markerExecutions.clear();
+    }
+  }
+
   private synchronized void setRegisteredSyncHost(SyncParticipant registeredSyncHost) {
     this.registeredSyncHost = registeredSyncHost;
   }
@@ -249,32 +409,42 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
             (SyncClientConfigMessage) payloads.get(1));
     currentSimTime = syncParams.getSimBeginTime();
 
-    boolean returnVal = true;
-    for (ISyncConsumer consumer : syncConsumers) {
-      returnVal &= consumer.init(syncParams);
-    }
+    final ISyncParameter params = syncParams;
+    long[] results = consumerExecutor.execute(syncConsumers, "init",
+        consumer -> consumer.init(params) ? 1 : 0);
 
-    return returnVal;
+    return allSucceeded(results);
   }
 
 
   private long executeGo(List<IPayload> payloads) {
 
-    if (startedStamp <= 0) {
-      startedStamp = System.currentTimeMillis();
-    }
-
     if (!(payloads.get(0) instanceof SyncGoRequest)) {
       throw new SyncServiceRuntimeException(
           "Unexpected payloads type '" + payloads.get(0).getType() + "' for SyncGoRequest.");
     }
+    SyncGoRequest goRequest = (SyncGoRequest) payloads.get(0);
+
+    if (startedStamp <= 0) {
+      startedStamp = System.currentTimeMillis();
+      emulationBeginTime = syncParams.getSimBeginTime();
+    }
 
     if (payloads.size() > 1 && payloads.get(1) instanceof SyncParamMessage) {
       //Optional change of sync parameter during simulation
-      this.syncParams.setSyncParameter((SyncParamMessage) payloads.get(1));
+      SyncParamMessage changedParams = (SyncParamMessage) payloads.get(1);
+      if (changedParams.getSimMode() != syncParams.getSimMode()
+          || changedParams.getScaleFactor() != syncParams.getScaleFactor()) {
+        // emulation time continues from the current simulation time
+        startedStamp = System.currentTimeMillis();
+        emulationBeginTime = goRequest.getActualSimTime();
+      }
+      this.syncParams.setSyncParameter(changedParams);
     }
 
-    SyncGoRequest goRequest = (SyncGoRequest) payloads.get(0);
+    awaitDeliveries(payloads);
+    requestedStepSize.set(0);
+
     long syncParamSimUntil = goRequest.getSimUntil();
     currentSimTime = calculateCurrentSimTime(goRequest.getActualSimTime());
 
@@ -284,8 +454,11 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
       syncParamNextSim = syncParamSimUntil + syncParams.getStepSize();
     }
 
-    for (ISyncConsumer consumer : syncConsumers) {
-      long until = consumer.go(currentSimTime, syncParamSimUntil, syncParams);
+    final long simTime = currentSimTime;
+    final ISyncParameter params = syncParams;
+    long[] results = consumerExecutor.execute(syncConsumers, "go",
+        consumer -> consumer.go(simTime, syncParamSimUntil, params));
+    for (long until : results) {
       syncParamNextSim = syncParamNextSim > 0 ? Math.min(syncParamNextSim, until) : until;
     }
 
@@ -300,41 +473,134 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
     return syncParamNextSim;
   }
 
+  /**
+   * Wait until the messages of the other participants, which are given by the delivery state of
+   * a sync request, are received.
+   *
+   * @param payloads payloads of the sync request
+   */
+  private void awaitDeliveries(List<IPayload> payloads) {
+    for (IPayload payload : payloads) {
+      if (payload instanceof SyncDeliveryMessage) {
+        awaitDeliveries(((SyncDeliveryMessage) payload).getSequences());
+      }
+    }
+  }
+
+  private void awaitDeliveries(Map<SyncParticipant, Long> expectedSequences) {
+    final long deadline = System.currentTimeMillis() + deliveryTimeout;
+    long execution = 0;
+
+    try {
+      synchronized (receivedSequences) {
+        for (Map.Entry<SyncParticipant, Long> expected : expectedSequences.entrySet()) {
+          if (expected.getKey().equals(localParticipant) || !isDeliverySource(expected.getKey())) {
+            continue;
+          }
+          while (getReceivedSequence(expected.getKey()) < expected.getValue()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+              logger.warn("Messages of participant {} up to sequence {} aren't received within "
+                  + "{} ms.", expected.getKey(), expected.getValue(), deliveryTimeout);
+              break;
+            }
+            receivedSequences.wait(remaining);
+          }
+          Long markerExecution = markerExecutions.get(expected.getKey());
+          if (markerExecution != null) {
+            execution = Math.max(execution, markerExecution);
+          }
+        }
+      }
+
+      // the messages received before the markers may still be handled by other callback threads
+      if (execution > 0 && !lablinkConnection.awaitCallbackExecutions(execution,
+          Math.max(deadline - System.currentTimeMillis(), 0))) {
+        logger.warn("Callbacks of the received messages aren't executed within {} ms.",
+            deliveryTimeout);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private boolean isDeliverySource(SyncParticipant participant) {
+    return deliverySources.isEmpty() || deliverySources.contains(participant);
+  }
+
+  private long getReceivedSequence(SyncParticipant participant) {
+    Long sequence = receivedSequences.get(participant);
+    return sequence != null ? sequence : 0;
+  }
+
+  /**
+   * Publish a delivery marker if messages have been published since the last marker.
+   *
+   * @return the published marker or null if no messages have been published.
+   */
+  private SyncDeliveryMessage publishDeliveryMarker() {
+    long publishedCount = lablinkConnection.getPublishedMessageCount();
+    if (publishedCount == markedMessageCount) {
+      return null;
+    }
+
+    SyncDeliveryMessage marker = new SyncDeliveryMessage(localParticipant, publishedCount + 1);
+    lablinkConnection.publishMessage(DELIVERY_SUBJECT, marker);
+    markedMessageCount = lablinkConnection.getPublishedMessageCount();
+    return marker;
+  }
+
+  /* Create the reply of a sync request with an optional delivery marker */
+  private List<IPayload> createReply(IPayload reply) {
+    for (ISyncConsumer consumer : syncConsumers) {
+      consumer.stepFinished();
+    }
+    SyncDeliveryMessage marker = publishDeliveryMarker();
+    if (marker == null) {
+      return Collections.singletonList(reply);
+    }
+    return Arrays.asList(reply, marker);
+  }
+
   private long calculateCurrentSimTime(long actualTime) {
 
     if (syncParams.getSimMode() == ELlSimulationMode.SIMULATION) {
       return actualTime;
     } else {
-      return syncParams.getSimBeginTime() + (System.currentTimeMillis() - startedStamp) * syncParams
+      return emulationBeginTime + (System.currentTimeMillis() - startedStamp) * syncParams
           .getScaleFactor();
     }
   }
 
   private boolean executeStop() {
-    boolean returnVal = true;
-    for (ISyncConsumer consumer : syncConsumers) {
-      returnVal &= consumer.stop(syncParams);
-    }
+    final ISyncParameter params = syncParams;
+    long[] results = consumerExecutor.execute(syncConsumers, "stop",
+        consumer -> consumer.stop(params) ? 1 : 0);
     currentSimTime = -1;
-    return returnVal;
+    return allSucceeded(results);
+  }
+
+  private static boolean allSucceeded(long[] results) {
+    for (long result : results) {
+      if (result == 0) {
+        return false;
+      }
+    }
+    return true;
   }
 
   private class SyncInitRpcRequestCallback extends SyncRpcRequestCallback {
 
     @Override
-    public List<IPayload> handleRequest(RpcHeader header, List<IPayload> payloads) {
+    List<IPayload> processRequest(List<IPayload> payloads) {
       logger.debug("Processing INIT RPC request...");
-      List<IPayload> returnValues = super.handleRequest(header, payloads);
-
-      if (returnValues.size() > 0) {
-        //Base class already handles the message
-        return returnValues;
+      if (currentSyncState == ELlSyncClientState.SIMULATING) {
+        // a new run without the stop of the earlier one, e.g., after a restart of the host
+        clearDeliveries();
       }
-
       setCurrentSyncState(ELlSyncClientState.SIMULATING);
       boolean returnFlag = executeInit(payloads);
-      return Collections
-          .singletonList((IPayload) new StatusMessage(returnFlag ? StatusCode.OK : StatusCode.NOK));
+      return createReply(new StatusMessage(returnFlag ? StatusCode.OK : StatusCode.NOK));
     }
 
   }
@@ -342,20 +608,13 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
   private class SyncGoRpcRequestCallback extends SyncRpcRequestCallback {
 
     @Override
-    public List<IPayload> handleRequest(RpcHeader header, List<IPayload> payloads) {
+    List<IPayload> processRequest(List<IPayload> payloads) {
       logger.debug("Processing GO RPC request...");
-      List<IPayload> returnValues = super.handleRequest(header, payloads);
-
-      if (returnValues.size() > 0) {
-        //Base class already handles the message
-        return returnValues;
-      }
-
       IPayload returnPayload;
 
       if (currentSyncState == ELlSyncClientState.SIMULATING) {
         long returnVal = executeGo(payloads);
-        returnPayload = new SyncGoReply(returnVal);
+        return createReply(new SyncGoReply(returnVal, requestedStepSize.get()));
       } else {
         returnPayload =
             new ErrorMessage(ErrorMessage.EErrorCode.SYNC_ERROR,
@@ -371,18 +630,12 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
   private class SyncStopRpcRequestCallback extends SyncRpcRequestCallback {
 
     @Override
-    public List<IPayload> handleRequest(RpcHeader header, List<IPayload> payloads) {
+    List<IPayload> processRequest(List<IPayload> payloads) {
       logger.debug("Processing STOP RPC request...");
-      List<IPayload> returnValues = super.handleRequest(header, payloads);
-
-      if (returnValues.size() > 0) {
-        //Base class already handles the message
-        return returnValues;
-      }
-
       IPayload returnPayload;
 
       if (currentSyncState == ELlSyncClientState.SIMULATING) {
+        awaitDeliveries(payloads);
         boolean returnFlag = executeStop();
         returnPayload = new StatusMessage(returnFlag ? StatusCode.OK : StatusCode.NOK);
         setCurrentSyncState(ELlSyncClientState.NOT_REGISTERED);
@@ -399,7 +652,13 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
   }
 
 
-  private abstract class SyncRpcRequestCallback implements IRpcRequestCallback {
+  /**
+   * Base class of the sync request callbacks.
+   *
+   * <p>The callback thread checks the sender and the state of the client. The request is then
+   * processed by the step thread of the service, which replies to the request.
+   */
+  private abstract class SyncRpcRequestCallback implements IRpcAsyncRequestCallback {
 
 
     @Override
@@ -409,7 +668,39 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
     }
 
     @Override
-    public List<IPayload> handleRequest(RpcHeader header, List<IPayload> payloads) {
+    public void handleRequest(RpcHeader header, List<IPayload> payloads,
+                              IRpcReplySender replySender) {
+      List<IPayload> errors = validateRequest(header);
+      if (!errors.isEmpty()) {
+        replySender.sendReply(errors);
+        return;
+      }
+
+      // the sync payloads aren't recycled, only the list is copied for the step thread
+      final List<IPayload> request = new ArrayList<IPayload>(payloads);
+      stepExecutor.execute(() -> {
+        List<IPayload> reply;
+        try {
+          reply = processRequest(request);
+        } catch (RuntimeException ex) {
+          logger.warn("Exception during sync request handling: ", ex);
+          reply = Collections.singletonList((IPayload) new ErrorMessage(
+              ErrorMessage.EErrorCode.PROCESSING_ERROR,
+              "Error during callback handling: " + ex.getMessage()));
+        }
+        replySender.sendReply(reply);
+      });
+    }
+
+    /**
+     * Process a validated sync request by the step thread.
+     *
+     * @param payloads payloads of the request
+     * @return payloads of the reply
+     */
+    abstract List<IPayload> processRequest(List<IPayload> payloads);
+
+    private List<IPayload> validateRequest(RpcHeader header) {
 
       logger.debug("Client handling RPC sync request {}", header.getSubject());
 
@@ -461,7 +752,8 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
 
       RpcSubject
           registeringClientRpcSubject =
-          RpcSubject.getBuilder().addSubjectElement("sync").addSubjectElement("register").build();
+          RpcSubject.getBuilder()
+              .addSubjectElements(SyncSubjects.getSubjectElements(syncDomain, "register")).build();
 
       IRpcRequester
           localRegisteringRequester =
@@ -486,6 +778,36 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
 
   }
 
+  private class DeliveryMsgHandler implements IMessageCallback {
+
+    @Override
+    public void handleMessage(MsgHeader header, List<IPayload> payloads) throws Exception {
+      for (IPayload payload : payloads) {
+        if (!(payload instanceof SyncDeliveryMessage)) {
+          continue;
+        }
+        long execution = lablinkConnection.getCurrentCallbackExecution();
+        synchronized (receivedSequences) {
+          for (Map.Entry<SyncParticipant, Long> received : ((SyncDeliveryMessage) payload)
+              .getSequences().entrySet()) {
+            if (received.getValue() > getReceivedSequence(received.getKey())) {
+              receivedSequences.put(received.getKey(), received.getValue());
+              markerExecutions.put(received.getKey(), execution);
+            }
+          }
+          receivedSequences.notifyAll();
+        }
+      }
+    }
+
+    @Override
+    public void handleError(Header header, List<ErrorMessage> errors) throws Exception {
+      logger.warn("DeliveryMsgHandler received error from {},{}: {}", header.getSourceGroupId(),
+          header.getSourceClientId(), errors);
+    }
+
+  }
+
   private class CloseMsgHandler implements IMessageCallback {
 
 
@@ -493,11 +815,14 @@ public class SyncClientServiceImpl implements ISyncClientService, Runnable {
     public void handleMessage(MsgHeader header, List<IPayload> payloads) throws Exception {
       logger.info("CloseMsg received. Close Sync Client.");
 
-      if (currentSyncState == ELlSyncClientState.SIMULATING) {
-        executeStop();
-      }
+      // a running step is finished before the client is closed
+      stepExecutor.execute(() -> {
+        if (currentSyncState == ELlSyncClientState.SIMULATING) {
+          executeStop();
+        }
 
-      setCurrentSyncState(ELlSyncClientState.NOT_REGISTERED);
+        setCurrentSyncState(ELlSyncClientState.NOT_REGISTERED);
+      });
     }
 
     @Override
@@ -0,0 +1,158 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.consumer.impl;
+
+import at.ac.ait.lablink.core.service.sync.consumer.ISyncConsumer;
+import at.ac.ait.lablink.core.service.sync.ex.SyncServiceRuntimeException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+/**
+ * Executor for the calls of the registered sync consumers.
+ *
+ * <p>Without execution threads the consumers are called one after another by the calling thread.
+ * Otherwise they are called in parallel by a bounded pool of threads, and the calling thread
+ * waits until all consumers are finished. The processing time of every call is measured.
+ */
+class SyncConsumerExecutor {
+
+  private static final Logger logger = LoggerFactory.getLogger(SyncConsumerExecutor.class);
+
+  private final ExecutorService executor;
+  private final Map<ISyncConsumer, Long> durations = new ConcurrentHashMap<ISyncConsumer, Long>();
+
+  /**
+   * Constructor.
+   *
+   * @param numberOfThreads number of threads for calling the consumers in parallel. A value of 0
+   *                        calls the consumers sequentially.
+   */
+  SyncConsumerExecutor(int numberOfThreads) {
+    if (numberOfThreads > 0) {
+      executor = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "SyncConsumer-" + count.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    } else {
+      executor = null;
+    }
+  }
+
+  /**
+   * Call the consumers and collect their results.
+   *
+   * <p>All consumers are called, even if one of them fails. The first exception is thrown after
+   * all consumers are finished.
+   *
+   * @param consumers consumers to be called
+   * @param phase     name of the simulation phase for logging
+   * @param call      call of a consumer
+   * @return the results of the consumers
+   * @throws SyncServiceRuntimeException if the thread is interrupted while waiting.
+   */
+  long[] execute(List<ISyncConsumer> consumers, String phase, ToLongFunction<ISyncConsumer> call) {
+    final ISyncConsumer[] snapshot = consumers.toArray(new ISyncConsumer[0]);
+    long[] results = new long[snapshot.length];
+
+    RuntimeException failure = null;
+    if (executor == null || snapshot.length < 2) {
+      for (int i = 0; i < results.length; i++) {
+        try {
+          results[i] = timedCall(snapshot[i], phase, call);
+        } catch (RuntimeException ex) {
+          if (failure == null) {
+            failure = ex;
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+      return results;
+    }
+
+    List<Future<Long>> futures = new ArrayList<Future<Long>>(snapshot.length);
+    for (final ISyncConsumer consumer : snapshot) {
+      futures.add(executor.submit(() -> timedCall(consumer, phase, call)));
+    }
+
+    for (int i = 0; i < results.length; i++) {
+      try {
+        results[i] = futures.get(i).get();
+      } catch (ExecutionException ex) {
+        if (failure == null) {
+          failure = ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause()
+              : new SyncServiceRuntimeException("Sync consumer failed in " + phase + ".",
+                  ex.getCause());
+        }
+      } catch (InterruptedException ex) {
+        for (Future<Long> future : futures) {
+          future.cancel(true);
+        }
+        Thread.currentThread().interrupt();
+        throw new SyncServiceRuntimeException(
+            "Interrupted while waiting for the sync consumers in " + phase + ".", ex);
+      }
+    }
+
+    if (failure != null) {
+      throw failure;
+    }
+    return results;
+  }
+
+  private long timedCall(ISyncConsumer consumer, String phase, ToLongFunction<ISyncConsumer> call) {
+    final long start = System.nanoTime();
+    try {
+      return call.applyAsLong(consumer);
+    } finally {
+      long duration = System.nanoTime() - start;
+      durations.put(consumer, duration);
+      if (logger.isDebugEnabled()) {
+        logger.debug("Sync consumer {} finished {} in {} us.", consumer, phase, duration / 1000);
+      }
+    }
+  }
+
+  /**
+   * Get the processing times of the last calls of the consumers.
+   *
+   * @return map of the consumers and their processing time in nanoseconds
+   */
+  Map<ISyncConsumer, Long> getDurations() {
+    return Collections.unmodifiableMap(durations);
+  }
+
+  void removeConsumer(ISyncConsumer consumer) {
+    durations.remove(consumer);
+  }
+
+  void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+}
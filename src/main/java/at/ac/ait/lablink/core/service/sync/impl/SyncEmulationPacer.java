@@ -0,0 +1,209 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pacer for the simulation steps in emulation mode.
+ *
+ * <p>The deadlines of the steps are absolute times of {@link System#nanoTime()}, counted from the
+ * start of the pacer. A late step doesn't shift the following deadlines, so the steps don't drift
+ * against the wall clock. Steps that missed their deadline are processed immediately until the
+ * pacer caught up again. The catch-up is bounded: if a stall exceeded more than the maximum
+ * number of catch-up steps, the deadlines are re-anchored to the current time and the passed
+ * deadlines are counted as skipped instead of being processed back-to-back.
+ *
+ * <p>The pacer parks the waiting thread until shortly before the deadline. The remaining time
+ * (spin threshold) is busy-waited to reach an accuracy below the timer resolution of the
+ * operating system. A spin threshold of 0 disables the busy waiting.
+ *
+ * <p>The lateness of every step is recorded in a histogram with logarithmic buckets. The first
+ * bucket counts steps that are less than 1 us late, bucket i counts steps that are less than
+ * 2^i us late, and the last bucket counts all later steps.
+ *
+ * <p>A single thread (the simulation runner) starts the pacer and waits for the deadlines. The
+ * statistics can be read from arbitrary threads.
+ */
+public class SyncEmulationPacer {
+
+  /** Number of buckets of the lateness histogram. */
+  public static final int HISTOGRAM_BUCKETS = 22;
+
+  /** Default maximum number of missed steps that are caught up back-to-back. */
+  public static final int DEFAULT_MAX_CATCH_UP_STEPS = 10;
+
+  private final long spinThreshold;
+  private final long maxCatchUpSteps;
+
+  private boolean started = false;
+  private long nextDeadline;
+
+  private final AtomicLongArray latenessHistogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+  private final AtomicLong steps = new AtomicLong();
+  private final AtomicLong missedDeadlines = new AtomicLong();
+  private final AtomicLong skippedDeadlines = new AtomicLong();
+  private final AtomicLong maxLateness = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param spinThresholdNanos time before a deadline in nanoseconds that is busy-waited instead
+   *                           of parking the thread.
+   */
+  SyncEmulationPacer(long spinThresholdNanos) {
+    this(spinThresholdNanos, DEFAULT_MAX_CATCH_UP_STEPS);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param spinThresholdNanos time before a deadline in nanoseconds that is busy-waited instead
+   *                           of parking the thread.
+   * @param maxCatchUpSteps    maximum number of passed deadlines that are caught up back-to-back
+   *                           after a late step. Further passed deadlines are skipped.
+   */
+  SyncEmulationPacer(long spinThresholdNanos, long maxCatchUpSteps) {
+    this.spinThreshold = Math.max(spinThresholdNanos, 0);
+    this.maxCatchUpSteps = Math.max(maxCatchUpSteps, 0);
+  }
+
+  /**
+   * Start the pacing. The deadline of the first step is calculated from the current time.
+   */
+  void start() {
+    nextDeadline = System.nanoTime();
+    started = true;
+  }
+
+  /**
+   * Stop the pacing, e.g., if the simulation mode changes. The statistics are kept.
+   */
+  void stop() {
+    started = false;
+  }
+
+  boolean isStarted() {
+    return started;
+  }
+
+  /**
+   * Wait until the end of the current step.
+   *
+   * @param stepSizeMs size of the current step in milliseconds of wall clock time
+   * @return the lateness of the step in nanoseconds, which is never negative. A missed deadline
+   *     is counted by {@link #getMissedDeadlines()}.
+   * @throws InterruptedException if the waiting thread is interrupted.
+   */
+  long awaitNextStep(long stepSizeMs) throws InterruptedException {
+    final long stepSize = TimeUnit.MILLISECONDS.toNanos(stepSizeMs);
+    nextDeadline += stepSize;
+    final long deadline = nextDeadline;
+
+    final long now = System.nanoTime();
+    long remaining = deadline - now;
+    if (remaining < 0) {
+      final long lateness = -remaining;
+      missedDeadlines.incrementAndGet();
+      record(lateness);
+
+      // number of the following deadlines that already passed
+      long passed = stepSize > 0 ? lateness / stepSize : 0;
+      if (passed > maxCatchUpSteps) {
+        nextDeadline = now;
+        skippedDeadlines.addAndGet(passed);
+      }
+      return lateness;
+    }
+
+    while (remaining > spinThreshold) {
+      LockSupport.parkNanos(this, remaining - spinThreshold);
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      remaining = deadline - System.nanoTime();
+    }
+    while (remaining > 0) {
+      remaining = deadline - System.nanoTime();
+    }
+
+    long lateness = -remaining;
+    record(lateness);
+    return lateness;
+  }
+
+  private void record(long lateness) {
+    steps.incrementAndGet();
+    latenessHistogram.incrementAndGet(getHistogramBucket(lateness));
+    long max = maxLateness.get();
+    while (lateness > max && !maxLateness.compareAndSet(max, lateness)) {
+      max = maxLateness.get();
+    }
+  }
+
+  static int getHistogramBucket(long latenessNanos) {
+    long micros = TimeUnit.NANOSECONDS.toMicros(latenessNanos);
+    if (micros <= 0) {
+      return 0;
+    }
+    return Math.min(64 - Long.numberOfLeadingZeros(micros), HISTOGRAM_BUCKETS - 1);
+  }
+
+  /**
+   * Get the upper limit of a bucket of the lateness histogram.
+   *
+   * @param bucket index of the bucket
+   * @return the exclusive upper limit of the bucket in microseconds, or Long.MAX_VALUE for the
+   *     last bucket.
+   */
+  public static long getHistogramBucketLimit(int bucket) {
+    return bucket < HISTOGRAM_BUCKETS - 1 ? 1L << bucket : Long.MAX_VALUE;
+  }
+
+  /**
+   * Get the lateness histogram of the paced steps.
+   *
+   * @return copy of the histogram with the number of steps per bucket
+   * @see #getHistogramBucketLimit(int)
+   */
+  public long[] getLatenessHistogram() {
+    long[] histogram = new long[HISTOGRAM_BUCKETS];
+    for (int i = 0; i < histogram.length; i++) {
+      histogram[i] = latenessHistogram.get(i);
+    }
+    return histogram;
+  }
+
+  public long getStepCount() {
+    return steps.get();
+  }
+
+  /**
+   * Get the number of steps whose processing took longer than the step itself.
+   *
+   * @return the number of missed deadlines
+   */
+  public long getMissedDeadlines() {
+    return missedDeadlines.get();
+  }
+
+  /**
+   * Get the number of deadlines that were skipped by re-anchoring the pacer after a stall.
+   *
+   * @return the number of skipped deadlines
+   */
+  public long getSkippedDeadlines() {
+    return skippedDeadlines.get();
+  }
+
+  public long getMaxLatenessNanos() {
+    return maxLateness.get();
+  }
+
+}
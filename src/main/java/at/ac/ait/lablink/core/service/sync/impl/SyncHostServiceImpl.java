@@ -30,28 +30,34 @@ import at.ac.ait.lablink.core.service.sync.SyncConfig;
 import at.ac.ait.lablink.core.service.sync.SyncParticipant;
 import at.ac.ait.lablink.core.service.sync.ex.SyncServiceRuntimeException;
 import at.ac.ait.lablink.core.service.sync.payloads.SyncClientConfigMessage;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncDeliveryMessage;
 import at.ac.ait.lablink.core.service.sync.payloads.SyncGoReply;
 import at.ac.ait.lablink.core.service.sync.payloads.SyncGoRequest;
 import at.ac.ait.lablink.core.service.sync.payloads.SyncParamMessage;
 import at.ac.ait.lablink.core.utility.Utility;
 
+import com.eclipsesource.json.Json;
+
 import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 public class SyncHostServiceImpl implements ISyncHostService {
@@ -59,9 +65,9 @@ public class SyncHostServiceImpl implements ISyncHostService {
   private static Logger logger = LoggerFactory.getLogger(SyncHostServiceImpl.class);
 
   private long syncHelloInterval = 3000;
-  private long simStepAdditionalWait = -1;
-  private long simInitAdditionalWait = -1;
   private long syncRequestTimeout = 30000;
+  private long emulationSpinThreshold = 0;
+  private long emulationMaxCatchUpSteps = SyncEmulationPacer.DEFAULT_MAX_CATCH_UP_STEPS;
 
   private Map<SyncParticipant, ELlClientState>
       participants =
@@ -76,6 +82,10 @@ public class SyncHostServiceImpl implements ISyncHostService {
   private IRpcRequester goRequester;
   private IRpcRequester stopRequester;
 
+  private static final RpcDestination BROADCAST_DESTINATION =
+      RpcDestination.getBuilder(ERpcDestinationChooser.SEND_TO_ALL).build();
+  private static final IPayload STOP_REQUEST = new StatusMessage(StatusMessage.StatusCode.OK);
+
   private long simActualTime;
   private String currentUniqueScenarioId = "undefined";
   private ELlSyncHostState hostState = ELlSyncHostState.STOPPED;
@@ -83,8 +93,32 @@ public class SyncHostServiceImpl implements ISyncHostService {
 
   private ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
   ScheduledFuture executorFuture;
-  private CountDownLatch participantWaitLatch;
+  /* Replies of the participants of the current simulation run */
+  private volatile SyncParticipantBarrier participantBarrier;
+  /* Earliest next simulation time requested by the participants in the current step */
+  private final AtomicLong requestedNextSimTime = new AtomicLong(Long.MAX_VALUE);
+  /* Smallest step size requested by the participants in the current step */
+  private final AtomicLong requestedStepSize = new AtomicLong(Long.MAX_VALUE);
+  /* Version of the sync parameters, incremented with every change during a run */
+  private int parameterVersion = 0;
+  /* Delivery sequences reported by the participants since the last request */
+  private final Map<SyncParticipant, Long> reportedDeliveries =
+      new ConcurrentHashMap<SyncParticipant, Long>();
+  /* Latest delivery sequences of all participants, used by the simulation runner only */
+  private final Map<SyncParticipant, Long> latestDeliveries = new HashMap<SyncParticipant, Long>();
   private final Object hostStateMonitor = new Object();
+  /* Pacer of the steps in emulation mode */
+  private volatile SyncEmulationPacer emulationPacer = new SyncEmulationPacer(0);
+  /* Packet ids of the current and the previous sync request, swapped by beginRequest */
+  private volatile Set<String> currentRequestIds = ConcurrentHashMap.newKeySet();
+  private volatile Set<String> previousRequestIds = ConcurrentHashMap.newKeySet();
+  /* Initialization status of the participants of the current simulation run */
+  private volatile SyncInitStatus initStatus;
+  /* Client config messages of the loaded scenario, created once when the scenario is loaded */
+  private Map<SyncParticipant, IPayload> clientConfigMessages =
+      new HashMap<SyncParticipant, IPayload>();
+  private static final IPayload DEFAULT_CLIENT_CONFIG_MESSAGE =
+      new SyncClientConfigMessage(Json.object().toString());
 
   private static RpcSubject
       registeringClientRpcSubject =
@@ -111,8 +145,16 @@ public class SyncHostServiceImpl implements ISyncHostService {
 
     syncRequestTimeout = config.getLong("syncHost.syncRequestTimeout", syncRequestTimeout);
     syncHelloInterval = config.getLong("syncHost.helloInterval", syncHelloInterval);
-    simStepAdditionalWait = config.getLong("syncHost.simStepAdditionalWait", simStepAdditionalWait);
-    simInitAdditionalWait = config.getLong("syncHost.simInitAdditionalWait", simInitAdditionalWait);
+    emulationSpinThreshold =
+        config.getLong("syncHost.emulationSpinThreshold_us", emulationSpinThreshold);
+    emulationMaxCatchUpSteps =
+        config.getLong("syncHost.emulationMaxCatchUpSteps", emulationMaxCatchUpSteps);
+    if (config.containsKey("syncHost.simStepAdditionalWait")
+        || config.containsKey("syncHost.simInitAdditionalWait")) {
+      logger.warn("The configuration properties syncHost.simStepAdditionalWait and "
+          + "syncHost.simInitAdditionalWait are ignored. Participants confirm the delivery of "
+          + "their messages before a sync step is processed.");
+    }
 
     this.lablinkConnection = lablinkConnection;
 
@@ -120,6 +162,7 @@ public class SyncHostServiceImpl implements ISyncHostService {
     lablinkConnection.registerEncodableFactory(SyncGoReply.class);
     lablinkConnection.registerEncodableFactory(SyncParamMessage.class);
     lablinkConnection.registerEncodableFactory(SyncClientConfigMessage.class);
+    lablinkConnection.registerEncodableFactory(SyncDeliveryMessage.class);
     registerHandlers();
   }
 
@@ -159,6 +202,13 @@ public class SyncHostServiceImpl implements ISyncHostService {
     logger.info("Load scenario '{}' with sync config file: {}", simulationConfig, syncCfgStr);
     syncConfig = SyncConfig.readSyncConfigFromFile(syncCfgStr);
 
+    Map<SyncParticipant, IPayload> configMessages = new HashMap<SyncParticipant, IPayload>();
+    for (Map.Entry<SyncParticipant, String> clientConfig : syncConfig.getClientCfgsJson()
+        .entrySet()) {
+      configMessages
+          .put(clientConfig.getKey(), new SyncClientConfigMessage(clientConfig.getValue()));
+    }
+    clientConfigMessages = configMessages;
   }
 
 
@@ -306,106 +356,150 @@ public class SyncHostServiceImpl implements ISyncHostService {
     @Override
     public void run() {
 
-      participantWaitLatch = new CountDownLatch(participants.size());
-      sendInitRequests();
+      reportedDeliveries.clear();
+      latestDeliveries.clear();
+      final SyncEmulationPacer pacer = new SyncEmulationPacer(
+          TimeUnit.MICROSECONDS.toNanos(emulationSpinThreshold), emulationMaxCatchUpSteps);
+      emulationPacer = pacer;
+      final SyncParticipantBarrier barrier = new SyncParticipantBarrier(participants.keySet());
+      final SyncParticipantSchedule schedule = new SyncParticipantSchedule(barrier, syncConfig);
+      final SyncInitStatus status = new SyncInitStatus(barrier);
+      initStatus = status;
+      participantBarrier = barrier;
+
+      beginRequest(barrier);
+      final long initStart = System.currentTimeMillis();
+      sendInitRequests(barrier, schedule);
 
       try {
-        participantWaitLatch.await(syncRequestTimeout, TimeUnit.MILLISECONDS);
+        barrier.await(syncRequestTimeout);
       } catch (InterruptedException ex) {
         return;
       }
-      checkParticipantsInSimulation();
-
-      if (simInitAdditionalWait > 0) {
-        try {
-          logger.info("Waiting for {} ms after initialization phase", simInitAdditionalWait);
-          Thread.sleep(simInitAdditionalWait);
-        } catch (InterruptedException ex) {
-          return;
-        }
+      if (!checkParticipantsInitialized(status)) {
+        setHostState(ELlSyncHostState.ERROR);
+        return;
       }
+      logger.info("Initialized {} participants in {} ms.", barrier.size(),
+          System.currentTimeMillis() - initStart);
 
       if (logger.isInfoEnabled()) {
         logger.info("Starting " + syncConfig.getSimMode() + ": " + Utility
             .unixToDateStr(syncConfig.getSimBeginTime()) + "-" + Utility
             .unixToDateStr(syncConfig.getSimEndTime()) + ", Step: " + syncConfig.getSimStepSize()
-            + " ms; Scale: " + syncConfig.getSimScaleFactor() + "!");
+            + " ms; Scale: " + syncConfig.getSimScaleFactor()
+            + (syncConfig.isNextEventMode() ? "; Next-event mode" : "")
+            + (syncConfig.isMultiRate() ? "; Multi-rate" : "") + "!");
       }
 
       simActualTime = syncConfig.getSimBeginTime();
+      requestedNextSimTime.set(Long.MAX_VALUE);
+      requestedStepSize.set(Long.MAX_VALUE);
+      parameterVersion = 0;
 
       //WHILE GO
       while (hostState == ELlSyncHostState.SIMULATING) {
 
-        long stepStartTime = System.currentTimeMillis();
-
         if (simActualTime >= syncConfig.getSimEndTime()) {
           logger.info("Finished Simulation");
           break;
         }
 
-        long nextUntil;
+        long stepSizeRequest = requestedStepSize.get();
+        if (syncConfig.updateSyncParameter(simActualTime,
+            stepSizeRequest == Long.MAX_VALUE ? 0 : stepSizeRequest)) {
+          parameterVersion++;
+        }
 
-        if (syncConfig.getSimMode() == ELlSimulationMode.SIMULATION) {
-          nextUntil = syncConfig.getSimStepSize();
-        } else {
-          nextUntil = syncConfig.getSimStepSize() * syncConfig.getSimScaleFactor();
+        if (syncConfig.getSimMode() != ELlSimulationMode.EMULATION) {
+          pacer.stop();
+        } else if (!pacer.isStarted()) {
+          pacer.start();
+        }
+
+        long nextUntil = syncConfig.getNextStepUntil(simActualTime, requestedNextSimTime.get());
+        if (syncConfig.isNextEventMode() && syncConfig.isMultiRate()) {
+          // don't jump over the end of a participant's step
+          nextUntil = Math.min(nextUntil, schedule.getEarliestDueTime(simActualTime));
         }
-        nextUntil += simActualTime;
 
         if (logger.isDebugEnabled()) {
           logger.debug("Processing {}-step (until {}).", syncConfig.getSimMode(),
               Utility.unixToDateStr(nextUntil));
         }
 
-        participantWaitLatch = new CountDownLatch(participants.size());
-
-        syncConfig.updateSyncParameter(simActualTime);
+        beginRequest(barrier);
+        requestedNextSimTime.set(Long.MAX_VALUE);
+        requestedStepSize.set(Long.MAX_VALUE);
 
-        // send GO as broadcast RPC requests
-        sendGoRequests(simActualTime, nextUntil,
+        // send GO to the due participants, the others skip the step
+        schedule.selectDueParticipants(simActualTime, nextUntil);
+        sendGoRequests(barrier, schedule, simActualTime, nextUntil,
             syncConfig.getSimMode() == ELlSimulationMode.SIMULATION ? syncRequestTimeout
                 : (long) ((syncConfig.getSimStepSize()) * 0.9));
 
         try {
           if (syncConfig.getSimMode() == ELlSimulationMode.EMULATION) {
-            Thread.sleep(
-                (syncConfig.getSimStepSize()) - (System.currentTimeMillis() - stepStartTime));
-          } else {
-            participantWaitLatch.await(syncRequestTimeout, TimeUnit.MILLISECONDS);
-            if (simStepAdditionalWait > 0) {
-              Thread.sleep(simStepAdditionalWait);
+            final long missed = pacer.getMissedDeadlines();
+            long lateness = pacer.awaitNextStep(syncConfig.getSimStepSize());
+            if (pacer.getMissedDeadlines() > missed) {
+              logger.warn("Emulation step missed its deadline by {} us.",
+                  TimeUnit.NANOSECONDS.toMicros(lateness));
             }
+          } else {
+            barrier.await(syncRequestTimeout);
           }
         } catch (InterruptedException ex) {
           break;
         }
 
-        checkParticipantsInSimulation();
+        checkParticipantsInSimulation(barrier);
 
         simActualTime = nextUntil;
       }
 
+      if (pacer.getStepCount() > 0) {
+        logger.info("Emulation steps: {}, missed deadlines: {}, skipped deadlines: {}, "
+            + "max. lateness: {} us", pacer.getStepCount(), pacer.getMissedDeadlines(),
+            pacer.getSkippedDeadlines(),
+            TimeUnit.NANOSECONDS.toMicros(pacer.getMaxLatenessNanos()));
+      }
+
       //STOP
-      participantWaitLatch = new CountDownLatch(participants.size());
-      sendStopRequests();
+      beginRequest(barrier);
+      sendStopRequests(barrier);
 
       try {
-        participantWaitLatch.await(syncRequestTimeout, TimeUnit.MILLISECONDS);
+        barrier.await(syncRequestTimeout);
       } catch (InterruptedException ex) {
         return;
       }
-      checkParticipantsInSimulation();
+      checkParticipantsInSimulation(barrier);
 
       setHostState(ELlSyncHostState.STOPPED);
     }
 
-    protected void checkParticipantsInSimulation() {
-      for (Map.Entry<SyncParticipant, ELlClientState> participant : participants
-          .entrySet()) {
-        if (participant.getValue() != ELlClientState.SIMULATING) {
+    private boolean checkParticipantsInitialized(SyncInitStatus status) {
+      status.setPendingFailed("No init reply within " + syncRequestTimeout + " ms.");
+      if (!status.hasFailures()) {
+        return true;
+      }
+      for (Map.Entry<SyncParticipant, String> failure : status.getFailures().entrySet()) {
+        logger.error("Participant {} {} failed to initialize: {}",
+            failure.getKey().getGroupName(), failure.getKey().getClientName(),
+            failure.getValue());
+      }
+      return false;
+    }
+
+    protected void checkParticipantsInSimulation(SyncParticipantBarrier barrier) {
+      if (barrier.getPending() == 0) {
+        return;
+      }
+      for (int i = 0; i < barrier.size(); i++) {
+        if (!barrier.hasArrived(i)) {
           logger.warn("Participant {} {} not finished processing sync step.",
-              participant.getKey().getGroupName(), participant.getKey().getClientName());
+              barrier.getParticipant(i).getGroupName(), barrier.getParticipant(i).getClientName());
         }
       }
     }
@@ -420,70 +514,160 @@ public class SyncHostServiceImpl implements ISyncHostService {
     lablinkConnection.publishMessage(closeSubject, new StatusMessage(StatusMessage.StatusCode.OK));
   }
 
-  private void sendInitRequests() {
-    logger.debug("Sending individual init-requests to clients.");
-
-    for (Map.Entry<SyncParticipant, ELlClientState> participant : participants
-        .entrySet()) {
-
-      RpcDestination initRequestDestination;
-      initRequestDestination =
-          RpcDestination.getBuilder(ERpcDestinationChooser.SEND_TO_CLIENT)
-              .setGroupId(participant.getKey().getGroupName())
-              .setClientId(participant.getKey().getClientName()).build();
-      String clientConfig = syncConfig.getClientCfgsJson(participant.getKey());
-
-      IPayload
-          syncParamMessage =
-          new SyncParamMessage(currentUniqueScenarioId, syncConfig.getSimMode(),
-              syncConfig.getSimBeginTime(), syncConfig.getSimEndTime(),
-              syncConfig.getSimScaleFactor(), syncConfig.getSimStepSize());
-      IPayload clientConfigMessage = new SyncClientConfigMessage(clientConfig);
+  /**
+   * Send the init requests to all participants at once.
+   *
+   * <p>The client config messages are created when the scenario is loaded. The participants with
+   * the same step size share a sync parameter message. The requests are sent and monitored
+   * together, the replies are tracked by the {@link SyncInitStatus} of the run.
+   */
+  private void sendInitRequests(SyncParticipantBarrier barrier, SyncParticipantSchedule schedule) {
+    logger.debug("Sending individual init-requests to {} clients.", barrier.size());
+
+    Map<Long, IPayload> syncParamMessages = new HashMap<Long, IPayload>();
+    List<RpcDestination> destinations = new ArrayList<RpcDestination>(barrier.size());
+    List<List<IPayload>> requests = new ArrayList<List<IPayload>>(barrier.size());
+
+    for (int i = 0; i < barrier.size(); i++) {
+      SyncParticipant participant = barrier.getParticipant(i);
+
+      long stepSize = schedule.getStepSize(i) > 0 ? schedule.getStepSize(i)
+          : syncConfig.getSimStepSize();
+      IPayload syncParamMessage = syncParamMessages.get(stepSize);
+      if (syncParamMessage == null) {
+        syncParamMessage = createSyncParamMessage(stepSize);
+        syncParamMessages.put(stepSize, syncParamMessage);
+      }
 
-      List<IPayload> pl = Arrays.asList(syncParamMessage, clientConfigMessage);
+      IPayload clientConfigMessage = clientConfigMessages.get(participant);
+      if (clientConfigMessage == null) {
+        clientConfigMessage = DEFAULT_CLIENT_CONFIG_MESSAGE;
+      }
 
-      logger.debug("Sending INIT request to " + participant + " with config: {}", syncParamMessage);
-      participant.setValue(ELlClientState.WAITING_FOR_INIT_REPLY);
-      initRequester.sendRequest(initRequestDestination, pl, 1, syncRequestTimeout);
+      destinations.add(schedule.getDestination(i));
+      requests.add(Arrays.asList(syncParamMessage, clientConfigMessage));
     }
+
+    currentRequestIds
+        .addAll(initRequester.sendRequests(destinations, requests, 1, syncRequestTimeout));
   }
 
-  private void sendGoRequests(long actualSimTime, long until, long timeout) {
+  private void sendGoRequests(SyncParticipantBarrier barrier, SyncParticipantSchedule schedule,
+                              long actualSimTime, long until, long timeout) {
     if (logger.isDebugEnabled()) {
       logger.debug("Sending go requests to clients. {}", Utility.unixToDateStr(actualSimTime));
     }
-    RpcDestination
-        goRpcDestination =
-        RpcDestination.getBuilder(ERpcDestinationChooser.SEND_TO_ALL).build();
-    IPayload syncGoRequest = new SyncGoRequest(actualSimTime, until);
-    IPayload
-        syncParamMessage =
-        new SyncParamMessage(currentUniqueScenarioId, syncConfig.getSimMode(),
-            syncConfig.getSimBeginTime(), syncConfig.getSimEndTime(),
-            syncConfig.getSimScaleFactor(), syncConfig.getSimStepSize());
-    List<IPayload> payloads = Arrays.asList(syncGoRequest, syncParamMessage);
-
-    for (Map.Entry<SyncParticipant, ELlClientState> participant : participants
-        .entrySet()) {
-      participant.setValue(ELlClientState.WAITING_FOR_GO_REPLY);
+    SyncDeliveryMessage changedDeliveries = takeReportedDeliveries();
+    SyncDeliveryMessage allDeliveries =
+        syncConfig.isMultiRate() ? getLatestDeliveries() : changedDeliveries;
+
+    boolean parameterUpdate = schedule.hasPendingParameterUpdate(parameterVersion);
+
+    // participants with an own step size need individual parameters
+    if (schedule.isUniformStep() && !(parameterUpdate && syncConfig.isMultiRate())) {
+      IPayload syncGoRequest = new SyncGoRequest(actualSimTime, until);
+      IPayload syncParamMessage =
+          parameterUpdate ? createSyncParamMessage(syncConfig.getSimStepSize()) : null;
+      schedule.setParameterVersion(parameterVersion);
+      currentRequestIds.add(goRequester.sendRequest(BROADCAST_DESTINATION,
+          createRequestPayloads(syncGoRequest, syncParamMessage, allDeliveries), barrier.size(),
+          timeout));
+      return;
+    }
+
+    for (int i = 0; i < barrier.size(); i++) {
+      if (!schedule.isDue(i)) {
+        // participant skips the step
+        barrier.arrive(i);
+        continue;
+      }
+      IPayload syncGoRequest = new SyncGoRequest(actualSimTime, schedule.getUntil(i));
+      IPayload syncParamMessage = null;
+      if (schedule.takeParameterUpdate(i, parameterVersion)) {
+        syncParamMessage = createSyncParamMessage(schedule.getStepSize(i) > 0
+            ? schedule.getStepSize(i) : syncConfig.getSimStepSize());
+      }
+      currentRequestIds.add(goRequester.sendRequest(schedule.getDestination(i),
+          createRequestPayloads(syncGoRequest, syncParamMessage,
+              schedule.isDueEveryStep(i) ? changedDeliveries : allDeliveries), 1, timeout));
     }
-    goRequester.sendRequest(goRpcDestination, syncGoRequest, participants.size(), timeout);
   }
 
-  private void sendStopRequests() {
+  private IPayload createSyncParamMessage(long stepSize) {
+    return new SyncParamMessage(currentUniqueScenarioId, syncConfig.getSimMode(),
+        syncConfig.getSimBeginTime(), syncConfig.getSimEndTime(), syncConfig.getSimScaleFactor(),
+        stepSize);
+  }
+
+  private void sendStopRequests(SyncParticipantBarrier barrier) {
     logger.debug("Sending stop-requests to clients.");
 
-    RpcDestination
-        stopRpcDestination =
-        RpcDestination.getBuilder(ERpcDestinationChooser.SEND_TO_ALL).build();
-    IPayload syncStopRequest = new StatusMessage(StatusMessage.StatusCode.OK);
+    SyncDeliveryMessage changedDeliveries = takeReportedDeliveries();
+    currentRequestIds.add(stopRequester.sendRequest(BROADCAST_DESTINATION,
+        createRequestPayloads(STOP_REQUEST, null,
+            syncConfig.isMultiRate() ? getLatestDeliveries() : changedDeliveries),
+        barrier.size(), syncRequestTimeout));
+  }
 
-    for (Map.Entry<SyncParticipant, ELlClientState> participant : participants
-        .entrySet()) {
-      participant.setValue(ELlClientState.WAITING_FOR_STOP_REPLY);
+  /**
+   * Start a new sync request. The barrier is reset and the packet ids of the previous request are
+   * remembered. Late replies to the previous request (e.g., after a timeout in emulation mode)
+   * are dropped and don't count for the new request. The two id sets are reused for every step.
+   */
+  private void beginRequest(SyncParticipantBarrier barrier) {
+    Set<String> recycled = previousRequestIds;
+    previousRequestIds = currentRequestIds;
+    recycled.clear();
+    currentRequestIds = recycled;
+    barrier.reset();
+  }
+
+  private boolean isStaleReply(RpcHeader header) {
+    return previousRequestIds.contains(header.getPacketId());
+  }
+
+  /**
+   * Take the delivery sequences reported since the last request.
+   *
+   * <p>The participants process a request after they received the messages up to the given
+   * sequences. Participants that receive every request only need the sequences that changed
+   * since their last request.
+   *
+   * @return the changed delivery sequences or null if nothing has been reported.
+   */
+  private SyncDeliveryMessage takeReportedDeliveries() {
+    if (reportedDeliveries.isEmpty()) {
+      return null;
+    }
+
+    Map<SyncParticipant, Long> deliveries = new HashMap<SyncParticipant, Long>(reportedDeliveries);
+    for (Map.Entry<SyncParticipant, Long> delivery : deliveries.entrySet()) {
+      reportedDeliveries.remove(delivery.getKey(), delivery.getValue());
+      latestDeliveries.merge(delivery.getKey(), delivery.getValue(), Math::max);
+    }
+    return new SyncDeliveryMessage(deliveries);
+  }
+
+  /* Delivery sequences of all participants for participants that skipped requests */
+  private SyncDeliveryMessage getLatestDeliveries() {
+    return latestDeliveries.isEmpty() ? null : new SyncDeliveryMessage(latestDeliveries);
+  }
+
+  /* The optional parameter message must directly follow the request */
+  private static List<IPayload> createRequestPayloads(IPayload request, IPayload syncParamMessage,
+                                                      SyncDeliveryMessage deliveries) {
+    if (syncParamMessage == null && deliveries == null) {
+      return Collections.singletonList(request);
+    }
+    List<IPayload> payloads = new ArrayList<IPayload>(3);
+    payloads.add(request);
+    if (syncParamMessage != null) {
+      payloads.add(syncParamMessage);
+    }
+    if (deliveries != null) {
+      payloads.add(deliveries);
     }
-    stopRequester
-        .sendRequest(stopRpcDestination, syncStopRequest, participants.size(), syncRequestTimeout);
+    return payloads;
   }
 
 
@@ -504,17 +688,82 @@ public class SyncHostServiceImpl implements ISyncHostService {
           new SyncParticipant(header.getSourceGroupId(), header.getSourceClientId());
 
       logger.debug("Received SyncSimulation reply  from {}!", sp);
-      participants.put(sp, ELlClientState.SIMULATING);
-      participantWaitLatch.countDown();
+      for (IPayload payload : payloads) {
+        if (payload instanceof SyncDeliveryMessage) {
+          for (Map.Entry<SyncParticipant, Long> delivery : ((SyncDeliveryMessage) payload)
+              .getSequences().entrySet()) {
+            reportedDeliveries.merge(delivery.getKey(), delivery.getValue(), Math::max);
+          }
+        }
+      }
+      if (isStaleReply(header)) {
+        logger.debug("Ignoring late reply to a previous request from {}.", sp);
+        return;
+      }
+      SyncParticipantBarrier barrier = participantBarrier;
+      if (barrier == null || !barrier.arrive(sp)) {
+        logger.debug("Ignoring unexpected or duplicated reply from {}.", sp);
+      }
     }
   }
 
+  /**
+   * Reply handler of the init requests. Failed initializations are recorded in the
+   * {@link SyncInitStatus} of the run, the simulation runner decides after all participants
+   * replied.
+   */
   private class SyncSimInitReply extends SyncSimulationRpcReply {
 
     @Override
     public void handleReply(RpcHeader header, List<IPayload> payloads) {
+      for (IPayload payload : payloads) {
+        if (payload instanceof StatusMessage
+            && ((StatusMessage) payload).getStatusCode() != StatusMessage.StatusCode.OK) {
+          setInitFailed(
+              new SyncParticipant(header.getSourceGroupId(), header.getSourceClientId()),
+              "Participant reported a failed initialization.");
+        }
+      }
       super.handleReply(header, payloads);
     }
+
+    @Override
+    public void handleError(Header header, List<ErrorMessage> errors) throws Exception {
+      SyncParticipant
+          sp =
+          new SyncParticipant(header.getSourceGroupId(), header.getSourceClientId());
+      if (header instanceof RpcHeader && isLocalParticipant(sp)) {
+        // errors of the requester itself (e.g., timeouts) address the destination
+        sp = new SyncParticipant(((RpcHeader) header).getDestinationGroupId(),
+            ((RpcHeader) header).getDestinationClientId());
+      }
+
+      StringBuilder reason = new StringBuilder();
+      for (ErrorMessage error : errors) {
+        reason.append(error.getErrorCode()).append(": ").append(error.getMessage()).append(' ');
+      }
+      if (!setInitFailed(sp, reason.toString().trim())) {
+        logger.debug("Ignoring unexpected init error from {}: {}", sp, errors);
+        return;
+      }
+
+      SyncParticipantBarrier barrier = participantBarrier;
+      if (barrier != null) {
+        barrier.arrive(sp);
+      }
+    }
+
+    private boolean setInitFailed(SyncParticipant participant, String reason) {
+      SyncInitStatus status = initStatus;
+      return status != null && status.setFailed(participant, reason);
+    }
+
+    private boolean isLocalParticipant(SyncParticipant participant) {
+      return participant.getGroupName()
+          .equals(lablinkConnection.getClientIdentifier().getGroupId())
+          && participant.getClientName()
+          .equals(lablinkConnection.getClientIdentifier().getClientId());
+    }
   }
 
 
@@ -522,6 +771,16 @@ public class SyncHostServiceImpl implements ISyncHostService {
 
     @Override
     public void handleReply(RpcHeader header, List<IPayload> payloads) {
+      for (IPayload payload : payloads) {
+        if (payload instanceof SyncGoReply && !isStaleReply(header)) {
+          long nextSimTime = ((SyncGoReply) payload).getNextSimTime();
+          requestedNextSimTime.accumulateAndGet(nextSimTime, Math::min);
+          long stepSize = ((SyncGoReply) payload).getRequestedStepSize();
+          if (stepSize > 0) {
+            requestedStepSize.accumulateAndGet(stepSize, Math::min);
+          }
+        }
+      }
       super.handleReply(header, payloads);
     }
   }
@@ -673,6 +932,28 @@ public class SyncHostServiceImpl implements ISyncHostService {
     return participants.keySet();
   }
 
+  /**
+   * Get the pacer of the current or last simulation run.
+   *
+   * <p>The pacer provides the statistics of the steps in emulation mode, i.e., the lateness
+   * histogram and the number of missed deadlines.
+   *
+   * @return the pacer of the emulation steps
+   */
+  public SyncEmulationPacer getEmulationPacer() {
+    return emulationPacer;
+  }
+
+  /**
+   * Get the participants whose initialization failed in the current or last simulation run.
+   *
+   * @return map of the failed participants and the reasons of their failure
+   */
+  public Map<SyncParticipant, String> getInitFailures() {
+    SyncInitStatus status = initStatus;
+    return status != null ? status.getFailures() : Collections.<SyncParticipant, String>emptyMap();
+  }
+
   public void setSyncHostNotifier(ISyncHostNotifier syncHostNotifier) {
     this.syncHostNotifier = syncHostNotifier;
   }
@@ -0,0 +1,95 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.impl;
+
+import at.ac.ait.lablink.core.service.sync.SyncParticipant;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Initialization status of the participants of a simulation run.
+ *
+ * <p>A participant completed its initialization when it arrived at the
+ * {@link SyncParticipantBarrier} of the run. The status keeps the reason of every participant
+ * whose initialization failed, e.g., an error reply, a NOK status or a missing reply. Only the
+ * first reason of a participant is kept. The failures are set from arbitrary threads.
+ */
+class SyncInitStatus {
+
+  private final SyncParticipantBarrier barrier;
+  private final AtomicReferenceArray<String> failures;
+
+  /**
+   * Constructor.
+   *
+   * @param barrier barrier of the participants of the simulation run
+   */
+  SyncInitStatus(SyncParticipantBarrier barrier) {
+    this.barrier = barrier;
+    this.failures = new AtomicReferenceArray<String>(barrier.size());
+  }
+
+  /**
+   * Mark the initialization of a participant as failed.
+   *
+   * @param participant participant that failed
+   * @param reason      reason of the failure
+   * @return false if the participant isn't part of the simulation run
+   */
+  boolean setFailed(SyncParticipant participant, String reason) {
+    int index = barrier.indexOf(participant);
+    if (index < 0) {
+      return false;
+    }
+    setFailed(index, reason);
+    return true;
+  }
+
+  void setFailed(int index, String reason) {
+    failures.compareAndSet(index, null, reason);
+  }
+
+  /**
+   * Mark all participants that haven't replied as failed.
+   *
+   * @param reason reason of the failure
+   */
+  void setPendingFailed(String reason) {
+    for (int i = 0; i < barrier.size(); i++) {
+      if (!barrier.hasArrived(i)) {
+        setFailed(i, reason);
+      }
+    }
+  }
+
+  boolean hasFailures() {
+    for (int i = 0; i < failures.length(); i++) {
+      if (failures.get(i) != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get the failed participants.
+   *
+   * @return map of the failed participants and the reasons of their failure
+   */
+  Map<SyncParticipant, String> getFailures() {
+    Map<SyncParticipant, String> failed = new LinkedHashMap<SyncParticipant, String>();
+    for (int i = 0; i < failures.length(); i++) {
+      String reason = failures.get(i);
+      if (reason != null) {
+        failed.put(barrier.getParticipant(i), reason);
+      }
+    }
+    return Collections.unmodifiableMap(failed);
+  }
+}
@@ -0,0 +1,161 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.impl;
+
+import at.ac.ait.lablink.core.service.sync.SyncParticipant;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reusable barrier for the replies of sync participants.
+ *
+ * <p>The barrier is created once per simulation run for a fixed set of participants. The
+ * participants are addressed by their index. Every sync request starts a new generation of the
+ * barrier with {@link #reset()}. A participant arrives at most once per generation, duplicated
+ * replies are ignored. Resetting, arriving and waiting don't allocate objects.
+ *
+ * <p>A single thread (the simulation runner) resets the barrier and waits for it, while the
+ * participants arrive from arbitrary threads.
+ */
+class SyncParticipantBarrier {
+
+  private final SyncParticipant[] participants;
+  private final Map<SyncParticipant, Integer> indices;
+
+  /* Generation of the last arrival of every participant */
+  private final AtomicIntegerArray arrivals;
+  /* Generation (upper 32 bits) and number of pending participants (lower 32 bits) */
+  private final AtomicLong state = new AtomicLong();
+  private volatile Thread waiter;
+
+  /**
+   * Constructor.
+   *
+   * @param participants participants of the simulation run
+   */
+  SyncParticipantBarrier(Collection<SyncParticipant> participants) {
+    this.participants = participants.toArray(new SyncParticipant[0]);
+    this.indices = new HashMap<SyncParticipant, Integer>(this.participants.length * 2);
+    for (int i = 0; i < this.participants.length; i++) {
+      indices.put(this.participants[i], i);
+    }
+    this.arrivals = new AtomicIntegerArray(this.participants.length);
+  }
+
+  int size() {
+    return participants.length;
+  }
+
+  SyncParticipant getParticipant(int index) {
+    return participants[index];
+  }
+
+  /**
+   * Get the index of a participant.
+   *
+   * @param participant participant to be looked up
+   * @return the index of the participant or -1 if it isn't part of the barrier.
+   */
+  int indexOf(SyncParticipant participant) {
+    Integer index = indices.get(participant);
+    return index != null ? index : -1;
+  }
+
+  /**
+   * Start a new generation of the barrier. None of the participants has arrived afterwards.
+   */
+  void reset() {
+    // generation and pending count change together, a late arrival of the previous generation
+    // can't decrement the pending count of the new one
+    state.set(((long) (getGeneration() + 1) << 32) | participants.length);
+  }
+
+  private int getGeneration() {
+    return (int) (state.get() >>> 32);
+  }
+
+  /**
+   * Mark a participant as arrived in the current generation.
+   *
+   * @param participant participant that arrived
+   * @return true, if the participant is part of the barrier and hasn't arrived yet.
+   */
+  boolean arrive(SyncParticipant participant) {
+    int index = indexOf(participant);
+    return index >= 0 && arrive(index);
+  }
+
+  /**
+   * Mark a participant as arrived in the current generation.
+   *
+   * @param index index of the participant that arrived
+   * @return true, if the participant hasn't arrived yet.
+   */
+  boolean arrive(int index) {
+    int current = getGeneration();
+    if (arrivals.getAndSet(index, current) == current) {
+      return false;
+    }
+
+    long currentState;
+    do {
+      currentState = state.get();
+      if ((int) (currentState >>> 32) != current) {
+        // the barrier has been reset in the meantime, the arrival belongs to an old generation
+        return false;
+      }
+    } while (!state.compareAndSet(currentState, currentState - 1));
+
+    if ((int) (currentState - 1) == 0) {
+      Thread waitingThread = waiter;
+      if (waitingThread != null) {
+        LockSupport.unpark(waitingThread);
+      }
+    }
+    return true;
+  }
+
+  boolean hasArrived(int index) {
+    return arrivals.get(index) == getGeneration();
+  }
+
+  int getPending() {
+    return (int) state.get();
+  }
+
+  /**
+   * Wait until all participants arrived in the current generation.
+   *
+   * @param timeoutMs maximum time to wait in milliseconds
+   * @return true, if all participants arrived, false if the timeout elapsed.
+   * @throws InterruptedException if the waiting thread is interrupted.
+   */
+  boolean await(long timeoutMs) throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    waiter = Thread.currentThread();
+    try {
+      while (getPending() > 0) {
+        if (Thread.interrupted()) {
+          throw new InterruptedException();
+        }
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+        LockSupport.parkNanos(this, remaining);
+      }
+      return true;
+    } finally {
+      waiter = null;
+    }
+  }
+}
@@ -0,0 +1,172 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.impl;
+
+import at.ac.ait.lablink.core.connection.topic.RpcDestination;
+import at.ac.ait.lablink.core.connection.topic.RpcDestination.ERpcDestinationChooser;
+import at.ac.ait.lablink.core.service.sync.SyncConfig;
+import at.ac.ait.lablink.core.service.sync.SyncParticipant;
+
+import java.util.Arrays;
+
+/**
+ * Schedule of the participants of a simulation run.
+ *
+ * <p>Participants with an own step size (see {@link SyncConfig#getClientStepSize}) are only due
+ * when their previous step has ended. Other participants are due in every step. The schedule
+ * uses the participant indices of the {@link SyncParticipantBarrier} of the run. Selecting the due
+ * participants of a step doesn't allocate objects.
+ */
+class SyncParticipantSchedule {
+
+  private final SyncConfig config;
+  private final long[] stepSizes;
+  private final long[] nextDueTimes;
+  private final long[] untilTimes;
+  private final boolean[] due;
+  private final RpcDestination[] destinations;
+  /* Version of the sync parameters the participants received last */
+  private final int[] parameterVersions;
+
+  private int dueCount;
+  private boolean commonUntil;
+
+  /**
+   * Constructor.
+   *
+   * @param barrier barrier of the participants of the simulation run
+   * @param config  configuration of the simulation run
+   */
+  SyncParticipantSchedule(SyncParticipantBarrier barrier, SyncConfig config) {
+    this.config = config;
+
+    int size = barrier.size();
+    stepSizes = new long[size];
+    nextDueTimes = new long[size];
+    untilTimes = new long[size];
+    due = new boolean[size];
+    destinations = new RpcDestination[size];
+    parameterVersions = new int[size];
+    Arrays.fill(nextDueTimes, Long.MIN_VALUE);
+
+    for (int i = 0; i < size; i++) {
+      SyncParticipant participant = barrier.getParticipant(i);
+      stepSizes[i] = config.getClientStepSize(participant);
+      destinations[i] = RpcDestination.getBuilder(ERpcDestinationChooser.SEND_TO_CLIENT)
+          .setGroupId(participant.getGroupName()).setClientId(participant.getClientName())
+          .build();
+    }
+  }
+
+  /**
+   * Get the earliest time when a participant that isn't due at the given time becomes due.
+   *
+   * @param simActualTime current simulation time
+   * @return the earliest due time after the current time or {@link Long#MAX_VALUE}.
+   */
+  long getEarliestDueTime(long simActualTime) {
+    long earliest = Long.MAX_VALUE;
+    for (long nextDueTime : nextDueTimes) {
+      if (nextDueTime > simActualTime && nextDueTime < earliest) {
+        earliest = nextDueTime;
+      }
+    }
+    return earliest;
+  }
+
+  /**
+   * Select the participants that are due in the current step and calculate their step ends.
+   *
+   * @param simActualTime current simulation time
+   * @param stepUntil     simulation time until which the current step is processed
+   * @return the number of due participants
+   */
+  int selectDueParticipants(long simActualTime, long stepUntil) {
+    dueCount = 0;
+    commonUntil = true;
+    for (int i = 0; i < due.length; i++) {
+      due[i] = nextDueTimes[i] <= simActualTime;
+      if (due[i]) {
+        long until = config.getClientStepUntil(stepSizes[i], simActualTime, stepUntil);
+        untilTimes[i] = until;
+        nextDueTimes[i] = until;
+        commonUntil &= until == stepUntil;
+        dueCount++;
+      }
+    }
+    return dueCount;
+  }
+
+  boolean isDue(int index) {
+    return due[index];
+  }
+
+  /**
+   * Check if all participants are due with the same step end. The go request can be broadcast to
+   * all participants in this case.
+   *
+   * @return true, if all participants are due until the end of the step.
+   */
+  boolean isUniformStep() {
+    return dueCount == due.length && commonUntil;
+  }
+
+  long getUntil(int index) {
+    return untilTimes[index];
+  }
+
+  /**
+   * Check if the participant receives every go request of the run.
+   *
+   * @param index index of the participant
+   * @return true, if the participant doesn't have an own step size.
+   */
+  boolean isDueEveryStep(int index) {
+    return stepSizes[index] <= 0;
+  }
+
+  RpcDestination getDestination(int index) {
+    return destinations[index];
+  }
+
+  long getStepSize(int index) {
+    return stepSizes[index];
+  }
+
+  /**
+   * Check if a participant didn't receive the given version of the sync parameters yet.
+   *
+   * @param version current version of the sync parameters
+   * @return true, if at least one participant has an older version.
+   */
+  boolean hasPendingParameterUpdate(int version) {
+    for (int parameterVersion : parameterVersions) {
+      if (parameterVersion < version) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Mark the given version of the sync parameters as sent to a participant.
+   *
+   * @param index   index of the participant
+   * @param version current version of the sync parameters
+   * @return true, if the participant had an older version before.
+   */
+  boolean takeParameterUpdate(int index, int version) {
+    if (parameterVersions[index] >= version) {
+      return false;
+    }
+    parameterVersions[index] = version;
+    return true;
+  }
+
+  void setParameterVersion(int version) {
+    Arrays.fill(parameterVersions, version);
+  }
+}
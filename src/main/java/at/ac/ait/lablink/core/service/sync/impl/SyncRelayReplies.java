@@ -0,0 +1,140 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.impl;
+
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.payloads.ErrorMessage;
+import at.ac.ait.lablink.core.payloads.StatusMessage;
+import at.ac.ait.lablink.core.service.sync.SyncParticipant;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncDeliveryMessage;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncGoReply;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregation of the replies of the participants of a sync relay.
+ *
+ * <p>The replies of a sync request are combined into a single reply for the parent sync host:
+ * the earliest requested next simulation time, the smallest requested step size, the delivery
+ * sequences of all participants and the combined status. The replies are added from arbitrary
+ * threads, while {@link #reset()} and the creation of the combined reply are called by the thread
+ * that forwards the request.
+ */
+class SyncRelayReplies {
+
+  private final AtomicLong nextSimTime = new AtomicLong(Long.MAX_VALUE);
+  private final AtomicLong requestedStepSize = new AtomicLong(Long.MAX_VALUE);
+  private final Map<SyncParticipant, Long> deliveries =
+      new ConcurrentHashMap<SyncParticipant, Long>();
+  private volatile boolean allOk = true;
+  private volatile String error = null;
+
+  /**
+   * Prepare the aggregation of the replies of a new request.
+   */
+  void reset() {
+    nextSimTime.set(Long.MAX_VALUE);
+    requestedStepSize.set(Long.MAX_VALUE);
+    deliveries.clear();
+    allOk = true;
+    error = null;
+  }
+
+  /**
+   * Add the payloads of a reply.
+   *
+   * @param payloads payloads of the reply
+   */
+  void addReply(List<IPayload> payloads) {
+    for (IPayload payload : payloads) {
+      if (payload instanceof SyncGoReply) {
+        SyncGoReply goReply = (SyncGoReply) payload;
+        nextSimTime.accumulateAndGet(goReply.getNextSimTime(), Math::min);
+        if (goReply.getRequestedStepSize() > 0) {
+          requestedStepSize.accumulateAndGet(goReply.getRequestedStepSize(), Math::min);
+        }
+      } else if (payload instanceof StatusMessage) {
+        if (((StatusMessage) payload).getStatusCode() != StatusMessage.StatusCode.OK) {
+          allOk = false;
+        }
+      } else if (payload instanceof SyncDeliveryMessage) {
+        for (Map.Entry<SyncParticipant, Long> delivery : ((SyncDeliveryMessage) payload)
+            .getSequences().entrySet()) {
+          deliveries.merge(delivery.getKey(), delivery.getValue(), Math::max);
+        }
+      }
+    }
+  }
+
+  /**
+   * Add the errors of a reply.
+   *
+   * @param participant participant that sent the errors
+   * @param errors      received errors
+   */
+  void addErrors(SyncParticipant participant, List<ErrorMessage> errors) {
+    allOk = false;
+    if (error == null) {
+      error = "Participant " + participant + " reported errors: " + errors;
+    }
+  }
+
+  /**
+   * Mark the combined status as failed, e.g., if a participant didn't reply in time.
+   */
+  void setFailed() {
+    allOk = false;
+  }
+
+  /**
+   * Create the combined reply of a go request.
+   *
+   * @param defaultNextSimTime next simulation time if no participant requested one
+   * @return the payloads of the combined reply
+   */
+  List<IPayload> createGoReply(long defaultNextSimTime) {
+    if (error != null) {
+      return createErrorReply();
+    }
+    long next = nextSimTime.get();
+    long stepSize = requestedStepSize.get();
+    return withDeliveries(new SyncGoReply(next != Long.MAX_VALUE ? next : defaultNextSimTime,
+        stepSize != Long.MAX_VALUE ? stepSize : 0));
+  }
+
+  /**
+   * Create the combined reply of an init or stop request.
+   *
+   * @return the payloads of the combined reply
+   */
+  List<IPayload> createStatusReply() {
+    if (error != null) {
+      return createErrorReply();
+    }
+    return withDeliveries(
+        new StatusMessage(allOk ? StatusMessage.StatusCode.OK : StatusMessage.StatusCode.NOK));
+  }
+
+  private List<IPayload> createErrorReply() {
+    return Collections.singletonList(
+        (IPayload) new ErrorMessage(ErrorMessage.EErrorCode.SYNC_ERROR, error));
+  }
+
+  private List<IPayload> withDeliveries(IPayload reply) {
+    if (deliveries.isEmpty()) {
+      return Collections.singletonList(reply);
+    }
+    List<IPayload> payloads = new ArrayList<IPayload>(2);
+    payloads.add(reply);
+    payloads.add(new SyncDeliveryMessage(deliveries));
+    return payloads;
+  }
+}
@@ -0,0 +1,611 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.impl;
+
+import at.ac.ait.lablink.core.connection.ILlConnection;
+import at.ac.ait.lablink.core.connection.encoding.encodables.Header;
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.connection.messaging.IMessageCallback;
+import at.ac.ait.lablink.core.connection.messaging.MsgHeader;
+import at.ac.ait.lablink.core.connection.rpc.IRpcRequester;
+import at.ac.ait.lablink.core.connection.rpc.RpcHeader;
+import at.ac.ait.lablink.core.connection.rpc.reply.IRpcReplyCallback;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcAsyncRequestCallback;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcReplySender;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcRequestCallback;
+import at.ac.ait.lablink.core.connection.topic.MsgSubject;
+import at.ac.ait.lablink.core.connection.topic.MsgSubscription;
+import at.ac.ait.lablink.core.connection.topic.RpcDestination;
+import at.ac.ait.lablink.core.connection.topic.RpcDestination.ERpcDestinationChooser;
+import at.ac.ait.lablink.core.connection.topic.RpcSubject;
+import at.ac.ait.lablink.core.payloads.ErrorMessage;
+import at.ac.ait.lablink.core.payloads.StatusMessage;
+import at.ac.ait.lablink.core.service.sync.ELlClientState;
+import at.ac.ait.lablink.core.service.sync.ELlSimulationMode;
+import at.ac.ait.lablink.core.service.sync.ISyncRelayService;
+import at.ac.ait.lablink.core.service.sync.SyncConfig;
+import at.ac.ait.lablink.core.service.sync.SyncParticipant;
+import at.ac.ait.lablink.core.service.sync.SyncSubjects;
+import at.ac.ait.lablink.core.service.sync.ex.SyncServiceRuntimeException;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncClientConfigMessage;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncDeliveryMessage;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncGoReply;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncGoRequest;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncParamMessage;
+
+import com.eclipsesource.json.Json;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of a sync relay for hierarchical synchronization.
+ *
+ * <p>The relay is a sync host for the participants of its sync domain and a single participant
+ * for its parent sync host. The participants of the domain are configured with the property
+ * <code>syncClient.syncDomain</code> and register at the relay instead of the root sync host. The
+ * relay forwards the init, go and stop requests of the parent host to its participants and
+ * combines their replies into one reply: the earliest requested next simulation time, the
+ * smallest requested step size, the delivery sequences of all participants and the combined
+ * status. Errors of a participant are forwarded to the parent host. With several relays the root
+ * sync host receives one reply per relay instead of one reply per participant.
+ *
+ * <p>The parent host configures the relay like a client. The participants of the domain are
+ * listed in the <code>Parameter</code> object of the relay with the element
+ * <code>requiredClients</code>, in the same format as in the sync configuration file. The relay
+ * waits for these participants before it forwards the init request. Participants with an own
+ * step size aren't supported within a domain.
+ *
+ * <p>The requests of the parent host are forwarded by an own thread of the relay and replied
+ * asynchronously ({@link IRpcAsyncRequestCallback}), so the callback threads of the connection
+ * stay available for the replies of the participants. The replies are matched with the
+ * forwarded requests by their packet identifier. Late replies to an earlier request are
+ * ignored. The following configuration properties are read:
+ * <ul>
+ * <li><b>syncRelay.domain</b> (String): Sync domain of the participants of the relay. The
+ * property is required.</li>
+ * <li><b>syncRelay.parentDomain</b> (empty, String): Sync domain of the parent host. Without a
+ * domain the parent is the root sync host. Relays can be nested with this property.</li>
+ * <li><b>syncRelay.helloInterval</b> (3000, long): Interval in milliseconds of the hello
+ * messages for the participants of the domain.</li>
+ * <li><b>syncRelay.syncRequestTimeout</b> (25000, long): Maximum time in milliseconds to wait for
+ * the replies of the participants. It must be smaller than the timeout of the parent host
+ * (<code>syncHost.syncRequestTimeout</code>, 30000), so that the relay replies before the parent
+ * gives up. Nested relays need a smaller timeout on every level. In emulation mode a go request
+ * waits at most 80 percent of the step size, the parent host waits 90 percent.</li>
+ * <li><b>syncRelay.registeringTimeout</b> (10000, long): Maximum time in milliseconds to wait for
+ * the registration of the required participants when the simulation is initialized. The waiting
+ * is part of the <code>syncRelay.syncRequestTimeout</code> of the init request, the replies of
+ * the participants are awaited for the remaining time.</li>
+ * </ul>
+ */
+public class SyncRelayServiceImpl implements ISyncRelayService {
+
+  private static Logger logger = LoggerFactory.getLogger(SyncRelayServiceImpl.class);
+
+  private static final RpcDestination BROADCAST_DESTINATION =
+      RpcDestination.getBuilder(ERpcDestinationChooser.SEND_TO_ALL).build();
+
+  private final ILlConnection lablinkConnection;
+  private final String domain;
+  private final String parentDomain;
+
+  private long syncHelloInterval = 3000;
+  private long syncRequestTimeout = 25000;
+  private long registeringTimeout = 10000;
+
+  private final Map<SyncParticipant, ELlClientState> participants =
+      new ConcurrentHashMap<SyncParticipant, ELlClientState>();
+
+  private IRpcRequester initRequester;
+  private IRpcRequester goRequester;
+  private IRpcRequester stopRequester;
+  private IRpcRequester registeringRequester;
+
+  private volatile SyncParticipant parentHost;
+  private volatile boolean simulating = false;
+  /* Replies of the participants of the current simulation run */
+  private volatile SyncParticipantBarrier participantBarrier;
+  private final SyncRelayReplies replies = new SyncRelayReplies();
+  private long stepSize;
+  private ELlSimulationMode simMode = ELlSimulationMode.SIMULATION;
+  /* Packet ids of the requests forwarded for the current parent request, guarded by itself */
+  private final Set<String> forwardedRequestIds = new HashSet<String>();
+
+  private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+  /* Thread that forwards the requests of the parent host one after another */
+  private final ExecutorService forwardExecutor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "SyncRelayForward");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Constructor.
+   *
+   * @param lablinkConnection Lablink connection object that will be used by the service.
+   * @param config            Configuration that will be used by the service.
+   */
+  public SyncRelayServiceImpl(ILlConnection lablinkConnection, Configuration config) {
+
+    if (config == null) {
+      logger.info("No configuration set. Use default values");
+      config = new BaseConfiguration();
+    }
+
+    domain = config.getString("syncRelay.domain", "");
+    parentDomain = config.getString("syncRelay.parentDomain", "");
+    if (domain.isEmpty()) {
+      throw new SyncServiceRuntimeException("No sync domain for the relay configured.");
+    }
+    if (domain.equals(parentDomain)) {
+      throw new SyncServiceRuntimeException(
+          "Sync domain of the relay is the same as the domain of its parent.");
+    }
+
+    syncHelloInterval = config.getLong("syncRelay.helloInterval", syncHelloInterval);
+    syncRequestTimeout = config.getLong("syncRelay.syncRequestTimeout", syncRequestTimeout);
+    registeringTimeout = config.getLong("syncRelay.registeringTimeout", registeringTimeout);
+
+    this.lablinkConnection = lablinkConnection;
+
+    lablinkConnection.registerEncodableFactory(SyncGoRequest.class);
+    lablinkConnection.registerEncodableFactory(SyncGoReply.class);
+    lablinkConnection.registerEncodableFactory(SyncParamMessage.class);
+    lablinkConnection.registerEncodableFactory(SyncClientConfigMessage.class);
+    lablinkConnection.registerEncodableFactory(SyncDeliveryMessage.class);
+    registerHandlers();
+  }
+
+  private void registerHandlers() {
+    logger.info("Registering necessary sync relay handlers for domain {}...", domain);
+
+    // Participants of the domain
+    lablinkConnection.registerRequestHandler(
+        RpcSubject.getBuilder().addSubjectElements(SyncSubjects.getSubjectElements(domain,
+            "register")).build(), new RegisterClientRequestHandler());
+
+    initRequester = lablinkConnection.registerReplyHandler(RpcSubject.getBuilder()
+        .addSubjectElements(SyncSubjects.getSubjectElements(domain, "init")).build(),
+        new ParticipantReplyCallback());
+    goRequester = lablinkConnection.registerReplyHandler(RpcSubject.getBuilder()
+        .addSubjectElements(SyncSubjects.getSubjectElements(domain, "go")).build(),
+        new ParticipantReplyCallback());
+    stopRequester = lablinkConnection.registerReplyHandler(RpcSubject.getBuilder()
+        .addSubjectElements(SyncSubjects.getSubjectElements(domain, "stop")).build(),
+        new ParticipantReplyCallback());
+
+    // Parent host
+    lablinkConnection.registerMessageHandler(
+        MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_ALL)
+            .addSubjectElements(SyncSubjects.getSubjectElements(parentDomain, "hello")).build(),
+        new ParentHelloMsgHandler());
+    lablinkConnection.registerMessageHandler(
+        MsgSubscription.getBuilder(MsgSubscription.EMsgSourceChooser.RECEIVE_FROM_ALL)
+            .addSubjectElements(SyncSubjects.getSubjectElements(parentDomain, "close")).build(),
+        new ParentCloseMsgHandler());
+
+    registeringRequester = lablinkConnection.registerReplyHandler(RpcSubject.getBuilder()
+        .addSubjectElements(SyncSubjects.getSubjectElements(parentDomain, "register")).build(),
+        new ParentRegisteringReplyHandler());
+
+    lablinkConnection.registerRequestHandler(RpcSubject.getBuilder()
+        .addSubjectElements(SyncSubjects.getSubjectElements(parentDomain, "init")).build(),
+        new ParentInitRequestCallback());
+    lablinkConnection.registerRequestHandler(RpcSubject.getBuilder()
+        .addSubjectElements(SyncSubjects.getSubjectElements(parentDomain, "go")).build(),
+        new ParentGoRequestCallback());
+    lablinkConnection.registerRequestHandler(RpcSubject.getBuilder()
+        .addSubjectElements(SyncSubjects.getSubjectElements(parentDomain, "stop")).build(),
+        new ParentStopRequestCallback());
+  }
+
+  @Override
+  public void start() {
+    final MsgSubject helloSubject = MsgSubject.getBuilder()
+        .addSubjectElements(SyncSubjects.getSubjectElements(domain, "hello")).build();
+
+    executor.scheduleWithFixedDelay(() -> {
+      if (!simulating) {
+        lablinkConnection
+            .publishMessage(helloSubject, new StatusMessage(StatusMessage.StatusCode.OK));
+      }
+    }, 0, syncHelloInterval, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void shutdown() {
+    logger.info("Shutdown");
+
+    executor.shutdownNow();
+    forwardExecutor.shutdownNow();
+    publishCloseMessage();
+    reset();
+  }
+
+  @Override
+  public Collection<SyncParticipant> getRegisteredClients() {
+    return participants.keySet();
+  }
+
+  private void publishCloseMessage() {
+    logger.debug("Send close message to domain {}", domain);
+    MsgSubject closeSubject = MsgSubject.getBuilder()
+        .addSubjectElements(SyncSubjects.getSubjectElements(domain, "close")).build();
+
+    lablinkConnection.publishMessage(closeSubject, new StatusMessage(StatusMessage.StatusCode.OK));
+  }
+
+  /* After a simulation run the participants register again */
+  private void reset() {
+    simulating = false;
+    parentHost = null;
+    participantBarrier = null;
+    participants.clear();
+  }
+
+  /* The forward methods are called by the forward thread only */
+  private List<IPayload> forwardInit(List<IPayload> payloads) {
+    if (payloads.size() < 2 || !(payloads.get(0) instanceof SyncParamMessage)
+        || !(payloads.get(1) instanceof SyncClientConfigMessage)) {
+      throw new SyncServiceRuntimeException("Unexpected payloads " + payloads
+          + " for an init request.");
+    }
+    SyncParamMessage syncParamMessage = (SyncParamMessage) payloads.get(0);
+    stepSize = syncParamMessage.getStepSize();
+    simMode = syncParamMessage.getSimMode();
+
+    // registration and init replies share one deadline, the relay replies before the parent
+    final long deadline = System.currentTimeMillis() + syncRequestTimeout;
+    Map<SyncParticipant, String> clientConfigs = SyncConfig
+        .readRequiredClientConfigs(((SyncClientConfigMessage) payloads.get(1)).getClientConfig());
+    final boolean complete = awaitRequiredClients(clientConfigs.keySet(),
+        Math.min(System.currentTimeMillis() + registeringTimeout, deadline));
+    final long timeout = Math.max(deadline - System.currentTimeMillis(), 1);
+
+    simulating = true;
+    final SyncParticipantBarrier barrier = new SyncParticipantBarrier(participants.keySet());
+    participantBarrier = barrier;
+    logger.info("Forward simulation init to {} participants of domain {}.", barrier.size(),
+        domain);
+
+    synchronized (forwardedRequestIds) {
+      beginRequest(barrier);
+      for (int i = 0; i < barrier.size(); i++) {
+        SyncParticipant participant = barrier.getParticipant(i);
+        String clientConfig = clientConfigs.get(participant);
+        RpcDestination destination = RpcDestination
+            .getBuilder(ERpcDestinationChooser.SEND_TO_CLIENT)
+            .setGroupId(participant.getGroupName()).setClientId(participant.getClientName())
+            .build();
+        forwardedRequestIds.add(initRequester.sendRequest(destination,
+            Arrays.asList((IPayload) syncParamMessage, new SyncClientConfigMessage(
+                clientConfig != null ? clientConfig : Json.object().toString())), 1, timeout));
+      }
+    }
+    awaitReplies(barrier, timeout);
+    if (!complete) {
+      replies.setFailed();
+    }
+    return replies.createStatusReply();
+  }
+
+  private boolean awaitRequiredClients(Collection<SyncParticipant> requiredClients,
+                                       long deadline) {
+    while (!participants.keySet().containsAll(requiredClients)) {
+      if (System.currentTimeMillis() >= deadline) {
+        for (SyncParticipant required : requiredClients) {
+          if (!participants.containsKey(required)) {
+            logger.warn("Required participant {} {} didn't register at relay {}.",
+                required.getGroupName(), required.getClientName(), domain);
+          }
+        }
+        return false;
+      }
+      try {
+        Thread.sleep(Math.min(100, syncHelloInterval));
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new SyncServiceRuntimeException(
+            "Interrupted while waiting for the participants of domain " + domain + ".", ex);
+      }
+    }
+    return true;
+  }
+
+  private List<IPayload> forwardGo(List<IPayload> payloads) {
+    final SyncParticipantBarrier barrier = participantBarrier;
+    if (barrier == null || !(payloads.get(0) instanceof SyncGoRequest)) {
+      throw new SyncServiceRuntimeException("Unexpected go request " + payloads + ".");
+    }
+    SyncGoRequest goRequest = (SyncGoRequest) payloads.get(0);
+    if (payloads.size() > 1 && payloads.get(1) instanceof SyncParamMessage) {
+      stepSize = ((SyncParamMessage) payloads.get(1)).getStepSize();
+      simMode = ((SyncParamMessage) payloads.get(1)).getSimMode();
+    }
+
+    // the parent host waits 90 percent of an emulation step, the relay has to reply before
+    long timeout = simMode == ELlSimulationMode.EMULATION
+        ? Math.min(syncRequestTimeout, (long) (stepSize * 0.8)) : syncRequestTimeout;
+    forward(goRequester, barrier, payloads, timeout);
+    return replies.createGoReply(goRequest.getSimUntil() + stepSize);
+  }
+
+  private List<IPayload> forwardStop(List<IPayload> payloads) {
+    final SyncParticipantBarrier barrier = participantBarrier;
+    if (barrier == null) {
+      throw new SyncServiceRuntimeException("Unexpected stop request without simulation.");
+    }
+
+    try {
+      forward(stopRequester, barrier, payloads, syncRequestTimeout);
+      return replies.createStatusReply();
+    } finally {
+      reset();
+    }
+  }
+
+  private void forward(IRpcRequester requester, SyncParticipantBarrier barrier,
+                       List<IPayload> payloads, long timeout) {
+    synchronized (forwardedRequestIds) {
+      beginRequest(barrier);
+      if (barrier.size() > 0) {
+        forwardedRequestIds.add(requester.sendRequest(BROADCAST_DESTINATION,
+            new ArrayList<IPayload>(payloads), barrier.size(), timeout));
+      }
+    }
+    awaitReplies(barrier, timeout);
+  }
+
+  /* Called with the lock of forwardedRequestIds, the replies wait until the ids are known */
+  private void beginRequest(SyncParticipantBarrier barrier) {
+    forwardedRequestIds.clear();
+    replies.reset();
+    barrier.reset();
+  }
+
+  private void awaitReplies(SyncParticipantBarrier barrier, long timeout) {
+    try {
+      barrier.await(timeout);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new SyncServiceRuntimeException(
+          "Interrupted while waiting for the participants of domain " + domain + ".", ex);
+    } finally {
+      // replies arriving from now on are late and don't change the combined reply
+      synchronized (forwardedRequestIds) {
+        forwardedRequestIds.clear();
+      }
+    }
+    if (barrier.getPending() == 0) {
+      return;
+    }
+
+    replies.setFailed();
+    for (int i = 0; i < barrier.size(); i++) {
+      if (!barrier.hasArrived(i)) {
+        logger.warn("Participant {} {} not finished processing sync step.",
+            barrier.getParticipant(i).getGroupName(), barrier.getParticipant(i).getClientName());
+      }
+    }
+  }
+
+  private class ParticipantReplyCallback implements IRpcReplyCallback {
+
+    @Override
+    public void handleReply(RpcHeader header, List<IPayload> payloads) {
+      SyncParticipant sp =
+          new SyncParticipant(header.getSourceGroupId(), header.getSourceClientId());
+      synchronized (forwardedRequestIds) {
+        SyncParticipantBarrier barrier = getForwardingBarrier(header, sp);
+        if (barrier == null) {
+          logger.debug("Ignoring unexpected reply from {}.", sp);
+          return;
+        }
+        replies.addReply(payloads);
+        barrier.arrive(sp);
+      }
+    }
+
+    @Override
+    public void handleError(Header header, List<ErrorMessage> errors) throws Exception {
+      SyncParticipant sp =
+          new SyncParticipant(header.getSourceGroupId(), header.getSourceClientId());
+      logger.error("Received SyncRPC Error from [{} {}]. Header: {} " + "Errors: {}",
+          header.getSourceGroupId(), header.getSourceClientId(), header, errors);
+
+      synchronized (forwardedRequestIds) {
+        SyncParticipantBarrier barrier = getForwardingBarrier(header, sp);
+        if (barrier != null) {
+          replies.addErrors(sp, errors);
+          barrier.arrive(sp);
+        }
+      }
+    }
+
+    /* Get the barrier if the reply belongs to a forwarded request of the participant */
+    private SyncParticipantBarrier getForwardingBarrier(Header header, SyncParticipant sp) {
+      SyncParticipantBarrier barrier = participantBarrier;
+      if (barrier == null || barrier.indexOf(sp) < 0 || !(header instanceof RpcHeader)
+          || !forwardedRequestIds.contains(((RpcHeader) header).getPacketId())) {
+        return null;
+      }
+      return barrier;
+    }
+  }
+
+  private abstract class ParentRequestCallback implements IRpcAsyncRequestCallback {
+
+    @Override
+    public void handleRequest(RpcHeader header, List<IPayload> payloads,
+                              IRpcReplySender replySender) {
+      SyncParticipant host = parentHost;
+      if (host == null || !(host.getGroupName().equals(header.getSourceGroupId())
+          && host.getClientName().equals(header.getSourceClientId()))) {
+        logger.warn("A sync request is received from a wrong Sync Host {} {}",
+            header.getSourceGroupId(), header.getSourceClientId());
+        replySender.sendReply(Collections.singletonList(
+            (IPayload) new ErrorMessage(ErrorMessage.EErrorCode.SYNC_ERROR,
+                "A sync request is received from a wrong Sync Host")));
+        return;
+      }
+
+      // the sync payloads aren't recycled, only the list is copied for the forward thread
+      final List<IPayload> request = new ArrayList<IPayload>(payloads);
+      forwardExecutor.execute(() -> {
+        List<IPayload> reply;
+        try {
+          reply = forwardRequest(request);
+        } catch (RuntimeException ex) {
+          logger.warn("Exception during forwarding a sync request: ", ex);
+          reply = Collections.singletonList((IPayload) new ErrorMessage(
+              ErrorMessage.EErrorCode.PROCESSING_ERROR,
+              "Error during callback handling: " + ex.getMessage()));
+        }
+        replySender.sendReply(reply);
+      });
+    }
+
+    protected abstract List<IPayload> forwardRequest(List<IPayload> payloads);
+
+    @Override
+    public void handleError(Header header, List<ErrorMessage> errors) throws Exception {
+      logger.error("Sync RPC request from {}  reported errors! Header: {} Errors: {}",
+          header.getSourceClientId(), header, errors);
+    }
+  }
+
+  private class ParentInitRequestCallback extends ParentRequestCallback {
+
+    @Override
+    protected List<IPayload> forwardRequest(List<IPayload> payloads) {
+      logger.debug("Forwarding INIT RPC request...");
+      return forwardInit(payloads);
+    }
+  }
+
+  private class ParentGoRequestCallback extends ParentRequestCallback {
+
+    @Override
+    protected List<IPayload> forwardRequest(List<IPayload> payloads) {
+      logger.debug("Forwarding GO RPC request...");
+      return forwardGo(payloads);
+    }
+  }
+
+  private class ParentStopRequestCallback extends ParentRequestCallback {
+
+    @Override
+    protected List<IPayload> forwardRequest(List<IPayload> payloads) {
+      logger.debug("Forwarding STOP RPC request...");
+      return forwardStop(payloads);
+    }
+  }
+
+  private class ParentHelloMsgHandler implements IMessageCallback {
+
+    @Override
+    public void handleMessage(MsgHeader header, List<IPayload> payloads) throws Exception {
+      if (parentHost != null || simulating) {
+        logger.trace("Sync Hello Message received from {} {} but it will be ignored.",
+            header.getSourceGroupId(), header.getSourceClientId());
+        return;
+      }
+
+      RpcDestination parent = RpcDestination.getBuilder(ERpcDestinationChooser.SEND_TO_CLIENT)
+          .setGroupId(header.getSourceGroupId()).setClientId(header.getSourceClientId())
+          .build();
+      registeringRequester.sendRequest(parent,
+          new StatusMessage(StatusMessage.StatusCode.OK, "SyncRelay will be registering"), 1,
+          3000);
+    }
+
+    @Override
+    public void handleError(Header header, List<ErrorMessage> errors) throws Exception {
+      logger.warn("ParentHelloMsgHandler received error from {},{}: {}",
+          header.getSourceGroupId(), header.getSourceClientId(), errors);
+    }
+  }
+
+  private class ParentCloseMsgHandler implements IMessageCallback {
+
+    @Override
+    public void handleMessage(MsgHeader header, List<IPayload> payloads) throws Exception {
+      logger.info("CloseMsg received. Close the participants of domain {}.", domain);
+      publishCloseMessage();
+      reset();
+    }
+
+    @Override
+    public void handleError(Header header, List<ErrorMessage> errors) throws Exception {
+      logger.warn("ParentCloseMsgHandler received error from {},{}: {}",
+          header.getSourceGroupId(), header.getSourceClientId(), errors);
+    }
+  }
+
+  private class ParentRegisteringReplyHandler implements IRpcReplyCallback {
+
+    @Override
+    public void handleReply(RpcHeader header, List<IPayload> payloads) {
+      if (payloads.size() > 0 && payloads.get(0) instanceof StatusMessage
+          && ((StatusMessage) payloads.get(0)).getStatusCode() == StatusMessage.StatusCode.OK) {
+        logger.info("Relay {} registered to SyncHost: {} {}", domain, header.getSourceGroupId(),
+            header.getSourceClientId());
+        parentHost = new SyncParticipant(header.getSourceGroupId(), header.getSourceClientId());
+      }
+    }
+
+    @Override
+    public void handleError(Header header, List<ErrorMessage> errors) throws Exception {
+      logger.warn("ParentRegisteringReplyHandler received error from {},{}: {}",
+          header.getSourceGroupId(), header.getSourceClientId(), errors);
+    }
+  }
+
+  private class RegisterClientRequestHandler implements IRpcRequestCallback {
+
+    @Override
+    public List<IPayload> handleRequest(RpcHeader header, List<IPayload> payloads) {
+      if (simulating) {
+        logger.warn("SyncRelay {} is simulating. Registration of {} {} ignored.", domain,
+            header.getSourceGroupId(), header.getSourceClientId());
+        return Collections.singletonList(
+            (IPayload) new ErrorMessage(ErrorMessage.EErrorCode.SYNC_ERROR,
+                "SyncRelay not in initialization state."));
+      }
+
+      SyncParticipant newClient =
+          new SyncParticipant(header.getSourceGroupId(), header.getSourceClientId());
+      if (participants.putIfAbsent(newClient, ELlClientState.REGISTERED) == null) {
+        logger.info("New SyncClient is registered at relay {}: {} {}", domain,
+            newClient.getGroupName(), newClient.getClientName());
+      }
+      return Collections.singletonList((IPayload) new StatusMessage(StatusMessage.StatusCode.OK));
+    }
+
+    @Override
+    public void handleError(Header header, List<ErrorMessage> errors) throws Exception {
+      logger.warn("RegisterClientRequestHandler received error from {},{}: {}",
+          header.getSourceGroupId(), header.getSourceClientId(), errors);
+    }
+  }
+}
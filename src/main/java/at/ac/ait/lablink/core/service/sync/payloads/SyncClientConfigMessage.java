@@ -35,6 +35,18 @@ public class SyncClientConfigMessage extends PayloadBase {
     return "SyncClientConfigMessage";
   }
 
+  /**
+   * Get the stable numeric type identifier of the class.
+   *
+   * <p>The identifier is used instead of the type string in compact framing mode. Identifiers
+   * below 256 are reserved for the encodable classes of the Lablink core.
+   *
+   * @return the numeric type identifier of the class
+   */
+  public static int getClassTypeId() {
+    return 35;
+  }
+
   /**
    * Get the factory to create objects of the class.
    *
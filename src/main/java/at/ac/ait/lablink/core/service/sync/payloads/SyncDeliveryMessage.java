@@ -0,0 +1,171 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.payloads;
+
+import at.ac.ait.lablink.core.connection.encoding.IDecoder;
+import at.ac.ait.lablink.core.connection.encoding.IEncodable;
+import at.ac.ait.lablink.core.connection.encoding.IEncodableFactory;
+import at.ac.ait.lablink.core.connection.encoding.IEncoder;
+import at.ac.ait.lablink.core.connection.encoding.encodables.PayloadBase;
+import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+import at.ac.ait.lablink.core.service.sync.SyncParticipant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IPayload for the delivery state of sync participants.
+ *
+ * <p>The message contains the sequence numbers of messages published by sync participants. A
+ * participant publishes it as a marker after the messages of a sync step, and adds it to its
+ * replies of init and go requests. The sync host collects the reported sequences and sends them
+ * with the next go request. A participant processes the go request after it received the
+ * markers with the given sequences from all other participants.
+ */
+public class SyncDeliveryMessage extends PayloadBase {
+
+  /**
+   * Get a type string of the class.
+   *
+   * <p><b>This static method must be implemented by every subclass.</b>
+   *
+   * <p>Every class that is encodable and is used by a decoder must have a unique string that
+   * identifies this class. This type string will be transmitted during the communication and will
+   * be used by a decoder for creating an empty object of the encodable class.
+   *
+   * @return an unique type string of the class
+   */
+  public static String getClassType() {
+    return "SyncDeliveryMessage";
+  }
+
+  /**
+   * Get the stable numeric type identifier of the class.
+   *
+   * <p>The identifier is used instead of the type string in compact framing mode. Identifiers
+   * below 256 are reserved for the encodable classes of the Lablink core.
+   *
+   * @return the numeric type identifier of the class
+   */
+  public static int getClassTypeId() {
+    return 36;
+  }
+
+  /**
+   * Get the factory to create objects of the class.
+   *
+   * <p><b>This static method must be implemented by every subclass.</b>
+   *
+   * <p>Every class that is encodable and is used by a decoder must have a unique factory object to
+   * create empty objects of the class. This factory method will be used by the decoder to create a
+   * fresh object that can be filled in with the decoded values.
+   *
+   * @return A factory object for creating encodable classes
+   */
+  public static IEncodableFactory getEncodableFactory() {
+    return new IEncodableFactory() {
+      @Override
+      public IEncodable createEncodableObject() {
+        return new SyncDeliveryMessage();
+      }
+    };
+  }
+
+  private List<String> groupIds = new ArrayList<String>();
+  private List<String> clientIds = new ArrayList<String>();
+  private long[] sequences = new long[0];
+
+  public SyncDeliveryMessage() {
+  }
+
+  /**
+   * Constructor for the delivery state of a single participant.
+   *
+   * @param participant participant that published the messages
+   * @param sequence    sequence number of the last published message
+   */
+  public SyncDeliveryMessage(SyncParticipant participant, long sequence) {
+    this(Collections.singletonMap(participant, sequence));
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param sequences sequence numbers of the last published messages by the participants
+   */
+  public SyncDeliveryMessage(Map<SyncParticipant, Long> sequences) {
+    this.sequences = new long[sequences.size()];
+    int index = 0;
+    for (Map.Entry<SyncParticipant, Long> entry : sequences.entrySet()) {
+      groupIds.add(entry.getKey().getGroupName());
+      clientIds.add(entry.getKey().getClientName());
+      this.sequences[index++] = entry.getValue();
+    }
+  }
+
+  /**
+   * Get the sequence numbers of the participants.
+   *
+   * @return map of the participants and their sequence numbers of the last published message
+   */
+  public Map<SyncParticipant, Long> getSequences() {
+    Map<SyncParticipant, Long> result = new LinkedHashMap<SyncParticipant, Long>();
+    for (int i = 0; i < sequences.length; i++) {
+      result.put(new SyncParticipant(groupIds.get(i), clientIds.get(i)), sequences[i]);
+    }
+    return result;
+  }
+
+  public boolean isEmpty() {
+    return sequences.length == 0;
+  }
+
+  @Override
+  public void encode(IEncoder encoder) {
+    encoder.putStringList("groupIds", groupIds);
+    encoder.putStringList("clientIds", clientIds);
+    encoder.putLongArray("sequences", sequences);
+  }
+
+  @Override
+  public void decode(IDecoder decoder) {
+    groupIds = decoder.getInternedStrings("groupIds");
+    clientIds = decoder.getInternedStrings("clientIds");
+    sequences = decoder.getLongArray("sequences");
+  }
+
+  @Override
+  public String getType() {
+    return SyncDeliveryMessage.getClassType();
+  }
+
+  @Override
+  public void decodingCompleted() {
+    // expected
+  }
+
+  @Override
+  public void validate() {
+    if (groupIds == null || clientIds == null || sequences == null) {
+      throw new LlCoreRuntimeException("Delivery state isn't complete.");
+    }
+    if (groupIds.size() != sequences.length || clientIds.size() != sequences.length) {
+      throw new LlCoreRuntimeException(
+          "Number of participants and sequences of the delivery state don't match.");
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "SyncDeliveryMessage{" + "groupIds=" + groupIds + ", clientIds=" + clientIds
+        + ", sequences=" + Arrays.toString(sequences) + '}';
+  }
+
+}
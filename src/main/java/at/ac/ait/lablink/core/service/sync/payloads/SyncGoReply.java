@@ -17,7 +17,8 @@ import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
  *
  * <p>Specific message to reply to a sync go request by a sync go reply message indicating
  * whether the go step has been processed sucessfully and what the next simulation time
- * would be from the client's side
+ * would be from the client's side. Optionally, the client requests a smaller step size for the
+ * next step.
  */
 public class SyncGoReply extends PayloadBase {
 
@@ -36,6 +37,18 @@ public class SyncGoReply extends PayloadBase {
     return "SyncGoReply";
   }
 
+  /**
+   * Get the stable numeric type identifier of the class.
+   *
+   * <p>The identifier is used instead of the type string in compact framing mode. Identifiers
+   * below 256 are reserved for the encodable classes of the Lablink core.
+   *
+   * @return the numeric type identifier of the class
+   */
+  public static int getClassTypeId() {
+    return 33;
+  }
+
   /**
    * Get the factory to create objects of the class.
    *
@@ -57,27 +70,48 @@ public class SyncGoReply extends PayloadBase {
   }
 
   private long nextSimTime;
+  private long requestedStepSize;
 
   public SyncGoReply() {
   }
 
   public SyncGoReply(long nextSimTime) {
+    this(nextSimTime, 0);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param nextSimTime       next simulation time requested by the client
+   * @param requestedStepSize step size requested by the client for the next step, or 0 if the
+   *                          client doesn't request a refinement.
+   */
+  public SyncGoReply(long nextSimTime, long requestedStepSize) {
     this.nextSimTime = nextSimTime;
+    this.requestedStepSize = requestedStepSize;
   }
 
   public long getNextSimTime() {
     return nextSimTime;
   }
 
+  public long getRequestedStepSize() {
+    return requestedStepSize;
+  }
+
 
   @Override
   public void encode(IEncoder encoder) {
     encoder.putLong("nextSimTime", nextSimTime);
+    encoder.putLong("requestedStepSize", requestedStepSize);
   }
 
   @Override
   public void decode(IDecoder decoder) {
     nextSimTime = decoder.getLong("nextSimTime");
+    // optional element, not sent by older clients
+    requestedStepSize =
+        decoder.hasKey("requestedStepSize") ? decoder.getLong("requestedStepSize") : 0;
   }
 
   @Override
@@ -95,11 +129,15 @@ public class SyncGoReply extends PayloadBase {
     if (this.nextSimTime == 0) {
       throw new LlCoreRuntimeException("NextSimTime is zero!");
     }
+    if (this.requestedStepSize < 0) {
+      throw new LlCoreRuntimeException("Requested step size is negative!");
+    }
   }
 
   @Override
   public String toString() {
-    return "SyncGoReply{" + "nextSimTime='" + nextSimTime + "'}";
+    return "SyncGoReply{" + "nextSimTime='" + nextSimTime + "', requestedStepSize='"
+        + requestedStepSize + "'}";
   }
 
 }
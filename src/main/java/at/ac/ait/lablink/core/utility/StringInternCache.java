@@ -0,0 +1,177 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.utility;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded cache of canonical string instances.
+ *
+ * <p>The cache is used for identifiers with a small number of distinct values, like the
+ * elements of topics or the identifiers of message headers. Repeated identifiers resolve to the
+ * same string instance. Lookups by a range of characters don't allocate a new string if the
+ * value is already cached. Canonical instances also keep their computed hash code, and comparisons
+ * with {@link String#equals(Object)} succeed with the identity check.
+ *
+ * <p>The cache is direct mapped: every value has exactly one slot given by its hash code. A
+ * missing value replaces the current content of its slot, so the cache never grows beyond its
+ * capacity. The following configuration properties are read:
+ * <ul>
+ * <li><b>encoding.internCacheSize</b> (1024, int): Number of slots of the cache. It is
+ * rounded up to a power of two. A value of 0 disables the cache.</li>
+ * <li><b>encoding.internMaxLength</b> (64, int): Maximum length of cached strings. Longer
+ * strings are returned without caching.</li>
+ * </ul>
+ *
+ * <p>The class is thread-safe without locking. Strings are immutable, therefore a slot that is
+ * read concurrently to its replacement contains either the old or the new value.
+ */
+public class StringInternCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(StringInternCache.class);
+
+  private final String[] slots;
+  private final int mask;
+  private final int maxLength;
+
+  /**
+   * Default constructor with the default configuration.
+   */
+  public StringInternCache() {
+    this(null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param config configuration of the cache (may be null)
+   */
+  public StringInternCache(Configuration config) {
+    if (config == null) {
+      logger.info("No configuration is set for StringInternCache. Use default configuration.");
+      config = new BaseConfiguration();
+    }
+
+    int size = config.getInt("encoding.internCacheSize", 1024);
+    if (size < 0 || size > (1 << 24)) {
+      throw new IllegalArgumentException("Invalid intern cache size: " + size);
+    }
+    if (size > 1) {
+      size = Integer.highestOneBit(size - 1) << 1;
+    }
+    slots = new String[size];
+    mask = size - 1;
+    maxLength = config.getInt("encoding.internMaxLength", 64);
+  }
+
+  /**
+   * Check if the cache is enabled.
+   *
+   * @return true, if the cache has at least one slot.
+   */
+  public boolean isEnabled() {
+    return slots.length > 0;
+  }
+
+  /**
+   * Get the canonical instance of a string.
+   *
+   * @param value string to be looked up
+   * @return the cached instance with the same content, or the given string, which becomes the
+   *     cached instance.
+   */
+  public String intern(String value) {
+    if (value == null || slots.length == 0 || value.length() > maxLength) {
+      return value;
+    }
+
+    int index = spread(value.hashCode()) & mask;
+    String cached = slots[index];
+    if (value.equals(cached)) {
+      return cached;
+    }
+    slots[index] = value;
+    return value;
+  }
+
+  /**
+   * Get the canonical instance of a part of a string.
+   *
+   * @param source string containing the value
+   * @param start  index of the first character (inclusive)
+   * @param end    index of the last character (exclusive)
+   * @return the cached instance with the same content, or a new string, which becomes the
+   *     cached instance.
+   */
+  public String intern(String source, int start, int end) {
+    int length = end - start;
+    if (slots.length == 0 || length > maxLength) {
+      return source.substring(start, end);
+    }
+
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + source.charAt(i);
+    }
+    int index = spread(hash) & mask;
+    String cached = slots[index];
+    if (cached != null && cached.length() == length
+        && source.regionMatches(start, cached, 0, length)) {
+      return cached;
+    }
+    String value = source.substring(start, end);
+    slots[index] = value;
+    return value;
+  }
+
+  /**
+   * Get the canonical instance of a string given by a range of a character array.
+   *
+   * @param chars  array containing the value
+   * @param offset index of the first character
+   * @param length number of characters
+   * @return the cached instance with the same content, or a new string, which becomes the
+   *     cached instance.
+   */
+  public String intern(char[] chars, int offset, int length) {
+    if (slots.length == 0 || length > maxLength) {
+      return new String(chars, offset, length);
+    }
+
+    int hash = 0;
+    for (int i = offset; i < offset + length; i++) {
+      hash = 31 * hash + chars[i];
+    }
+    int index = spread(hash) & mask;
+    String cached = slots[index];
+    if (cached != null && contentEquals(cached, chars, offset, length)) {
+      return cached;
+    }
+    String value = new String(chars, offset, length);
+    slots[index] = value;
+    return value;
+  }
+
+  private static boolean contentEquals(String cached, char[] chars, int offset, int length) {
+    if (cached.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (cached.charAt(i) != chars[offset + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /* Mix the upper bits of the hash code into the slot index */
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+}
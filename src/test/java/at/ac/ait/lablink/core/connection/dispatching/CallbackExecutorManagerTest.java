@@ -5,9 +5,21 @@
 
 package at.ac.ait.lablink.core.connection.dispatching;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Unit tests for callback executor manager.
  */
@@ -17,7 +29,14 @@ public class CallbackExecutorManagerTest {
 
   @Before
   public void setUp() throws Exception {
-    //TODO add implementation
+    BaseConfiguration config = new BaseConfiguration();
+    config.setProperty("lowlevelComm.numberOfParallelExecutions", 2);
+    cut = new CallbackExecutorManager(config);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    cut.shutdown();
   }
 
   @Test
@@ -30,4 +49,47 @@ public class CallbackExecutorManagerTest {
     //TODO add implementation
   }
 
-}
\ No newline at end of file
+  @Test
+  public void getCurrentExecution_sequenceOfRunningCallback_test() throws Exception {
+    final AtomicLong first = new AtomicLong();
+    final AtomicLong second = new AtomicLong();
+
+    cut.addNewCallbackExecution(createCallback(first, null));
+    cut.addNewCallbackExecution(createCallback(second, null));
+
+    assertTrue(cut.awaitExecutions(2, 1000));
+    assertEquals(1, first.get());
+    assertEquals(2, second.get());
+    assertEquals(0, cut.getCurrentExecution());
+  }
+
+  @Test
+  public void awaitExecutions_earlierCallbackRunning_waitsForCompletion_test() throws Exception {
+    CountDownLatch blocked = new CountDownLatch(1);
+    AtomicLong later = new AtomicLong();
+
+    cut.addNewCallbackExecution(createCallback(new AtomicLong(), blocked));
+    cut.addNewCallbackExecution(createCallback(later, null));
+
+    // the later callback completes first, the earlier one still runs
+    while (later.get() == 0) {
+      TimeUnit.MILLISECONDS.sleep(1);
+    }
+    assertFalse(cut.awaitExecutions(2, 50));
+
+    blocked.countDown();
+    assertTrue(cut.awaitExecutions(2, 1000));
+  }
+
+  private CallbackExecutor createCallback(AtomicLong execution, CountDownLatch blocked) {
+    CallbackExecutor callback = mock(CallbackExecutor.class);
+    doAnswer(invocation -> {
+      if (blocked != null) {
+        blocked.await();
+      }
+      execution.set(cut.getCurrentExecution());
+      return null;
+    }).when(callback).handleCallback();
+    return callback;
+  }
+}
@@ -11,6 +11,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -182,7 +183,8 @@ public class RootDispatchingTreeNodeTest {
 
     rdt.handleRawMqttMessage("ait.ac.at/msg/meter3/vcn",new byte[0]);
 
-    verify(callback,times(2)).handleMessage(any(byte[].class));
+    verify(callback,times(2)).handleMessage(eq(Arrays.asList("ait.ac.at", "msg", "meter3", "vcn")),
+        any(byte[].class));
   }
 
   @Test
@@ -17,6 +17,7 @@ import at.ac.ait.lablink.core.service.types.Complex;
 import org.junit.Test;
 
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -117,6 +118,25 @@ public abstract class EncodableBaseTest {
       elements.put(key,value.im());
     }
 
+    @Override
+    public void putDoubleArray(String key, double[] values) {
+      encodingList.add(key);
+      elements.put(key,values);
+    }
+
+    @Override
+    public void putLongArray(String key, long[] values) {
+      encodingList.add(key);
+      elements.put(key,values);
+    }
+
+    @Override
+    public void putComplexArray(String key, Complex[] values) {
+      encodingList.add(key + "_re");
+      encodingList.add(key + "_im");
+      elements.put(key,values);
+    }
+
     @Override
     public void putBlob(String key, byte[] value) {
       encodingList.add(key);
@@ -148,6 +168,16 @@ public abstract class EncodableBaseTest {
       return (List<String>) elements.get(key);
     }
 
+    @Override
+    public String getInternedString(String key) {
+      return getString(key);
+    }
+
+    @Override
+    public List<String> getInternedStrings(String key) {
+      return getStrings(key);
+    }
+
     @Override
     public float getFloat(String key) {
       decodingList.add(key);
@@ -184,6 +214,12 @@ public abstract class EncodableBaseTest {
       return new byte[0];
     }
 
+    @Override
+    public ByteBuffer getBlobBuffer(String key) {
+      decodingList.add(key);
+      return ByteBuffer.allocate(0);
+    }
+
     @Override
     public Complex getComplex(String key) {
       decodingList.add(key + "_re");
@@ -191,6 +227,25 @@ public abstract class EncodableBaseTest {
       return new Complex(0., 0.);
     }
 
+    @Override
+    public double[] getDoubleArray(String key) {
+      decodingList.add(key);
+      return new double[0];
+    }
+
+    @Override
+    public long[] getLongArray(String key) {
+      decodingList.add(key);
+      return new long[0];
+    }
+
+    @Override
+    public Complex[] getComplexArray(String key) {
+      decodingList.add(key + "_re");
+      decodingList.add(key + "_im");
+      return new Complex[0];
+    }
+
     @Override
     public IEncodable getEncodable(String key) {
       decodingList.add(key);
@@ -203,5 +258,20 @@ public abstract class EncodableBaseTest {
       decodingList.add(key);
       return (List<? extends IEncodable>) elements.get(key);
     }
+
+    @Override
+    public boolean isCompactFraming() {
+      return false;
+    }
+
+    @Override
+    public boolean hasKey(String key) {
+      return elements.containsKey(key);
+    }
+
+    @Override
+    public List<String> getTopic() {
+      return null;
+    }
   }
 }
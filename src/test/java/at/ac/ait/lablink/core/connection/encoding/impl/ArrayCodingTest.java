@@ -0,0 +1,121 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import at.ac.ait.lablink.core.connection.encoding.DecoderBase;
+import at.ac.ait.lablink.core.connection.encoding.EncoderBase;
+import at.ac.ait.lablink.core.connection.ex.LlCoreDecoderRuntimeException;
+import at.ac.ait.lablink.core.service.datapoint.payloads.ComplexArrayValue;
+import at.ac.ait.lablink.core.service.datapoint.payloads.DoubleArrayValue;
+import at.ac.ait.lablink.core.service.datapoint.payloads.LongArrayValue;
+import at.ac.ait.lablink.core.service.types.Complex;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Unit tests for the coding of primitive arrays with the JSON encoders and decoders.
+ */
+public class ArrayCodingTest {
+
+  private EncodableFactoryManagerImpl factoryManager;
+
+  @Before
+  public void setUp() throws Exception {
+    factoryManager = new EncodableFactoryManagerImpl();
+    factoryManager.registerEncodableFactory(DoubleArrayValue.class);
+    factoryManager.registerEncodableFactory(LongArrayValue.class);
+    factoryManager.registerEncodableFactory(ComplexArrayValue.class);
+  }
+
+  @Test
+  public void encoder_doubleArray_packedArray() {
+    String encoded = new String(
+        new JsonStreamEncoder().processEncoding(new DoubleArrayValue(new double[]{1, -2.5}, 5)));
+
+    assertEquals("{\"$type\":\"doubleArrayValue\",\"time\":5,\"emuTime\":-1,"
+        + "\"values\":[1,-2.5]}", encoded);
+  }
+
+  @Test
+  public void jsonDecoder_arrayValues_roundTrip() {
+    checkRoundTrip(new JsonEncoder(), new JsonDecoder());
+  }
+
+  @Test
+  public void jsonStreamDecoder_arrayValues_roundTrip() {
+    checkRoundTrip(new JsonStreamEncoder(), new JsonStreamDecoder());
+  }
+
+  @Test
+  public void jsonStreamDecoder_bufferedArray() {
+    DoubleArrayValue value = (DoubleArrayValue) decode(new JsonStreamDecoder(),
+        "{\"$type\":\"doubleArrayValue\",\"values\":[1,2.5],\"time\":5,\"emuTime\":-1}");
+
+    assertArrayEquals(new double[]{1, 2.5}, value.getValue(), 0.0);
+    assertEquals(5, value.getTime());
+  }
+
+  @Test
+  public void decoder_nullArray_emptyArray() {
+    String encoded = "{\"$type\":\"longArrayValue\",\"time\":5,\"emuTime\":-1,\"values\":null}";
+
+    assertEquals(0, ((LongArrayValue) decode(new JsonDecoder(), encoded)).getValue().length);
+    assertEquals(0, ((LongArrayValue) decode(new JsonStreamDecoder(), encoded)).getValue().length);
+  }
+
+  @Test(expected = LlCoreDecoderRuntimeException.class)
+  public void jsonDecoder_complexArrayLengthMismatch_exception() {
+    decode(new JsonDecoder(), createMismatchingComplexArray());
+  }
+
+  @Test(expected = LlCoreDecoderRuntimeException.class)
+  public void jsonStreamDecoder_complexArrayLengthMismatch_exception() {
+    decode(new JsonStreamDecoder(), createMismatchingComplexArray());
+  }
+
+  private String createMismatchingComplexArray() {
+    return "{\"$type\":\"complexArrayValue\",\"time\":5,\"emuTime\":-1,"
+        + "\"values_re\":[1,2],\"values_im\":[1]}";
+  }
+
+  private Object decode(DecoderBase decoder, String encoded) {
+    decoder.setEncodableFactoryManager(factoryManager);
+    return decoder.processDecoding(encoded.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void checkRoundTrip(EncoderBase encoder, DecoderBase decoder) {
+    decoder.setEncodableFactoryManager(factoryManager);
+
+    double[] doubles = new double[100];
+    for (int i = 0; i < doubles.length; i++) {
+      doubles[i] = i * 0.25 - 3;
+    }
+    DoubleArrayValue doubleValue = (DoubleArrayValue) decoder.processDecoding(
+        encoder.processEncoding(new DoubleArrayValue(doubles, 42)));
+    assertArrayEquals(doubles, doubleValue.getValue(), 0.0);
+    assertEquals(42, doubleValue.getTime());
+
+    long[] longs = new long[]{Long.MIN_VALUE, -1, 0, 1, Long.MAX_VALUE};
+    LongArrayValue longValue = (LongArrayValue) decoder.processDecoding(
+        encoder.processEncoding(new LongArrayValue(longs, 43)));
+    assertArrayEquals(longs, longValue.getValue());
+
+    Complex[] complexes = new Complex[]{new Complex(1, -2), new Complex(0.5, 3.25)};
+    ComplexArrayValue complexValue = (ComplexArrayValue) decoder.processDecoding(
+        encoder.processEncoding(new ComplexArrayValue(complexes, 44)));
+    assertEquals(2, complexValue.getValue().length);
+    for (int i = 0; i < complexes.length; i++) {
+      assertEquals(complexes[i].re(), complexValue.getValue()[i].re(), 0.0);
+      assertEquals(complexes[i].im(), complexValue.getValue()[i].im(), 0.0);
+    }
+  }
+}
@@ -0,0 +1,203 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import at.ac.ait.lablink.core.connection.encoding.DecoderBase;
+import at.ac.ait.lablink.core.connection.encoding.EncoderBase;
+import at.ac.ait.lablink.core.connection.encoding.IDecoder;
+import at.ac.ait.lablink.core.connection.encoding.IEncodable;
+import at.ac.ait.lablink.core.connection.encoding.IEncodableFactory;
+import at.ac.ait.lablink.core.connection.encoding.IEncoder;
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.connection.encoding.encodables.Packet;
+import at.ac.ait.lablink.core.connection.messaging.MsgHeader;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for the transport of large blobs in the blob section of a frame.
+ */
+public class BlobSectionTest {
+
+  private static final int THRESHOLD = 256;
+
+  private EncodableFactoryManagerImpl factoryManager;
+  private byte[] largeBlob;
+  private byte[] smallBlob;
+
+  @Before
+  public void setUp() {
+    factoryManager = new EncodableFactoryManagerImpl();
+    factoryManager.registerEncodableFactory(Packet.class);
+    factoryManager.registerEncodableFactory(MsgHeader.class);
+    factoryManager.registerEncodableFactory(BlobPayload.TYPE, BlobPayload.FACTORY);
+
+    largeBlob = new byte[4096];
+    for (int i = 0; i < largeBlob.length; i++) {
+      largeBlob[i] = (byte) i;
+    }
+    smallBlob = new byte[]{1, 2, 3};
+  }
+
+  @Test
+  public void encoder_largeBlob_rawBytesInBlobSection() {
+    for (EncoderBase encoder : Arrays.<EncoderBase>asList(
+        new JsonEncoder(createConfig()), new JsonStreamEncoder(createConfig()))) {
+      byte[] frame = encoder.processEncoding(createPacket());
+      String structured = new String(encoder.getEncoded());
+
+      assertEquals(0x02, frame[0]);
+      assertTrue(structured.contains("\"large\":\"$blob:0:4096\""));
+      assertTrue(structured.contains("\"small\":\"AQID\""));
+      assertEquals(5 + structured.length() + largeBlob.length, frame.length);
+    }
+  }
+
+  @Test
+  public void encoder_blobSectionDisabledByDefault() {
+    byte[] encoded = new JsonEncoder().processEncoding(createPacket());
+
+    assertEquals('{', encoded[0]);
+    assertFalse(new String(encoded).contains("$blob"));
+  }
+
+  @Test
+  public void jsonDecoder_blobSection_test() {
+    checkDecoding(new JsonDecoder(), new JsonEncoder(createConfig()));
+  }
+
+  @Test
+  public void jsonStreamDecoder_blobSection_test() {
+    checkDecoding(new JsonStreamDecoder(), new JsonStreamEncoder(createConfig()));
+  }
+
+  @Test
+  public void lazyDecoding_blobSection_test() {
+    Configuration config = new BaseConfiguration();
+    config.addProperty("encoding.lazyPayloadDecoding", true);
+
+    checkDecoding(new JsonDecoder(config), new JsonStreamEncoder(createConfig()));
+    checkDecoding(new JsonStreamDecoder(config), new JsonEncoder(createConfig()));
+  }
+
+  @Test
+  public void decoder_blobBufferIsViewOfFrame() {
+    byte[] frame = new JsonStreamEncoder(createConfig()).processEncoding(createPacket());
+    DecoderBase decoder = new JsonStreamDecoder();
+    decoder.setEncodableFactoryManager(factoryManager);
+
+    Packet packet = (Packet) decoder.processDecoding(frame);
+    ByteBuffer view = ((BlobPayload) packet.getPayloads().get(0)).largeBuffer;
+    frame[frame.length - 1] = 42;
+
+    assertTrue(view.isReadOnly());
+    assertEquals(42, view.get(largeBlob.length - 1));
+  }
+
+  @Test
+  public void decoder_compressedFrameWithBlobSection_test() {
+    Configuration config = createConfig();
+    config.addProperty("encoding.compressionThreshold", 128);
+    PayloadCompressor compressor = new PayloadCompressor(config);
+    byte[] compressed =
+        compressor.compress(new JsonEncoder(createConfig()).processEncoding(createPacket()));
+    assertTrue(PayloadCompressor.isCompressed(compressed));
+
+    DecoderBase decoder = new JsonDecoder();
+    decoder.setEncodableFactoryManager(factoryManager);
+    BlobPayload decoded =
+        (BlobPayload) ((Packet) decoder.processDecoding(compressed)).getPayloads().get(0);
+
+    assertArrayEquals(largeBlob, decoded.large);
+  }
+
+  private void checkDecoding(DecoderBase decoder, EncoderBase encoder) {
+    decoder.setEncodableFactoryManager(factoryManager);
+
+    Packet packet = (Packet) decoder.processDecoding(encoder.processEncoding(createPacket()));
+    BlobPayload decoded = (BlobPayload) packet.getPayloads().get(0);
+
+    assertArrayEquals(largeBlob, decoded.large);
+    assertArrayEquals(smallBlob, decoded.small);
+    assertEquals(largeBlob.length, decoded.largeBuffer.remaining());
+    assertEquals(largeBlob[100], decoded.largeBuffer.get(100));
+  }
+
+  private Configuration createConfig() {
+    Configuration config = new BaseConfiguration();
+    config.addProperty("encoding.blobSectionThreshold", THRESHOLD);
+    return config;
+  }
+
+  private Packet createPacket() {
+    List<IPayload> payloads = new ArrayList<IPayload>();
+    payloads.add(new BlobPayload(largeBlob, smallBlob));
+    MsgHeader header = new MsgHeader("app", "group", "client", Arrays.asList("a"), 1L);
+    return new Packet(header, payloads);
+  }
+
+  static class BlobPayload implements IPayload {
+
+    static final String TYPE = "blob-test";
+
+    static final IEncodableFactory FACTORY = new IEncodableFactory() {
+      @Override
+      public IEncodable createEncodableObject() {
+        return new BlobPayload(null, null);
+      }
+    };
+
+    byte[] large;
+    byte[] small;
+    ByteBuffer largeBuffer;
+
+    BlobPayload(byte[] large, byte[] small) {
+      this.large = large;
+      this.small = small;
+    }
+
+    @Override
+    public void encode(IEncoder encoder) {
+      encoder.putBlob("large", large);
+      encoder.putBlob("small", small);
+    }
+
+    @Override
+    public void decode(IDecoder decoder) {
+      large = decoder.getBlob("large");
+      small = decoder.getBlob("small");
+      largeBuffer = decoder.getBlobBuffer("large");
+    }
+
+    @Override
+    public String getType() {
+      return TYPE;
+    }
+
+    @Override
+    public void decodingCompleted() {
+
+    }
+
+    @Override
+    public void validate() {
+
+    }
+  }
+}
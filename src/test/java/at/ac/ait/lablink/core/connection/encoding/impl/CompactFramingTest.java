@@ -0,0 +1,155 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import at.ac.ait.lablink.core.connection.encoding.DecoderBase;
+import at.ac.ait.lablink.core.connection.encoding.EncoderBase;
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.connection.encoding.encodables.Packet;
+import at.ac.ait.lablink.core.connection.ex.LlCoreDecoderRuntimeException;
+import at.ac.ait.lablink.core.connection.messaging.MsgHeader;
+import at.ac.ait.lablink.core.payloads.ErrorMessage;
+import at.ac.ait.lablink.core.payloads.StringMessage;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for the compact framing mode of the JSON encoders and decoders.
+ */
+public class CompactFramingTest {
+
+  private final List<String> topic =
+      Arrays.asList("at", "ait", "app", "msg", "group", "client", "subj1", "subj2");
+
+  private EncodableFactoryManagerImpl factoryManager;
+  private Packet packet;
+
+  @Before
+  public void setUp() throws Exception {
+    factoryManager = new EncodableFactoryManagerImpl();
+    factoryManager.registerEncodableFactory(Packet.class);
+    factoryManager.registerEncodableFactory(MsgHeader.class);
+    factoryManager.registerEncodableFactory(StringMessage.class);
+    // registered without type id
+    factoryManager.registerEncodableFactory(ErrorMessage.getClassType(),
+        ErrorMessage.getEncodableFactory());
+
+    List<IPayload> payloads = new ArrayList<IPayload>();
+    payloads.add(new StringMessage("value"));
+    payloads.add(new ErrorMessage(ErrorMessage.EErrorCode.PROCESSING_ERROR, "failed"));
+
+    MsgHeader header = new MsgHeader("app", "group", "client", Arrays.asList("subj1", "subj2"),
+        1234L);
+    packet = new Packet(header, payloads);
+  }
+
+  @Test
+  public void encoder_compactFraming_omitsTopicFields() {
+    byte[] encoded = encode(new JsonEncoder(createCompactConfig()));
+    String encodedString = new String(encoded);
+
+    assertTrue(encodedString.startsWith("{\"$type\":" + Packet.getClassTypeId() + ","));
+    assertTrue(encodedString.contains("\"$type\":" + MsgHeader.getClassTypeId() + ","));
+    assertTrue(encodedString.contains("\"subjLen\":2"));
+    assertTrue(encodedString.contains("\"$type\":\"" + ErrorMessage.getClassType() + "\""));
+    assertFalse(encodedString.contains("appId"));
+    assertFalse(encodedString.contains("subj1"));
+
+    assertArrayEquals(encoded, encode(new JsonStreamEncoder(createCompactConfig())));
+  }
+
+  @Test
+  public void encoder_compactFramingDisabledByDefault() {
+    String encodedString = new String(encode(new JsonEncoder()));
+
+    assertTrue(encodedString.contains("\"$type\":\"" + Packet.getClassType() + "\""));
+    assertTrue(encodedString.contains("\"appId\":\"app\""));
+  }
+
+  @Test
+  public void jsonDecoder_compactFraming_restoresHeader() {
+    checkDecoding(new JsonDecoder(), encode(new JsonEncoder(createCompactConfig())));
+  }
+
+  @Test
+  public void jsonStreamDecoder_compactFraming_restoresHeader() {
+    checkDecoding(new JsonStreamDecoder(), encode(new JsonStreamEncoder(createCompactConfig())));
+  }
+
+  @Test
+  public void decoder_fullFramingWithTopic() {
+    checkDecoding(new JsonStreamDecoder(), encode(new JsonEncoder()));
+  }
+
+  @Test(expected = LlCoreDecoderRuntimeException.class)
+  public void jsonDecoder_compactFramingWithoutTopic_exception() {
+    DecoderBase decoder = new JsonDecoder();
+    decoder.setEncodableFactoryManager(factoryManager);
+    decoder.processDecoding(encode(new JsonEncoder(createCompactConfig())));
+  }
+
+  @Test(expected = LlCoreDecoderRuntimeException.class)
+  public void jsonStreamDecoder_compactFramingWithoutTopic_exception() {
+    DecoderBase decoder = new JsonStreamDecoder();
+    decoder.setEncodableFactoryManager(factoryManager);
+    decoder.processDecoding(encode(new JsonEncoder(createCompactConfig())));
+  }
+
+  @Test
+  public void decoder_sameSourceWithOtherTopic_decodedAgain() {
+    DecoderBase decoder = new JsonStreamDecoder();
+    decoder.setEncodableFactoryManager(factoryManager);
+    byte[] encoded = encode(new JsonEncoder(createCompactConfig()));
+
+    List<String> otherTopic =
+        Arrays.asList("at", "ait", "app", "msg", "group", "client2", "subj1", "subj2");
+    decoder.processDecoding(encoded, topic);
+    Packet decoded = (Packet) decoder.processDecoding(encoded, otherTopic);
+
+    assertEquals("client2", decoded.getHeader().getSourceClientId());
+  }
+
+  private Configuration createCompactConfig() {
+    Configuration config = new BaseConfiguration();
+    config.addProperty("encoding.compactFraming", true);
+    return config;
+  }
+
+  private byte[] encode(EncoderBase encoder) {
+    encoder.setEncodableFactoryManager(factoryManager);
+    return encoder.processEncoding(packet);
+  }
+
+  private void checkDecoding(DecoderBase decoder, byte[] encoded) {
+    decoder.setEncodableFactoryManager(factoryManager);
+
+    Packet decoded = (Packet) decoder.processDecoding(encoded, topic);
+    decoded.validate();
+
+    MsgHeader header = (MsgHeader) decoded.getHeader();
+    assertEquals("app", header.getApplicationId());
+    assertEquals("group", header.getSourceGroupId());
+    assertEquals("client", header.getSourceClientId());
+    assertEquals(Arrays.asList("subj1", "subj2"), header.getSubject());
+    assertEquals(1234L, header.getTimestamp());
+
+    assertEquals(2, decoded.getPayloads().size());
+    assertEquals("value", ((StringMessage) decoded.getPayloads().get(0)).getValue());
+    assertEquals("failed", ((ErrorMessage) decoded.getPayloads().get(1)).getMessage());
+  }
+}
@@ -6,16 +6,32 @@
 package at.ac.ait.lablink.core.connection.encoding.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import at.ac.ait.lablink.core.connection.encoding.IDecoder;
 import at.ac.ait.lablink.core.connection.encoding.IEncodable;
 import at.ac.ait.lablink.core.connection.encoding.IEncodableFactory;
+import at.ac.ait.lablink.core.connection.encoding.IEncodableFactoryManager;
 import at.ac.ait.lablink.core.connection.encoding.IEncoder;
+import at.ac.ait.lablink.core.connection.ex.LlCoreDecoderRuntimeException;
+import at.ac.ait.lablink.core.connection.messaging.MsgHeader;
 import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+import at.ac.ait.lablink.core.payloads.StringMessage;
+import at.ac.ait.lablink.core.service.datapoint.payloads.DoubleValue;
 
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Unit Tests for EncodableFactoryManager implementation.
  */
@@ -107,6 +123,169 @@ public class EncodableFactoryManagerImplTest {
         encodableFactoryManager.getEncodableStore().size());
   }
 
+  @Test
+  public void registerClass_withTypeId() {
+    encodableFactoryManager.registerEncodableFactory(MsgHeader.class);
+
+    assertEquals(MsgHeader.getClassTypeId(),
+        encodableFactoryManager.getTypeId(MsgHeader.getClassType()));
+    assertEquals(MsgHeader.getClassType(),
+        encodableFactoryManager.getTypeForId(MsgHeader.getClassTypeId()));
+  }
+
+  @Test
+  public void registerClass_withoutTypeId() {
+    encodableFactoryManager.registerEncodableFactory(EncodableWithStaticMethods.class);
+
+    assertEquals(IEncodableFactoryManager.NO_TYPE_ID,
+        encodableFactoryManager.getTypeId(EncodableWithStaticMethods.getClassType()));
+  }
+
+  @Test
+  public void registerClass_inheritedTypeIdIsIgnored() {
+    encodableFactoryManager.registerEncodableFactory(StringMessage.class);
+    encodableFactoryManager.registerEncodableFactory(InheritedTypeIdMessage.class);
+
+    assertEquals(IEncodableFactoryManager.NO_TYPE_ID,
+        encodableFactoryManager.getTypeId(InheritedTypeIdMessage.getClassType()));
+  }
+
+  @Test
+  public void registerTypeId_sameIdTwice() {
+    encodableFactoryManager.registerTypeId("type1", 300);
+    encodableFactoryManager.registerTypeId("type1", 300);
+
+    assertEquals(300, encodableFactoryManager.getTypeId("type1"));
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void registerTypeId_idUsedByOtherType() {
+    encodableFactoryManager.registerTypeId("type1", 300);
+    encodableFactoryManager.registerTypeId("type2", 300);
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void registerTypeId_typeWithOtherId() {
+    encodableFactoryManager.registerTypeId("type1", 300);
+    encodableFactoryManager.registerTypeId("type1", 301);
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void registerTypeId_negativeId() {
+    encodableFactoryManager.registerTypeId("type1", -5);
+  }
+
+  @Test(expected = LlCoreDecoderRuntimeException.class)
+  public void getTypeForId_unknownId() {
+    encodableFactoryManager.getTypeForId(300);
+  }
+
+  @Test
+  public void recycling_disabledByDefault() {
+    encodableFactoryManager.registerEncodableFactory(DoubleValue.class);
+
+    IEncodable value = encodableFactoryManager.createEncodable(DoubleValue.getClassType());
+    encodableFactoryManager.recycleEncodable(value);
+
+    assertFalse(encodableFactoryManager.getEncodableStore()
+        .get(DoubleValue.getClassType()) instanceof PooledEncodableFactory);
+    assertNotSame(value, encodableFactoryManager.createEncodable(DoubleValue.getClassType()));
+  }
+
+  @Test
+  public void recycling_recyclableTypesArePooled() {
+    encodableFactoryManager = new EncodableFactoryManagerImpl(createRecyclingConfig(4));
+    encodableFactoryManager.registerEncodableFactory(DoubleValue.class);
+    encodableFactoryManager.registerEncodableFactory(StringMessage.class);
+
+    assertTrue(encodableFactoryManager.getEncodableStore()
+        .get(DoubleValue.getClassType()) instanceof PooledEncodableFactory);
+    assertFalse(encodableFactoryManager.getEncodableStore()
+        .get(StringMessage.getClassType()) instanceof PooledEncodableFactory);
+
+    DoubleValue value =
+        (DoubleValue) encodableFactoryManager.createEncodable(DoubleValue.getClassType());
+    value.setDouble(12.5);
+    encodableFactoryManager.recycleEncodable(value);
+
+    DoubleValue reused =
+        (DoubleValue) encodableFactoryManager.createEncodable(DoubleValue.getClassType());
+    assertSame(value, reused);
+    assertEquals(0.0, reused.getDouble(), 0.0);
+  }
+
+  @Test
+  public void recycling_registerPooledTypeTwice() {
+    encodableFactoryManager = new EncodableFactoryManagerImpl(createRecyclingConfig(4));
+    encodableFactoryManager.registerEncodableFactory(DoubleValue.class);
+    encodableFactoryManager.registerEncodableFactory(DoubleValue.class);
+
+    PooledEncodableFactory factory = (PooledEncodableFactory) encodableFactoryManager
+        .getEncodableStore().get(DoubleValue.getClassType());
+    assertFalse(factory.getFactory() instanceof PooledEncodableFactory);
+  }
+
+  @Test
+  public void concurrentRegistrationAndLookup() throws Exception {
+    encodableFactoryManager.registerEncodableFactory(StringMessage.class);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<?> registration = executor.submit(new Runnable() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 1000; i++) {
+            encodableFactoryManager.registerEncodableFactory("type" + i,
+                EncodableWithStaticMethods.getEncodableFactory());
+            encodableFactoryManager.registerTypeId("type" + i, 1000 + i);
+          }
+        }
+      });
+      Future<?> lookup = executor.submit(new Runnable() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 10000; i++) {
+            encodableFactoryManager.createEncodable(StringMessage.getClassType());
+            encodableFactoryManager.getTypeId("type" + (i % 1000));
+          }
+        }
+      });
+      registration.get(10, TimeUnit.SECONDS);
+      lookup.get(10, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1001, encodableFactoryManager.getEncodableStore().size());
+    assertEquals("type999", encodableFactoryManager.getTypeForId(1999));
+  }
+
+  private Configuration createRecyclingConfig(int poolSize) {
+    Configuration config = new BaseConfiguration();
+    config.addProperty("encoding.recyclingPoolSize", poolSize);
+    return config;
+  }
+}
+
+class InheritedTypeIdMessage extends StringMessage {
+
+  public static String getClassType() {
+    return "InheritedTypeIdMessage";
+  }
+
+  public static IEncodableFactory getEncodableFactory() {
+    return new IEncodableFactory() {
+      @Override
+      public IEncodable createEncodableObject() {
+        return new InheritedTypeIdMessage();
+      }
+    };
+  }
+
+  @Override
+  public String getType() {
+    return InheritedTypeIdMessage.getClassType();
+  }
 }
 
 
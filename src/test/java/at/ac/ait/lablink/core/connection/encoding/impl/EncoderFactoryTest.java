@@ -5,10 +5,14 @@
 
 package at.ac.ait.lablink.core.connection.encoding.impl;
 
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.verifyNew;
 import static org.powermock.api.mockito.PowerMockito.whenNew;
 
+import at.ac.ait.lablink.core.connection.encoding.EncoderBase;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
@@ -49,5 +53,18 @@ public class EncoderFactoryTest {
     verifyNew(JsonEncoder.class).withArguments(null);
   }
 
+  @Test
+  public void getEncoderObject_bothTypes_encoderOfRequestedType() throws Exception {
+    EncoderFactory encoderFactory = new EncoderFactory(EncoderFactory.EEncoderType.JSON, null);
+
+    EncoderBase json = encoderFactory.getEncoderObject(EncoderFactory.EEncoderType.JSON);
+    EncoderBase stream = encoderFactory.getEncoderObject(EncoderFactory.EEncoderType.JSON_STREAM);
+
+    assertTrue(json instanceof JsonEncoder);
+    assertTrue(stream instanceof JsonStreamEncoder);
+    assertSame(json, encoderFactory.getDefaultEncoderObject());
+    assertSame(stream, encoderFactory.getEncoderObject(EncoderFactory.EEncoderType.JSON_STREAM));
+  }
+
   //TODO test pool implementation
 }
\ No newline at end of file
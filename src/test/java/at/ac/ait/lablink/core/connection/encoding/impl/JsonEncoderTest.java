@@ -13,6 +13,7 @@ import at.ac.ait.lablink.core.connection.encoding.IEncoder;
 import at.ac.ait.lablink.core.connection.encoding.encodabletestsamples.EncodableTestSample;
 import at.ac.ait.lablink.core.connection.encoding.encodabletestsamples.EncoderTestEncodable;
 import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+import at.ac.ait.lablink.core.service.types.Complex;
 
 import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
@@ -100,6 +101,25 @@ public class JsonEncoderTest {
     encoder.putEncodableList("Test", encodables);
   }
 
+  @Test(expected = LlCoreRuntimeException.class)
+  public void encoder_putNaN_exception_test() {
+    encoder.initEncoder();
+    encoder.putDouble("Test", Double.NaN);
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void encoder_putDoubleArrayNaN_exception_test() {
+    encoder.initEncoder();
+    encoder.putDoubleArray("Test", new double[]{1.0, Double.NaN});
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void encoder_putComplexArrayInfinite_exception_test() {
+    encoder.initEncoder();
+    encoder.putComplexArray("Test",
+        new Complex[]{new Complex(1.0, 0.0), new Complex(0.0, Double.POSITIVE_INFINITY)});
+  }
+
 
   @Test
   public void encoder_putCorrectSimpleValues() {
@@ -0,0 +1,335 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import at.ac.ait.lablink.core.connection.encoding.IDecoder;
+import at.ac.ait.lablink.core.connection.encoding.IEncodable;
+import at.ac.ait.lablink.core.connection.encoding.IEncoder;
+import at.ac.ait.lablink.core.connection.encoding.encodabletestsamples.EncodableTestSample;
+import at.ac.ait.lablink.core.connection.encoding.encodabletestsamples.EncoderTestEncodable;
+import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+import at.ac.ait.lablink.core.service.types.Complex;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit test for the streaming JSON encoder.
+ */
+public class JsonStreamEncoderTest {
+
+  JsonStreamEncoder encoder;
+
+  @Before
+  public void setUp() throws Exception {
+    encoder = new JsonStreamEncoder();
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void encoder_putInvalidKey() {
+    encoder.initEncoder();
+    encoder.putInt("$Test", 15);
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void encoder_putKeysTwice() {
+    encoder.initEncoder();
+    encoder.putInt("Test", 15);
+    encoder.putInt("Test", 16);
+  }
+
+  @Test
+  public void encoder_putSameKeyInNestedObjects() {
+    JsonEncoder jsonEncoder = new JsonEncoder();
+    jsonEncoder.initEncoder();
+    encoder.initEncoder();
+    for (IEncoder enc : Arrays.<IEncoder>asList(jsonEncoder, encoder)) {
+      enc.putEncodable("Encodable1", new EncoderTestEncodable("Hallo", 12));
+      enc.putEncodable("Encodable2", new EncoderTestEncodable("Test2", 56));
+      enc.putInt("testInt", 1);
+    }
+
+    assertEquals(jsonEncoder.getEncodedString(), encoder.getEncodedString());
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void encoder_putString_putNullValue_exception_test() {
+    encoder.initEncoder();
+    encoder.putString("Test", null);
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void encoder_putEncodableList_putNullValueInParts_exception_test() {
+    encoder.initEncoder();
+    List<IEncodable> encodables = new ArrayList<IEncodable>();
+    encodables.add(new EncodableTestSample());
+    encodables.add(null);
+    encoder.putEncodableList("Test", encodables);
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void encoder_putNaN_exception_test() {
+    encoder.initEncoder();
+    encoder.putDouble("Test", Double.NaN);
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void encoder_putDoubleArrayNaN_exception_test() {
+    encoder.initEncoder();
+    encoder.putDoubleArray("Test", new double[]{1.0, Double.NaN});
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void encoder_putEncodableRecursion() {
+    encoder.initEncoder();
+    encoder.putEncodable("TestEnc", new EncoderTestEncodableRecursion());
+  }
+
+  @Test
+  public void encoder_putCorrectSimpleValues() {
+
+    encoder.initEncoder();
+    encoder.putString("TestString", "Hallo");
+    encoder.putFloat("TestFloat", 12.234f);
+    encoder.putDouble("TestDouble", -32423.324);
+    encoder.putBoolean("TestBoolean", true);
+    encoder.putInt("TestInt", 15);
+    encoder.putLong("TestLong", 22L);
+    encoder.putBlob("TestBlob", "TestString".getBytes());
+
+    encoder.putString("TestString2", "Testing");
+    encoder.putDouble("TestDouble2", 876.234);
+    encoder.putFloat("TestFloat2", -1346.8442f);
+    encoder.putLong("TestLong2", 22L);
+    encoder.putBoolean("TestBoolean2", false);
+    encoder.putInt("TestInt2", 0);
+    encoder.putBlob("TestBlob2", "SecondTest".getBytes());
+
+    assertEquals("{\"TestString\":\"Hallo\",\"TestFloat\":12.234,\"TestDouble\":-32423.324,"
+            + "\"TestBoolean\":true,\"TestInt\":15,\"TestLong\":22,\""
+            + "TestBlob\":\"VGVzdFN0cmluZw==\",\"TestString2\":\"Testing\""
+            + ",\"TestDouble2\":876.234,\"TestFloat2\":-1346.8442,\"TestLong2\":22,"
+            + "\"TestBoolean2\":false,\"TestInt2\":0,\"TestBlob2\":\"U2Vjb25kVGVzdA==\"}",
+        encoder.getEncodedString());
+  }
+
+  @Test
+  public void encoder_encodeElement_sameOutputAsJsonEncoder() {
+    IEncodable sample = new EncodableTestSample(true);
+    assertArrayEquals(new JsonEncoder().processEncoding(sample), encoder.processEncoding(sample));
+
+    List<IEncodable> testList = new ArrayList<IEncodable>();
+    testList.add(new EncoderTestEncodable("Hallo", 12));
+    testList.add(new EncoderTestEncodable("Hallo4", 12));
+    sample = new EncodableListSample(testList);
+    assertArrayEquals(new JsonEncoder().processEncoding(sample), encoder.processEncoding(sample));
+
+    sample = new EncodableListSample(new ArrayList<IEncodable>());
+    assertArrayEquals(new JsonEncoder().processEncoding(sample), encoder.processEncoding(sample));
+  }
+
+  @Test
+  public void encoder_numbersAndStrings_sameOutputAsJsonEncoder() {
+    IEncodable sample = new ValueSample();
+    assertEquals(encodeWithJsonEncoder(sample), new String(encoder.processEncoding(sample)));
+  }
+
+  @Test
+  public void encoder_putUnicodeString_utf8() {
+    encoder.initEncoder();
+    // umlauts, euro sign, emoji (surrogate pair) and an unpaired surrogate
+    String unicode = new String(new int[]{0xe4, 0xdf, ' ', 0x20ac, ' ', 0x1f600, ' '}, 0, 7);
+    encoder.putString("unicode", unicode + (char) 0xd800);
+
+    assertArrayEquals(
+        ("{\"unicode\":\"" + unicode + "?\"}").getBytes(StandardCharsets.UTF_8),
+        encoder.getEncoded());
+  }
+
+  @Test
+  public void encoder_reuseBuffer_test() {
+    Configuration config = new BaseConfiguration();
+    config.addProperty("encoding.initialBufferSize", 16);
+    encoder = new JsonStreamEncoder(config);
+
+    IEncodable sample = new EncodableTestSample(true);
+    byte[] expected = new JsonEncoder().processEncoding(sample);
+
+    assertArrayEquals(expected, encoder.processEncoding(sample));
+    assertArrayEquals(new JsonEncoder().processEncoding(new ValueSample()),
+        encoder.processEncoding(new ValueSample()));
+    assertArrayEquals(expected, encoder.processEncoding(sample));
+
+    ByteBuffer buffer = encoder.getEncodedBuffer();
+    byte[] viewed = new byte[buffer.remaining()];
+    buffer.get(viewed);
+    assertArrayEquals(expected, viewed);
+  }
+
+  @Test
+  public void encoder_codecPlan_sameOutputAsJsonEncoder() {
+    IEncodable sample = new EncodableTestSample(true);
+    byte[] expected = new JsonEncoder().processEncoding(sample);
+    byte[] expectedValues = new JsonEncoder().processEncoding(new ValueSample());
+
+    for (int i = 0; i < 3; i++) {
+      assertArrayEquals(expected, encoder.processEncoding(sample));
+      assertArrayEquals(expectedValues, encoder.processEncoding(new ValueSample()));
+    }
+    assertTrue(encoder.isCodecPlanEnabled(EncodableTestSample.class));
+    assertTrue(encoder.isCodecPlanEnabled(ValueSample.class));
+  }
+
+  @Test
+  public void encoder_codecPlan_deviatingKeys() {
+    encoder.processEncoding(new KeySample("a", "b"));
+    assertTrue(encoder.isCodecPlanEnabled(KeySample.class));
+
+    IEncodable sample = new KeySample("a", "c", "b");
+    assertEquals(encodeWithJsonEncoder(sample), new String(encoder.processEncoding(sample)));
+    assertFalse(encoder.isCodecPlanEnabled(KeySample.class));
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void encoder_codecPlan_duplicateKeyAfterPlan() {
+    encoder.processEncoding(new KeySample("a", "b"));
+    encoder.processEncoding(new KeySample("a", "a"));
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void encoder_codecPlan_invalidKeyAfterPlan() {
+    encoder.processEncoding(new KeySample("a"));
+    encoder.processEncoding(new KeySample("a", "$b"));
+  }
+
+  @Test
+  public void encoder_codecPlan_disabled() {
+    Configuration config = new BaseConfiguration();
+    config.addProperty("encoding.codecPlans", false);
+    encoder = new JsonStreamEncoder(config);
+
+    IEncodable sample = new EncodableTestSample(true);
+    assertArrayEquals(new JsonEncoder().processEncoding(sample), encoder.processEncoding(sample));
+    assertFalse(encoder.isCodecPlanEnabled(EncodableTestSample.class));
+  }
+
+  @Test
+  public void encoder_setConfig() {
+    assertEquals("Default max stack size for encoder is not 200", 200, encoder.getMaxStackSize());
+
+    Configuration config = new BaseConfiguration();
+    config.addProperty("encoding.maxStackSize", 10);
+    encoder = new JsonStreamEncoder(config);
+
+    assertEquals("Stack size can't be set", 10, encoder.getMaxStackSize());
+  }
+
+  private String encodeWithJsonEncoder(IEncodable sample) {
+    return new String(new JsonEncoder().processEncoding(sample));
+  }
+
+  abstract class SampleBase implements IEncodable {
+
+    @Override
+    public void decode(IDecoder decoder) {
+
+    }
+
+    @Override
+    public String getType() {
+      return "stream-test";
+    }
+
+    @Override
+    public void decodingCompleted() {
+
+    }
+
+    @Override
+    public void validate() {
+
+    }
+  }
+
+  class ValueSample extends SampleBase {
+
+    @Override
+    public void encode(IEncoder encoder) {
+      encoder.putInt("intMin", Integer.MIN_VALUE);
+      encoder.putInt("intMax", Integer.MAX_VALUE);
+      encoder.putLong("longMin", Long.MIN_VALUE);
+      encoder.putLong("longMax", Long.MAX_VALUE);
+      encoder.putLong("zero", 0);
+      encoder.putDouble("doubleInt", 5.0);
+      encoder.putDouble("doubleSmall", 1.0E-12);
+      encoder.putDouble("doubleLarge", -3.5E200);
+      encoder.putFloat("floatInt", -4.0f);
+      encoder.putFloat("floatSmall", 1.5E-20f);
+      encoder.putComplex("complex", new Complex(1.0, -2.5));
+      encoder.putString("escapes", "\"quote\" \\ \n\r\t\b\f\u0001\u001f / "
+          + (char) 0x2028 + (char) 0x2029);
+      encoder.putString("empty", "");
+      encoder.putStringList("list", Arrays.asList("a", null, ""));
+      encoder.putBlob("blob", new byte[]{0, 1, 2, (byte) 255});
+      encoder.putDoubleArray("doubles", new double[]{1.0, -2.5, 1.0E-12});
+      encoder.putLongArray("longs", new long[]{Long.MIN_VALUE, 0, 7});
+      encoder.putComplexArray("complexes", new Complex[]{new Complex(1.0, -2.5)});
+      encoder.putDoubleArray("emptyDoubles", new double[0]);
+    }
+  }
+
+  class EncodableListSample extends SampleBase {
+
+    private final List<IEncodable> values;
+
+    EncodableListSample(List<IEncodable> values) {
+      this.values = values;
+    }
+
+    @Override
+    public void encode(IEncoder encoder) {
+      encoder.putEncodableList("TestList", values);
+      encoder.putBoolean("after", true);
+    }
+  }
+
+  class KeySample extends SampleBase {
+
+    private final String[] keys;
+
+    KeySample(String... keys) {
+      this.keys = keys;
+    }
+
+    @Override
+    public void encode(IEncoder encoder) {
+      for (String key : keys) {
+        encoder.putInt(key, key.length());
+      }
+    }
+  }
+
+  class EncoderTestEncodableRecursion extends SampleBase {
+
+    @Override
+    public void encode(IEncoder encoder) {
+      encoder.putEncodable("Test", new EncoderTestEncodableRecursion());
+    }
+  }
+}
@@ -0,0 +1,116 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import at.ac.ait.lablink.core.connection.encoding.DecoderBase;
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.connection.encoding.encodables.LazyPayloadList;
+import at.ac.ait.lablink.core.connection.encoding.encodables.Packet;
+import at.ac.ait.lablink.core.connection.messaging.MsgHeader;
+import at.ac.ait.lablink.core.payloads.ErrorMessage;
+import at.ac.ait.lablink.core.payloads.StringMessage;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for the lazy payload decoding of packets.
+ */
+public class LazyPayloadDecodingTest {
+
+  private EncodableFactoryManagerImpl factoryManager;
+  private byte[] encodedPacket;
+
+  @Before
+  public void setUp() throws Exception {
+    factoryManager = new EncodableFactoryManagerImpl();
+    factoryManager.registerEncodableFactory(Packet.class);
+    factoryManager.registerEncodableFactory(MsgHeader.class);
+    factoryManager.registerEncodableFactory(StringMessage.class);
+    factoryManager.registerEncodableFactory(ErrorMessage.class);
+
+    List<IPayload> payloads = new ArrayList<IPayload>();
+    payloads.add(new StringMessage("first"));
+    payloads.add(new ErrorMessage(ErrorMessage.EErrorCode.PROCESSING_ERROR, "failed"));
+    payloads.add(new StringMessage("second"));
+
+    MsgHeader header = new MsgHeader("app", "group", "client", Arrays.asList("a", "b"),
+        System.currentTimeMillis());
+    encodedPacket = new JsonEncoder().processEncoding(new Packet(header, payloads));
+  }
+
+  @Test
+  public void jsonDecoder_lazyPayloads_test() {
+    checkLazyDecoding(new JsonDecoder(createLazyConfig()));
+  }
+
+  @Test
+  public void jsonStreamDecoder_lazyPayloads_test() {
+    checkLazyDecoding(new JsonStreamDecoder(createLazyConfig()));
+  }
+
+  @Test
+  public void jsonDecoder_lazyDecodingDisabledByDefault_test() {
+    checkEagerDecoding(new JsonDecoder());
+  }
+
+  @Test
+  public void jsonStreamDecoder_lazyDecodingDisabledByDefault_test() {
+    checkEagerDecoding(new JsonStreamDecoder());
+  }
+
+  private Configuration createLazyConfig() {
+    Configuration config = new BaseConfiguration();
+    config.addProperty("encoding.lazyPayloadDecoding", true);
+    return config;
+  }
+
+  private void checkLazyDecoding(DecoderBase decoder) {
+    decoder.setEncodableFactoryManager(factoryManager);
+
+    Packet packet = (Packet) decoder.processDecoding(encodedPacket);
+    packet.validate();
+
+    assertEquals("client", ((MsgHeader) packet.getHeader()).getSourceClientId());
+    assertTrue(packet.getPayloads() instanceof LazyPayloadList);
+
+    LazyPayloadList payloads = (LazyPayloadList) packet.getPayloads();
+    assertEquals(3, payloads.size());
+    assertEquals(0, payloads.getDecodedCount());
+    assertEquals(ErrorMessage.getClassType(), payloads.getPayloadType(1));
+
+    List<IPayload> errors = payloads.removeByType(ErrorMessage.getClassType());
+    assertEquals(1, errors.size());
+    assertEquals("failed", ((ErrorMessage) errors.get(0)).getMessage());
+    assertEquals(2, payloads.size());
+    assertEquals(0, payloads.getDecodedCount());
+
+    assertEquals("second", ((StringMessage) payloads.get(1)).getValue());
+    assertEquals(1, payloads.getDecodedCount());
+    assertEquals("first", ((StringMessage) payloads.get(0)).getValue());
+    assertEquals(2, payloads.getDecodedCount());
+  }
+
+  private void checkEagerDecoding(DecoderBase decoder) {
+    decoder.setEncodableFactoryManager(factoryManager);
+
+    Packet packet = (Packet) decoder.processDecoding(encodedPacket);
+
+    assertFalse(packet.getPayloads() instanceof LazyPayloadList);
+    assertEquals(3, packet.getPayloads().size());
+    assertEquals("second", ((StringMessage) packet.getPayloads().get(2)).getValue());
+  }
+}
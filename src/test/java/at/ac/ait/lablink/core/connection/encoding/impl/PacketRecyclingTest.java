@@ -0,0 +1,129 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import at.ac.ait.lablink.core.connection.encoding.DecoderBase;
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.connection.encoding.encodables.Packet;
+import at.ac.ait.lablink.core.connection.messaging.MsgHeader;
+import at.ac.ait.lablink.core.service.datapoint.payloads.DoubleValue;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for the recycling of decoded packets and their elements.
+ */
+public class PacketRecyclingTest {
+
+  private EncodableFactoryManagerImpl factoryManager;
+
+  @Before
+  public void setUp() throws Exception {
+    Configuration config = new BaseConfiguration();
+    config.addProperty("encoding.recyclingPoolSize", 4);
+
+    factoryManager = new EncodableFactoryManagerImpl(config);
+    factoryManager.registerEncodableFactory(Packet.class);
+    factoryManager.registerEncodableFactory(MsgHeader.class);
+    factoryManager.registerEncodableFactory(DoubleValue.class);
+  }
+
+  @Test
+  public void jsonDecoder_recycling_test() {
+    checkRecycling(new JsonDecoder());
+  }
+
+  @Test
+  public void jsonStreamDecoder_recycling_test() {
+    checkRecycling(new JsonStreamDecoder());
+  }
+
+  @Test
+  public void lazyDecoding_onlyDecodedPayloadsAreRecycled() {
+    Configuration config = new BaseConfiguration();
+    config.addProperty("encoding.lazyPayloadDecoding", true);
+    DecoderBase decoder = new JsonStreamDecoder(config);
+    decoder.setEncodableFactoryManager(factoryManager);
+
+    Packet packet = (Packet) decoder.processDecoding(encodePacket(1.0, 2.0));
+    packet.retain();
+    packet.getPayloads().get(1);
+    decoder.processDecoding(encodePacket(3.0));
+    packet.release();
+
+    assertEquals(1, getPool(DoubleValue.getClassType()).getPooledCount());
+    assertEquals(1, getPool(Packet.getClassType()).getPooledCount());
+  }
+
+  @Test
+  public void release_packetWithoutUsers_ignored() {
+    DoubleValue value = new DoubleValue(5.0);
+    Packet packet = new Packet(
+        new MsgHeader("app", "group", "client", Arrays.asList("a"), 1L),
+        new ArrayList<IPayload>(Arrays.<IPayload>asList(value)));
+    packet.setRecycler(factoryManager);
+
+    packet.release();
+
+    assertEquals(5.0, value.getDouble(), 0.0);
+    assertEquals(0, getPool(DoubleValue.getClassType()).getPooledCount());
+  }
+
+  private void checkRecycling(DecoderBase decoder) {
+    decoder.setEncodableFactoryManager(factoryManager);
+
+    // the dispatcher retains the packet for the callback
+    Packet first = (Packet) decoder.processDecoding(encodePacket(1.0));
+    first.retain();
+    DoubleValue firstValue = (DoubleValue) first.getPayloads().get(0);
+
+    // the cache of the decoder releases the packet, but the callback still uses it
+    final Packet second = (Packet) decoder.processDecoding(encodePacket(2.0));
+    assertEquals(1.0, firstValue.getDouble(), 0.0);
+    assertEquals(0, getPool(Packet.getClassType()).getPooledCount());
+
+    // the callback is completed
+    first.release();
+    assertNull(first.getHeader());
+    assertEquals(1, getPool(Packet.getClassType()).getPooledCount());
+    assertEquals(1, getPool(MsgHeader.getClassType()).getPooledCount());
+    assertEquals(1, getPool(DoubleValue.getClassType()).getPooledCount());
+
+    Packet third = (Packet) decoder.processDecoding(encodePacket(3.0));
+    assertSame(first, third);
+    assertSame(firstValue, third.getPayloads().get(0));
+    assertEquals(3.0, firstValue.getDouble(), 0.0);
+    assertEquals("client", ((MsgHeader) third.getHeader()).getSourceClientId());
+
+    // the second packet has been released by the decoder cache
+    assertEquals(1, getPool(Packet.getClassType()).getPooledCount());
+    assertNull(second.getHeader());
+  }
+
+  private PooledEncodableFactory getPool(String type) {
+    return (PooledEncodableFactory) factoryManager.getEncodableStore().get(type);
+  }
+
+  private byte[] encodePacket(double... values) {
+    List<IPayload> payloads = new ArrayList<IPayload>();
+    for (double value : values) {
+      payloads.add(new DoubleValue(value, 10L));
+    }
+    MsgHeader header = new MsgHeader("app", "group", "client", Arrays.asList("a", "b"), 1L);
+    return new JsonEncoder().processEncoding(new Packet(header, payloads));
+  }
+}
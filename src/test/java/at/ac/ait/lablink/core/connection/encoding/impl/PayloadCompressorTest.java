@@ -0,0 +1,134 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import at.ac.ait.lablink.core.connection.encoding.DecoderBase;
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.connection.encoding.encodables.Packet;
+import at.ac.ait.lablink.core.connection.ex.LlCoreDecoderRuntimeException;
+import at.ac.ait.lablink.core.connection.messaging.MsgHeader;
+import at.ac.ait.lablink.core.payloads.StringMessage;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for the compression of encoded packets.
+ */
+public class PayloadCompressorTest {
+
+  private PayloadCompressor compressor;
+  private byte[] largePayload;
+
+  @Before
+  public void setUp() {
+    compressor = new PayloadCompressor(createConfig(1024));
+
+    StringBuilder builder = new StringBuilder("{\"clients\":[");
+    for (int i = 0; i < 200; i++) {
+      builder.append("{\"name\":\"client").append(i).append("\",\"group\":\"group\"},");
+    }
+    largePayload = builder.append("{}]}").toString().getBytes();
+  }
+
+  @Test
+  public void compress_largePayload_roundTrip() {
+    byte[] compressed = compressor.compress(largePayload);
+
+    assertTrue(PayloadCompressor.isCompressed(compressed));
+    assertTrue(compressed.length < largePayload.length);
+    assertArrayEquals(largePayload, compressor.decompress(compressed));
+    // pooled deflaters and inflaters are reset correctly
+    assertArrayEquals(compressed, compressor.compress(largePayload));
+    assertArrayEquals(largePayload, compressor.decompress(compressed));
+  }
+
+  @Test
+  public void compress_smallPayload_unchanged() {
+    byte[] payload = "{\"value\":1}".getBytes();
+
+    assertSame(payload, compressor.compress(payload));
+    assertFalse(PayloadCompressor.isCompressed(payload));
+  }
+
+  @Test
+  public void compress_disabledByDefault() {
+    compressor = new PayloadCompressor();
+
+    assertFalse(compressor.isCompressionEnabled());
+    assertSame(largePayload, compressor.compress(largePayload));
+  }
+
+  @Test
+  public void compress_incompressiblePayload_unchanged() {
+    byte[] payload = new byte[2048];
+    new Random(42).nextBytes(payload);
+    payload[0] = '{';
+
+    assertSame(payload, compressor.compress(payload));
+  }
+
+  @Test
+  public void decompress_uncompressedPayload_unchanged() {
+    assertSame(largePayload, compressor.decompress(largePayload));
+  }
+
+  @Test(expected = LlCoreDecoderRuntimeException.class)
+  public void decompress_corruptFrame_exception() {
+    byte[] compressed = compressor.compress(largePayload);
+    compressor.decompress(Arrays.copyOf(compressed, compressed.length / 2));
+  }
+
+  @Test(expected = LlCoreDecoderRuntimeException.class)
+  public void decompress_sizeLimitExceeded_exception() {
+    Configuration config = createConfig(1024);
+    config.addProperty("encoding.maxDecompressedSize", 1000);
+
+    new PayloadCompressor(config).decompress(compressor.compress(largePayload));
+  }
+
+  @Test
+  public void decoder_compressedPacket_decoded() {
+    EncodableFactoryManagerImpl factoryManager = new EncodableFactoryManagerImpl();
+    factoryManager.registerEncodableFactory(Packet.class);
+    factoryManager.registerEncodableFactory(MsgHeader.class);
+    factoryManager.registerEncodableFactory(StringMessage.class);
+
+    List<IPayload> payloads = new ArrayList<IPayload>();
+    payloads.add(new StringMessage(new String(largePayload)));
+    MsgHeader header = new MsgHeader("app", "group", "client", Arrays.asList("a"), 1L);
+    byte[] encoded = new JsonEncoder().processEncoding(new Packet(header, payloads));
+    byte[] compressed = compressor.compress(encoded);
+    assertTrue(PayloadCompressor.isCompressed(compressed));
+
+    for (DecoderBase decoder : Arrays.<DecoderBase>asList(new JsonDecoder(),
+        new JsonStreamDecoder())) {
+      decoder.setEncodableFactoryManager(factoryManager);
+      Packet packet = (Packet) decoder.processDecoding(compressed);
+      assertEquals(new String(largePayload),
+          ((StringMessage) packet.getPayloads().get(0)).getValue());
+    }
+  }
+
+  private Configuration createConfig(int threshold) {
+    Configuration config = new BaseConfiguration();
+    config.addProperty("encoding.compressionThreshold", threshold);
+    return config;
+  }
+}
@@ -0,0 +1,73 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.connection.encoding.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import at.ac.ait.lablink.core.connection.encoding.IEncodable;
+import at.ac.ait.lablink.core.payloads.StringMessage;
+import at.ac.ait.lablink.core.service.datapoint.payloads.LongValue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the pooled encodable factory.
+ */
+public class PooledEncodableFactoryTest {
+
+  private PooledEncodableFactory factory;
+
+  @Before
+  public void setUp() {
+    factory = new PooledEncodableFactory(LongValue.getEncodableFactory(), 2);
+  }
+
+  @Test
+  public void recycle_objectIsResetAndReused() {
+    LongValue value = (LongValue) factory.createEncodableObject();
+    value.setLong(42);
+    value.setEmulationTime(100);
+
+    factory.recycle(value);
+
+    assertEquals(1, factory.getPooledCount());
+    assertSame(value, factory.createEncodableObject());
+    assertEquals(0, value.getLong());
+    assertEquals(-1, value.getEmulationTime());
+    assertEquals(0, factory.getPooledCount());
+  }
+
+  @Test
+  public void recycle_poolIsBounded() {
+    for (int i = 0; i < 5; i++) {
+      factory.recycle(new LongValue(i));
+    }
+
+    assertEquals(2, factory.getPooledCount());
+  }
+
+  @Test
+  public void recycle_nonRecyclableObjectIgnored() {
+    factory.recycle(new StringMessage("test"));
+
+    assertEquals(0, factory.getPooledCount());
+  }
+
+  @Test
+  public void create_emptyPool_newObject() {
+    IEncodable first = factory.createEncodableObject();
+
+    assertNotSame(first, factory.createEncodableObject());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_invalidPoolSize() {
+    new PooledEncodableFactory(LongValue.getEncodableFactory(), 0);
+  }
+}
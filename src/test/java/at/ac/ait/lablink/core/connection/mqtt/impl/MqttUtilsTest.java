@@ -6,9 +6,11 @@
 package at.ac.ait.lablink.core.connection.mqtt.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 
 import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+import at.ac.ait.lablink.core.utility.StringInternCache;
 
 import junitparams.JUnitParamsRunner;
 import junitparams.Parameters;
@@ -68,6 +70,31 @@ public class MqttUtilsTest {
     assertEquals(expTopic, topic);
   }
 
+  @Test
+  @Parameters(method = "mqttPublishTopics")
+  @TestCaseName("MqttTopicConversionInterned('{0}')")
+  public void convertMqttTopicToStringList_internCache_test(String mqttTopic,
+                                                            List<String> expTopic) {
+    StringInternCache cache = new StringInternCache();
+    List<String> topic = MqttUtils.convertMqttTopicToStringList(mqttTopic, cache);
+    assertEquals(expTopic, topic);
+    assertEquals(MqttUtils.convertMqttTopicToStringList(mqttTopic), topic);
+
+    List<String> repeated = MqttUtils.convertMqttTopicToStringList(mqttTopic, cache);
+    for (int i = 0; i < topic.size(); i++) {
+      assertSame(topic.get(i), repeated.get(i));
+    }
+  }
+
+  @Test
+  public void convertMqttTopicToStringList_internCacheEdgeCases_test() {
+    StringInternCache cache = new StringInternCache();
+    for (String mqttTopic : Arrays.asList("", "/", "a//b", "/a/b//", "a/b/")) {
+      assertEquals(MqttUtils.convertMqttTopicToStringList(mqttTopic),
+          MqttUtils.convertMqttTopicToStringList(mqttTopic, cache));
+    }
+  }
+
   @Test
   @Parameters(method = "mqttSubscriptions")
   @TestCaseName("MqttSubscription('{0}') validation throws {1}")
@@ -7,17 +7,22 @@ package at.ac.ait.lablink.core.connection.publishing;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import at.ac.ait.lablink.core.connection.encoding.EncoderBase;
 import at.ac.ait.lablink.core.connection.encoding.encodables.Packet;
 import at.ac.ait.lablink.core.connection.encoding.impl.EncoderFactory;
+import at.ac.ait.lablink.core.connection.encoding.impl.PayloadCompressor;
 import at.ac.ait.lablink.core.connection.ex.LowLevelCommRuntimeException;
 import at.ac.ait.lablink.core.connection.mqtt.IMqttPublisher;
 import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
 
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -102,6 +107,25 @@ public class PublishingManagerTest {
     classUnderTest.publishPacket(topic, packet, EncoderFactory.EEncoderType.JSON);
   }
 
+  @Test
+  public void publishPacket_largePacket_publishedCompressed() throws Exception {
+    byte[] encoded = new byte[4096];
+    Arrays.fill(encoded, (byte) 'a');
+    encoded[0] = '{';
+    when(encoder.processEncoding(any(Packet.class))).thenReturn(encoded);
+
+    Configuration config = new BaseConfiguration();
+    config.addProperty("encoding.compressionThreshold", 1024);
+    PayloadCompressor compressor = new PayloadCompressor(config);
+    classUnderTest.setPayloadCompressor(compressor);
+
+    Packet packet = mock(Packet.class);
+    List<String> topic = Arrays.asList("at.ac.ait", "app", "msg");
+    classUnderTest.publishPacket(topic, packet);
+
+    verify(mqttPublisher).publish(eq("at.ac.ait/app/msg"), eq(compressor.compress(encoded)));
+  }
+
   @Test(expected = LowLevelCommRuntimeException.class)
   public void publishPacket_lowLevelThrowsException_test() throws Exception {
     doThrow(new LowLevelCommRuntimeException()).when(mqttPublisher)
@@ -5,6 +5,7 @@
 
 package at.ac.ait.lablink.core.connection.rpc.impl;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.mock;
@@ -98,4 +99,29 @@ public class RpcRequesterImplTest {
     verify(errorCallback, times(1)).handleError(any(Header.class), anyList());
   }
 
-}
\ No newline at end of file
+  @Test
+  @SuppressWarnings("unchecked")
+  public void sendRequests_noReplies_publishAllAndCallErrorHandlerForEach_test()
+      throws Exception {
+
+    List<RpcDestination> destinations = new ArrayList<RpcDestination>();
+    List<List<IPayload>> requestPayloads = new ArrayList<List<IPayload>>();
+    for (int i = 0; i < 3; i++) {
+      destinations.add(
+          RpcDestination.getBuilder(RpcDestination.ERpcDestinationChooser.SEND_TO_CLIENT)
+              .setGroupId("group").setClientId("client" + i).build());
+      requestPayloads.add(payloads);
+    }
+
+    List<String> identifiers = rpcRequester.sendRequests(destinations, requestPayloads, 1, 300);
+    assertEquals(3, identifiers.size());
+
+    Thread.sleep(700);
+    verify(rpcRootReplyDispatcher, times(3))
+        .addDispatcher(any(Iterator.class), any(IDispatcherInterface.class));
+    verify(publishingManager, times(3)).publishPacket(anyList(), any(Packet.class));
+    verify(rpcRootReplyDispatcher, times(3)).removeDispatcher(any(Iterator.class));
+    verify(errorCallback, times(3)).handleError(any(Header.class), anyList());
+  }
+
+}
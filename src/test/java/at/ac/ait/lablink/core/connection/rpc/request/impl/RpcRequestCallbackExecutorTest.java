@@ -5,9 +5,15 @@
 
 package at.ac.ait.lablink.core.connection.rpc.request.impl;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -15,11 +21,17 @@ import at.ac.ait.lablink.core.connection.encoding.IEncodable;
 import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
 import at.ac.ait.lablink.core.connection.encoding.encodables.Packet;
 import at.ac.ait.lablink.core.connection.rpc.RpcHeader;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcAsyncRequestCallback;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcReplySender;
 import at.ac.ait.lablink.core.connection.rpc.request.IRpcRequestCallback;
 import at.ac.ait.lablink.core.payloads.ErrorMessage;
+import at.ac.ait.lablink.core.payloads.StatusMessage;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -60,4 +72,50 @@ public class RpcRequestCallbackExecutorTest {
     verify(publisher, times(1)).publishResponse(eq(null), anyList());
   }
 
-}
\ No newline at end of file
+  @Test
+  @SuppressWarnings("unchecked")
+  public void handleCallback_asyncCallback_replySentOnceBySender_test() throws Exception {
+    IRpcAsyncRequestCallback asyncCb = mock(IRpcAsyncRequestCallback.class);
+    cut = new RpcRequestCallbackExecutor(createPacket(), null, asyncCb, publisher);
+    cut.handleCallback();
+
+    ArgumentCaptor<IRpcReplySender> sender = ArgumentCaptor.forClass(IRpcReplySender.class);
+    verify(asyncCb).handleRequest(any(RpcHeader.class), anyList(), sender.capture());
+    verify(publisher, never()).publishResponse(any(RpcHeader.class), anyList());
+
+    StatusMessage reply = new StatusMessage(StatusMessage.StatusCode.OK);
+    assertTrue(sender.getValue().sendReply(Collections.<IPayload>singletonList(reply)));
+    assertFalse(sender.getValue().sendReply(Collections.<IPayload>singletonList(reply)));
+
+    ArgumentCaptor<RpcHeader> header = ArgumentCaptor.forClass(RpcHeader.class);
+    ArgumentCaptor<List> payloads = ArgumentCaptor.forClass(List.class);
+    verify(publisher, times(1)).publishResponse(header.capture(), payloads.capture());
+    assertEquals("packet", header.getValue().getPacketId());
+    assertEquals(Arrays.asList("sync", "go"), header.getValue().getSubject());
+    assertEquals(Collections.singletonList(reply), payloads.getValue());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void handleCallback_asyncCallbackFails_errorReplied_test() throws Exception {
+    IRpcAsyncRequestCallback asyncCb = mock(IRpcAsyncRequestCallback.class);
+    doThrow(new IllegalStateException("failed")).when(asyncCb)
+        .handleRequest(any(RpcHeader.class), anyList(), any(IRpcReplySender.class));
+    cut = new RpcRequestCallbackExecutor(createPacket(), null, asyncCb, publisher);
+    cut.handleCallback();
+
+    ArgumentCaptor<List> payloads = ArgumentCaptor.forClass(List.class);
+    verify(publisher, times(1)).publishResponse(any(RpcHeader.class), payloads.capture());
+    assertEquals(1, payloads.getValue().size());
+    assertEquals(ErrorMessage.EErrorCode.PROCESSING_ERROR,
+        ((ErrorMessage) payloads.getValue().get(0)).getErrorCode());
+  }
+
+  private static Packet createPacket() {
+    RpcHeader header = new RpcHeader("app", "group", "host", Arrays.asList("sync", "go"), 0,
+        "group", "client", "packet");
+    List<IPayload> payloads = new ArrayList<IPayload>();
+    payloads.add(new StatusMessage(StatusMessage.StatusCode.OK));
+    return new Packet(header, payloads);
+  }
+}
@@ -0,0 +1,85 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for class LlServiceBoolean.
+ */
+public class LlServiceBooleanTest {
+
+  private LlServiceBoolean service;
+
+  @Before
+  public void setUp() {
+    service = new LlServiceBoolean("service") {
+      @Override
+      public Boolean get() {
+        return getCurState();
+      }
+
+      @Override
+      public boolean set(Boolean newval) {
+        setCurState(newval);
+        return true;
+      }
+    };
+  }
+
+  @Test
+  public void setBooleanState_primitiveAndBoxedStateMatch() {
+    assertFalse(service.getBooleanState());
+
+    service.setBooleanState(true);
+
+    assertTrue(service.getBooleanState());
+    assertEquals(Boolean.valueOf(true), service.getCurState());
+    assertEquals(Boolean.class, service.getServiceDataTypeClass());
+  }
+
+  @Test
+  public void setBooleanState_notifiersReceiveOldAndNewState() {
+    final List<Boolean> changes = new ArrayList<Boolean>();
+    service.addStateChangeBooleanNotifier(new IServiceStateChangeBooleanNotifier() {
+      @Override
+      public void stateChanged(LlServiceBoolean service, boolean oldVal, boolean newVal) {
+        changes.add(oldVal);
+        changes.add(newVal);
+      }
+    });
+    final List<Boolean> boxedChanges = new ArrayList<Boolean>();
+    service.addStateChangeNotifier(new IServiceStateChangeNotifier<LlService, Boolean>() {
+      @Override
+      public void stateChanged(LlService service, Boolean oldVal, Boolean newVal) {
+        boxedChanges.add(oldVal);
+        boxedChanges.add(newVal);
+      }
+    });
+
+    service.setBooleanState(true);
+    service.setCurState(false);
+
+    assertEquals(Arrays.asList(false, true, true, false), changes);
+    assertEquals(changes, boxedChanges);
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void setCurState_null_rejected() {
+    service.setCurState(null);
+  }
+}
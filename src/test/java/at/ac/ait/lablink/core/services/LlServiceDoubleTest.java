@@ -0,0 +1,83 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service;
+
+import static org.junit.Assert.assertEquals;
+
+import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for class LlServiceDouble.
+ */
+public class LlServiceDoubleTest {
+
+  private LlServiceDouble service;
+
+  @Before
+  public void setUp() {
+    service = new LlServiceDouble("service") {
+      @Override
+      public Double get() {
+        return getCurState();
+      }
+
+      @Override
+      public boolean set(Double newval) {
+        setCurState(newval);
+        return true;
+      }
+    };
+  }
+
+  @Test
+  public void setDoubleState_primitiveAndBoxedStateMatch() {
+    assertEquals(0.0, service.getDoubleState(), 0.0);
+
+    service.setDoubleState(1.5);
+
+    assertEquals(1.5, service.getDoubleState(), 0.0);
+    assertEquals(Double.valueOf(1.5), service.getCurState());
+    assertEquals(Double.class, service.getServiceDataTypeClass());
+  }
+
+  @Test
+  public void setDoubleState_notifiersReceiveOldAndNewState() {
+    final List<Double> changes = new ArrayList<Double>();
+    service.addStateChangeDoubleNotifier(new IServiceStateChangeDoubleNotifier() {
+      @Override
+      public void stateChanged(LlServiceDouble service, double oldVal, double newVal) {
+        changes.add(oldVal);
+        changes.add(newVal);
+      }
+    });
+    final List<Double> boxedChanges = new ArrayList<Double>();
+    service.addStateChangeNotifier(new IServiceStateChangeNotifier<LlService, Double>() {
+      @Override
+      public void stateChanged(LlService service, Double oldVal, Double newVal) {
+        boxedChanges.add(oldVal);
+        boxedChanges.add(newVal);
+      }
+    });
+
+    service.setDoubleState(1.5);
+    service.setCurState(2.5);
+
+    assertEquals(Arrays.<Double>asList(0.0, 1.5, 1.5, 2.5), changes);
+    assertEquals(changes, boxedChanges);
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void setCurState_null_rejected() {
+    service.setCurState(null);
+  }
+}
@@ -0,0 +1,83 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service;
+
+import static org.junit.Assert.assertEquals;
+
+import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for class LlServiceLong.
+ */
+public class LlServiceLongTest {
+
+  private LlServiceLong service;
+
+  @Before
+  public void setUp() {
+    service = new LlServiceLong("service") {
+      @Override
+      public Long get() {
+        return getCurState();
+      }
+
+      @Override
+      public boolean set(Long newval) {
+        setCurState(newval);
+        return true;
+      }
+    };
+  }
+
+  @Test
+  public void setLongState_primitiveAndBoxedStateMatch() {
+    assertEquals(0L, service.getLongState());
+
+    service.setLongState(15L);
+
+    assertEquals(15L, service.getLongState());
+    assertEquals(Long.valueOf(15L), service.getCurState());
+    assertEquals(Long.class, service.getServiceDataTypeClass());
+  }
+
+  @Test
+  public void setLongState_notifiersReceiveOldAndNewState() {
+    final List<Long> changes = new ArrayList<Long>();
+    service.addStateChangeLongNotifier(new IServiceStateChangeLongNotifier() {
+      @Override
+      public void stateChanged(LlServiceLong service, long oldVal, long newVal) {
+        changes.add(oldVal);
+        changes.add(newVal);
+      }
+    });
+    final List<Long> boxedChanges = new ArrayList<Long>();
+    service.addStateChangeNotifier(new IServiceStateChangeNotifier<LlService, Long>() {
+      @Override
+      public void stateChanged(LlService service, Long oldVal, Long newVal) {
+        boxedChanges.add(oldVal);
+        boxedChanges.add(newVal);
+      }
+    });
+
+    service.setLongState(15L);
+    service.setCurState(25L);
+
+    assertEquals(Arrays.<Long>asList(0L, 15L, 15L, 25L), changes);
+    assertEquals(changes, boxedChanges);
+  }
+
+  @Test(expected = LlCoreRuntimeException.class)
+  public void setCurState_null_rejected() {
+    service.setCurState(null);
+  }
+}
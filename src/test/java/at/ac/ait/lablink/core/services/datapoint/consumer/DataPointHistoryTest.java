@@ -0,0 +1,97 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.consumer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import at.ac.ait.lablink.core.service.datapoint.ex.DatapointServiceRuntimeException;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for class DataPointHistory.
+ */
+public class DataPointHistoryTest {
+
+  @Test(expected = DatapointServiceRuntimeException.class)
+  public void constructor_zeroCapacity_test() {
+    new DataPointHistory(0);
+  }
+
+  @Test
+  public void getSnapshot_notFull_test() {
+    DataPointHistory history = new DataPointHistory(5);
+    history.add(10, 11, 1.0);
+    history.add(20, 21, 2.0);
+
+    DataPointHistorySnapshot snapshot = history.getSnapshot();
+
+    assertEquals(2, history.size());
+    assertArrayEquals(new long[]{10, 20}, snapshot.getTimestamps());
+    assertArrayEquals(new long[]{11, 21}, snapshot.getEmulationTimes());
+    assertArrayEquals(new double[]{1.0, 2.0}, snapshot.getValues(), 0.0);
+  }
+
+  @Test
+  public void getSnapshot_overwriteOldest_test() {
+    DataPointHistory history = new DataPointHistory(3);
+    for (int i = 1; i <= 7; i++) {
+      history.add(i * 10, i, i);
+    }
+
+    DataPointHistorySnapshot snapshot = history.getSnapshot();
+
+    assertEquals(3, snapshot.size());
+    assertEquals(7, history.getTotalCount());
+    assertArrayEquals(new long[]{50, 60, 70}, snapshot.getTimestamps());
+    assertArrayEquals(new double[]{5.0, 6.0, 7.0}, snapshot.getValues(), 0.0);
+  }
+
+  @Test
+  public void getRange_test() {
+    DataPointHistory history = new DataPointHistory(10);
+    for (int i = 1; i <= 10; i++) {
+      history.add(i * 10, i, i);
+    }
+
+    DataPointHistorySnapshot snapshot = history.getRange(30, 55);
+
+    assertArrayEquals(new long[]{30, 40, 50}, snapshot.getTimestamps());
+    assertEquals(3.0, snapshot.getValue(0), 0.0);
+  }
+
+  @Test
+  public void getDownsampled_test() {
+    DataPointHistory history = new DataPointHistory(10);
+    for (int i = 0; i < 8; i++) {
+      history.add(i, i, i);
+    }
+
+    DataPointHistorySnapshot snapshot = history.getDownsampled(0, 7, 4);
+
+    assertArrayEquals(new long[]{1, 3, 5, 7}, snapshot.getTimestamps());
+    assertArrayEquals(new double[]{0.5, 2.5, 4.5, 6.5}, snapshot.getValues(), 0.0);
+  }
+
+  @Test
+  public void clear_test() {
+    DataPointHistory history = new DataPointHistory(3);
+    history.add(10, 10, 1.0);
+    history.clear();
+    history.add(20, 20, 2.0);
+
+    assertArrayEquals(new long[]{20}, history.getSnapshot().getTimestamps());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void snapshot_outOfBounds_test() {
+    DataPointHistory history = new DataPointHistory(3);
+    history.add(10, 10, 1.0);
+
+    history.getSnapshot().getValue(1);
+  }
+}
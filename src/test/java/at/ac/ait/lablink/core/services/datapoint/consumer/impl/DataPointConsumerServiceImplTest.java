@@ -0,0 +1,161 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.consumer.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import at.ac.ait.lablink.core.connection.ILlConnection;
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.connection.messaging.IMessageCallback;
+import at.ac.ait.lablink.core.connection.messaging.MsgHeader;
+import at.ac.ait.lablink.core.connection.rpc.IRpcRequester;
+import at.ac.ait.lablink.core.connection.rpc.reply.IRpcReplyCallback;
+import at.ac.ait.lablink.core.connection.topic.MsgSubscription;
+import at.ac.ait.lablink.core.connection.topic.RpcSubject;
+import at.ac.ait.lablink.core.service.datapoint.payloads.DoubleValue;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for the wildcard subscriptions of class DataPointConsumerServiceImpl.
+ */
+public class DataPointConsumerServiceImplTest {
+
+  private static final List<String> VOLTAGE = Arrays.asList("grid", "voltage");
+  private static final List<String> CURRENT = Arrays.asList("grid", "current");
+
+  private ILlConnection connection;
+  private DataPointConsumerServiceImpl service;
+
+  private DoubleDataPointConsumer voltage;
+  private DoubleDataPointConsumer current;
+
+  /**
+   * Set up a service with wildcard subscriptions and two consumers of the same remote client.
+   */
+  @Before
+  public void setUp() {
+    connection = mock(ILlConnection.class);
+    when(connection.registerReplyHandler(any(RpcSubject.class), any(IRpcReplyCallback.class)))
+        .thenReturn(mock(IRpcRequester.class));
+
+    BaseConfiguration config = new BaseConfiguration();
+    config.setProperty("datapoint.consumer.wildcardSubscription", true);
+    service = new DataPointConsumerServiceImpl(connection, config);
+
+    voltage = new DoubleDataPointConsumer("group", "client", VOLTAGE);
+    current = new DoubleDataPointConsumer("group", "client", CURRENT);
+    service.registerDatapointConsumer(voltage);
+    service.registerDatapointConsumer(current);
+
+    // the consumers aren't connected, the history records the received values anyway
+    voltage.enableHistory(4);
+    current.enableHistory(4);
+  }
+
+  @After
+  public void tearDown() {
+    service.shutdown();
+  }
+
+  @Test
+  public void register_secondConsumerOfClient_subscribedOnce() {
+    ArgumentCaptor<MsgSubscription> subscriptions = ArgumentCaptor.forClass(MsgSubscription.class);
+    verify(connection, times(2))
+        .registerMessageHandler(subscriptions.capture(), any(IMessageCallback.class));
+
+    assertEquals(Arrays.asList("DP", "update", "#"),
+        subscriptions.getAllValues().get(0).getSubscriptionSubject());
+    assertEquals(Arrays.asList("DP", "statusOk", "#"),
+        subscriptions.getAllValues().get(1).getSubscriptionSubject());
+    assertEquals("client", subscriptions.getValue().getSubscriptionClientId());
+  }
+
+  @Test
+  public void register_otherClient_ownSubscription() {
+    service.registerDatapointConsumer(new DoubleDataPointConsumer("group", "other", VOLTAGE));
+
+    ArgumentCaptor<MsgSubscription> subscriptions = ArgumentCaptor.forClass(MsgSubscription.class);
+    verify(connection, times(4))
+        .registerMessageHandler(subscriptions.capture(), any(IMessageCallback.class));
+    assertEquals("other", subscriptions.getAllValues().get(2).getSubscriptionClientId());
+    assertEquals("other", subscriptions.getAllValues().get(3).getSubscriptionClientId());
+  }
+
+  @Test
+  public void handleMessage_update_routedToConsumer() throws Exception {
+    IMessageCallback updateCallback = getCallback(0);
+
+    updateCallback.handleMessage(createHeader("update", CURRENT),
+        Collections.<IPayload>singletonList(new DoubleValue(4.2, 10)));
+
+    assertEquals(1, current.getHistory().size());
+    assertArrayEquals(new double[]{4.2}, current.getHistory().getSnapshot().getValues(), 0.0);
+    assertArrayEquals(new long[]{10}, current.getHistory().getSnapshot().getTimestamps());
+    assertEquals(0, voltage.getHistory().size());
+  }
+
+  @Test
+  public void handleMessage_unknownIdentifier_ignored() throws Exception {
+    IMessageCallback updateCallback = getCallback(0);
+    DoubleValue value = new DoubleValue(1.0, 10);
+
+    updateCallback.handleMessage(createHeader("update", Arrays.asList("grid", "power")),
+        Collections.<IPayload>singletonList(value));
+    getCallback(1).handleMessage(createHeader("statusOk", Arrays.asList("grid")),
+        Collections.<IPayload>emptyList());
+
+    assertEquals(0, voltage.getHistory().size());
+    assertEquals(0, current.getHistory().size());
+  }
+
+  @Test
+  public void unregister_lastConsumerOfClient_unsubscribed() {
+    final IMessageCallback updateCallback = getCallback(0);
+    final IMessageCallback statusOkCallback = getCallback(1);
+
+    service.unregisterDatapointConsumer(voltage);
+    verify(connection, never())
+        .unregisterMessageHandler(any(MsgSubscription.class), any(IMessageCallback.class));
+
+    service.unregisterDatapointConsumer(current);
+    ArgumentCaptor<IMessageCallback> callbacks = ArgumentCaptor.forClass(IMessageCallback.class);
+    verify(connection, times(2))
+        .unregisterMessageHandler(any(MsgSubscription.class), callbacks.capture());
+    assertSame(updateCallback, callbacks.getAllValues().get(0));
+    assertSame(statusOkCallback, callbacks.getAllValues().get(1));
+  }
+
+  private IMessageCallback getCallback(int index) {
+    ArgumentCaptor<IMessageCallback> callbacks = ArgumentCaptor.forClass(IMessageCallback.class);
+    verify(connection, times(2))
+        .registerMessageHandler(any(MsgSubscription.class), callbacks.capture());
+    return callbacks.getAllValues().get(index);
+  }
+
+  private static MsgHeader createHeader(String command, List<String> identifier) {
+    List<String> subject = new ArrayList<String>(Arrays.asList("DP", command));
+    subject.addAll(identifier);
+    return new MsgHeader("app", "group", "client", subject, 0);
+  }
+}
@@ -0,0 +1,218 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for class DataPointHistoryStore.
+ */
+public class DataPointHistoryStoreTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Configuration config;
+
+  @Before
+  public void setUp() throws Exception {
+    config = new BaseConfiguration();
+    config.setProperty("datapoint.history.directory", folder.getRoot().getAbsolutePath());
+    config.setProperty("datapoint.history.segmentRows", 10);
+    config.setProperty("datapoint.history.indexBlockRows", 4);
+  }
+
+  private List<Double> scanDouble(DataPointHistoryStore store, String series, long from,
+                                  long to) {
+    final List<Double> values = new ArrayList<Double>();
+    store.scanDouble(series, from, to, new IDoubleHistoryCallback() {
+      @Override
+      public void row(long timestamp, long emulationTime, double value) {
+        values.add(value);
+      }
+    });
+    return values;
+  }
+
+  private static void writeJournal(File typeDirectory, String... segments) throws Exception {
+    Files.write(new File(typeDirectory, DataPointHistoryStore.COMPACTION_JOURNAL).toPath(),
+        Arrays.asList(segments), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void appendAndScan_rotateSegments_test() {
+    DataPointHistoryStore store = new DataPointHistoryStore(null, config);
+
+    for (int i = 0; i < 25; i++) {
+      store.append("a", i, -1, (double) i);
+      store.append("b", i, -1, (double) -i);
+    }
+
+    assertEquals(5, store.getSegmentCount(EHistoryValueType.DOUBLE));
+    assertEquals(Arrays.asList(9.0, 10.0, 11.0), scanDouble(store, "a", 9, 11));
+    assertEquals(Arrays.asList(-24.0), scanDouble(store, "b", 24, 100));
+    assertEquals(0, scanDouble(store, "c", 0, 100).size());
+    store.shutdown();
+  }
+
+  @Test
+  public void scanLong_test() {
+    DataPointHistoryStore store = new DataPointHistoryStore(null, config);
+    store.append("a", 1, 2, 42L);
+
+    final List<Long> values = new ArrayList<Long>();
+    store.scanLong("a", 0, 10, new ILongHistoryCallback() {
+      @Override
+      public void row(long timestamp, long emulationTime, long value) {
+        values.add(timestamp);
+        values.add(emulationTime);
+        values.add(value);
+      }
+    });
+
+    assertEquals(Arrays.asList(1L, 2L, 42L), values);
+    store.shutdown();
+  }
+
+  @Test
+  public void reopen_test() {
+    DataPointHistoryStore store = new DataPointHistoryStore(null, config);
+    store.append("a", 1, -1, 1.0);
+    store.append("b", 2, -1, 2.0);
+    store.shutdown();
+
+    store = new DataPointHistoryStore(null, config);
+    store.append("b", 3, -1, 3.0);
+
+    assertEquals(Arrays.asList("a", "b"), store.getSeriesNames());
+    assertEquals(1, store.getSegmentCount(EHistoryValueType.DOUBLE));
+    assertEquals(Arrays.asList(2.0, 3.0), scanDouble(store, "b", 0, 10));
+    store.shutdown();
+  }
+
+  @Test
+  public void compact_test() {
+    config.setProperty("datapoint.history.segmentRows", 2);
+    DataPointHistoryStore store = new DataPointHistoryStore(null, config);
+    for (int i = 0; i < 5; i++) {
+      store.append("a", i, -1, (double) i);
+    }
+    store.shutdown();
+
+    config.setProperty("datapoint.history.segmentRows", 10);
+    store = new DataPointHistoryStore(null, config);
+    store.append("a", 5, -1, 5.0);
+    assertEquals(3, store.getSegmentCount(EHistoryValueType.DOUBLE));
+
+    store.compact();
+
+    assertEquals(2, store.getSegmentCount(EHistoryValueType.DOUBLE));
+    assertEquals(Arrays.asList(0.0, 1.0, 2.0, 3.0, 4.0, 5.0), scanDouble(store, "a", 0, 10));
+    store.shutdown();
+  }
+
+  @Test
+  public void compact_interruptedBeforeReplace_rolledBack() throws Exception {
+    config.setProperty("datapoint.history.segmentRows", 2);
+    DataPointHistoryStore store = new DataPointHistoryStore(null, config);
+    for (int i = 0; i < 5; i++) {
+      store.append("a", i, -1, (double) i);
+    }
+    store.shutdown();
+
+    // incomplete merged segment and journal of a compaction that didn't replace its target
+    File typeDirectory = new File(folder.getRoot(), "double");
+    File tmpFile = new File(typeDirectory, "segment-0000000001.lls.tmp");
+    Files.copy(new File(typeDirectory, "segment-0000000002.lls").toPath(), tmpFile.toPath());
+    writeJournal(typeDirectory, "segment-0000000001.lls", "segment-0000000002.lls");
+
+    store = new DataPointHistoryStore(null, config);
+
+    assertFalse(tmpFile.exists());
+    assertFalse(new File(typeDirectory, DataPointHistoryStore.COMPACTION_JOURNAL).exists());
+    assertEquals(3, store.getSegmentCount(EHistoryValueType.DOUBLE));
+    assertEquals(Arrays.asList(0.0, 1.0, 2.0, 3.0, 4.0), scanDouble(store, "a", 0, 10));
+    store.shutdown();
+  }
+
+  @Test
+  public void compact_interruptedAfterReplace_completed() throws Exception {
+    config.setProperty("datapoint.history.segmentRows", 2);
+    DataPointHistoryStore store = new DataPointHistoryStore(null, config);
+    for (int i = 0; i < 5; i++) {
+      store.append("a", i, -1, (double) i);
+    }
+    store.shutdown();
+
+    File typeDirectory = new File(folder.getRoot(), "double");
+    File source = new File(typeDirectory, "segment-0000000002.lls");
+    final byte[] sourceContent = Files.readAllBytes(source.toPath());
+
+    config.setProperty("datapoint.history.segmentRows", 10);
+    store = new DataPointHistoryStore(null, config);
+    store.compact();
+    store.shutdown();
+    assertFalse(source.exists());
+
+    // state after the merged segment replaced the target, but before the sources were deleted
+    Files.write(source.toPath(), sourceContent);
+    writeJournal(typeDirectory, "segment-0000000001.lls", "segment-0000000002.lls");
+
+    store = new DataPointHistoryStore(null, config);
+
+    assertFalse(source.exists());
+    assertEquals(2, store.getSegmentCount(EHistoryValueType.DOUBLE));
+    assertEquals(Arrays.asList(0.0, 1.0, 2.0, 3.0, 4.0), scanDouble(store, "a", 0, 10));
+    store.shutdown();
+  }
+
+  @Test
+  public void open_leftoverTmpFile_deleted() throws Exception {
+    DataPointHistoryStore store = new DataPointHistoryStore(null, config);
+    store.append("a", 1, -1, 1.0);
+    store.shutdown();
+
+    File tmpFile = new File(folder.getRoot(), "double/segment-0000000001.lls.tmp");
+    assertTrue(tmpFile.createNewFile());
+
+    store = new DataPointHistoryStore(null, config);
+
+    assertFalse(tmpFile.exists());
+    assertEquals(Arrays.asList(1.0), scanDouble(store, "a", 0, 10));
+    store.shutdown();
+  }
+
+  @Test
+  public void maxSegments_test() {
+    config.setProperty("datapoint.history.maxSegments", 2);
+    DataPointHistoryStore store = new DataPointHistoryStore(null, config);
+
+    for (int i = 0; i < 35; i++) {
+      store.append("a", i, -1, (double) i);
+    }
+
+    assertEquals(2, store.getSegmentCount(EHistoryValueType.DOUBLE));
+    assertEquals(Arrays.asList(20.0, 34.0), Arrays.asList(scanDouble(store, "a", 0, 100).get(0),
+        scanDouble(store, "a", 34, 34).get(0)));
+    store.shutdown();
+  }
+}
@@ -0,0 +1,194 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import at.ac.ait.lablink.core.connection.ILlConnection;
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.connection.rpc.RpcHeader;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcRequestCallback;
+import at.ac.ait.lablink.core.connection.topic.MsgSubject;
+import at.ac.ait.lablink.core.connection.topic.RpcSubject;
+import at.ac.ait.lablink.core.ex.LlCoreRuntimeException;
+import at.ac.ait.lablink.core.payloads.ErrorMessage;
+import at.ac.ait.lablink.core.payloads.StatusMessage;
+import at.ac.ait.lablink.core.service.datapoint.IDataPointNotifier;
+import at.ac.ait.lablink.core.service.datapoint.payloads.DataPointBatchMessage;
+import at.ac.ait.lablink.core.service.datapoint.payloads.DoubleValue;
+import at.ac.ait.lablink.core.service.sync.ISyncParameter;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for class DataPointServiceImpl.
+ */
+public class DataPointServiceImplTest {
+
+  private static final List<String> IDENTIFIER = Arrays.asList("grid", "voltage");
+
+  private ILlConnection connection;
+  private DataPointServiceImpl service;
+  private DoubleDataPoint dataPoint;
+
+  @Before
+  public void setUp() {
+    connection = mock(ILlConnection.class);
+  }
+
+  @Test
+  public void compactMode_routesCommandsToRegisteredDatapoint() {
+    Map<String, IRpcRequestCallback> handlers = createCompactService();
+    @SuppressWarnings("unchecked")
+    IDataPointNotifier<Double> notifier = mock(IDataPointNotifier.class);
+    dataPoint.setNotifier(notifier);
+
+    List<IPayload> reply = handlers.get("requestProperties")
+        .handleRequest(createHeader("requestProperties"), Collections.<IPayload>emptyList());
+    assertSame(dataPoint.getProps(), reply.get(0));
+
+    reply = handlers.get("requestUpdate").handleRequest(createHeader("requestUpdate"),
+        Collections.<IPayload>singletonList(
+            new StatusMessage(StatusMessage.StatusCode.NO_PAYLOAD)));
+    assertStatusOk(reply);
+    verify(notifier).requestValueUpdate(dataPoint);
+
+    DoubleValue value = new DoubleValue(3.5);
+    reply = handlers.get("setValue").handleRequest(createHeader("setValue"),
+        Collections.<IPayload>singletonList(value));
+    assertStatusOk(reply);
+    verify(notifier).valueSetNotifier(dataPoint, value);
+
+    reply = handlers.get("statusCheckPingPong").handleRequest(createHeader("statusCheckPingPong"),
+        Collections.<IPayload>emptyList());
+    assertStatusOk(reply);
+    ArgumentCaptor<MsgSubject> subject = ArgumentCaptor.forClass(MsgSubject.class);
+    verify(connection).publishMessage(subject.capture(), anyList());
+    assertEquals(Arrays.asList("DP", "statusOk", "grid", "voltage"),
+        subject.getValue().getSubject());
+  }
+
+  @Test
+  public void compactMode_unknownIdentifier_processingErrorReply() {
+    Map<String, IRpcRequestCallback> handlers = createCompactService();
+
+    RpcHeader header = new RpcHeader("app", "group", "client",
+        Arrays.asList("DP", "requestProperties", "grid", "current"), 0, "group", "client", "1");
+    List<IPayload> reply =
+        handlers.get("requestProperties").handleRequest(header, Collections.<IPayload>emptyList());
+
+    assertEquals(1, reply.size());
+    assertEquals(ErrorMessage.EErrorCode.PROCESSING_ERROR,
+        ((ErrorMessage) reply.get(0)).getErrorCode());
+  }
+
+  @Test
+  public void compactMode_duplicateIdentifier_rejected() {
+    createCompactService();
+
+    try {
+      service.registerDatapoint(new DoubleDataPoint(IDENTIFIER, "other", "V"));
+      fail("Duplicate registration expected to fail.");
+    } catch (LlCoreRuntimeException ex) {
+      assertTrue(ex.getMessage().contains("twice"));
+    }
+
+    // the first datapoint stays registered
+    List<IPayload> reply = handlers().get("requestProperties")
+        .handleRequest(createHeader("requestProperties"), Collections.<IPayload>emptyList());
+    assertSame(dataPoint.getProps(), reply.get(0));
+  }
+
+  @Test
+  public void syncBatching_valueSetTwiceInStep_bothValuesPublished() {
+    BaseConfiguration config = new BaseConfiguration();
+    config.setProperty("datapoint.service.syncBatching", true);
+    DataPointServiceImpl service = new DataPointServiceImpl(connection, config);
+
+    List<String> identifier = Arrays.asList("grid", "voltage");
+    DoubleDataPoint dataPoint = new DoubleDataPoint(identifier, "voltage", "V");
+    service.registerDatapoint(dataPoint);
+
+    ISyncParameter params = mock(ISyncParameter.class);
+    when(params.getSimBeginTime()).thenReturn(1000L);
+    service.getSyncConsumer().init(params);
+
+    dataPoint.setDouble(1.5, 10);
+    dataPoint.setDouble(2.5, 20);
+    service.getSyncConsumer().stepFinished();
+
+    ArgumentCaptor<IPayload> captor = ArgumentCaptor.forClass(IPayload.class);
+    verify(connection).publishMessage(any(MsgSubject.class), captor.capture());
+    DataPointBatchMessage batch = (DataPointBatchMessage) captor.getValue();
+
+    assertEquals(1000L, batch.getStepTime());
+    assertEquals(2, batch.size());
+    assertEquals(identifier, batch.getIdentifier(0));
+    assertEquals(1.5, (Double) batch.getValue(0).getValue(), 0.0);
+    assertEquals(10L, batch.getValue(0).getTime());
+    assertEquals(identifier, batch.getIdentifier(1));
+    assertEquals(2.5, (Double) batch.getValue(1).getValue(), 0.0);
+    assertEquals(20L, batch.getValue(1).getTime());
+  }
+
+  private Map<String, IRpcRequestCallback> createCompactService() {
+    BaseConfiguration config = new BaseConfiguration();
+    config.setProperty("datapoint.service.compactMode", true);
+    service = new DataPointServiceImpl(connection, config);
+    dataPoint = new DoubleDataPoint(IDENTIFIER, "voltage", "V");
+    service.registerDatapoint(dataPoint);
+    return handlers();
+  }
+
+  /* Routing handlers of the compact mode by their command */
+  private Map<String, IRpcRequestCallback> handlers() {
+    ArgumentCaptor<RpcSubject> subjects = ArgumentCaptor.forClass(RpcSubject.class);
+    ArgumentCaptor<IRpcRequestCallback> callbacks =
+        ArgumentCaptor.forClass(IRpcRequestCallback.class);
+    verify(connection, times(5)).registerRequestHandler(subjects.capture(), callbacks.capture());
+
+    Map<String, IRpcRequestCallback> handlers = new HashMap<String, IRpcRequestCallback>();
+    List<RpcSubject> registered = new ArrayList<RpcSubject>(subjects.getAllValues());
+    for (int i = 0; i < registered.size(); i++) {
+      List<String> subject = registered.get(i).getSubject();
+      if (subject.get(0).equals("DP")) {
+        handlers.put(subject.get(1), callbacks.getAllValues().get(i));
+      }
+    }
+    assertEquals(4, handlers.size());
+    return handlers;
+  }
+
+  private static RpcHeader createHeader(String command) {
+    List<String> subject = new ArrayList<String>(Arrays.asList("DP", command));
+    subject.addAll(IDENTIFIER);
+    return new RpcHeader("app", "group", "client", subject, 0, "group", "client", "1");
+  }
+
+  private static void assertStatusOk(List<IPayload> reply) {
+    assertEquals(1, reply.size());
+    assertEquals(StatusMessage.StatusCode.OK, ((StatusMessage) reply.get(0)).getStatusCode());
+  }
+}
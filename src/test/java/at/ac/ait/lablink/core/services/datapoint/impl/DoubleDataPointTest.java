@@ -0,0 +1,61 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import at.ac.ait.lablink.core.service.datapoint.IDataPointService;
+import at.ac.ait.lablink.core.service.datapoint.payloads.ISimpleValue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for class DoubleDataPoint.
+ */
+public class DoubleDataPointTest {
+
+  private static final List<String> IDENTIFIER = Arrays.asList("grid", "voltage");
+
+  private IDataPointService service;
+  private DoubleDataPoint dataPoint;
+
+  @Before
+  public void setUp() {
+    service = mock(IDataPointService.class);
+    dataPoint = new DoubleDataPoint(IDENTIFIER, "voltage", "V");
+  }
+
+  @Test
+  public void setDouble_lastValueUpdatedAndPublished() {
+    dataPoint.setDataPointService(service);
+
+    dataPoint.setDouble(230.5, 100);
+
+    assertEquals(230.5, dataPoint.getDouble(), 0.0);
+    assertEquals(Double.valueOf(230.5), dataPoint.getValue());
+    assertEquals(100, dataPoint.getTimestamp());
+    assertEquals(100, dataPoint.getLastValue().getEmulationTime());
+    verify(service).publishValue(IDENTIFIER, dataPoint.getLastValue());
+  }
+
+  @Test
+  public void setDouble_withoutService_notPublished() {
+    dataPoint.setDouble(1.0, 10);
+    dataPoint.setDataPointService(service);
+
+    assertEquals(1.0, dataPoint.getDouble(), 0.0);
+    verify(service, never()).publishValue(anyList(), any(ISimpleValue.class));
+  }
+}
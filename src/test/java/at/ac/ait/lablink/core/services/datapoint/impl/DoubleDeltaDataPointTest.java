@@ -0,0 +1,74 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import at.ac.ait.lablink.core.service.datapoint.IDataPointService;
+import at.ac.ait.lablink.core.service.datapoint.payloads.ISimpleValue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests for class DoubleDeltaDataPoint.
+ */
+public class DoubleDeltaDataPointTest {
+
+  private IDataPointService service;
+  private DoubleDeltaDataPoint dataPoint;
+
+  @Before
+  public void setUp() {
+    service = mock(IDataPointService.class);
+    dataPoint = new DoubleDeltaDataPoint(
+        new DoubleDataPoint(Arrays.asList("grid", "voltage"), "voltage", "V"), 1.0);
+    dataPoint.setDataPointService(service);
+  }
+
+  @Test
+  public void setDouble_changeWithinDelta_ignored() {
+    dataPoint.setDouble(0.5, 10);
+    dataPoint.setDouble(-0.9, 20);
+
+    assertEquals(0.0, dataPoint.getDouble(), 0.0);
+    verify(service, never()).publishValue(anyList(), any(ISimpleValue.class));
+  }
+
+  @Test
+  public void setDouble_changeBeyondDelta_published() {
+    dataPoint.setDouble(1.5, 10);
+
+    assertEquals(1.5, dataPoint.getDouble(), 0.0);
+    assertEquals(10, dataPoint.getTimestamp());
+
+    // the delta refers to the last published value
+    dataPoint.setDouble(2.0, 20);
+    dataPoint.setDouble(0.5, 30);
+
+    assertEquals(0.5, dataPoint.getDouble(), 0.0);
+    assertEquals(30, dataPoint.getTimestamp());
+    verify(service, times(2)).publishValue(anyList(), any(ISimpleValue.class));
+  }
+
+  @Test
+  public void setValue_boxedAndPrimitiveSetterAgree() {
+    dataPoint.setValue(0.5, 10);
+    assertEquals(0.0, dataPoint.getDouble(), 0.0);
+
+    dataPoint.setValue(3.0, 20);
+    assertEquals(3.0, dataPoint.getDouble(), 0.0);
+    assertEquals(Double.valueOf(3.0), dataPoint.getValue());
+  }
+}
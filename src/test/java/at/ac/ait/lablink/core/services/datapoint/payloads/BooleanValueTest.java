@@ -5,9 +5,13 @@
 
 package at.ac.ait.lablink.core.service.datapoint.payloads;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import at.ac.ait.lablink.core.connection.encoding.encodables.PayloadBaseTest;
 
 import org.junit.Before;
+import org.junit.Test;
 
 /**
  * Unit Tests for BooleanValue.
@@ -20,4 +24,13 @@ public class BooleanValueTest extends PayloadBaseTest {
     expectedName = "booleanValue";
   }
 
-}
\ No newline at end of file
+  @Test
+  public void setBoolean_primitiveAndBoxedValueMatch() {
+    BooleanValue value = new BooleanValue();
+
+    value.setBoolean(true);
+
+    assertTrue(value.getBoolean());
+    assertEquals(Boolean.TRUE, value.getValue());
+  }
+}
@@ -0,0 +1,46 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.datapoint.payloads;
+
+import static org.junit.Assert.assertEquals;
+
+import at.ac.ait.lablink.core.connection.encoding.encodables.PayloadBaseTest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Unit Tests for DataPointBatchMessage.
+ */
+public class DataPointBatchMessageTest extends PayloadBaseTest {
+
+  @Before
+  public void setUp() throws Exception {
+    classUnderTest = new DataPointBatchMessage();
+    expectedName = "datapointBatch";
+  }
+
+  @Test
+  public void addValue_keepsCopiesOfIdentifiersAndValuesInOrder() {
+    DataPointBatchMessage batch = new DataPointBatchMessage(1000);
+    LongValue first = new LongValue(5, 100);
+    DoubleValue second = new DoubleValue(2.5);
+    batch.addValue(Arrays.asList("grid", "voltage"), first);
+    batch.addValue(Arrays.asList("power"), second);
+    batch.validate();
+    first.setValue(7L);
+
+    assertEquals(1000, batch.getStepTime());
+    assertEquals(2, batch.size());
+    assertEquals(Arrays.asList("grid", "voltage"), batch.getIdentifier(0));
+    assertEquals(5L, batch.getValue(0).getValue());
+    assertEquals(100L, batch.getValue(0).getTime());
+    assertEquals(Arrays.asList("power"), batch.getIdentifier(1));
+    assertEquals(second.getValue(), batch.getValue(1).getValue());
+  }
+}
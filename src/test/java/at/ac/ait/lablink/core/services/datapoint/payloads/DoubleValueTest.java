@@ -5,9 +5,12 @@
 
 package at.ac.ait.lablink.core.service.datapoint.payloads;
 
+import static org.junit.Assert.assertEquals;
+
 import at.ac.ait.lablink.core.connection.encoding.encodables.PayloadBaseTest;
 
 import org.junit.Before;
+import org.junit.Test;
 
 /**
  * Unit Tests for DoubleValue.
@@ -20,4 +23,13 @@ public class DoubleValueTest extends PayloadBaseTest {
     expectedName = "doubleValue";
   }
 
-}
\ No newline at end of file
+  @Test
+  public void setDouble_primitiveAndBoxedValueMatch() {
+    DoubleValue value = new DoubleValue();
+
+    value.setDouble(2.5);
+
+    assertEquals(2.5, value.getDouble(), 0.0);
+    assertEquals(Double.valueOf(2.5), value.getValue());
+  }
+}
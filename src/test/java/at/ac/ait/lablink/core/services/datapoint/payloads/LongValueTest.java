@@ -5,9 +5,12 @@
 
 package at.ac.ait.lablink.core.service.datapoint.payloads;
 
+import static org.junit.Assert.assertEquals;
+
 import at.ac.ait.lablink.core.connection.encoding.encodables.PayloadBaseTest;
 
 import org.junit.Before;
+import org.junit.Test;
 
 /**
  * Unit Tests for LongValue.
@@ -20,4 +23,13 @@ public class LongValueTest extends PayloadBaseTest {
     expectedName = "longValue";
   }
 
-}
\ No newline at end of file
+  @Test
+  public void setLong_primitiveAndBoxedValueMatch() {
+    LongValue value = new LongValue();
+
+    value.setLong(25L);
+
+    assertEquals(25L, value.getLong());
+    assertEquals(Long.valueOf(25L), value.getValue());
+  }
+}
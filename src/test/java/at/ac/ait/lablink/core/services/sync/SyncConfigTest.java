@@ -0,0 +1,170 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.eclipsesource.json.Json;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Unit tests for the sync configuration.
+ */
+public class SyncConfigTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void readSyncConfig_nextEventModeDisabledByDefault() throws IOException {
+    SyncConfig config = readConfig("\"simMode\":\"SIM\",\"simStepSize_ms\":1000");
+
+    assertFalse(config.isNextEventMode());
+    assertEquals(0, config.getSimMaxStepSize());
+  }
+
+  @Test
+  public void getNextStepUntil_fixedStep() throws IOException {
+    SyncConfig config = readConfig("\"simMode\":\"SIM\",\"simStepSize_ms\":1000");
+    long begin = config.getSimBeginTime();
+
+    assertEquals(begin + 1000, config.getNextStepUntil(begin, begin + 60000));
+    assertEquals(begin + 1000, config.getNextStepUntil(begin, Long.MAX_VALUE));
+  }
+
+  @Test
+  public void getNextStepUntil_nextEvent() throws IOException {
+    SyncConfig config = readConfig("\"simMode\":\"SIM\",\"simStepSize_ms\":1000,"
+        + "\"nextEventMode\":true,\"simMaxStepSize_ms\":120000");
+    long begin = config.getSimBeginTime();
+    assertTrue(config.isNextEventMode());
+
+    // jump to the requested time
+    assertEquals(begin + 60000, config.getNextStepUntil(begin, begin + 60000));
+    // limited by the maximum step size
+    assertEquals(begin + 120000, config.getNextStepUntil(begin, begin + 300000));
+    // limited by the end of the simulation
+    long end = config.getSimEndTime();
+    assertEquals(end, config.getNextStepUntil(end - 1000, end + 60000));
+    // no valid request: regular step
+    assertEquals(begin + 1000, config.getNextStepUntil(begin, Long.MAX_VALUE));
+    assertEquals(begin + 1000, config.getNextStepUntil(begin, begin));
+  }
+
+  @Test
+  public void getNextStepUntil_emulationIgnoresNextEvent() throws IOException {
+    SyncConfig config = readConfig("\"simMode\":\"EMU\",\"simStepSize_ms\":1000,"
+        + "\"simScaleFactor\":2,\"nextEventMode\":true");
+    long begin = config.getSimBeginTime();
+
+    assertEquals(begin + 2000, config.getNextStepUntil(begin, begin + 60000));
+  }
+
+  @Test
+  public void readSyncConfig_clientStepSizes() throws IOException {
+    SyncConfig config = readConfig("\"simMode\":\"SIM\",\"simStepSize_ms\":1",
+        "{\"clientGroup\":\"group\",\"clientId\":\"fast\"},"
+            + "{\"clientGroup\":\"group\",\"clientId\":\"slow\",\"stepSize_ms\":1000}");
+
+    assertTrue(config.isMultiRate());
+    assertEquals(0, config.getClientStepSize(new SyncParticipant("group", "fast")));
+    assertEquals(1000, config.getClientStepSize(new SyncParticipant("group", "slow")));
+  }
+
+  @Test
+  public void getClientStepUntil_ownStepSize() throws IOException {
+    SyncConfig config = readConfig("\"simMode\":\"SIM\",\"simStepSize_ms\":1");
+    long begin = config.getSimBeginTime();
+
+    assertEquals(begin + 1, config.getClientStepUntil(0, begin, begin + 1));
+    assertEquals(begin + 1000, config.getClientStepUntil(1000, begin, begin + 1));
+    // at least until the end of the current step
+    assertEquals(begin + 5000, config.getClientStepUntil(1000, begin, begin + 5000));
+    // limited by the end of the simulation
+    long end = config.getSimEndTime();
+    assertEquals(end, config.getClientStepUntil(1000, end - 10, end - 9));
+  }
+
+  @Test
+  public void updateSyncParameter_stepSchedule() throws IOException {
+    SyncConfig config = readConfig("\"simMode\":\"SIM\",\"simStepSize_ms\":1000,"
+        + "\"simBeginTime\":\"01.01.2017 12:00:00\",\"stepSchedule\":["
+        + "{\"from\":\"01.01.2017 12:10:00\",\"simStepSize_ms\":100},"
+        + "{\"from\":\"01.01.2017 12:20:00\",\"simMode\":\"EMU\",\"simScaleFactor\":2}]");
+    long begin = config.getSimBeginTime();
+
+    assertFalse(config.updateSyncParameter(begin));
+    assertEquals(1000, config.getSimStepSize());
+
+    assertTrue(config.updateSyncParameter(begin + 600000));
+    assertEquals(100, config.getSimStepSize());
+    assertEquals(ELlSimulationMode.SIMULATION, config.getSimMode());
+
+    assertTrue(config.updateSyncParameter(begin + 1200000));
+    assertEquals(100, config.getSimStepSize());
+    assertEquals(ELlSimulationMode.EMULATION, config.getSimMode());
+    assertEquals(2, config.getSimScaleFactor());
+    assertFalse(config.updateSyncParameter(begin + 1300000));
+  }
+
+  @Test
+  public void updateSyncParameter_requestedStepSize() throws IOException {
+    SyncConfig config = readConfig("\"simMode\":\"SIM\",\"simStepSize_ms\":1000,"
+        + "\"simMinStepSize_ms\":10");
+    long begin = config.getSimBeginTime();
+
+    // refinement of the step
+    assertTrue(config.updateSyncParameter(begin, 100));
+    assertEquals(100, config.getSimStepSize());
+    // limited by the minimum step size
+    assertTrue(config.updateSyncParameter(begin + 100, 1));
+    assertEquals(10, config.getSimStepSize());
+    // larger step sizes than the scheduled one are ignored
+    assertTrue(config.updateSyncParameter(begin + 110, 5000));
+    assertEquals(1000, config.getSimStepSize());
+    // refinement ends without request
+    config.updateSyncParameter(begin + 1110, 100);
+    assertTrue(config.updateSyncParameter(begin + 1210));
+    assertEquals(1000, config.getSimStepSize());
+  }
+
+  @Test
+  public void readRequiredClientConfigs_relayParameter() {
+    Map<SyncParticipant, String> configs = SyncConfig.readRequiredClientConfigs(Json.parse(
+        "{\"requiredClients\":[{\"clientGroup\":\"group\",\"clientId\":\"client1\","
+            + "\"Parameter\":{\"value\":1}},{\"clientGroup\":\"group\","
+            + "\"clientId\":\"client2\"}]}").asObject());
+
+    assertEquals(2, configs.size());
+    assertEquals("{\"value\":1}", configs.get(new SyncParticipant("group", "client1")));
+    assertEquals("{}", configs.get(new SyncParticipant("group", "client2")));
+    assertTrue(SyncConfig.readRequiredClientConfigs(Json.object()).isEmpty());
+  }
+
+  private SyncConfig readConfig(String syncParams) throws IOException {
+    return readConfig(syncParams, "");
+  }
+
+  private SyncConfig readConfig(String syncParams, String requiredClients) throws IOException {
+    File file = folder.newFile("sync.json");
+    try (Writer writer = new FileWriter(file)) {
+      writer.write("{\"syncParams\":{" + syncParams + "},\"requiredClients\":["
+          + requiredClients + "]}");
+    }
+    return SyncConfig.readSyncConfigFromFile(file.getAbsolutePath());
+  }
+}
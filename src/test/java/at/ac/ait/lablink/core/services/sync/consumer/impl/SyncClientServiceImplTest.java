@@ -0,0 +1,246 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.consumer.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import at.ac.ait.lablink.core.connection.ClientIdentifier;
+import at.ac.ait.lablink.core.connection.ILlConnection;
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.connection.messaging.IMessageCallback;
+import at.ac.ait.lablink.core.connection.messaging.MsgHeader;
+import at.ac.ait.lablink.core.connection.rpc.IRpcRequester;
+import at.ac.ait.lablink.core.connection.rpc.RpcHeader;
+import at.ac.ait.lablink.core.connection.rpc.reply.IRpcReplyCallback;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcAsyncRequestCallback;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcReplySender;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcRequestCallback;
+import at.ac.ait.lablink.core.connection.topic.MsgSubscription;
+import at.ac.ait.lablink.core.connection.topic.RpcSubject;
+import at.ac.ait.lablink.core.payloads.StatusMessage;
+import at.ac.ait.lablink.core.service.sync.ELlSimulationMode;
+import at.ac.ait.lablink.core.service.sync.ISyncParameter;
+import at.ac.ait.lablink.core.service.sync.SyncParticipant;
+import at.ac.ait.lablink.core.service.sync.consumer.ISyncConsumer;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncClientConfigMessage;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncDeliveryMessage;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncGoReply;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncGoRequest;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncParamMessage;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for the request handling and the delivery markers of class SyncClientServiceImpl.
+ */
+public class SyncClientServiceImplTest {
+
+  private static final SyncParticipant OTHER = new SyncParticipant("group", "other");
+
+  private ILlConnection connection;
+  private ISyncConsumer consumer;
+  private BaseConfiguration config;
+  private SyncClientServiceImpl service;
+
+  /**
+   * Set up a mocked connection and consumer.
+   */
+  @Before
+  public void setUp() {
+    connection = mock(ILlConnection.class);
+    when(connection.getClientIdentifier()).thenReturn(
+        new ClientIdentifier(Collections.singletonList("at"), "app", "group", "client"));
+    when(connection.registerReplyHandler(any(RpcSubject.class), any(IRpcReplyCallback.class)))
+        .thenReturn(mock(IRpcRequester.class));
+
+    consumer = mock(ISyncConsumer.class);
+    when(consumer.init(any(ISyncParameter.class))).thenReturn(true);
+    when(consumer.go(anyLong(), anyLong(), any(ISyncParameter.class))).thenReturn(2000L);
+
+    config = new BaseConfiguration();
+  }
+
+  @After
+  public void tearDown() {
+    if (service != null) {
+      service.shutdown();
+    }
+  }
+
+  @Test
+  public void goRequest_markerPending_callbackThreadNotBlocked() throws Exception {
+    createService();
+    startSimulation();
+    when(connection.getCurrentCallbackExecution()).thenReturn(7L);
+
+    IRpcReplySender sender = mock(IRpcReplySender.class);
+    getRequestCallback(1).handleRequest(createRequestHeader(), Arrays.<IPayload>asList(
+        new SyncGoRequest(0, 1000), new SyncDeliveryMessage(OTHER, 5)), sender);
+
+    // the step waits for the marker on its own thread
+    Thread.sleep(50);
+    verify(sender, never()).sendReply(anyList());
+
+    getDeliveryCallback().handleMessage(createMessageHeader("other"),
+        Collections.<IPayload>singletonList(new SyncDeliveryMessage(OTHER, 5)));
+
+    SyncGoReply reply = (SyncGoReply) awaitReply(sender).get(0);
+    assertEquals(2000L, reply.getNextSimTime());
+    verify(connection).awaitCallbackExecutions(eq(7L), anyLong());
+  }
+
+  @Test
+  public void goRequest_lowerSequenceAfterReinit_awaited() throws Exception {
+    createService();
+    startSimulation();
+    getDeliveryCallback().handleMessage(createMessageHeader("other"),
+        Collections.<IPayload>singletonList(new SyncDeliveryMessage(OTHER, 5)));
+
+    // the other participant restarted and counts its messages from the beginning
+    initSimulation();
+    IRpcReplySender sender = mock(IRpcReplySender.class);
+    getRequestCallback(1).handleRequest(createRequestHeader(), Arrays.<IPayload>asList(
+        new SyncGoRequest(0, 1000), new SyncDeliveryMessage(OTHER, 2)), sender);
+
+    Thread.sleep(50);
+    verify(sender, never()).sendReply(anyList());
+
+    getDeliveryCallback().handleMessage(createMessageHeader("other"),
+        Collections.<IPayload>singletonList(new SyncDeliveryMessage(OTHER, 2)));
+    assertTrue(awaitReply(sender).get(0) instanceof SyncGoReply);
+  }
+
+  @Test
+  public void goRequest_otherParticipantNotSource_notAwaited() throws Exception {
+    config.setProperty("syncClient.deliverySources", "group/source");
+    createService();
+    startSimulation();
+
+    IRpcReplySender sender = mock(IRpcReplySender.class);
+    getRequestCallback(1).handleRequest(createRequestHeader(), Arrays.<IPayload>asList(
+        new SyncGoRequest(0, 1000), new SyncDeliveryMessage(OTHER, 5)), sender);
+
+    assertTrue(awaitReply(sender).get(0) instanceof SyncGoReply);
+    verify(connection, never()).awaitCallbackExecutions(anyLong(), anyLong());
+  }
+
+  @Test
+  public void create_deliverySources_markersOfSourcesSubscribed() {
+    config.setProperty("syncClient.deliverySources", "group/source");
+    createService();
+
+    List<MsgSubscription> subscriptions = getSubscriptions();
+    assertEquals(3, subscriptions.size());
+    assertEquals(Arrays.asList("sync", "delivery"),
+        subscriptions.get(2).getSubscriptionSubject());
+    assertEquals("source", subscriptions.get(2).getSubscriptionClientId());
+  }
+
+  @Test
+  public void addDeliverySource_markersOfAllParticipantsUnsubscribed() {
+    createService();
+    service.addDeliverySource("group", "other");
+    service.addDeliverySource("group", "other");
+
+    List<MsgSubscription> subscriptions = getSubscriptions();
+    assertEquals(4, subscriptions.size());
+    assertEquals("+", subscriptions.get(2).getSubscriptionClientId());
+    assertEquals("other", subscriptions.get(3).getSubscriptionClientId());
+
+    ArgumentCaptor<MsgSubscription> removed = ArgumentCaptor.forClass(MsgSubscription.class);
+    verify(connection).unregisterMessageHandler(removed.capture(), any(IMessageCallback.class));
+    assertEquals("+", removed.getValue().getSubscriptionClientId());
+  }
+
+  private void createService() {
+    service = new SyncClientServiceImpl(connection, config);
+    service.registerSyncConsumer(consumer);
+  }
+
+  /* Register the client to the sync host and initialize the simulation */
+  private void startSimulation() throws Exception {
+    getMessageCallbacks().get(0).handleMessage(createMessageHeader("host"),
+        Collections.<IPayload>emptyList());
+    ArgumentCaptor<IRpcReplyCallback> registering =
+        ArgumentCaptor.forClass(IRpcReplyCallback.class);
+    verify(connection).registerReplyHandler(any(RpcSubject.class), registering.capture());
+    registering.getValue().handleReply(createRequestHeader(),
+        Collections.<IPayload>singletonList(new StatusMessage(StatusMessage.StatusCode.OK)));
+    initSimulation();
+  }
+
+  private void initSimulation() {
+    IRpcReplySender sender = mock(IRpcReplySender.class);
+    getRequestCallback(0).handleRequest(createRequestHeader(), Arrays.<IPayload>asList(
+        new SyncParamMessage("scenario", ELlSimulationMode.SIMULATION, 0, 10000, 1, 1000),
+        new SyncClientConfigMessage("")), sender);
+    StatusMessage status = (StatusMessage) awaitReply(sender).get(0);
+    assertEquals(StatusMessage.StatusCode.OK, status.getStatusCode());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<IPayload> awaitReply(IRpcReplySender sender) {
+    ArgumentCaptor<List> reply = ArgumentCaptor.forClass(List.class);
+    verify(sender, timeout(1000)).sendReply(reply.capture());
+    return reply.getValue();
+  }
+
+  private IRpcAsyncRequestCallback getRequestCallback(int index) {
+    ArgumentCaptor<IRpcRequestCallback> callbacks =
+        ArgumentCaptor.forClass(IRpcRequestCallback.class);
+    verify(connection, times(3))
+        .registerRequestHandler(any(RpcSubject.class), callbacks.capture());
+    return (IRpcAsyncRequestCallback) callbacks.getAllValues().get(index);
+  }
+
+  private List<IMessageCallback> getMessageCallbacks() {
+    ArgumentCaptor<IMessageCallback> callbacks = ArgumentCaptor.forClass(IMessageCallback.class);
+    verify(connection, atLeastOnce())
+        .registerMessageHandler(any(MsgSubscription.class), callbacks.capture());
+    return callbacks.getAllValues();
+  }
+
+  private IMessageCallback getDeliveryCallback() {
+    return getMessageCallbacks().get(2);
+  }
+
+  private List<MsgSubscription> getSubscriptions() {
+    ArgumentCaptor<MsgSubscription> subscriptions =
+        ArgumentCaptor.forClass(MsgSubscription.class);
+    verify(connection, atLeastOnce())
+        .registerMessageHandler(subscriptions.capture(), any(IMessageCallback.class));
+    return subscriptions.getAllValues();
+  }
+
+  private static MsgHeader createMessageHeader(String clientId) {
+    return new MsgHeader("app", "group", clientId, Arrays.asList("sync", "delivery"), 0);
+  }
+
+  private static RpcHeader createRequestHeader() {
+    return new RpcHeader("app", "group", "host", Arrays.asList("sync", "go"), 0, "group",
+        "client", "packet");
+  }
+}
@@ -0,0 +1,169 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.consumer.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import at.ac.ait.lablink.core.service.sync.ISyncParameter;
+import at.ac.ait.lablink.core.service.sync.consumer.ISyncConsumer;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for class SyncConsumerExecutor.
+ */
+public class SyncConsumerExecutorTest {
+
+  private SyncConsumerExecutor executor;
+
+  @After
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  public void execute_sequential_resultsInOrder() {
+    executor = new SyncConsumerExecutor(0);
+    List<ISyncConsumer> consumers = Arrays.asList(new StepConsumer(10), new StepConsumer(20));
+
+    long[] results = executor.execute(consumers, "go", consumer -> consumer.go(0, 5, null));
+
+    assertArrayEquals(new long[]{10, 20}, results);
+    assertEquals(2, executor.getDurations().size());
+  }
+
+  @Test
+  public void execute_parallel_consumersRunConcurrently() {
+    executor = new SyncConsumerExecutor(2);
+    final CountDownLatch bothStarted = new CountDownLatch(2);
+    ISyncConsumer first = new StepConsumer(10) {
+      @Override
+      public long go(long currentSimTime, long until, ISyncParameter scs) {
+        return awaitOther(bothStarted) ? super.go(currentSimTime, until, scs) : -1;
+      }
+    };
+    ISyncConsumer second = new StepConsumer(20) {
+      @Override
+      public long go(long currentSimTime, long until, ISyncParameter scs) {
+        return awaitOther(bothStarted) ? super.go(currentSimTime, until, scs) : -1;
+      }
+    };
+
+    long[] results = executor.execute(Arrays.asList(first, second), "go",
+        consumer -> consumer.go(0, 5, null));
+
+    assertArrayEquals(new long[]{10, 20}, results);
+    assertTrue(executor.getDurations().get(first) > 0);
+  }
+
+  @Test
+  public void execute_parallelFailure_allConsumersCalled() {
+    executor = new SyncConsumerExecutor(2);
+    final AtomicInteger calls = new AtomicInteger();
+    ISyncConsumer failing = new StepConsumer(10) {
+      @Override
+      public long go(long currentSimTime, long until, ISyncParameter scs) {
+        calls.incrementAndGet();
+        throw new IllegalStateException("failed");
+      }
+    };
+    ISyncConsumer working = new StepConsumer(20) {
+      @Override
+      public long go(long currentSimTime, long until, ISyncParameter scs) {
+        calls.incrementAndGet();
+        return super.go(currentSimTime, until, scs);
+      }
+    };
+
+    try {
+      executor.execute(Arrays.asList(failing, working), "go", consumer -> consumer.go(0, 5, null));
+      fail("Exception of the consumer expected.");
+    } catch (IllegalStateException ex) {
+      assertEquals("failed", ex.getMessage());
+    }
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void execute_sequentialFailure_allConsumersCalled() {
+    executor = new SyncConsumerExecutor(0);
+    final AtomicInteger calls = new AtomicInteger();
+    ISyncConsumer failing = new StepConsumer(10) {
+      @Override
+      public long go(long currentSimTime, long until, ISyncParameter scs) {
+        calls.incrementAndGet();
+        throw new IllegalStateException("first");
+      }
+    };
+    ISyncConsumer alsoFailing = new StepConsumer(20) {
+      @Override
+      public long go(long currentSimTime, long until, ISyncParameter scs) {
+        calls.incrementAndGet();
+        throw new IllegalStateException("second");
+      }
+    };
+    ISyncConsumer working = new StepConsumer(30) {
+      @Override
+      public long go(long currentSimTime, long until, ISyncParameter scs) {
+        calls.incrementAndGet();
+        return super.go(currentSimTime, until, scs);
+      }
+    };
+
+    try {
+      executor.execute(Arrays.asList(failing, alsoFailing, working), "go",
+          consumer -> consumer.go(0, 5, null));
+      fail("Exception of the consumer expected.");
+    } catch (IllegalStateException ex) {
+      assertEquals("first", ex.getMessage());
+    }
+    assertEquals(3, calls.get());
+    assertEquals(3, executor.getDurations().size());
+  }
+
+  private static boolean awaitOther(CountDownLatch latch) {
+    latch.countDown();
+    try {
+      return latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      return false;
+    }
+  }
+
+  private static class StepConsumer implements ISyncConsumer {
+
+    private final long nextTime;
+
+    StepConsumer(long nextTime) {
+      this.nextTime = nextTime;
+    }
+
+    @Override
+    public boolean init(ISyncParameter scs) {
+      return true;
+    }
+
+    @Override
+    public long go(long currentSimTime, long until, ISyncParameter scs) {
+      return nextTime;
+    }
+
+    @Override
+    public boolean stop(ISyncParameter scs) {
+      return true;
+    }
+  }
+}
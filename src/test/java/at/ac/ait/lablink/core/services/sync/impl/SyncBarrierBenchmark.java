@@ -0,0 +1,123 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.impl;
+
+import at.ac.ait.lablink.core.service.sync.SyncParticipant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Benchmark of the participant barrier of the sync host.
+ *
+ * <p>The benchmark measures the maximum number of barrier generations per second with in-process
+ * participants. Every step resets the participant barrier, signals the step to the reply threads
+ * and waits until all participants arrived. The reply threads take the role of the callback
+ * threads of the connection. The requests and replies of the host aren't part of the benchmark,
+ * see {@link SyncHostStepBenchmark} for the step loop of the host.
+ *
+ * <p>It isn't executed with the unit tests. Run the main method with the optional arguments
+ * {@code [participants] [replyThreads] [durationMs]} (defaults: 1000, number of processors,
+ * 5000).
+ */
+public class SyncBarrierBenchmark {
+
+  private final SyncParticipantBarrier barrier;
+  private final List<SyncParticipant> participants;
+  private volatile long step = 0;
+  private volatile boolean running = true;
+
+  private SyncBarrierBenchmark(int numberOfParticipants) {
+    participants = new ArrayList<SyncParticipant>();
+    for (int i = 0; i < numberOfParticipants; i++) {
+      participants.add(new SyncParticipant("benchmark", "client" + i));
+    }
+    barrier = new SyncParticipantBarrier(participants);
+  }
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args optional arguments: participants, reply threads and duration in milliseconds
+   * @throws InterruptedException if the benchmark is interrupted.
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int numberOfParticipants = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int numberOfThreads =
+        args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    long durationMs = args.length > 2 ? Long.parseLong(args[2]) : 5000;
+
+    SyncBarrierBenchmark benchmark = new SyncBarrierBenchmark(numberOfParticipants);
+
+    // warm up
+    benchmark.run(numberOfThreads, durationMs / 5);
+    benchmark = new SyncBarrierBenchmark(numberOfParticipants);
+    long steps = benchmark.run(numberOfThreads, durationMs);
+
+    System.out.printf("%d participants, %d reply threads: %d steps in %d ms (%.0f steps/s, "
+            + "%.1f us/step)%n", numberOfParticipants, numberOfThreads, steps, durationMs,
+        steps * 1000.0 / durationMs, durationMs * 1000.0 / steps);
+  }
+
+  private long run(int numberOfThreads, long durationMs) throws InterruptedException {
+    Thread[] threads = new Thread[numberOfThreads];
+    for (int t = 0; t < numberOfThreads; t++) {
+      threads[t] = new Thread(new ReplyRunner(t, numberOfThreads), "ReplyRunner-" + t);
+      threads[t].setDaemon(true);
+      threads[t].start();
+    }
+
+    long steps = 0;
+    final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMs);
+    while (System.nanoTime() < end) {
+      barrier.reset();
+      step++;
+      for (Thread thread : threads) {
+        LockSupport.unpark(thread);
+      }
+      if (!barrier.await(10000)) {
+        throw new IllegalStateException("Participants didn't arrive at step " + step);
+      }
+      steps++;
+    }
+
+    running = false;
+    for (Thread thread : threads) {
+      LockSupport.unpark(thread);
+      thread.join();
+    }
+    return steps;
+  }
+
+  private class ReplyRunner implements Runnable {
+
+    private final int offset;
+    private final int stride;
+
+    ReplyRunner(int offset, int stride) {
+      this.offset = offset;
+      this.stride = stride;
+    }
+
+    @Override
+    public void run() {
+      long handledStep = 0;
+      while (running) {
+        long currentStep = step;
+        if (currentStep == handledStep) {
+          LockSupport.park(this);
+          continue;
+        }
+        for (int i = offset; i < participants.size(); i += stride) {
+          barrier.arrive(participants.get(i));
+        }
+        handledStep = currentStep;
+      }
+    }
+  }
+}
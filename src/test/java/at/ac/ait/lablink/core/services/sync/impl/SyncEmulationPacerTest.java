@@ -0,0 +1,100 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for class SyncEmulationPacer.
+ */
+public class SyncEmulationPacerTest {
+
+  @Test
+  public void awaitNextStep_absoluteDeadlines() throws Exception {
+    SyncEmulationPacer pacer = new SyncEmulationPacer(TimeUnit.MICROSECONDS.toNanos(200));
+    long start = System.nanoTime();
+    pacer.start();
+
+    for (int i = 0; i < 20; i++) {
+      pacer.awaitNextStep(2);
+    }
+
+    long elapsed = System.nanoTime() - start;
+    assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(40));
+    assertEquals(20, pacer.getStepCount());
+    assertEquals(20, sum(pacer.getLatenessHistogram()));
+  }
+
+  @Test
+  public void awaitNextStep_missedDeadline() throws Exception {
+    SyncEmulationPacer pacer = new SyncEmulationPacer(0);
+    pacer.start();
+
+    Thread.sleep(10);
+    assertTrue(pacer.awaitNextStep(1) >= TimeUnit.MILLISECONDS.toNanos(9));
+    assertEquals(1, pacer.getMissedDeadlines());
+    assertTrue(pacer.getMaxLatenessNanos() >= TimeUnit.MILLISECONDS.toNanos(9));
+
+    // catch up with the following deadline
+    pacer.awaitNextStep(20);
+    assertEquals(1, pacer.getMissedDeadlines());
+    assertEquals(2, pacer.getStepCount());
+  }
+
+  @Test
+  public void awaitNextStep_longStall_reanchorsDeadlines() throws Exception {
+    SyncEmulationPacer pacer = new SyncEmulationPacer(0, 2);
+    pacer.start();
+
+    Thread.sleep(50);
+    assertTrue(pacer.awaitNextStep(5) >= 0);
+    assertEquals(1, pacer.getMissedDeadlines());
+    assertTrue(pacer.getSkippedDeadlines() >= 8);
+
+    // the following step waits for its full step size instead of catching up
+    long start = System.nanoTime();
+    assertTrue(pacer.awaitNextStep(5) >= 0);
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(4));
+    assertEquals(1, pacer.getMissedDeadlines());
+  }
+
+  @Test
+  public void awaitNextStep_shortStall_catchesUp() throws Exception {
+    SyncEmulationPacer pacer = new SyncEmulationPacer(0, 100);
+    pacer.start();
+
+    Thread.sleep(30);
+    pacer.awaitNextStep(10);
+    pacer.awaitNextStep(10);
+
+    assertEquals(2, pacer.getMissedDeadlines());
+    assertEquals(0, pacer.getSkippedDeadlines());
+  }
+
+  @Test
+  public void getHistogramBucket_logarithmicBuckets() {
+    assertEquals(0, SyncEmulationPacer.getHistogramBucket(500));
+    assertEquals(1, SyncEmulationPacer.getHistogramBucket(1500));
+    assertEquals(2, SyncEmulationPacer.getHistogramBucket(3000));
+    assertEquals(10, SyncEmulationPacer.getHistogramBucket(TimeUnit.MILLISECONDS.toNanos(1)));
+    assertEquals(SyncEmulationPacer.HISTOGRAM_BUCKETS - 1,
+        SyncEmulationPacer.getHistogramBucket(TimeUnit.SECONDS.toNanos(10)));
+    assertTrue(1000 < SyncEmulationPacer.getHistogramBucketLimit(10));
+  }
+
+  private static long sum(long[] values) {
+    long sum = 0;
+    for (long value : values) {
+      sum += value;
+    }
+    return sum;
+  }
+}
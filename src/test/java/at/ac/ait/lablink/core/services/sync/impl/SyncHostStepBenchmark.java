@@ -0,0 +1,286 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import at.ac.ait.lablink.core.connection.ClientIdentifier;
+import at.ac.ait.lablink.core.connection.ILlConnection;
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.connection.rpc.IRpcRequester;
+import at.ac.ait.lablink.core.connection.rpc.RpcHeader;
+import at.ac.ait.lablink.core.connection.rpc.reply.IRpcReplyCallback;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcRequestCallback;
+import at.ac.ait.lablink.core.connection.rpc.request.impl.RpcRequestDispatcher;
+import at.ac.ait.lablink.core.connection.topic.RpcDestination;
+import at.ac.ait.lablink.core.connection.topic.RpcSubject;
+import at.ac.ait.lablink.core.payloads.StatusMessage;
+import at.ac.ait.lablink.core.service.sync.ELlSyncHostState;
+import at.ac.ait.lablink.core.service.sync.SyncParticipant;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncDeliveryMessage;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncGoReply;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncGoRequest;
+import at.ac.ait.lablink.core.utility.Utility;
+
+import org.apache.commons.configuration.BaseConfiguration;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark of the step loop of the sync host.
+ *
+ * <p>The benchmark runs simulations of a {@link SyncHostServiceImpl} with in-process participants
+ * and measures the number of go steps per second. The host uses a stub connection whose
+ * requesters answer every request immediately. The replies are handled by the reply threads,
+ * which take the role of the callback threads of the connection. Every participant replies to a
+ * go request with its next simulation time and the sequence of its delivered messages, so every
+ * step sends the go request with the reported deliveries and handles the replies of all
+ * participants. Encoding and transport aren't part of the benchmark, the result is the ceiling of
+ * the host for a round trip without latency.
+ *
+ * <p>It isn't executed with the unit tests. Run the main method with the optional arguments
+ * {@code [participants] [replyThreads] [simSeconds]} (defaults: 1000, number of processors, 10).
+ * The simulation uses a step size of 1 ms, i.e., every simulated second has 1000 steps.
+ */
+public class SyncHostStepBenchmark {
+
+  private static final long BEGIN_TIME = Utility.dateStrToUnix("01.01.2017 12:00:00");
+
+  private final List<SyncParticipant> participants;
+  private final Map<String, SyncParticipant> participantsByClientId;
+  private final int numberOfThreads;
+  private final ExecutorService replyExecutor;
+  private final AtomicLong packetIds = new AtomicLong();
+  private final SyncHostServiceImpl host;
+  private IRpcRequestCallback registerCallback;
+
+  /* Progress of the current run, written by the thread of the simulation runner */
+  private volatile long goSteps;
+  private volatile long firstGoNanos;
+  private volatile long stopNanos;
+  private volatile CountDownLatch stopped;
+
+  private SyncHostStepBenchmark(int numberOfParticipants, int numberOfThreads,
+                                String scenarioFile) {
+    participants = new ArrayList<SyncParticipant>();
+    participantsByClientId = new HashMap<String, SyncParticipant>();
+    for (int i = 0; i < numberOfParticipants; i++) {
+      SyncParticipant participant = new SyncParticipant("benchmark", "client" + i);
+      participants.add(participant);
+      participantsByClientId.put(participant.getClientName(), participant);
+    }
+    this.numberOfThreads = numberOfThreads;
+    replyExecutor = Executors.newFixedThreadPool(numberOfThreads, runnable -> {
+      Thread thread = new Thread(runnable, "ReplyRunner");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    ILlConnection connection = mock(ILlConnection.class);
+    when(connection.getClientIdentifier()).thenReturn(
+        new ClientIdentifier(Collections.singletonList("at"), "app", "benchmark", "host"));
+    doAnswer(invocation -> {
+      registerCallback = invocation.getArgument(1);
+      return null;
+    }).when(connection).registerRequestHandler(any(RpcSubject.class),
+        any(IRpcRequestCallback.class));
+    when(connection.registerReplyHandler(any(RpcSubject.class), any(IRpcReplyCallback.class)))
+        .thenAnswer(invocation -> new StubRequester(invocation.getArgument(0),
+            invocation.getArgument(1)));
+
+    BaseConfiguration config = new BaseConfiguration();
+    config.setProperty("syncHost.syncScenarioFile.benchmark", scenarioFile);
+    config.setProperty("syncHost.helloInterval", 100);
+    config.setProperty("syncHost.syncRequestTimeout", 10000);
+    host = new SyncHostServiceImpl(connection, config);
+    host.setSyncHostNotifier(state -> {
+      if (state == ELlSyncHostState.STOPPED || state == ELlSyncHostState.ERROR) {
+        stopped.countDown();
+      }
+    });
+  }
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args optional arguments: participants, reply threads and simulated seconds
+   * @throws Exception if the benchmark fails.
+   */
+  public static void main(String[] args) throws Exception {
+    int numberOfParticipants = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int numberOfThreads =
+        args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    int simSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+    File warmUpFile = writeScenario(1);
+    File scenarioFile = writeScenario(simSeconds);
+    try {
+      // warm up
+      new SyncHostStepBenchmark(numberOfParticipants, numberOfThreads,
+          warmUpFile.getAbsolutePath()).run();
+      SyncHostStepBenchmark benchmark = new SyncHostStepBenchmark(numberOfParticipants,
+          numberOfThreads, scenarioFile.getAbsolutePath());
+      benchmark.run();
+
+      double durationMs = (benchmark.stopNanos - benchmark.firstGoNanos) / 1e6;
+      System.out.printf("%d participants, %d reply threads: %d steps in %.0f ms (%.0f steps/s, "
+              + "%.1f us/step)%n", numberOfParticipants, numberOfThreads, benchmark.goSteps,
+          durationMs, benchmark.goSteps * 1000.0 / durationMs,
+          durationMs * 1000.0 / benchmark.goSteps);
+    } finally {
+      warmUpFile.delete();
+      scenarioFile.delete();
+    }
+    // the executor of the sync host isn't a daemon thread
+    System.exit(0);
+  }
+
+  private static File writeScenario(int simSeconds) throws IOException {
+    File file = File.createTempFile("syncBenchmark", ".json");
+    try (Writer writer = new FileWriter(file)) {
+      writer.write("{\"syncParams\":{\"simMode\":\"SIM\",\"simStepSize_ms\":1,"
+          + "\"simBeginTime\":\"" + Utility.unixToDateStr(BEGIN_TIME) + "\","
+          + "\"simEndTime\":\"" + Utility.unixToDateStr(BEGIN_TIME + simSeconds * 1000L)
+          + "\"},\"requiredClients\":[]}");
+    }
+    return file;
+  }
+
+  private void run() throws InterruptedException {
+    stopped = new CountDownLatch(1);
+    goSteps = 0;
+    host.init("benchmark");
+    host.start();
+    for (SyncParticipant participant : participants) {
+      registerCallback.handleRequest(createHeader(participant, "register"),
+          Collections.<IPayload>singletonList(new StatusMessage(StatusMessage.StatusCode.OK)));
+    }
+    if (!stopped.await(10, TimeUnit.MINUTES)) {
+      throw new IllegalStateException("Simulation didn't finish.");
+    }
+  }
+
+  private static RpcHeader createHeader(SyncParticipant participant, String packetId) {
+    return new RpcHeader("app", participant.getGroupName(), participant.getClientName(),
+        Collections.singletonList("sync"), System.currentTimeMillis(), "benchmark", "host",
+        packetId);
+  }
+
+  /* Reply of a participant to a request of the host */
+  private List<IPayload> createReply(SyncParticipant participant, IPayload request, long step) {
+    if (request instanceof SyncGoRequest) {
+      return Arrays.<IPayload>asList(new SyncGoReply(((SyncGoRequest) request).getSimUntil()),
+          new SyncDeliveryMessage(participant, step));
+    }
+    return Collections.<IPayload>singletonList(new StatusMessage(StatusMessage.StatusCode.OK));
+  }
+
+  /**
+   * Requester of the stub connection. A request is answered by the reply threads: a broadcast by
+   * all of them, each for its share of the participants.
+   */
+  private class StubRequester implements IRpcRequester {
+
+    private final RpcSubject subject;
+    private final IRpcReplyCallback callback;
+    private final boolean stopRequester;
+
+    StubRequester(RpcSubject subject, IRpcReplyCallback callback) {
+      this.subject = subject;
+      this.callback = callback;
+      this.stopRequester = subject.getSubject().contains("stop");
+    }
+
+    @Override
+    public String sendRequest(RpcDestination destination, IPayload payload) {
+      return sendRequest(destination, Collections.singletonList(payload));
+    }
+
+    @Override
+    public String sendRequest(RpcDestination destination, IPayload payload, int noOfReturns) {
+      return sendRequest(destination, Collections.singletonList(payload), noOfReturns);
+    }
+
+    @Override
+    public String sendRequest(RpcDestination destination, IPayload payload, int noOfReturns,
+                              long timeoutInMs) {
+      return sendRequest(destination, Collections.singletonList(payload), noOfReturns,
+          timeoutInMs);
+    }
+
+    @Override
+    public String sendRequest(RpcDestination destination, List<IPayload> payloads) {
+      return sendRequest(destination, payloads, 1);
+    }
+
+    @Override
+    public String sendRequest(RpcDestination destination, List<IPayload> payloads,
+                              int noOfReturns) {
+      return sendRequest(destination, payloads, noOfReturns, 30000);
+    }
+
+    @Override
+    public String sendRequest(RpcDestination destination, List<IPayload> payloads,
+                              int noOfReturns, long timeoutInMs) {
+      final String packetId = Long.toString(packetIds.incrementAndGet());
+      final IPayload request = payloads.get(0);
+      final long step;
+      if (request instanceof SyncGoRequest) {
+        if (goSteps == 0) {
+          firstGoNanos = System.nanoTime();
+        }
+        step = ++goSteps;
+      } else {
+        if (stopRequester) {
+          stopNanos = System.nanoTime();
+        }
+        step = goSteps;
+      }
+
+      if (!RpcRequestDispatcher.RPC_REQUEST_ANY_ELEMENT.equals(destination.getClientId())) {
+        final SyncParticipant participant =
+            participantsByClientId.get(destination.getClientId());
+        replyExecutor.execute(() -> callback.handleReply(createHeader(participant, packetId),
+            createReply(participant, request, step)));
+        return packetId;
+      }
+
+      for (int t = 0; t < numberOfThreads; t++) {
+        final int offset = t;
+        replyExecutor.execute(() -> {
+          for (int i = offset; i < participants.size(); i += numberOfThreads) {
+            SyncParticipant participant = participants.get(i);
+            callback.handleReply(createHeader(participant, packetId),
+                createReply(participant, request, step));
+          }
+        });
+      }
+      return packetId;
+    }
+
+    @Override
+    public RpcSubject getSubject() {
+      return subject;
+    }
+  }
+}
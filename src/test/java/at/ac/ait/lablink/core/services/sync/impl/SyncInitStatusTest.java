@@ -0,0 +1,62 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import at.ac.ait.lablink.core.service.sync.SyncParticipant;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Unit tests for class SyncInitStatus.
+ */
+public class SyncInitStatusTest {
+
+  private SyncParticipantBarrier barrier;
+  private SyncInitStatus status;
+
+  private final SyncParticipant client1 = new SyncParticipant("group", "client1");
+  private final SyncParticipant client2 = new SyncParticipant("group", "client2");
+  private final SyncParticipant client3 = new SyncParticipant("group", "client3");
+
+  @Before
+  public void setUp() {
+    barrier = new SyncParticipantBarrier(Arrays.asList(client1, client2, client3));
+    status = new SyncInitStatus(barrier);
+    barrier.reset();
+  }
+
+  @Test
+  public void setFailed_firstReasonIsKept() {
+    assertTrue(status.setFailed(client2, "error"));
+    assertTrue(status.setFailed(client2, "timeout"));
+    assertFalse(status.setFailed(new SyncParticipant("group", "unknown"), "error"));
+
+    Map<SyncParticipant, String> failures = status.getFailures();
+    assertEquals(1, failures.size());
+    assertEquals("error", failures.get(client2));
+  }
+
+  @Test
+  public void setPendingFailed_onlyMissingRepliesFail() {
+    barrier.arrive(client1);
+    barrier.arrive(client2);
+    assertFalse(status.hasFailures());
+
+    status.setPendingFailed("no reply");
+
+    assertTrue(status.hasFailures());
+    assertEquals(1, status.getFailures().size());
+    assertEquals("no reply", status.getFailures().get(client3));
+  }
+}
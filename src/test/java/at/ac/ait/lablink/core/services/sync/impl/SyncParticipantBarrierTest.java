@@ -0,0 +1,121 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import at.ac.ait.lablink.core.service.sync.SyncParticipant;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Unit tests for class SyncParticipantBarrier.
+ */
+public class SyncParticipantBarrierTest {
+
+  private SyncParticipantBarrier barrier;
+
+  @Before
+  public void setUp() {
+    barrier = new SyncParticipantBarrier(Arrays.asList(new SyncParticipant("group", "client1"),
+        new SyncParticipant("group", "client2")));
+  }
+
+  @Test
+  public void arrive_allParticipants_barrierPassed() throws InterruptedException {
+    barrier.reset();
+    assertFalse(barrier.await(0));
+
+    assertTrue(barrier.arrive(new SyncParticipant("group", "client1")));
+    assertTrue(barrier.arrive(new SyncParticipant("group", "client2")));
+
+    assertEquals(0, barrier.getPending());
+    assertTrue(barrier.await(0));
+  }
+
+  @Test
+  public void arrive_duplicatedOrUnknown_ignored() {
+    barrier.reset();
+
+    assertTrue(barrier.arrive(new SyncParticipant("group", "client1")));
+    assertFalse(barrier.arrive(new SyncParticipant("group", "client1")));
+    assertFalse(barrier.arrive(new SyncParticipant("group", "unknown")));
+
+    assertEquals(1, barrier.getPending());
+    int index = barrier.indexOf(new SyncParticipant("group", "client1"));
+    assertTrue(barrier.hasArrived(index));
+    assertFalse(barrier.hasArrived(1 - index));
+  }
+
+  @Test
+  public void reset_newGeneration_noParticipantArrived() {
+    barrier.reset();
+    barrier.arrive(0);
+    barrier.arrive(1);
+
+    barrier.reset();
+
+    assertEquals(2, barrier.getPending());
+    assertFalse(barrier.hasArrived(0));
+    assertTrue(barrier.arrive(0));
+  }
+
+  @Test
+  public void await_arrivalFromOtherThread_wakesWaiter() throws InterruptedException {
+    barrier.reset();
+    barrier.arrive(0);
+
+    Thread participant = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          Thread.sleep(50);
+        } catch (InterruptedException ex) {
+          return;
+        }
+        barrier.arrive(1);
+      }
+    });
+    participant.start();
+
+    assertTrue(barrier.await(10000));
+    participant.join();
+  }
+
+  @Test
+  public void reset_concurrentLateArrival_pendingCountStaysConsistent()
+      throws InterruptedException {
+    final AtomicBoolean running = new AtomicBoolean(true);
+    Thread lateParticipant = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        while (running.get()) {
+          barrier.arrive(0);
+        }
+      }
+    });
+    lateParticipant.start();
+
+    try {
+      for (int i = 0; i < 100000; i++) {
+        barrier.reset();
+        int pending = barrier.getPending();
+        int arrived = (barrier.hasArrived(0) ? 1 : 0) + (barrier.hasArrived(1) ? 1 : 0);
+        assertTrue("Pending count decremented by an arrival of an old generation",
+            pending >= barrier.size() - arrived);
+      }
+    } finally {
+      running.set(false);
+      lateParticipant.join();
+    }
+  }
+}
@@ -0,0 +1,103 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import at.ac.ait.lablink.core.service.sync.SyncConfig;
+import at.ac.ait.lablink.core.service.sync.SyncParticipant;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Unit tests for class SyncParticipantSchedule.
+ */
+public class SyncParticipantScheduleTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private SyncParticipantSchedule schedule;
+  private int fast;
+  private int slow;
+  private long begin;
+
+  @Before
+  public void setUp() throws Exception {
+    File file = folder.newFile("sync.json");
+    try (Writer writer = new FileWriter(file)) {
+      writer.write("{\"syncParams\":{\"simMode\":\"SIM\",\"simStepSize_ms\":1},"
+          + "\"requiredClients\":[{\"clientGroup\":\"group\",\"clientId\":\"fast\"},"
+          + "{\"clientGroup\":\"group\",\"clientId\":\"slow\",\"stepSize_ms\":3}]}");
+    }
+    SyncConfig config = SyncConfig.readSyncConfigFromFile(file.getAbsolutePath());
+    begin = config.getSimBeginTime();
+
+    SyncParticipantBarrier barrier = new SyncParticipantBarrier(Arrays.asList(
+        new SyncParticipant("group", "fast"), new SyncParticipant("group", "slow")));
+    fast = barrier.indexOf(new SyncParticipant("group", "fast"));
+    slow = barrier.indexOf(new SyncParticipant("group", "slow"));
+    schedule = new SyncParticipantSchedule(barrier, config);
+  }
+
+  @Test
+  public void selectDueParticipants_slowParticipantSkipsSteps() {
+    // first step: both due with different step ends
+    assertEquals(2, schedule.selectDueParticipants(begin, begin + 1));
+    assertFalse(schedule.isUniformStep());
+    assertEquals(begin + 1, schedule.getUntil(fast));
+    assertEquals(begin + 3, schedule.getUntil(slow));
+
+    // slow participant skips the next two steps
+    for (long time = begin + 1; time < begin + 3; time++) {
+      assertEquals(1, schedule.selectDueParticipants(time, time + 1));
+      assertTrue(schedule.isDue(fast));
+      assertFalse(schedule.isDue(slow));
+    }
+
+    assertEquals(2, schedule.selectDueParticipants(begin + 3, begin + 4));
+    assertTrue(schedule.isDue(slow));
+  }
+
+  @Test
+  public void getEarliestDueTime_pendingParticipant() {
+    schedule.selectDueParticipants(begin, begin + 1);
+
+    assertEquals(begin + 3, schedule.getEarliestDueTime(begin + 1));
+    assertEquals(Long.MAX_VALUE, schedule.getEarliestDueTime(begin + 3));
+  }
+
+  @Test
+  public void getDestination_targetedParticipant() {
+    assertEquals("slow", schedule.getDestination(slow).getClientId());
+    assertTrue(schedule.isDueEveryStep(fast));
+    assertFalse(schedule.isDueEveryStep(slow));
+  }
+
+  @Test
+  public void takeParameterUpdate_oncePerVersion() {
+    assertFalse(schedule.hasPendingParameterUpdate(0));
+    assertTrue(schedule.hasPendingParameterUpdate(1));
+
+    assertTrue(schedule.takeParameterUpdate(slow, 1));
+    assertFalse(schedule.takeParameterUpdate(slow, 1));
+    assertTrue(schedule.hasPendingParameterUpdate(1));
+
+    schedule.setParameterVersion(1);
+    assertFalse(schedule.hasPendingParameterUpdate(1));
+    assertEquals(3, schedule.getStepSize(slow));
+  }
+}
@@ -0,0 +1,92 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.payloads.ErrorMessage;
+import at.ac.ait.lablink.core.payloads.StatusMessage;
+import at.ac.ait.lablink.core.service.sync.SyncParticipant;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncDeliveryMessage;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncGoReply;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for class SyncRelayReplies.
+ */
+public class SyncRelayRepliesTest {
+
+  private final SyncParticipant client1 = new SyncParticipant("group", "client1");
+  private final SyncParticipant client2 = new SyncParticipant("group", "client2");
+
+  private SyncRelayReplies replies;
+
+  @Before
+  public void setUp() {
+    replies = new SyncRelayReplies();
+    replies.reset();
+  }
+
+  @Test
+  public void createGoReply_combinesReplies() {
+    replies.addReply(Arrays.asList(new SyncGoReply(2000, 0),
+        new SyncDeliveryMessage(client1, 5)));
+    replies.addReply(Arrays.asList(new SyncGoReply(1500, 100),
+        new SyncDeliveryMessage(client2, 7)));
+
+    List<IPayload> reply = replies.createGoReply(3000);
+
+    assertEquals(2, reply.size());
+    assertEquals(1500, ((SyncGoReply) reply.get(0)).getNextSimTime());
+    assertEquals(100, ((SyncGoReply) reply.get(0)).getRequestedStepSize());
+    assertEquals(Long.valueOf(5),
+        ((SyncDeliveryMessage) reply.get(1)).getSequences().get(client1));
+    assertEquals(Long.valueOf(7),
+        ((SyncDeliveryMessage) reply.get(1)).getSequences().get(client2));
+  }
+
+  @Test
+  public void createGoReply_defaultWithoutReplies() {
+    List<IPayload> reply = replies.createGoReply(3000);
+
+    assertEquals(1, reply.size());
+    assertEquals(3000, ((SyncGoReply) reply.get(0)).getNextSimTime());
+    assertEquals(0, ((SyncGoReply) reply.get(0)).getRequestedStepSize());
+  }
+
+  @Test
+  public void createStatusReply_failedParticipant() {
+    replies.addReply(Collections.singletonList(
+        (IPayload) new StatusMessage(StatusMessage.StatusCode.OK)));
+    replies.addReply(Collections.singletonList(
+        (IPayload) new StatusMessage(StatusMessage.StatusCode.NOK)));
+
+    assertEquals(StatusMessage.StatusCode.NOK,
+        ((StatusMessage) replies.createStatusReply().get(0)).getStatusCode());
+
+    replies.reset();
+    assertEquals(StatusMessage.StatusCode.OK,
+        ((StatusMessage) replies.createStatusReply().get(0)).getStatusCode());
+  }
+
+  @Test
+  public void createStatusReply_forwardsErrors() {
+    replies.addErrors(client1, Collections.singletonList(
+        new ErrorMessage(ErrorMessage.EErrorCode.SYNC_ERROR, "failed")));
+
+    List<IPayload> reply = replies.createStatusReply();
+    assertTrue(reply.get(0) instanceof ErrorMessage);
+    assertTrue(replies.createGoReply(3000).get(0) instanceof ErrorMessage);
+  }
+}
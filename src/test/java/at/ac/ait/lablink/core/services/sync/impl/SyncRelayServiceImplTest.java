@@ -0,0 +1,227 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import at.ac.ait.lablink.core.connection.ILlConnection;
+import at.ac.ait.lablink.core.connection.encoding.encodables.IPayload;
+import at.ac.ait.lablink.core.connection.messaging.IMessageCallback;
+import at.ac.ait.lablink.core.connection.messaging.MsgHeader;
+import at.ac.ait.lablink.core.connection.rpc.IRpcRequester;
+import at.ac.ait.lablink.core.connection.rpc.RpcHeader;
+import at.ac.ait.lablink.core.connection.rpc.reply.IRpcReplyCallback;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcAsyncRequestCallback;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcReplySender;
+import at.ac.ait.lablink.core.connection.rpc.request.IRpcRequestCallback;
+import at.ac.ait.lablink.core.connection.topic.MsgSubscription;
+import at.ac.ait.lablink.core.connection.topic.RpcDestination;
+import at.ac.ait.lablink.core.connection.topic.RpcSubject;
+import at.ac.ait.lablink.core.payloads.ErrorMessage;
+import at.ac.ait.lablink.core.payloads.StatusMessage;
+import at.ac.ait.lablink.core.service.sync.ELlSimulationMode;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncClientConfigMessage;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncGoReply;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncGoRequest;
+import at.ac.ait.lablink.core.service.sync.payloads.SyncParamMessage;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for the forwarding of class SyncRelayServiceImpl.
+ */
+public class SyncRelayServiceImplTest {
+
+  private ILlConnection connection;
+  private IRpcRequester initRequester;
+  private IRpcRequester goRequester;
+  private SyncRelayServiceImpl relay;
+
+  /**
+   * Set up a relay with a mocked connection and a registered participant.
+   */
+  @Before
+  public void setUp() throws Exception {
+    connection = mock(ILlConnection.class);
+    initRequester = mock(IRpcRequester.class);
+    goRequester = mock(IRpcRequester.class);
+    when(connection.registerReplyHandler(any(RpcSubject.class), any(IRpcReplyCallback.class)))
+        .thenReturn(initRequester, goRequester, mock(IRpcRequester.class),
+            mock(IRpcRequester.class));
+    when(initRequester.sendRequest(any(RpcDestination.class), anyList(), anyInt(), anyLong()))
+        .thenReturn("init-1");
+    when(goRequester.sendRequest(any(RpcDestination.class), anyList(), anyInt(), anyLong()))
+        .thenReturn("go-1", "go-2");
+
+    BaseConfiguration config = new BaseConfiguration();
+    config.setProperty("syncRelay.domain", "domain");
+    config.setProperty("syncRelay.syncRequestTimeout", 200);
+    config.setProperty("syncRelay.registeringTimeout", 150);
+    relay = new SyncRelayServiceImpl(connection, config);
+
+    // participant and parent host register at the relay
+    getRequestCallback(0).handleRequest(createHeader("client", "register"),
+        Collections.<IPayload>singletonList(new StatusMessage(StatusMessage.StatusCode.OK)));
+    getMessageCallback(0).handleMessage(
+        new MsgHeader("app", "group", "host", Arrays.asList("sync", "hello"), 0),
+        Collections.<IPayload>emptyList());
+    getReplyCallback(3).handleReply(createHeader("host", "register"),
+        Collections.<IPayload>singletonList(new StatusMessage(StatusMessage.StatusCode.OK)));
+  }
+
+  @After
+  public void tearDown() {
+    relay.shutdown();
+  }
+
+  @Test
+  public void initRequest_forwardedByRelayThread() throws Exception {
+    IRpcReplySender sender = mock(IRpcReplySender.class);
+    getParentCallback(1).handleRequest(createHeader("host", "init"), createInitPayloads(),
+        sender);
+
+    // the callback returns before the participant replied
+    verify(initRequester, timeout(1000))
+        .sendRequest(any(RpcDestination.class), anyList(), anyInt(), anyLong());
+    verify(sender, never()).sendReply(anyList());
+
+    getReplyCallback(0).handleReply(createHeader("client", "init-1"),
+        Collections.<IPayload>singletonList(new StatusMessage(StatusMessage.StatusCode.OK)));
+
+    StatusMessage status = (StatusMessage) awaitReply(sender).get(0);
+    assertEquals(StatusMessage.StatusCode.OK, status.getStatusCode());
+  }
+
+  @Test
+  public void initRequest_requiredClientMissing_repliesWithinRequestTimeout() throws Exception {
+    IRpcReplySender sender = mock(IRpcReplySender.class);
+    getParentCallback(1).handleRequest(createHeader("host", "init"), Arrays.<IPayload>asList(
+        new SyncParamMessage("scenario", ELlSimulationMode.SIMULATION, 0, 10000, 1, 1000),
+        new SyncClientConfigMessage("{\"requiredClients\":[{\"clientId\":\"late\","
+            + "\"clientGroup\":\"group\",\"Parameter\":{}}]}")), sender);
+
+    // the registering wait is part of the request timeout
+    ArgumentCaptor<Long> timeout = ArgumentCaptor.forClass(Long.class);
+    verify(initRequester, timeout(1000))
+        .sendRequest(any(RpcDestination.class), anyList(), anyInt(), timeout.capture());
+    assertTrue(timeout.getValue() <= 200 - 150);
+
+    getReplyCallback(0).handleReply(createHeader("client", "init-1"),
+        Collections.<IPayload>singletonList(new StatusMessage(StatusMessage.StatusCode.OK)));
+    StatusMessage status = (StatusMessage) awaitReply(sender).get(0);
+    assertEquals(StatusMessage.StatusCode.NOK, status.getStatusCode());
+  }
+
+  @Test
+  public void goRequest_lateReplyOfPreviousStep_ignored() throws Exception {
+    initSimulation();
+
+    // the participant misses the first step
+    IRpcReplySender first = mock(IRpcReplySender.class);
+    getParentCallback(2).handleRequest(createHeader("host", "go"),
+        Collections.<IPayload>singletonList(new SyncGoRequest(0, 1000)), first);
+    assertEquals(2000, ((SyncGoReply) awaitReply(first).get(0)).getNextSimTime());
+
+    IRpcReplySender second = mock(IRpcReplySender.class);
+    getParentCallback(2).handleRequest(createHeader("host", "go"),
+        Collections.<IPayload>singletonList(new SyncGoRequest(1000, 2000)), second);
+    verify(goRequester, timeout(1000).times(2))
+        .sendRequest(any(RpcDestination.class), anyList(), anyInt(), anyLong());
+
+    getReplyCallback(1).handleReply(createHeader("client", "go-1"),
+        Collections.<IPayload>singletonList(new SyncGoReply(1500)));
+    getReplyCallback(1).handleReply(createHeader("client", "go-2"),
+        Collections.<IPayload>singletonList(new SyncGoReply(2500)));
+
+    assertEquals(2500, ((SyncGoReply) awaitReply(second).get(0)).getNextSimTime());
+  }
+
+  @Test
+  public void goRequest_wrongHost_errorReplied() throws Exception {
+    IRpcReplySender sender = mock(IRpcReplySender.class);
+    getParentCallback(2).handleRequest(createHeader("other", "go"),
+        Collections.<IPayload>singletonList(new SyncGoRequest(0, 1000)), sender);
+
+    assertEquals(ErrorMessage.EErrorCode.SYNC_ERROR,
+        ((ErrorMessage) awaitReply(sender).get(0)).getErrorCode());
+    verify(goRequester, never())
+        .sendRequest(any(RpcDestination.class), anyList(), anyInt(), anyLong());
+  }
+
+  private void initSimulation() throws Exception {
+    IRpcReplySender sender = mock(IRpcReplySender.class);
+    getParentCallback(1).handleRequest(createHeader("host", "init"), createInitPayloads(),
+        sender);
+    verify(initRequester, timeout(1000))
+        .sendRequest(any(RpcDestination.class), anyList(), anyInt(), anyLong());
+    getReplyCallback(0).handleReply(createHeader("client", "init-1"),
+        Collections.<IPayload>singletonList(new StatusMessage(StatusMessage.StatusCode.OK)));
+    awaitReply(sender);
+  }
+
+  private static List<IPayload> createInitPayloads() {
+    return Arrays.<IPayload>asList(
+        new SyncParamMessage("scenario", ELlSimulationMode.SIMULATION, 0, 10000, 1, 1000),
+        new SyncClientConfigMessage("{}"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<IPayload> awaitReply(IRpcReplySender sender) {
+    ArgumentCaptor<List> reply = ArgumentCaptor.forClass(List.class);
+    verify(sender, timeout(1000)).sendReply(reply.capture());
+    return reply.getValue();
+  }
+
+  private IRpcRequestCallback getRequestCallback(int index) {
+    ArgumentCaptor<IRpcRequestCallback> callbacks =
+        ArgumentCaptor.forClass(IRpcRequestCallback.class);
+    verify(connection, times(4))
+        .registerRequestHandler(any(RpcSubject.class), callbacks.capture());
+    return callbacks.getAllValues().get(index);
+  }
+
+  private IRpcAsyncRequestCallback getParentCallback(int index) {
+    return (IRpcAsyncRequestCallback) getRequestCallback(index);
+  }
+
+  private IRpcReplyCallback getReplyCallback(int index) {
+    ArgumentCaptor<IRpcReplyCallback> callbacks = ArgumentCaptor.forClass(IRpcReplyCallback.class);
+    verify(connection, times(4))
+        .registerReplyHandler(any(RpcSubject.class), callbacks.capture());
+    return callbacks.getAllValues().get(index);
+  }
+
+  private IMessageCallback getMessageCallback(int index) {
+    ArgumentCaptor<IMessageCallback> callbacks = ArgumentCaptor.forClass(IMessageCallback.class);
+    verify(connection, times(2))
+        .registerMessageHandler(any(MsgSubscription.class), callbacks.capture());
+    return callbacks.getAllValues().get(index);
+  }
+
+  private static RpcHeader createHeader(String sourceClient, String packetId) {
+    return new RpcHeader("app", "group", sourceClient, Arrays.asList("sync"), 0, "group",
+        "relay", packetId);
+  }
+}
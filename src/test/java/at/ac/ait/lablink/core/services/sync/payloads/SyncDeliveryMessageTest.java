@@ -0,0 +1,41 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.service.sync.payloads;
+
+import static org.junit.Assert.assertEquals;
+
+import at.ac.ait.lablink.core.connection.encoding.encodables.PayloadBaseTest;
+import at.ac.ait.lablink.core.service.sync.SyncParticipant;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Unit Tests for SyncDeliveryMessage.
+ */
+public class SyncDeliveryMessageTest extends PayloadBaseTest {
+
+  @Before
+  public void setUp() throws Exception {
+    classUnderTest = new SyncDeliveryMessage();
+    expectedName = "SyncDeliveryMessage";
+  }
+
+  @Test
+  public void getSequences_sameAsConstructed() {
+    Map<SyncParticipant, Long> sequences = new LinkedHashMap<SyncParticipant, Long>();
+    sequences.put(new SyncParticipant("group", "client1"), 5L);
+    sequences.put(new SyncParticipant("group", "client2"), 12L);
+
+    SyncDeliveryMessage message = new SyncDeliveryMessage(sequences);
+    message.validate();
+
+    assertEquals(sequences, message.getSequences());
+  }
+}
@@ -0,0 +1,85 @@
+//
+// Copyright (c) AIT Austrian Institute of Technology GmbH.
+// Distributed under the terms of the Modified BSD License.
+//
+
+package at.ac.ait.lablink.core.utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Test;
+
+/**
+ * Unit tests for class StringInternCache.
+ */
+public class StringInternCacheTest {
+
+  @Test
+  public void intern_sameContent_canonicalInstance() {
+    StringInternCache cache = new StringInternCache();
+    String first = new String("client");
+
+    assertSame(first, cache.intern(first));
+    assertSame(first, cache.intern(new String("client")));
+    assertSame(first, cache.intern("my/client/x", 3, 9));
+    assertSame(first, cache.intern("a client".toCharArray(), 2, 6));
+  }
+
+  @Test
+  public void intern_rangeNotCached_newString() {
+    StringInternCache cache = new StringInternCache();
+
+    String value = cache.intern("group/client", 0, 5);
+    assertEquals("group", value);
+    assertSame(value, cache.intern("group".toCharArray(), 0, 5));
+  }
+
+  @Test
+  public void intern_longValue_notCached() {
+    Configuration config = new BaseConfiguration();
+    config.addProperty("encoding.internMaxLength", 4);
+    StringInternCache cache = new StringInternCache(config);
+
+    String value = new String("client");
+    assertSame(value, cache.intern(value));
+    assertNotSame(value, cache.intern(new String("client")));
+    assertSame("abc", cache.intern("abc"));
+  }
+
+  @Test
+  public void intern_disabled() {
+    Configuration config = new BaseConfiguration();
+    config.addProperty("encoding.internCacheSize", 0);
+    StringInternCache cache = new StringInternCache(config);
+
+    assertFalse(cache.isEnabled());
+    String value = new String("client");
+    assertSame(value, cache.intern(value));
+    assertNotSame(value, cache.intern(new String("client")));
+    assertEquals("ien", cache.intern("client", 2, 5));
+  }
+
+  @Test
+  public void intern_bounded_collisionsReplaceSlot() {
+    Configuration config = new BaseConfiguration();
+    config.addProperty("encoding.internCacheSize", 1);
+    StringInternCache cache = new StringInternCache(config);
+
+    String first = cache.intern(new String("a"));
+    String second = cache.intern(new String("b"));
+    assertSame(second, cache.intern(new String("b")));
+    assertNotSame(first, cache.intern(new String("a")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_negativeSize_exception() {
+    Configuration config = new BaseConfiguration();
+    config.addProperty("encoding.internCacheSize", -1);
+    new StringInternCache(config);
+  }
+}